@@ -0,0 +1,21 @@
+package com.chaos.benchmarks;
+
+import com.chaos.stub.StoreApiStub;
+import com.chaos.stub.StubProperties;
+
+final class BenchmarkStubs {
+
+    // Forked benchmark JVMs need it, or the stub's responses wait on delayed ACKs, ~40 ms each
+    static final String NODELAY = "-Dsun.net.httpserver.nodelay=true";
+
+    private BenchmarkStubs() {
+    }
+
+    // Zero service time and no injected errors, so measurements only contain framework overhead
+    static StoreApiStub start(int payloadSize) {
+        StubProperties properties = new StubProperties();
+        properties.setPayloadSize(payloadSize);
+        properties.setSeedProducts(10);
+        return new StoreApiStub(properties);
+    }
+}
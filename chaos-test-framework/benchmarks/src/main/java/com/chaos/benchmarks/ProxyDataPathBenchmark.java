@@ -0,0 +1,94 @@
+package com.chaos.benchmarks;
+
+import com.chaos.proxy.ChaosType;
+import com.chaos.proxy.embedded.EmbeddedProxyEngine;
+import com.chaos.stub.StoreApiStub;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request overhead of the embedded proxy's data path for each toxic, with parameters chosen
+ * so the toxic runs its full code path without adding deliberate delay or failures.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(jvmArgsAppend = BenchmarkStubs.NODELAY)
+public class ProxyDataPathBenchmark {
+
+    private static final String PROXY_NAME = "datapath-proxy";
+
+    @Param({"NONE", "LATENCY", "BANDWIDTH", "PACKET_LOSS", "RESET_PEER", "SLOW_CLOSE"})
+    public String chaosType;
+
+    @Param({"1024", "65536", "1048576"})
+    public int payloadSize;
+
+    private StoreApiStub stub;
+    private EmbeddedProxyEngine engine;
+    private HttpClient httpClient;
+    private HttpRequest direct;
+    private HttpRequest proxied;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        stub = BenchmarkStubs.start(payloadSize);
+        engine = new EmbeddedProxyEngine();
+        String listen = engine.createProxy(PROXY_NAME, "127.0.0.1:0", "127.0.0.1:" + stub.getPort());
+        if (!"NONE".equals(chaosType)) {
+            ChaosType type = ChaosType.valueOf(chaosType);
+            engine.apply(PROXY_NAME, type, neutralParams(type));
+        }
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        direct = HttpRequest.newBuilder(URI.create(stub.getBaseUri() + "/products/1")).build();
+        proxied = HttpRequest.newBuilder(URI.create("http://" + listen + "/products/1")).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        engine.close();
+        stub.close();
+    }
+
+    @Benchmark
+    public byte[] direct() throws IOException, InterruptedException {
+        return httpClient.send(direct, HttpResponse.BodyHandlers.ofByteArray()).body();
+    }
+
+    @Benchmark
+    public byte[] proxied() throws IOException, InterruptedException {
+        return httpClient.send(proxied, HttpResponse.BodyHandlers.ofByteArray()).body();
+    }
+
+    private static Map<String, Object> neutralParams(ChaosType type) {
+        switch (type) {
+            case LATENCY:
+                return Map.of("latency", 0L, "jitter", 0L);
+            case BANDWIDTH:
+                return Map.of("rate", 10_000_000L);
+            case PACKET_LOSS:
+                return Map.of("percentage", 0);
+            case RESET_PEER:
+                return Map.of("timeout", 3_600_000L);
+            default:
+                return Map.of("delay", 0L);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.chaos.benchmarks;
+
+import com.chaos.proxy.ChaosEngine;
+import com.chaos.proxy.ChaosType;
+import com.chaos.proxy.ProxyManager;
+import com.chaos.proxy.ToxiproxyEngine;
+import com.chaos.proxy.embedded.EmbeddedProxyEngine;
+import com.chaos.stub.StoreApiStub;
+import eu.rekawek.toxiproxy.ToxiproxyClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Round-trip cost of applying and clearing a toxic. The toxiproxy engine needs a running server,
+ * addressed by -Dtoxiproxy.host/-Dtoxiproxy.port, and is selected with -p engineType=toxiproxy.
+ */
+@State(Scope.Benchmark)
+@Fork(jvmArgsAppend = BenchmarkStubs.NODELAY)
+public class ProxyManagerBenchmark {
+
+    private static final String PROXY_NAME = "benchmark-proxy";
+
+    @Param({"embedded"})
+    public String engineType;
+
+    private StoreApiStub stub;
+    private ChaosEngine engine;
+    private ProxyManager proxyManager;
+    private long latency;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        stub = BenchmarkStubs.start(256);
+        if ("toxiproxy".equals(engineType)) {
+            engine = new ToxiproxyEngine(new ToxiproxyClient(System.getProperty("toxiproxy.host", "localhost"),
+                    Integer.getInteger("toxiproxy.port", 8474)));
+        } else {
+            engine = new EmbeddedProxyEngine(1);
+        }
+        engine.createProxy(PROXY_NAME, "127.0.0.1:0", "127.0.0.1:" + stub.getPort());
+        proxyManager = new ProxyManager(engine);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        engine.deleteProxy(PROXY_NAME);
+        engine.close();
+        stub.close();
+    }
+
+    @Benchmark
+    public void simulateChaosAndReset() throws IOException {
+        proxyManager.simulateChaos(PROXY_NAME, ChaosType.LATENCY, Map.of("latency", 100L, "jitter", 10.0));
+        proxyManager.reset(PROXY_NAME);
+    }
+
+    @Benchmark
+    public void updateLatencyInPlace() {
+        latency = latency == 100 ? 200 : 100;
+        proxyManager.simulateChaos(PROXY_NAME, ChaosType.LATENCY, Map.of("latency", latency, "jitter", 10.0));
+    }
+}
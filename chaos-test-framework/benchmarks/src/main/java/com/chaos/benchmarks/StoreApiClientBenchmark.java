@@ -0,0 +1,92 @@
+package com.chaos.benchmarks;
+
+import com.chaos.api.ConnectionPool;
+import com.chaos.api.StoreApiClient;
+import com.chaos.live.LiveMetrics;
+import com.chaos.model.Product;
+import com.chaos.resilience.ResilienceProperties;
+import com.chaos.results.ResultProperties;
+import com.chaos.results.RunResults;
+import com.chaos.stub.StoreApiStub;
+import io.restassured.response.Response;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a StoreApiClient call against the in-process stub: request construction, serialization and
+ * the pooled transport, with no proxy in between.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(jvmArgsAppend = BenchmarkStubs.NODELAY)
+public class StoreApiClientBenchmark {
+
+    @Param({"256", "16384"})
+    public int payloadSize;
+
+    private StoreApiStub stub;
+    private AnnotationConfigApplicationContext context;
+    private StoreApiClient client;
+    private Product product;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        stub = BenchmarkStubs.start(payloadSize);
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark",
+                Map.of("test.api.url", stub.getBaseUri(), "test.api.timeout", "5000")));
+        context.register(ConnectionPool.class, ResilienceProperties.class, LiveMetrics.class, RunResults.class,
+                StoreApiClient.class);
+        // Measures the client alone, without a run result file
+        context.registerBean(ResultProperties.class, () -> {
+            ResultProperties results = new ResultProperties();
+            results.setEnabled(false);
+            return results;
+        });
+        context.refresh();
+        client = context.getBean(StoreApiClient.class);
+        product = Product.builder().name("Bench").price(9.99).category("bench").description("benchmark").build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        stub.close();
+    }
+
+    @Benchmark
+    public Response getProduct() {
+        return client.getProduct(1);
+    }
+
+    @Benchmark
+    public Response getAllProducts() {
+        return client.getAllProducts();
+    }
+
+    @Benchmark
+    public Response updateProduct() {
+        return client.updateProduct(1, product);
+    }
+
+    @Benchmark
+    public StoreApiClient forBaseUri() {
+        return client.forBaseUri(stub.getBaseUri());
+    }
+}
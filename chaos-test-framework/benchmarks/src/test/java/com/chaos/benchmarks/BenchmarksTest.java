@@ -0,0 +1,62 @@
+package com.chaos.benchmarks;
+
+import io.restassured.response.Response;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs every benchmark once with its smallest parameters, so framework changes that break a
+ * benchmark fail the build instead of the next measurement.
+ */
+class BenchmarksTest {
+
+    @Test
+    void proxyDataPath() throws Exception {
+        for (String chaosType : new String[] {"NONE", "LATENCY", "BANDWIDTH", "PACKET_LOSS", "RESET_PEER", "SLOW_CLOSE"}) {
+            ProxyDataPathBenchmark benchmark = new ProxyDataPathBenchmark();
+            benchmark.chaosType = chaosType;
+            benchmark.payloadSize = 1024;
+            benchmark.setUp();
+            try {
+                byte[] direct = benchmark.direct();
+                assertEquals(direct.length, benchmark.proxied().length, chaosType);
+                assertTrue(direct.length >= 1024, chaosType);
+            } finally {
+                benchmark.tearDown();
+            }
+        }
+    }
+
+    @Test
+    void proxyManager() throws Exception {
+        ProxyManagerBenchmark benchmark = new ProxyManagerBenchmark();
+        benchmark.engineType = "embedded";
+        benchmark.setUp();
+        try {
+            benchmark.simulateChaosAndReset();
+            benchmark.updateLatencyInPlace();
+            benchmark.updateLatencyInPlace();
+        } finally {
+            benchmark.tearDown();
+        }
+    }
+
+    @Test
+    void storeApiClient() throws Exception {
+        StoreApiClientBenchmark benchmark = new StoreApiClientBenchmark();
+        benchmark.payloadSize = 256;
+        benchmark.setUp();
+        try {
+            for (Response response : new Response[] {benchmark.getProduct(), benchmark.getAllProducts(),
+                    benchmark.updateProduct()}) {
+                assertEquals(200, response.getStatusCode());
+            }
+            assertNotNull(benchmark.forBaseUri());
+        } finally {
+            benchmark.tearDown();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.chaos.api;
+
+import io.restassured.config.HttpClientConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.client.HttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.pool.PoolStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared, pooled transport for RestAssured. RestAssured only drives the HttpClient 4.x
+ * AbstractHttpClient API, hence the deprecated DefaultHttpClient/PoolingClientConnectionManager pair.
+ */
+@Slf4j
+@Component
+@SuppressWarnings("deprecation")
+public class ConnectionPool implements HttpClientConfig.HttpClientFactory {
+
+    private final PoolingClientConnectionManager connectionManager;
+    private final DefaultHttpClient httpClient;
+
+    public ConnectionPool(@Value("${test.api.timeout}") int timeout,
+                          @Value("${test.api.pool.max-total:200}") int maxTotal,
+                          @Value("${test.api.pool.max-per-route:100}") int maxPerRoute,
+                          @Value("${test.api.pool.keep-alive:30000}") long keepAliveMillis) {
+        this.connectionManager = new PoolingClientConnectionManager();
+        this.connectionManager.setMaxTotal(maxTotal);
+        this.connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+
+        this.httpClient = new DefaultHttpClient(connectionManager);
+        HttpConnectionParams.setConnectionTimeout(httpClient.getParams(), timeout);
+        HttpConnectionParams.setSoTimeout(httpClient.getParams(), timeout);
+        HttpConnectionParams.setTcpNoDelay(httpClient.getParams(), true);
+        httpClient.setKeepAliveStrategy((response, context) -> {
+            long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAliveMillis) : keepAliveMillis;
+        });
+        log.info("HTTP connection pool configured: maxTotal={}, maxPerRoute={}, keepAlive={}ms",
+                maxTotal, maxPerRoute, keepAliveMillis);
+    }
+
+    @Override
+    public HttpClient createHttpClient() {
+        return httpClient;
+    }
+
+    public PoolStats getStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    public void evictIdleConnections(long idleMillis) {
+        connectionManager.closeExpiredConnections();
+        connectionManager.closeIdleConnections(idleMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() {
+        connectionManager.shutdown();
+    }
+}
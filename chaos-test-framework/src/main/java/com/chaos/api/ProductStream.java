@@ -0,0 +1,24 @@
+package com.chaos.api;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Outcome of a streamed product listing. Timings are nanoseconds from the request start and are
+ * -1 for milestones that were never reached, so a timeout still shows how far the read got.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductStream {
+    private final int statusCode;
+    private final long products;
+    private final long bytesRead;
+    private final long timeToFirstByteNanos;
+    private final long timeToFirstProductNanos;
+    private final long totalNanos;
+    private final Exception failure;
+
+    public boolean isComplete() {
+        return failure == null;
+    }
+}
@@ -1,5 +1,18 @@
 package com.chaos.api;
 
+import com.chaos.live.LiveMetrics;
+import com.chaos.model.Product;
+import com.chaos.queue.OperationQueue;
+import com.chaos.queue.OperationQueuedException;
+import com.chaos.queue.OperationType;
+import com.chaos.queue.QueuedOperation;
+import com.chaos.resilience.ResilienceProperties;
+import com.chaos.resilience.ResilientExecutor;
+import com.chaos.results.RunResults;
+import com.chaos.utils.TransportResult;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
 import io.restassured.RestAssured;
 import io.restassured.config.HttpClientConfig;
 import io.restassured.config.RestAssuredConfig;
@@ -7,102 +20,333 @@ import io.restassured.http.ContentType;
 import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.http.params.CoreConnectionPNames;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.util.EntityUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
 import static io.restassured.RestAssured.given;
 
 @Slf4j
 @Component
 public class StoreApiClient {
+
+    private static final Gson GSON = new Gson();
     
     @Value("${test.api.url}")
     private String apiUrl;
     
-    @Value("${test.api.timeout}")
-    private int timeout;
+    @Autowired
+    private ConnectionPool connectionPool;
+
+    @Autowired
+    private ResilienceProperties resilienceProperties;
+
+    @Autowired
+    private LiveMetrics liveMetrics;
+
+    // Optional so contexts built outside the test suite, e.g. by distributed workers, need no result file
+    @Autowired(required = false)
+    private RunResults runResults;
+
+    private RestAssuredConfig config;
+    private ResilientExecutor resilience;
+    // Tags for the run result file, set on scenario clients
+    private String scenario;
+    private String proxyName;
+    // Where writes go when the upstream cannot be reached; none by default, so failures reach the caller
+    private OperationQueue writeQueue;
+
+    @PostConstruct
+    public void init() {
+        HttpClientConfig httpClientConfig = HttpClientConfig.httpClientConfig()
+                .httpClientFactory(connectionPool)
+                .reuseHttpClientInstance();
+
+        config = RestAssured.config()
+                .httpClient(httpClientConfig);
+        resilience = new ResilientExecutor(resilienceProperties);
+    }
+
+    // Same pooled transport, different target and fresh breaker: used to point a scenario at its leased proxy
+    public StoreApiClient forBaseUri(String baseUri) {
+        StoreApiClient client = new StoreApiClient();
+        client.apiUrl = baseUri;
+        client.connectionPool = connectionPool;
+        client.resilienceProperties = resilienceProperties;
+        client.liveMetrics = liveMetrics;
+        client.runResults = runResults;
+        client.config = config;
+        client.resilience = new ResilientExecutor(resilienceProperties);
+        return client;
+    }
+
+    // As forBaseUri, with the scenario and proxy recorded against every request in the run result file
+    public StoreApiClient forScenario(String baseUri, String scenario, String proxyName) {
+        StoreApiClient client = forBaseUri(baseUri);
+        client.scenario = scenario;
+        client.proxyName = proxyName;
+        return client;
+    }
 
     public Response getAllProducts() {
         log.info("Fetching all products from {}", apiUrl);
-        return createRequest()
+        return call("getAllProducts", true, () -> buffered(createRequest()
                 .when()
                 .get("/products")
                 .then()
                 .extract()
-                .response();
+                .response()));
+    }
+
+    // Parses /products one element at a time off the pooled connection instead of buffering the body
+    public ProductStream streamProducts(Consumer<? super Product> consumer) {
+        log.info("Streaming all products from {}", apiUrl);
+        long start = System.nanoTime();
+        ProductStream stream = stream(consumer);
+        liveMetrics.record(stream.getTotalNanos(), !stream.isComplete() || stream.getStatusCode() >= 400);
+        if (runResults != null) {
+            runResults.sample(scenario, proxyName, "streamProducts", start, stream.getTotalNanos(),
+                    stream.isComplete() ? stream.getStatusCode() : 0);
+        }
+        return stream;
+    }
+
+    private ProductStream stream(Consumer<? super Product> consumer) {
+        HttpGet request = new HttpGet(apiUrl + "/products");
+        long start = System.nanoTime();
+        long firstByte = -1;
+        long firstProduct = -1;
+        long products = 0;
+        int status = -1;
+        CountingInputStream body = null;
+        try {
+            HttpResponse response = connectionPool.createHttpClient().execute(request);
+            firstByte = System.nanoTime() - start;
+            status = response.getStatusLine().getStatusCode();
+            HttpEntity entity = response.getEntity();
+            if (status != 200 || entity == null) {
+                EntityUtils.consume(entity);
+                return new ProductStream(status, 0, 0, firstByte, -1, System.nanoTime() - start, null);
+            }
+            body = new CountingInputStream(entity.getContent());
+            JsonReader reader = new JsonReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            reader.beginArray();
+            while (reader.hasNext()) {
+                Product product = GSON.fromJson(reader, Product.class);
+                if (firstProduct < 0) {
+                    firstProduct = System.nanoTime() - start;
+                }
+                products++;
+                consumer.accept(product);
+            }
+            reader.endArray();
+            reader.close();
+            return new ProductStream(status, products, body.count, firstByte, firstProduct,
+                    System.nanoTime() - start, null);
+        } catch (IOException | JsonParseException e) {
+            // Closing a half-read body would drain the rest of it; abort drops the connection instead
+            request.abort();
+            log.warn("Product stream failed after {} products: {}", products, e.getMessage());
+            return new ProductStream(status, products, body != null ? body.count : 0, firstByte, firstProduct,
+                    System.nanoTime() - start, e);
+        } catch (RuntimeException e) {
+            request.abort();
+            throw e;
+        }
     }
 
     public Response getProduct(int id) {
         log.info("Fetching product with id: {}", id);
-        return createRequest()
+        return call("getProduct", true, () -> buffered(createRequest()
                 .pathParam("id", id)
                 .when()
                 .get("/products/{id}")
                 .then()
                 .extract()
-                .response();
+                .response()));
     }
 
     public Response createProduct(Object productPayload) {
+        return write(OperationType.CREATE, 0, productPayload, () -> create(productPayload));
+    }
+
+    public Response updateProduct(int id, Object productPayload) {
+        return write(OperationType.UPDATE, id, productPayload, () -> update(id, productPayload));
+    }
+
+    public Response patchProduct(int id, Object patchPayload) {
+        return write(OperationType.PATCH, id, patchPayload, () -> patch(id, patchPayload));
+    }
+
+    public Response deleteProduct(int id) {
+        return write(OperationType.DELETE, id, null, () -> delete(id));
+    }
+
+    // Replays an operation from the write queue; its payload is already serialized JSON. Goes straight to the
+    // upstream, a failure here is retried by the queue rather than queued again
+    public Response send(QueuedOperation operation) {
+        int id = Math.toIntExact(operation.getProductId());
+        switch (operation.getType()) {
+            case CREATE:
+                return create(operation.getPayload());
+            case UPDATE:
+                return update(id, operation.getPayload());
+            case PATCH:
+                return patch(id, operation.getPayload());
+            case DELETE:
+                return delete(id);
+            default:
+                throw new IllegalArgumentException("Unsupported operation type: " + operation.getType());
+        }
+    }
+
+    public void setWriteQueue(OperationQueue writeQueue) {
+        this.writeQueue = writeQueue;
+    }
+
+    public ResilientExecutor getResilience() {
+        return resilience;
+    }
+
+    public PoolStats getPoolStats() {
+        return connectionPool.getStats();
+    }
+
+    // With a write queue, an unreachable upstream (no response, or a status the queue would retry) queues the
+    // write and throws OperationQueuedException carrying its eventual response
+    private Response write(OperationType type, long productId, Object payload, Supplier<Response> request) {
+        if (writeQueue == null) {
+            return request.get();
+        }
+        TransportResult result = TransportResult.of(request);
+        String reason;
+        if (result.isFailed()) {
+            reason = result.getFailure().getClass().getSimpleName() + ": " + result.getFailure().getMessage();
+        } else {
+            int status = result.getResponse().getStatusCode();
+            if (status < 500 && status != 429) {
+                return result.getResponse();
+            }
+            reason = "status " + status;
+        }
+        throw new OperationQueuedException(type, productId, writeQueue.enqueue(type, productId, payload), reason);
+    }
+
+    private Response create(Object productPayload) {
         log.info("Creating new product");
-        return createRequest()
-                .contentType(ContentType.JSON)
-                .body(productPayload)
+        return call("createProduct", false, () -> buffered(jsonRequest(productPayload)
                 .when()
                 .post("/api/products")
                 .then()
                 .extract()
-                .response();
+                .response()));
     }
 
-    public Response updateProduct(int id, Object productPayload) {
+    private Response update(int id, Object productPayload) {
         log.info("Updating product with id: {}", id);
-        return createRequest()
-                .contentType(ContentType.JSON)
-                .body(productPayload)
+        return call("updateProduct", true, () -> buffered(jsonRequest(productPayload)
                 .pathParam("id", id)
                 .when()
                 .put("/api/products/{id}")
                 .then()
                 .extract()
-                .response();
+                .response()));
     }
 
-    public Response patchProduct(int id, Object patchPayload) {
+    private Response patch(int id, Object patchPayload) {
         log.info("Patching product with id: {}", id);
-        return createRequest()
-                .contentType(ContentType.JSON)
-                .body(patchPayload)
+        return call("patchProduct", false, () -> buffered(jsonRequest(patchPayload)
                 .pathParam("id", id)
                 .when()
                 .patch("/api/products/{id}")
                 .then()
                 .extract()
-                .response();
+                .response()));
     }
 
-    public Response deleteProduct(int id) {
+    private Response delete(int id) {
         log.info("Deleting product with id: {}", id);
-        return createRequest()
+        return call("deleteProduct", true, () -> buffered(createRequest()
                 .pathParam("id", id)
                 .when()
                 .delete("/api/products/{id}")
                 .then()
                 .extract()
-                .response();
+                .response()));
     }
 
-    private RequestSpecification createRequest() {
-        HttpClientConfig httpClientConfig = HttpClientConfig.httpClientConfig()
-                .setParam(CoreConnectionPNames.CONNECTION_TIMEOUT, timeout)
-                .setParam(CoreConnectionPNames.SO_TIMEOUT, timeout);
+    // Every operation passes through here so the live dashboard and run results see it, retries and hedges included
+    private Response call(String operation, boolean idempotent, Supplier<Response> request) {
+        long start = System.nanoTime();
+        int status = 0;
+        try {
+            Response response = resilience.execute(operation, idempotent, request);
+            status = response.getStatusCode();
+            return response;
+        } finally {
+            long nanos = System.nanoTime() - start;
+            liveMetrics.record(nanos, status == 0 || status >= 400);
+            if (runResults != null) {
+                runResults.sample(scenario, proxyName, operation, start, nanos, status);
+            }
+        }
+    }
 
-        RestAssuredConfig config = RestAssured.config()
-                .httpClient(httpClientConfig);
+    // Reading the body hands the connection back to the pool instead of leaving it leased to the caller
+    private Response buffered(Response response) {
+        response.asByteArray();
+        return response;
+    }
+
+    // byte[] must go through body(byte[]), body(Object) would serialize it as a JSON array of numbers
+    private RequestSpecification jsonRequest(Object payload) {
+        RequestSpecification request = createRequest().contentType(ContentType.JSON);
+        return payload instanceof byte[] ? request.body((byte[]) payload) : request.body(payload);
+    }
 
+    private RequestSpecification createRequest() {
         return given()
                 .baseUri(apiUrl)
                 .config(config);
     }
-}
\ No newline at end of file
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+}
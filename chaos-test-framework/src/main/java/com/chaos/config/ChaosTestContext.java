@@ -0,0 +1,15 @@
+package com.chaos.config;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.context.annotation.ComponentScan;
+
+/**
+ * Root of the suite's Spring context. Run with the {@code fast} profile to initialize beans lazily
+ * and create the configured proxies in the background.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@ComponentScan(basePackages = "com.chaos")
+public class ChaosTestContext {
+}
@@ -0,0 +1,15 @@
+package com.chaos.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "test.startup")
+public class StartupProperties {
+    // Create the configured proxies in the background once the context is up, instead of during startup
+    private boolean deferProxies = false;
+    private int proxyThreads = 4;
+    private long proxyTimeoutMs = 30000;
+}
@@ -0,0 +1,132 @@
+package com.chaos.config;
+
+import com.chaos.utils.RandomSource;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Times startup phases: the JVM up to the context, the context refresh, the creation of each bean
+ * (including the beans it pulls in) and phases other components report, such as proxy creation.
+ * Logged and written as JSON once the context is refreshed, and rewritten when a later phase ends.
+ */
+@Slf4j
+@Component
+public class StartupReport implements InstantiationAwareBeanPostProcessor, ApplicationListener<ContextRefreshedEvent>,
+        EnvironmentAware {
+
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    private final long createdNanos = System.nanoTime();
+    private final long jvmUptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+    private final Map<String, Long> beanStarts = new ConcurrentHashMap<>();
+    private final Map<String, Long> beanNanos = new ConcurrentHashMap<>();
+    private final Map<String, Long> phaseNanos = new LinkedHashMap<>();
+    private Environment environment;
+    private volatile boolean refreshed;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) {
+        beanStarts.putIfAbsent(beanName, System.nanoTime());
+        return null;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Long start = beanStarts.remove(beanName);
+        if (start != null) {
+            beanNanos.put(beanName, System.nanoTime() - start);
+        }
+        return bean;
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        if (refreshed || event.getApplicationContext().getParent() != null) {
+            return;
+        }
+        phase("context-refresh", System.nanoTime() - createdNanos);
+        refreshed = true;
+        Map<String, Object> report = report();
+        log.info("Context started in {} ms after {} ms of JVM startup, slowest beans: {}",
+                report.get("contextRefreshMs"), jvmUptimeMillis, report.get("slowestBeansMs"));
+        write(report);
+    }
+
+    public void phase(String name, long nanos) {
+        synchronized (phaseNanos) {
+            phaseNanos.put(name, nanos);
+        }
+        if (refreshed) {
+            log.info("Startup phase {} took {} ms", name, TimeUnit.NANOSECONDS.toMillis(nanos));
+            write(report());
+        }
+    }
+
+    public Map<String, Object> report() {
+        int top = environment.getProperty("test.startup.report-top-beans", Integer.class, 10);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("lazyInitialization", environment.getProperty("spring.main.lazy-initialization", Boolean.class, false));
+        report.put("jvmStartupMs", jvmUptimeMillis);
+        report.put("randomSeed", RandomSource.seed());
+        synchronized (phaseNanos) {
+            phaseNanos.forEach((name, nanos) -> report.put(camelCase(name) + "Ms", TimeUnit.NANOSECONDS.toMillis(nanos)));
+        }
+        report.put("beansCreated", beanNanos.size());
+        report.put("slowestBeansMs", beanNanos.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(top)
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> TimeUnit.NANOSECONDS.toMillis(entry.getValue()),
+                        (a, b) -> a, LinkedHashMap::new)));
+        return report;
+    }
+
+    private synchronized void write(Map<String, Object> report) {
+        Path file = Paths.get(environment.getProperty("test.startup.report-file", "target/startup-report.json"));
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Files.write(file, GSON.toJson(report).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            log.warn("Failed to write startup report {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static String camelCase(String name) {
+        StringBuilder camel = new StringBuilder(name.length());
+        boolean upper = false;
+        for (char c : name.toCharArray()) {
+            if (c == '-') {
+                upper = true;
+            } else {
+                camel.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            }
+        }
+        return camel.toString();
+    }
+}
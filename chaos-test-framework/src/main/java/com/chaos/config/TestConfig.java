@@ -16,7 +16,8 @@ public class TestConfig {
     private static final String DEFAULT_ENV = "local";
     private static final String DEFAULT_PARAM = "default";
 
-    @Bean
+    // Named so it does not shadow Spring's own "environment" bean
+    @Bean("testEnvironment")
     public String environment() {
         String env = System.getenv("TEST_ENVIRONMENT");
         if (env == null || env.trim().isEmpty()) {
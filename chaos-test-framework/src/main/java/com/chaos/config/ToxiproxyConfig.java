@@ -1,23 +1,36 @@
 package com.chaos.config;
 
-import eu.rekawek.toxiproxy.Proxy;
+import com.chaos.proxy.ChaosEngine;
+import com.chaos.proxy.ToxiproxyEngine;
+import com.chaos.proxy.embedded.EmbeddedProxyEngine;
 import eu.rekawek.toxiproxy.ToxiproxyClient;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.io.IOException;
+
 @Slf4j
 @Configuration
 public class ToxiproxyConfig {
 
     @Bean
+    @ConditionalOnProperty(prefix = "toxiproxy", name = "engine", havingValue = "toxiproxy", matchIfMissing = true)
     public ToxiproxyClient toxiproxyClient(ToxiproxyProperties properties) {
         return new ToxiproxyClient(properties.getHost(), properties.getPort());
     }
 
     @Bean
-    public Proxy storeApiProxy(ToxiproxyClient client, ToxiproxyProperties properties) throws Exception {
-        ToxiproxyProperties.ProxyConfig config = properties.getProxies().get("store-api");
-        return client.createProxy("store-api", config.getListen(), config.getUpstream());
+    @ConditionalOnProperty(prefix = "toxiproxy", name = "engine", havingValue = "toxiproxy", matchIfMissing = true)
+    public ChaosEngine toxiproxyEngine(ToxiproxyClient client) {
+        return new ToxiproxyEngine(client);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "toxiproxy", name = "engine", havingValue = "embedded")
+    public ChaosEngine embeddedProxyEngine(ToxiproxyProperties properties) throws IOException {
+        log.info("Starting embedded proxy engine");
+        return new EmbeddedProxyEngine(Runtime.getRuntime().availableProcessors(), properties.getTraceCapacity());
     }
-}
\ No newline at end of file
+}
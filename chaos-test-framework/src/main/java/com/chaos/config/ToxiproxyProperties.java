@@ -3,7 +3,9 @@ package com.chaos.config;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Data
@@ -12,11 +14,16 @@ import java.util.Map;
 public class ToxiproxyProperties {
     private String host;
     private int port;
+    private String engine = "toxiproxy";
+    // Closed connections each embedded proxy keeps for lifecycle tracing
+    private int traceCapacity = 4096;
     private Map<String, ProxyConfig> proxies = new HashMap<>();
 
     @Data
     public static class ProxyConfig {
         private String listen;
         private String upstream;
+        // Proxies this proxy's upstream calls, i.e. the next hops of a cascading failure
+        private List<String> dependsOn = new ArrayList<>();
     }
-}
\ No newline at end of file
+}
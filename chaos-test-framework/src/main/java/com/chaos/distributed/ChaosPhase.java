@@ -0,0 +1,18 @@
+package com.chaos.distributed;
+
+import com.chaos.proxy.ChaosType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChaosPhase {
+    private ChaosType chaosType;
+    private Map<String, Object> params;
+    private long startOffsetMs;
+    private long durationMs;
+}
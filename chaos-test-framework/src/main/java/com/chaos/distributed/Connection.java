@@ -0,0 +1,53 @@
+package com.chaos.distributed;
+
+import com.google.gson.Gson;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+// Newline-delimited JSON over a socket; Gson never emits raw newlines in compact mode
+class Connection implements Closeable {
+
+    private static final Gson GSON = new Gson();
+
+    private final Socket socket;
+    private final BufferedReader reader;
+    private final BufferedWriter writer;
+
+    Connection(Socket socket) throws IOException {
+        this.socket = socket;
+        socket.setTcpNoDelay(true);
+        this.reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        this.writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+    }
+
+    void send(Message message) throws IOException {
+        writer.write(GSON.toJson(message));
+        writer.newLine();
+        writer.flush();
+    }
+
+    Message receive() throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            throw new EOFException("Connection closed by " + socket.getRemoteSocketAddress());
+        }
+        return GSON.fromJson(line, Message.class);
+    }
+
+    void setTimeout(int millis) throws IOException {
+        socket.setSoTimeout(millis);
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,188 @@
+package com.chaos.distributed;
+
+import com.chaos.metrics.Histograms;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coordinator side of a distributed run. Estimates each worker's clock offset NTP-style, sends
+ * every worker the plan with a start instant translated into that worker's clock, and merges the
+ * latency histograms that come back.
+ */
+@Slf4j
+public class Coordinator implements Closeable {
+
+    private final ServerSocket server;
+    private final List<WorkerLink> workers = new ArrayList<>();
+
+    public Coordinator(String bindHost, int port) throws IOException {
+        this.server = new ServerSocket(port, 50, InetAddress.getByName(bindHost));
+    }
+
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    public void awaitWorkers(int count, Duration timeout) throws IOException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (workers.size() < count) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining <= 0) {
+                throw new SocketTimeoutException(workers.size() + " of " + count + " workers connected within " + timeout);
+            }
+            server.setSoTimeout((int) remaining);
+            Connection connection = new Connection(server.accept());
+            connection.setTimeout((int) Math.max(1, remaining));
+            Message hello = connection.receive();
+            workers.add(new WorkerLink(hello.getWorkerId(), connection));
+            log.info("Worker {} connected ({}/{})", hello.getWorkerId(), workers.size(), count);
+        }
+    }
+
+    public DistributedResult run(RunPlan plan, int clockSamples, Duration lead) throws IOException, InterruptedException {
+        Message prepare = new Message(Message.Type.PREPARE);
+        prepare.setPlan(plan);
+        for (WorkerLink worker : workers) {
+            worker.connection.setTimeout(0);
+            worker.connection.send(prepare);
+        }
+        for (WorkerLink worker : workers) {
+            WorkerResult failure = worker.connection.receive().getResult();
+            if (failure != null) {
+                throw new IOException("Worker " + worker.id + " could not prepare: " + failure.getError());
+            }
+        }
+        // Offsets are measured last, right before the start, so clock drift has no time to build up
+        for (WorkerLink worker : workers) {
+            synchronizeClock(worker, clockSamples);
+        }
+
+        long startAt = System.nanoTime() + lead.toNanos();
+        for (WorkerLink worker : workers) {
+            Message start = new Message(Message.Type.START);
+            start.setStartAtNanos(startAt + worker.offsetNanos);
+            start.setPlan(plan);
+            worker.connection.send(start);
+        }
+
+        ExecutorService readers = Executors.newFixedThreadPool(workers.size());
+        try {
+            List<Future<Message>> replies = new ArrayList<>();
+            for (WorkerLink worker : workers) {
+                replies.add(readers.submit(worker.connection::receive));
+            }
+            List<WorkerResult> results = new ArrayList<>();
+            for (Future<Message> reply : replies) {
+                results.add(reply.get().getResult());
+            }
+            return merge(startAt, results);
+        } catch (ExecutionException e) {
+            throw new IOException("Lost a worker during the run", e.getCause());
+        } finally {
+            readers.shutdownNow();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (WorkerLink worker : workers) {
+            worker.connection.close();
+        }
+        server.close();
+    }
+
+    // Keeps the probe with the shortest round trip: the least queueing, so the tightest offset bound
+    private static void synchronizeClock(WorkerLink worker, int samples) throws IOException {
+        long bestRoundTrip = Long.MAX_VALUE;
+        for (int i = 0; i < samples; i++) {
+            Message ping = new Message(Message.Type.PING);
+            ping.setSequence(i);
+            long sent = System.nanoTime();
+            worker.connection.send(ping);
+            Message pong = worker.connection.receive();
+            long received = System.nanoTime();
+            long roundTrip = received - sent;
+            if (pong.getSequence() == i && roundTrip < bestRoundTrip) {
+                bestRoundTrip = roundTrip;
+                worker.offsetNanos = pong.getWorkerNanos() - (sent + roundTrip / 2);
+            }
+        }
+        worker.roundTripNanos = bestRoundTrip;
+        log.info("Worker {} clock offset {} ns (round trip {} ns)", worker.id, worker.offsetNanos, bestRoundTrip);
+    }
+
+    private DistributedResult merge(long startAt, List<WorkerResult> results) {
+        Histogram latency = new Histogram(3);
+        Histogram serviceTime = new Histogram(3);
+        long requests = 0;
+        long errors = 0;
+        long failures = 0;
+        Map<Long, long[]> activationRange = new HashMap<>();
+        List<WorkerSummary> summaries = new ArrayList<>();
+
+        for (int i = 0; i < results.size(); i++) {
+            WorkerResult result = results.get(i);
+            WorkerLink worker = workers.get(i);
+            if (result.getError() != null) {
+                summaries.add(new WorkerSummary(worker.id, worker.offsetNanos, worker.roundTripNanos,
+                        0, 0, 0, 0, 0, 0, result.getError()));
+                continue;
+            }
+            Histogram workerLatency = Histograms.decode(result.getLatency());
+            latency.add(workerLatency);
+            serviceTime.add(Histograms.decode(result.getServiceTime()));
+            requests += result.getRequests();
+            errors += result.getErrors();
+            failures += result.getFailures();
+            for (WorkerResult.Activation activation : result.getActivations()) {
+                long coordinatorTime = activation.getNanoTime() - worker.offsetNanos;
+                activationRange.merge(activation.getScheduledOffsetNanos(), new long[] {coordinatorTime, coordinatorTime},
+                        (a, b) -> new long[] {Math.min(a[0], b[0]), Math.max(a[1], b[1])});
+            }
+            summaries.add(new WorkerSummary(worker.id, worker.offsetNanos, worker.roundTripNanos,
+                    result.getRequests(), result.getErrors(), result.getFailures(),
+                    toMillis(workerLatency.getValueAtPercentile(50)), toMillis(workerLatency.getValueAtPercentile(99)),
+                    result.getStartedNanos() - worker.offsetNanos - startAt, null));
+        }
+
+        long skew = 0;
+        for (long[] range : activationRange.values()) {
+            skew = Math.max(skew, range[1] - range[0]);
+        }
+        return new DistributedResult(latency, serviceTime, requests, errors, failures,
+                toMillis(latency.getValueAtPercentile(50)), toMillis(latency.getValueAtPercentile(99)),
+                toMillis(latency.getValueAtPercentile(99.9)), skew, summaries);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static final class WorkerLink {
+        private final String id;
+        private final Connection connection;
+        private long offsetNanos;
+        private long roundTripNanos;
+
+        private WorkerLink(String id, Connection connection) {
+            this.id = id;
+            this.connection = connection;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.chaos.distributed;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.HdrHistogram.Histogram;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class DistributedResult {
+    // Merged across workers; transient keeps them out of the JSON report
+    private final transient Histogram latency;
+    private final transient Histogram serviceTime;
+    private final long requests;
+    private final long errors;
+    private final long failures;
+    private final double p50Millis;
+    private final double p99Millis;
+    private final double p999Millis;
+    // Spread between workers applying the same chaos change, in coordinator time
+    private final long activationSkewNanos;
+    private final List<WorkerSummary> workers;
+}
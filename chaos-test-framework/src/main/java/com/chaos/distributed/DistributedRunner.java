@@ -0,0 +1,61 @@
+package com.chaos.distributed;
+
+import com.chaos.config.ToxiproxyProperties;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs a plan on a local cluster of worker JVMs, so one experiment can generate more load than
+ * a single client's cores allow. Workers proxy to the pool template's upstream unless the plan
+ * names another.
+ */
+@Component
+public class DistributedRunner {
+
+    private static final String LOOPBACK = "127.0.0.1";
+
+    private final String defaultUpstream;
+    private final List<String> workerJvmArgs;
+    private final Duration startupTimeout;
+    private final Duration lead;
+    private final int clockSamples;
+    private final String logDir;
+
+    public DistributedRunner(ToxiproxyProperties properties,
+                             @Value("${toxiproxy.pool.template:store-api}") String templateName,
+                             @Value("${test.distributed.worker-jvm-args:-Xmx256m -XX:+UseParallelGC}") String workerJvmArgs,
+                             @Value("${test.distributed.startup-timeout-ms:60000}") long startupTimeoutMillis,
+                             @Value("${test.distributed.lead-ms:1000}") long leadMillis,
+                             @Value("${test.distributed.clock-samples:32}") int clockSamples,
+                             @Value("${test.distributed.log-dir:target/distributed}") String logDir) {
+        ToxiproxyProperties.ProxyConfig template = properties.getProxies().get(templateName);
+        this.defaultUpstream = template != null ? template.getUpstream() : null;
+        this.workerJvmArgs = Arrays.asList(workerJvmArgs.trim().split("\\s+"));
+        this.startupTimeout = Duration.ofMillis(startupTimeoutMillis);
+        this.lead = Duration.ofMillis(leadMillis);
+        this.clockSamples = clockSamples;
+        this.logDir = logDir;
+    }
+
+    public DistributedResult run(RunPlan plan, int workers) throws IOException, InterruptedException {
+        if (plan.getUpstream() == null) {
+            plan.setUpstream(defaultUpstream);
+        }
+        try (Coordinator coordinator = new Coordinator(LOOPBACK, 0)) {
+            LocalCluster cluster = LocalCluster.start(workers, LOOPBACK, coordinator.getPort(), workerJvmArgs,
+                    Paths.get(logDir));
+            try {
+                coordinator.awaitWorkers(workers, startupTimeout);
+                return coordinator.run(plan, clockSamples, lead);
+            } finally {
+                cluster.close();
+            }
+        }
+    }
+}
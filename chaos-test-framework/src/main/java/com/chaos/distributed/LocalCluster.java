@@ -0,0 +1,66 @@
+package com.chaos.distributed;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stands in for a fleet of load nodes: starts worker JVMs on this machine, on the current
+ * classpath, each connecting back to the coordinator over loopback.
+ */
+@Slf4j
+public class LocalCluster implements Closeable {
+
+    private final List<Process> processes = new ArrayList<>();
+
+    public static LocalCluster start(int workers, String coordinatorHost, int coordinatorPort,
+                                     List<String> jvmArgs, Path logDir) throws IOException {
+        Files.createDirectories(logDir);
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        LocalCluster cluster = new LocalCluster();
+        try {
+            for (int i = 1; i <= workers; i++) {
+                List<String> command = new ArrayList<>();
+                command.add(java);
+                command.addAll(jvmArgs);
+                command.add("-cp");
+                command.add(System.getProperty("java.class.path"));
+                command.add(Worker.class.getName());
+                command.add(coordinatorHost);
+                command.add(String.valueOf(coordinatorPort));
+                command.add("worker-" + i);
+                Path logFile = logDir.resolve("worker-" + i + ".log");
+                cluster.processes.add(new ProcessBuilder(command)
+                        .redirectErrorStream(true)
+                        .redirectOutput(logFile.toFile())
+                        .start());
+            }
+        } catch (IOException e) {
+            cluster.close();
+            throw e;
+        }
+        log.info("Started {} local workers, logs in {}", workers, logDir);
+        return cluster;
+    }
+
+    @Override
+    public void close() {
+        for (Process process : processes) {
+            try {
+                if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                process.destroyForcibly();
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.chaos.distributed;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of the coordinator/worker protocol. Only the fields relevant to the type are set.
+ */
+@Data
+@NoArgsConstructor
+class Message {
+
+    enum Type { HELLO, PREPARE, READY, PING, PONG, START, RESULT }
+
+    private Type type;
+    private String workerId;
+    private long sequence;
+    private long workerNanos;
+    private long startAtNanos;
+    private RunPlan plan;
+    private WorkerResult result;
+
+    Message(Type type) {
+        this.type = type;
+    }
+}
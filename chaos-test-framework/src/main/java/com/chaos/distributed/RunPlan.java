@@ -0,0 +1,27 @@
+package com.chaos.distributed;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What every worker runs: its own proxy in front of the upstream, the chaos phases on that proxy
+ * and an open-loop load of ratePerSecond requests through it, all from a common start instant.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RunPlan {
+    private String upstream;
+    @Builder.Default
+    private String operation = "getAllProducts";
+    private double ratePerSecond;
+    private long durationMs;
+    @Builder.Default
+    private List<ChaosPhase> phases = new ArrayList<>();
+}
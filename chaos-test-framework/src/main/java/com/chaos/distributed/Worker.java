@@ -0,0 +1,201 @@
+package com.chaos.distributed;
+
+import ch.qos.logback.classic.Level;
+import com.chaos.api.ConnectionPool;
+import com.chaos.api.StoreApiClient;
+import com.chaos.live.LiveMetrics;
+import com.chaos.load.LoadGenerator;
+import com.chaos.load.LoadResult;
+import com.chaos.metrics.Histograms;
+import com.chaos.proxy.ProxyManager;
+import com.chaos.proxy.embedded.EmbeddedProxyEngine;
+import com.chaos.resilience.ResilienceProperties;
+import com.chaos.timeline.ChaosScheduler;
+import com.chaos.timeline.TimelineEntry;
+import com.chaos.timeline.TimelineEvent;
+import com.chaos.timeline.TimelineRun;
+import io.restassured.response.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Worker side of a distributed run, normally its own JVM. On PREPARE it builds its proxy and
+ * client and warms them up, then answers clock probes, then on START runs the plan from the
+ * instant the coordinator picked. Usage: Worker &lt;coordinator-host&gt; &lt;coordinator-port&gt; &lt;worker-id&gt;
+ */
+@Slf4j
+public class Worker {
+
+    private static final String PROXY_NAME = "worker-proxy";
+    private static final long TIMELINE_RAMP_INTERVAL_MS = 100;
+    private static final int WARMUP_REQUESTS = 50;
+
+    private final String workerId;
+
+    public Worker(String workerId) {
+        this.workerId = workerId;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Usage: Worker <coordinator-host> <coordinator-port> <worker-id>");
+            System.exit(2);
+        }
+        // Per-request debug logging from the HTTP client would dominate a worker's CPU
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.INFO);
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("com.chaos.api")).setLevel(Level.WARN);
+        new Worker(args[2]).connect(args[0], Integer.parseInt(args[1]));
+        System.exit(0);
+    }
+
+    public void connect(String host, int port) throws IOException {
+        Prepared prepared = null;
+        try (Connection connection = new Connection(new Socket(host, port))) {
+            Message hello = new Message(Message.Type.HELLO);
+            hello.setWorkerId(workerId);
+            connection.send(hello);
+            while (true) {
+                Message message = connection.receive();
+                switch (message.getType()) {
+                    case PREPARE:
+                        Message ready = new Message(Message.Type.READY);
+                        try {
+                            prepared = new Prepared(message.getPlan());
+                        } catch (IOException | RuntimeException e) {
+                            log.error("Worker {} failed to prepare", workerId, e);
+                            ready.setResult(failed(e.toString()));
+                        }
+                        connection.send(ready);
+                        break;
+                    case PING:
+                        Message pong = new Message(Message.Type.PONG);
+                        pong.setSequence(message.getSequence());
+                        pong.setWorkerNanos(System.nanoTime());
+                        connection.send(pong);
+                        break;
+                    case START:
+                        Message result = new Message(Message.Type.RESULT);
+                        result.setResult(prepared != null ? prepared.run(message.getStartAtNanos()) : failed("Not prepared"));
+                        connection.send(result);
+                        return;
+                    default:
+                        throw new IOException("Unexpected message: " + message.getType());
+                }
+            }
+        } finally {
+            if (prepared != null) {
+                prepared.close();
+            }
+        }
+    }
+
+    private WorkerResult failed(String error) {
+        WorkerResult result = new WorkerResult();
+        result.setWorkerId(workerId);
+        result.setError(error);
+        return result;
+    }
+
+    // Everything a run needs, built and warmed up before the start instant so setup never delays it
+    private final class Prepared implements AutoCloseable {
+        private final RunPlan plan;
+        private final EmbeddedProxyEngine engine = new EmbeddedProxyEngine(2);
+        private final LoadGenerator loadGenerator = new LoadGenerator(256);
+        private final AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        private final ChaosScheduler scheduler;
+        private final Supplier<Response> request;
+
+        private Prepared(RunPlan plan) throws IOException {
+            this.plan = plan;
+            try {
+                String listen = engine.createProxy(PROXY_NAME, "127.0.0.1:0", plan.getUpstream());
+                context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("worker",
+                        Map.of("test.api.url", "http://" + listen, "test.api.timeout", "30000")));
+                context.register(ConnectionPool.class, ResilienceProperties.class, LiveMetrics.class, StoreApiClient.class);
+                context.refresh();
+                this.scheduler = new ChaosScheduler(new ProxyManager(engine), TIMELINE_RAMP_INTERVAL_MS);
+                this.request = request(context.getBean(StoreApiClient.class), plan.getOperation());
+                loadGenerator.burst(request, WARMUP_REQUESTS);
+            } catch (IOException | RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+
+        private WorkerResult run(long startAtNanos) {
+            WorkerResult result = new WorkerResult();
+            result.setWorkerId(workerId);
+            long wait;
+            while ((wait = startAtNanos - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            result.setStartedNanos(System.nanoTime());
+            try {
+                TimelineRun timeline = plan.getPhases().isEmpty() ? null : scheduler.start(entries(plan.getPhases()));
+                LoadResult load = loadGenerator.atRate(request, plan.getRatePerSecond(), Duration.ofMillis(plan.getDurationMs()));
+                if (timeline != null) {
+                    timeline.cancel();
+                    timeline.await(Duration.ofSeconds(5));
+                    for (TimelineEvent event : timeline.getEvents()) {
+                        result.getActivations().add(new WorkerResult.Activation(event.getScheduledOffsetNanos(), event.getNanoTime()));
+                    }
+                }
+                result.setLatency(Histograms.encode(load.getLatency()));
+                result.setServiceTime(Histograms.encode(load.getServiceTime()));
+                result.setRequests(load.getRequests());
+                result.setErrors(load.getErrors());
+                result.setFailures(load.getFailures());
+            } catch (RuntimeException e) {
+                log.error("Worker {} failed", workerId, e);
+                result.setError(e.toString());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result.setError("Interrupted");
+            }
+            return result;
+        }
+
+        @Override
+        public void close() {
+            context.close();
+            loadGenerator.shutdown();
+            engine.close();
+        }
+    }
+
+    private static List<TimelineEntry> entries(List<ChaosPhase> phases) {
+        List<TimelineEntry> entries = new ArrayList<>();
+        for (ChaosPhase phase : phases) {
+            entries.add(TimelineEntry.builder()
+                    .proxyName(PROXY_NAME)
+                    .startOffset(Duration.ofMillis(phase.getStartOffsetMs()))
+                    .duration(Duration.ofMillis(phase.getDurationMs()))
+                    .chaosType(phase.getChaosType())
+                    .params(phase.getParams())
+                    .build());
+        }
+        return entries;
+    }
+
+    private static Supplier<Response> request(StoreApiClient client, String operation) {
+        switch (operation) {
+            case "getAllProducts":
+                return client::getAllProducts;
+            case "getProduct":
+                return () -> client.getProduct(1);
+            default:
+                throw new IllegalArgumentException("Unsupported operation: " + operation);
+        }
+    }
+}
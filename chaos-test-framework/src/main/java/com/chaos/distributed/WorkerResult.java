@@ -0,0 +1,37 @@
+package com.chaos.distributed;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What a worker reports back. Histograms travel HdrHistogram-compressed and base64 encoded;
+ * times are in the worker's own System.nanoTime() domain until the coordinator corrects them.
+ */
+@Data
+@NoArgsConstructor
+public class WorkerResult {
+    private String workerId;
+    private String latency;
+    private String serviceTime;
+    private long requests;
+    private long errors;
+    private long failures;
+    private long startedNanos;
+    private List<Activation> activations = new ArrayList<>();
+    private String error;
+
+    @Data
+    @NoArgsConstructor
+    public static class Activation {
+        private long scheduledOffsetNanos;
+        private long nanoTime;
+
+        public Activation(long scheduledOffsetNanos, long nanoTime) {
+            this.scheduledOffsetNanos = scheduledOffsetNanos;
+            this.nanoTime = nanoTime;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.chaos.distributed;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class WorkerSummary {
+    private String workerId;
+    // Worker clock minus coordinator clock, from the probe with the shortest round trip
+    private long clockOffsetNanos;
+    private long clockRoundTripNanos;
+    private long requests;
+    private long errors;
+    private long failures;
+    private double p50Millis;
+    private double p99Millis;
+    // How far the worker started from the agreed instant, after offset correction
+    private long startErrorNanos;
+    private String error;
+}
@@ -0,0 +1,55 @@
+package com.chaos.live;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide counters behind the live dashboard. Writers only touch striped LongAdder cells and
+ * a wait-free Recorder, so recording never blocks a request thread; the dashboard rolls them into
+ * a window once a second whether or not anyone is watching.
+ */
+@Component
+public class LiveMetrics {
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final Recorder latency = new Recorder(3);
+    private volatile String abortReason;
+
+    public void record(long latencyNanos, boolean error) {
+        requests.increment();
+        if (error) {
+            errors.increment();
+        }
+        latency.recordValue(Math.max(0, latencyNanos));
+    }
+
+    public void abort(String reason) {
+        this.abortReason = reason;
+    }
+
+    // Non-null once someone has asked the run to stop
+    public String getAbortReason() {
+        return abortReason;
+    }
+
+    // Increments racing with a roll simply land in the next window
+    Window roll() {
+        return new Window(requests.sumThenReset(), errors.sumThenReset(), latency.getIntervalHistogram());
+    }
+
+    static final class Window {
+        final long requests;
+        final long errors;
+        final Histogram latency;
+
+        private Window(long requests, long errors, Histogram latency) {
+            this.requests = requests;
+            this.errors = errors;
+            this.latency = latency;
+        }
+    }
+}
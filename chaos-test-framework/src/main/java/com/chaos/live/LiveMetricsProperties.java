@@ -0,0 +1,17 @@
+package com.chaos.live;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "test.live")
+public class LiveMetricsProperties {
+    private boolean enabled;
+    private String host = "127.0.0.1";
+    private int port = 8085;
+    private long windowMs = 1000;
+    // Windows replayed to a dashboard that connects mid-run
+    private int history = 300;
+}
@@ -0,0 +1,206 @@
+package com.chaos.live;
+
+import com.chaos.api.ConnectionPool;
+import com.chaos.load.LoadGenerator;
+import com.chaos.metrics.LatencyRecorder;
+import com.chaos.proxy.ProxyManager;
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.apache.http.pool.PoolStats;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves the live dashboard: {@code /events} streams one {@link MetricsWindow} per window as
+ * Server-Sent Events, {@code /abort} stops load generation and fails the remaining steps, and
+ * {@code /} is a small page that plots the stream.
+ */
+@Slf4j
+@Component
+@Lazy(false)
+@ConditionalOnProperty(prefix = "test.live", name = "enabled", havingValue = "true")
+public class LiveMetricsServer implements AutoCloseable {
+
+    private static final Gson GSON = new Gson();
+    private static final byte[] RETRY = "retry: 2000\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final LiveMetrics metrics;
+    private final ProxyManager proxyManager;
+    private final ConnectionPool connectionPool;
+    private final LoadGenerator loadGenerator;
+    private final LiveMetricsProperties properties;
+    private final HttpServer server;
+    private final ScheduledExecutorService publisher;
+    private final List<OutputStream> subscribers = new CopyOnWriteArrayList<>();
+    private final ArrayDeque<byte[]> history = new ArrayDeque<>();
+    private final byte[] page;
+
+    public LiveMetricsServer(LiveMetrics metrics, ProxyManager proxyManager, ConnectionPool connectionPool,
+                             LoadGenerator loadGenerator, LiveMetricsProperties properties) {
+        this.metrics = metrics;
+        this.proxyManager = proxyManager;
+        this.connectionPool = connectionPool;
+        this.loadGenerator = loadGenerator;
+        this.properties = properties;
+        this.page = loadPage();
+        try {
+            this.server = HttpServer.create(new InetSocketAddress(properties.getHost(), properties.getPort()), 16);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start live metrics server", e);
+        }
+        server.createContext("/events", this::subscribe);
+        server.createContext("/abort", this::abort);
+        server.createContext("/", this::page);
+        server.setExecutor(Executors.newSingleThreadExecutor(daemon("live-metrics-http")));
+        server.start();
+        this.publisher = Executors.newSingleThreadScheduledExecutor(daemon("live-metrics"));
+        publisher.scheduleAtFixedRate(this::publish, properties.getWindowMs(), properties.getWindowMs(),
+                TimeUnit.MILLISECONDS);
+        log.info("Live metrics at http://{}:{}/ ({}ms windows)", properties.getHost(),
+                server.getAddress().getPort(), properties.getWindowMs());
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    @PreDestroy
+    public void close() {
+        publisher.shutdownNow();
+        publish();
+        subscribers.forEach(this::closeQuietly);
+        server.stop(0);
+    }
+
+    MetricsWindow window() {
+        LiveMetrics.Window window = metrics.roll();
+        Histogram latency = window.latency;
+        PoolStats pool = connectionPool.getStats();
+        double seconds = properties.getWindowMs() / 1000.0;
+        return new MetricsWindow(System.currentTimeMillis(), properties.getWindowMs(),
+                window.requests, window.errors, window.requests / seconds,
+                window.requests > 0 ? window.errors / (double) window.requests : 0,
+                LatencyRecorder.toMillis(latency.getValueAtPercentile(50)),
+                LatencyRecorder.toMillis(latency.getValueAtPercentile(90)),
+                LatencyRecorder.toMillis(latency.getValueAtPercentile(99)),
+                LatencyRecorder.toMillis(latency.getMaxValue()),
+                proxyManager.getActiveChaos(),
+                pool.getLeased(), pool.getAvailable(), pool.getPending(), pool.getMax(),
+                metrics.getAbortReason());
+    }
+
+    private void publish() {
+        try {
+            byte[] event = ("data: " + GSON.toJson(window()) + "\n\n").getBytes(StandardCharsets.UTF_8);
+            synchronized (history) {
+                history.addLast(event);
+                while (history.size() > properties.getHistory()) {
+                    history.removeFirst();
+                }
+                for (OutputStream subscriber : subscribers) {
+                    send(subscriber, event);
+                }
+            }
+        } catch (RuntimeException e) {
+            // An exception would cancel the fixed-rate schedule and freeze the dashboard
+            log.warn("Failed to publish live metrics: {}", e.getMessage());
+        }
+    }
+
+    private void subscribe(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream body = exchange.getResponseBody();
+        // Under the history lock a window is either replayed or sent live, never both or neither
+        synchronized (history) {
+            body.write(RETRY);
+            for (byte[] event : history) {
+                body.write(event);
+            }
+            body.flush();
+            subscribers.add(body);
+        }
+    }
+
+    private void abort(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            respond(exchange, 405, "text/plain", "POST to abort the run\n".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        String reason = "Aborted from the live dashboard";
+        metrics.abort(reason);
+        loadGenerator.abortRuns();
+        log.warn("{}; stopping load generation", reason);
+        respond(exchange, 202, "text/plain", (reason + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void page(HttpExchange exchange) throws IOException {
+        respond(exchange, 200, "text/html; charset=utf-8", page);
+    }
+
+    private void send(OutputStream subscriber, byte[] event) {
+        try {
+            subscriber.write(event);
+            subscriber.flush();
+        } catch (IOException e) {
+            subscribers.remove(subscriber);
+            closeQuietly(subscriber);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private void closeQuietly(OutputStream subscriber) {
+        try {
+            subscriber.close();
+        } catch (IOException e) {
+            log.debug("Failed to close live metrics subscriber: {}", e.getMessage());
+        }
+    }
+
+    private static byte[] loadPage() {
+        try (InputStream in = LiveMetricsServer.class.getResourceAsStream("dashboard.html")) {
+            if (in == null) {
+                throw new IllegalStateException("dashboard.html missing from the classpath");
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load dashboard page", e);
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return task -> {
+            Thread thread = new Thread(task, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,28 @@
+package com.chaos.live;
+
+import com.chaos.proxy.ChaosType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class MetricsWindow {
+    private long endEpochMs;
+    private long windowMs;
+    private long requests;
+    private long errors;
+    private double throughput;
+    private double errorRate;
+    private double p50;
+    private double p90;
+    private double p99;
+    private double max;
+    private Map<String, Map<ChaosType, Map<String, Object>>> activeChaos;
+    private int poolLeased;
+    private int poolAvailable;
+    private int poolPending;
+    private int poolMax;
+    private String abortReason;
+}
@@ -0,0 +1,123 @@
+package com.chaos.load;
+
+import com.chaos.utils.RandomSource;
+import com.chaos.utils.TransportResult;
+import io.restassured.response.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Recorder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Open-loop load generator: requests are released on a fixed schedule whether or not earlier
+ * ones have completed, and latency is taken from the scheduled start to avoid coordinated omission.
+ */
+@Slf4j
+@Component
+public class LoadGenerator {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final long ABORT_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final ExecutorService workers;
+    private final AtomicLong aborts = new AtomicLong();
+
+    public LoadGenerator(@Value("${test.load.max-concurrency:256}") int maxConcurrency) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(maxConcurrency, runnable -> {
+            Thread thread = new Thread(runnable, "load-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public LoadResult atRate(Supplier<Response> request, double ratePerSecond, Duration duration) {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        long requests = Math.max(1, duration.toNanos() / intervalNanos);
+        return run(request, requests, intervalNanos);
+    }
+
+    public LoadResult burst(Supplier<Response> request, int requests) {
+        return run(request, requests, 0);
+    }
+
+    public LoadResult run(Supplier<Response> request, long requests, long intervalNanos) {
+        Recorder latency = new Recorder(SIGNIFICANT_DIGITS);
+        Recorder serviceTime = new Recorder(SIGNIFICANT_DIGITS);
+        LongAdder errors = new LongAdder();
+        LongAdder failures = new LongAdder();
+        CountDownLatch completed = new CountDownLatch(Math.toIntExact(requests));
+
+        long generation = aborts.get();
+        long issued = 0;
+        long start = System.nanoTime();
+        for (long i = 0; i < requests; i++) {
+            long intendedStart = start + i * intervalNanos;
+            long wait;
+            while ((wait = intendedStart - System.nanoTime()) > 0 && aborts.get() == generation) {
+                LockSupport.parkNanos(Math.min(wait, ABORT_POLL_NANOS));
+            }
+            if (aborts.get() != generation) {
+                for (long skipped = i; skipped < requests; skipped++) {
+                    completed.countDown();
+                }
+                log.warn("Load run aborted after {} of {} requests", i, requests);
+                break;
+            }
+            issued++;
+            workers.execute(RandomSource.bind(() -> {
+                long sent = System.nanoTime();
+                try {
+                    TransportResult result = TransportResult.of(request);
+                    if (result.isFailed()) {
+                        failures.increment();
+                        log.debug("Load request failed: {}", result.getFailure().getMessage());
+                    } else if (result.getResponse().getStatusCode() >= 400) {
+                        errors.increment();
+                    }
+                } finally {
+                    long end = System.nanoTime();
+                    latency.recordValue(end - intendedStart);
+                    serviceTime.recordValue(end - sent);
+                    completed.countDown();
+                }
+            }));
+        }
+        try {
+            completed.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for load requests", e);
+        }
+
+        LoadResult result = new LoadResult(latency.getIntervalHistogram(), serviceTime.getIntervalHistogram(),
+                issued, errors.sum(), failures.sum(), System.nanoTime() - start);
+        log.info("Load run: {} requests at {} req/s, {} errors, {} failures, p50={}ms p99={}ms p99.9={}ms max={}ms",
+                issued, String.format("%.1f", result.getThroughput()), result.getErrors(), result.getFailures(),
+                result.getPercentileMillis(50), result.getPercentileMillis(99), result.getPercentileMillis(99.9),
+                result.getMaxMillis());
+        return result;
+    }
+
+    // Stops every run in progress from releasing further requests; they return what was issued
+    public void abortRuns() {
+        aborts.incrementAndGet();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
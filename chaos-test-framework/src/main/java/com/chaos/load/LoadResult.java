@@ -0,0 +1,40 @@
+package com.chaos.load;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+
+@Getter
+@AllArgsConstructor
+public class LoadResult {
+    // Measured from each request's intended start, so queueing behind slow requests is counted
+    private final Histogram latency;
+    // Measured from the actual send, i.e. what a closed-loop client would have reported
+    private final Histogram serviceTime;
+    private final long requests;
+    private final long errors;
+    private final long failures;
+    private final long durationNanos;
+
+    public double getPercentileMillis(double percentile) {
+        return toMillis(latency.getValueAtPercentile(percentile));
+    }
+
+    public double getMeanMillis() {
+        return latency.getMean() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public double getMaxMillis() {
+        return toMillis(latency.getMaxValue());
+    }
+
+    public double getThroughput() {
+        return durationNanos == 0 ? 0 : requests * (double) TimeUnit.SECONDS.toNanos(1) / durationNanos;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
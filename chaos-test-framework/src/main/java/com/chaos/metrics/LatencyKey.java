@@ -0,0 +1,18 @@
+package com.chaos.metrics;
+
+import com.chaos.proxy.ChaosType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class LatencyKey {
+    private String operation;
+    // null when the latency was measured without chaos
+    private ChaosType chaosType;
+
+    @Override
+    public String toString() {
+        return operation + "[" + (chaosType != null ? chaosType : "NONE") + "]";
+    }
+}
@@ -0,0 +1,126 @@
+package com.chaos.metrics;
+
+import com.chaos.proxy.ChaosType;
+import lombok.EqualsAndHashCode;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.SingleWriterRecorder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scenario-scoped latency recorder. Each recording thread writes to its own histograms, so the
+ * hot path takes no locks and allocates nothing once a tag combination has been seen. They are held
+ * in this recorder's map, keyed by thread, so they go away with the scenario instead of lingering
+ * on pooled threads.
+ */
+public class LatencyRecorder {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final String NO_PROXY = "none";
+
+    private final Map<Thread, ThreadHistograms> threads = new ConcurrentHashMap<>();
+    private final Map<Tags, Histogram> merged = new ConcurrentHashMap<>();
+
+    public void record(String operation, String proxyName, ChaosType chaosType, long durationNanos) {
+        threadHistograms().recorder(operation, proxyName, chaosType).recordValue(Math.max(0, durationNanos));
+    }
+
+    public synchronized void record(String operation, String proxyName, ChaosType chaosType, Histogram histogram) {
+        merged.computeIfAbsent(new Tags(operation, proxyName, chaosType), tags -> newHistogram()).add(histogram);
+    }
+
+    public Histogram histogram() {
+        Histogram total = newHistogram();
+        collect().values().forEach(total::add);
+        return total;
+    }
+
+    // Merged across proxies, since pooled proxy names differ from run to run
+    public Map<LatencyKey, Histogram> histogramsByKey() {
+        Map<LatencyKey, Histogram> histograms = new LinkedHashMap<>();
+        collect().forEach((tags, histogram) -> histograms
+                .computeIfAbsent(new LatencyKey(tags.operation, tags.chaosType), key -> newHistogram())
+                .add(histogram));
+        return histograms;
+    }
+
+    public List<LatencySummary> summarize() {
+        List<LatencySummary> summaries = new ArrayList<>();
+        collect().forEach((tags, histogram) -> summaries.add(new LatencySummary(
+                tags.operation, tags.proxyName, tags.chaosType, histogram.getTotalCount(),
+                toMillis(histogram.getValueAtPercentile(50)),
+                toMillis(histogram.getValueAtPercentile(90)),
+                toMillis(histogram.getValueAtPercentile(99)),
+                toMillis(histogram.getValueAtPercentile(99.9)),
+                toMillis(histogram.getMaxValue()))));
+        return summaries;
+    }
+
+    public static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    // Drains every thread's interval into the merged histograms; safe while writers are still active
+    private synchronized Map<Tags, Histogram> collect() {
+        for (ThreadHistograms thread : threads.values()) {
+            thread.recorders.forEach((tags, recorder) ->
+                    merged.computeIfAbsent(tags, t -> newHistogram()).add(recorder.getIntervalHistogram()));
+        }
+        return merged;
+    }
+
+    private ThreadHistograms threadHistograms() {
+        Thread thread = Thread.currentThread();
+        ThreadHistograms histograms = threads.get(thread);
+        return histograms != null ? histograms : threads.computeIfAbsent(thread, t -> new ThreadHistograms());
+    }
+
+    private static Histogram newHistogram() {
+        return new Histogram(SIGNIFICANT_DIGITS);
+    }
+
+    private static final class ThreadHistograms {
+        private final Map<Tags, SingleWriterRecorder> recorders = new ConcurrentHashMap<>();
+        private final Map<String, Map<String, SingleWriterRecorder[]>> index = new ConcurrentHashMap<>();
+
+        private SingleWriterRecorder recorder(String operation, String proxyName, ChaosType chaosType) {
+            String proxy = proxyName != null ? proxyName : NO_PROXY;
+            Map<String, SingleWriterRecorder[]> byProxy = index.get(operation);
+            if (byProxy == null) {
+                byProxy = new ConcurrentHashMap<>();
+                index.put(operation, byProxy);
+            }
+            SingleWriterRecorder[] byChaosType = byProxy.get(proxy);
+            if (byChaosType == null) {
+                byChaosType = new SingleWriterRecorder[ChaosType.values().length + 1];
+                byProxy.put(proxy, byChaosType);
+            }
+            int slot = chaosType != null ? chaosType.ordinal() + 1 : 0;
+            SingleWriterRecorder recorder = byChaosType[slot];
+            if (recorder == null) {
+                recorder = new SingleWriterRecorder(SIGNIFICANT_DIGITS);
+                byChaosType[slot] = recorder;
+                recorders.put(new Tags(operation, proxy, chaosType), recorder);
+            }
+            return recorder;
+        }
+    }
+
+    @EqualsAndHashCode
+    private static final class Tags {
+        private final String operation;
+        private final String proxyName;
+        private final ChaosType chaosType;
+
+        private Tags(String operation, String proxyName, ChaosType chaosType) {
+            this.operation = operation;
+            this.proxyName = proxyName != null ? proxyName : NO_PROXY;
+            this.chaosType = chaosType;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.chaos.metrics;
+
+import com.chaos.proxy.ChaosType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class LatencySummary {
+    private String operation;
+    private String proxyName;
+    private ChaosType chaosType;
+    private long count;
+    private double p50;
+    private double p90;
+    private double p99;
+    private double p999;
+    private double max;
+}
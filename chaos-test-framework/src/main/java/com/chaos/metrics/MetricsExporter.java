@@ -0,0 +1,134 @@
+package com.chaos.metrics;
+
+import com.chaos.proxy.ConnectionTrace;
+import com.chaos.sweep.SweepPoint;
+import com.chaos.sweep.SweepResult;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSerializer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+
+@Slf4j
+@Component
+public class MetricsExporter {
+
+    private static final String METRIC = "chaos_request_latency_seconds";
+    private static final Gson GSON = new GsonBuilder()
+            .setPrettyPrinting()
+            .registerTypeAdapter(Instant.class, (JsonSerializer<Instant>) (instant, type, context) ->
+                    new JsonPrimitive(instant.toString()))
+            .create();
+
+    private final Path metricsDir;
+
+    public MetricsExporter(@Value("${test.metrics.dir:target/metrics}") String metricsDir) {
+        this.metricsDir = Paths.get(metricsDir);
+    }
+
+    public String toJson(Object report) {
+        return GSON.toJson(report);
+    }
+
+    public Path writePrometheus(String scenarioId, String scenarioName, List<LatencySummary> summaries) {
+        StringBuilder text = new StringBuilder();
+        text.append("# HELP ").append(METRIC).append(" Request latency per scenario, operation, proxy and chaos type\n");
+        text.append("# TYPE ").append(METRIC).append(" summary\n");
+        for (LatencySummary summary : summaries) {
+            String labels = String.format("scenario=\"%s\",operation=\"%s\",proxy=\"%s\",chaos_type=\"%s\"",
+                    escape(scenarioName), escape(summary.getOperation()), escape(summary.getProxyName()),
+                    summary.getChaosType() != null ? summary.getChaosType() : "NONE");
+            appendQuantile(text, labels, "0.5", summary.getP50());
+            appendQuantile(text, labels, "0.9", summary.getP90());
+            appendQuantile(text, labels, "0.99", summary.getP99());
+            appendQuantile(text, labels, "0.999", summary.getP999());
+            appendQuantile(text, labels, "1", summary.getMax());
+            text.append(METRIC).append("_count{").append(labels).append("} ").append(summary.getCount()).append('\n');
+        }
+
+        Path file = metricsDir.resolve(scenarioId.replaceAll("[^A-Za-z0-9._-]", "_") + ".prom");
+        try {
+            Files.createDirectories(metricsDir);
+            Files.write(file, text.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            log.error("Failed to write Prometheus metrics to {}", file, e);
+        }
+        return file;
+    }
+
+    // The degradation curve as CSV, one row per swept value, next to the full result as JSON
+    public List<Path> writeSweep(String scenarioId, SweepResult sweep) {
+        StringBuilder csv = new StringBuilder(sweep.getParameter())
+                .append(",max_sustainable_rate,p").append(format(sweep.getPercentile())).append("_ms,error_rate,trials\n");
+        for (SweepPoint point : sweep.getPoints()) {
+            csv.append(format(point.getValue())).append(',')
+               .append(String.format(Locale.ROOT, "%.1f,%.3f,%.4f,%d%n", point.getMaxSustainableRate(),
+                       point.getLatencyMs(), point.getErrorRate(), point.getTrials().size()));
+        }
+        String name = scenarioId.replaceAll("[^A-Za-z0-9._-]", "_") + "-sweep-" + sweep.getChaosType().name().toLowerCase(Locale.ROOT);
+        Path csvFile = metricsDir.resolve(name + ".csv");
+        Path jsonFile = metricsDir.resolve(name + ".json");
+        try {
+            Files.createDirectories(metricsDir);
+            Files.write(csvFile, csv.toString().getBytes(StandardCharsets.UTF_8));
+            Files.write(jsonFile, toJson(sweep).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            log.error("Failed to write sweep results to {}", metricsDir, e);
+        }
+        return List.of(csvFile, jsonFile);
+    }
+
+    // One row per connection, times in ms from the first accept; stages never reached are left empty
+    public Path writeConnectionTraces(String scenarioId, List<ConnectionTrace> traces) {
+        long origin = traces.stream().mapToLong(ConnectionTrace::getAcceptedNanos).min().orElse(0);
+        StringBuilder csv = new StringBuilder("connection_id,outcome,accepted_ms,connected_ms,first_byte_ms,last_byte_ms,"
+                + "closing_ms,closed_ms,bytes_up,bytes_down\n");
+        for (ConnectionTrace trace : traces) {
+            csv.append(trace.getConnectionId()).append(',').append(trace.getOutcome()).append(',')
+               .append(offset(trace.getAcceptedNanos(), origin)).append(',')
+               .append(offset(trace.getConnectedNanos(), origin)).append(',')
+               .append(offset(trace.getFirstByteNanos(), origin)).append(',')
+               .append(offset(trace.getLastByteNanos(), origin)).append(',')
+               .append(offset(trace.getClosingNanos(), origin)).append(',')
+               .append(offset(trace.getClosedNanos(), origin)).append(',')
+               .append(trace.getBytesUp()).append(',').append(trace.getBytesDown()).append('\n');
+        }
+        Path file = metricsDir.resolve(scenarioId.replaceAll("[^A-Za-z0-9._-]", "_") + "-connections.csv");
+        try {
+            Files.createDirectories(metricsDir);
+            Files.write(file, csv.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            log.error("Failed to write connection traces to {}", file, e);
+        }
+        return file;
+    }
+
+    private static String offset(long nanos, long origin) {
+        return nanos < 0 ? "" : String.format(Locale.ROOT, "%.3f", (nanos - origin) / 1e6);
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) ? Long.toString((long) value) : Double.toString(value);
+    }
+
+    // Summaries are in milliseconds; Prometheus expects base units
+    private static void appendQuantile(StringBuilder text, String labels, String quantile, double millis) {
+        text.append(METRIC).append('{').append(labels).append(",quantile=\"").append(quantile).append("\"} ")
+            .append(String.format(Locale.ROOT, "%.6f", millis / 1000)).append('\n');
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,45 @@
+package com.chaos.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.SplittableRandom;
+
+/**
+ * Length of a generated text field in characters. Log-normal lengths are centred on the mean with a
+ * long tail, like real product descriptions; every shape is clamped to [min, max].
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LengthDistribution {
+
+    public enum Shape { FIXED, UNIFORM, LOG_NORMAL }
+
+    private Shape shape = Shape.FIXED;
+    private int min;
+    private int mean = 16;
+    private int max = 64;
+
+    int sample(SplittableRandom random) {
+        double length;
+        switch (shape) {
+            case UNIFORM:
+                length = min + random.nextDouble() * (max - min + 1);
+                break;
+            case LOG_NORMAL:
+                length = Math.exp(Math.log(Math.max(1, mean)) + gaussian(random));
+                break;
+            default:
+                length = mean;
+                break;
+        }
+        return (int) Math.max(min, Math.min(max, length));
+    }
+
+    // Box-Muller; sigma 1 puts about one length in six above 2.7x the mean
+    private static double gaussian(SplittableRandom random) {
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+}
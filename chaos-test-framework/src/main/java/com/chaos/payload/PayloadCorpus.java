@@ -0,0 +1,51 @@
+package com.chaos.payload;
+
+import com.chaos.utils.RandomSource;
+
+/**
+ * Product request bodies serialized once up front. Every request reuses one of the arrays, so sending
+ * costs neither serialization nor allocation on the client however high the rate goes. Picks come
+ * from the calling thread's seeded generator, which keeps the corpus free of shared cursors.
+ */
+public final class PayloadCorpus {
+
+    private final byte[][] products;
+    private final byte[][] patches;
+    private final long totalBytes;
+
+    PayloadCorpus(byte[][] products, byte[][] patches) {
+        this.products = products;
+        this.patches = patches;
+        long total = 0;
+        for (int i = 0; i < products.length; i++) {
+            total += products[i].length + patches[i].length;
+        }
+        this.totalBytes = total;
+    }
+
+    // Full product without an id, for create and update
+    public byte[] nextProduct() {
+        return products[RandomSource.current().nextInt(products.length)];
+    }
+
+    // Name and price only, for patch
+    public byte[] nextPatch() {
+        return patches[RandomSource.current().nextInt(patches.length)];
+    }
+
+    public int size() {
+        return products.length;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public double getMeanProductBytes() {
+        long bytes = 0;
+        for (byte[] product : products) {
+            bytes += product.length;
+        }
+        return (double) bytes / products.length;
+    }
+}
@@ -0,0 +1,100 @@
+package com.chaos.payload;
+
+import com.chaos.model.Product;
+import com.chaos.utils.RandomSource;
+import com.google.gson.Gson;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates synthetic products and serializes them into a {@link PayloadCorpus}. The corpus depends
+ * only on the run seed and the configured sizes, so a replayed run sends the same bodies.
+ */
+@Slf4j
+@Component
+public class PayloadFactory {
+
+    private static final Gson GSON = new Gson();
+    private static final String[] CATEGORIES = {"electronics", "clothing", "books", "home", "garden", "toys", "sports"};
+    private static final String[] WORDS = {
+            "wireless", "compact", "premium", "organic", "classic", "portable", "smart", "ultra", "eco", "pro",
+            "cotton", "steel", "bamboo", "leather", "ceramic", "carbon", "mini", "deluxe", "travel", "studio",
+            "lamp", "kettle", "jacket", "speaker", "backpack", "blender", "notebook", "headphones", "mug", "chair"};
+
+    private final PayloadProperties properties;
+    private volatile PayloadCorpus corpus;
+
+    public PayloadFactory(PayloadProperties properties) {
+        this.properties = properties;
+    }
+
+    // Built on first use and shared by every scenario
+    public PayloadCorpus corpus() {
+        PayloadCorpus current = corpus;
+        if (current == null) {
+            synchronized (this) {
+                current = corpus;
+                if (current == null) {
+                    current = build(properties.getProducts());
+                    corpus = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    public PayloadCorpus build(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Payload corpus needs at least one product: " + count);
+        }
+        long start = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(RandomSource.derive("payload-corpus"));
+        byte[][] products = new byte[count][];
+        byte[][] patches = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            Product product = product(random);
+            products[i] = GSON.toJson(product).getBytes(StandardCharsets.UTF_8);
+            Map<String, Object> patch = new LinkedHashMap<>();
+            patch.put("name", product.getName());
+            patch.put("price", price(random));
+            patches[i] = GSON.toJson(patch).getBytes(StandardCharsets.UTF_8);
+        }
+        PayloadCorpus built = new PayloadCorpus(products, patches);
+        log.info("Serialized {} product payloads ({} KB, {} bytes per product on average) in {} ms", count,
+                built.getTotalBytes() / 1024, Math.round(built.getMeanProductBytes()),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return built;
+    }
+
+    private Product product(SplittableRandom random) {
+        return Product.builder()
+                .name(text(random, properties.getName().sample(random)))
+                .price(price(random))
+                .category(CATEGORIES[random.nextInt(CATEGORIES.length)])
+                .description(text(random, properties.getDescription().sample(random)))
+                .build();
+    }
+
+    private double price(SplittableRandom random) {
+        return Math.round(random.nextDouble(properties.getMinPrice(), properties.getMaxPrice()) * 100) / 100.0;
+    }
+
+    // Space-separated words cut to exactly length characters
+    private static String text(SplittableRandom random, int length) {
+        StringBuilder text = new StringBuilder(length + 16);
+        while (text.length() < length) {
+            if (text.length() > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        text.setLength(length);
+        return text.toString().trim();
+    }
+}
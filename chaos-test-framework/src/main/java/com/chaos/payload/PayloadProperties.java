@@ -0,0 +1,17 @@
+package com.chaos.payload;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "test.payload")
+public class PayloadProperties {
+    // Distinct bodies per corpus; requests cycle through them at random
+    private int products = 1000;
+    private LengthDistribution name = new LengthDistribution(LengthDistribution.Shape.UNIFORM, 8, 24, 40);
+    private LengthDistribution description = new LengthDistribution(LengthDistribution.Shape.LOG_NORMAL, 0, 200, 4000);
+    private double minPrice = 1;
+    private double maxPrice = 1000;
+}
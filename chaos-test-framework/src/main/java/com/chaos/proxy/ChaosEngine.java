@@ -0,0 +1,44 @@
+package com.chaos.proxy;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+public interface ChaosEngine extends Closeable {
+
+    // Returns the address the proxy actually listens on, resolving an ephemeral port 0
+    String createProxy(String name, String listen, String upstream) throws IOException;
+
+    void deleteProxy(String name) throws IOException;
+
+    void apply(String proxyName, ChaosType chaosType, Map<String, Object> params) throws IOException;
+
+    void remove(String proxyName, ChaosType chaosType) throws IOException;
+
+    void reset(String proxyName) throws IOException;
+
+    // Makes the given toxics the complete set active on the proxy
+    default void replaceToxics(String proxyName, Map<ChaosType, Map<String, Object>> toxics) throws IOException {
+        reset(proxyName);
+        for (Map.Entry<ChaosType, Map<String, Object>> toxic : toxics.entrySet()) {
+            apply(proxyName, toxic.getKey(), toxic.getValue());
+        }
+    }
+
+    // Replaces the toxics of several proxies as one batch; engines that can make the switch atomic
+    default void replaceGroup(Map<String, Map<ChaosType, Map<String, Object>>> toxicsByProxy) throws IOException {
+        for (Map.Entry<String, Map<ChaosType, Map<String, Object>>> proxy : toxicsByProxy.entrySet()) {
+            replaceToxics(proxy.getKey(), proxy.getValue());
+        }
+    }
+
+    // Most recent closed connections, oldest first; only engines that carry the traffic can see them
+    default List<ConnectionTrace> connectionTraces(String proxyName) throws IOException {
+        return List.of();
+    }
+
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -1,10 +1,25 @@
 package com.chaos.proxy;
 
 public enum ChaosType {
-    LATENCY,
-    BANDWIDTH,
-    PACKET_LOSS,
-    TIMEOUT,
-    RESET_PEER,
-    SLOW_CLOSE
-}
\ No newline at end of file
+    LATENCY("latency"),
+    BANDWIDTH("rate"),
+    PACKET_LOSS("percentage"),
+    TIMEOUT("timeout"),
+    RESET_PEER("timeout"),
+    SLOW_CLOSE("delay"),
+    // Refuses connections or partitions the network, see ServiceDownMode; has no severity to ramp
+    SERVICE_DOWN("mode"),
+    // Per-segment loss, reordering, duplication and latency distributions; embedded engine only
+    NETWORK_MODEL("loss");
+
+    // The parameter that sets the severity, as ramped by timelines and stepped by sweeps
+    private final String parameter;
+
+    ChaosType(String parameter) {
+        this.parameter = parameter;
+    }
+
+    public String getParameter() {
+        return parameter;
+    }
+}
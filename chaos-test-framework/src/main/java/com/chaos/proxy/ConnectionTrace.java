@@ -0,0 +1,47 @@
+package com.chaos.proxy;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lifecycle of one proxied connection. Timestamps are {@link System#nanoTime()} readings, comparable
+ * with the client's own, and -1 for stages the connection never reached.
+ */
+@Data
+@AllArgsConstructor
+public class ConnectionTrace {
+
+    public enum Outcome { CLOSED, RESET, REFUSED, TIMED_OUT, ABORTED }
+
+    private String proxyName;
+    private long connectionId;
+    private long acceptedNanos;
+    private long connectedNanos;
+    // First and last response byte written to the client
+    private long firstByteNanos;
+    private long lastByteNanos;
+    // Both directions finished; slow close holds the sockets open from here
+    private long closingNanos;
+    private long closedNanos;
+    private long bytesUp;
+    private long bytesDown;
+    private Outcome outcome;
+
+    public double getTimeToFirstByteMillis() {
+        return firstByteNanos < 0 ? -1 : millis(firstByteNanos - acceptedNanos);
+    }
+
+    public double getLifetimeMillis() {
+        return millis(closedNanos - acceptedNanos);
+    }
+
+    public double getCloseDelayMillis() {
+        return closingNanos < 0 ? 0 : millis(closedNanos - closingNanos);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,80 @@
+package com.chaos.proxy;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregates connection traces into the numbers connection-level chaos is judged by: how quickly the
+ * client opens a new connection after one is reset or refused, and how long slow closes keep sockets.
+ */
+@Data
+@AllArgsConstructor
+public class ConnectionTraceSummary {
+
+    private int connections;
+    private Map<ConnectionTrace.Outcome, Integer> outcomes;
+    private double p50TimeToFirstByteMillis;
+    private double p99TimeToFirstByteMillis;
+    // Gap between a reset or refusal and the next connection the client opens
+    private int reconnects;
+    private double p50ReconnectMillis;
+    private double maxReconnectMillis;
+    private double meanCloseDelayMillis;
+    private double maxCloseDelayMillis;
+
+    public static ConnectionTraceSummary of(List<ConnectionTrace> traces) {
+        List<ConnectionTrace> byAccept = new ArrayList<>(traces);
+        byAccept.sort(Comparator.comparingLong(ConnectionTrace::getAcceptedNanos));
+        Map<ConnectionTrace.Outcome, Integer> outcomes = new EnumMap<>(ConnectionTrace.Outcome.class);
+        List<Double> firstBytes = new ArrayList<>();
+        List<Double> reconnects = new ArrayList<>();
+        double closeDelayTotal = 0;
+        double closeDelayMax = 0;
+        int next = 0;
+        List<ConnectionTrace> byClose = new ArrayList<>(traces);
+        byClose.sort(Comparator.comparingLong(ConnectionTrace::getClosedNanos));
+        for (ConnectionTrace trace : byClose) {
+            outcomes.merge(trace.getOutcome(), 1, Integer::sum);
+            if (trace.getFirstByteNanos() >= 0) {
+                firstBytes.add(trace.getTimeToFirstByteMillis());
+            }
+            closeDelayTotal += trace.getCloseDelayMillis();
+            closeDelayMax = Math.max(closeDelayMax, trace.getCloseDelayMillis());
+            if (trace.getOutcome() == ConnectionTrace.Outcome.RESET || trace.getOutcome() == ConnectionTrace.Outcome.REFUSED) {
+                // Closes are visited in order, so the search for the next accept only moves forward
+                while (next < byAccept.size() && byAccept.get(next).getAcceptedNanos() < trace.getClosedNanos()) {
+                    next++;
+                }
+                if (next < byAccept.size()) {
+                    reconnects.add((byAccept.get(next).getAcceptedNanos() - trace.getClosedNanos()) / 1e6);
+                }
+            }
+        }
+        double[] ttfb = sorted(firstBytes);
+        double[] reconnect = sorted(reconnects);
+        return new ConnectionTraceSummary(traces.size(), outcomes, percentile(ttfb, 50), percentile(ttfb, 99),
+                reconnect.length, percentile(reconnect, 50), reconnect.length > 0 ? reconnect[reconnect.length - 1] : 0,
+                traces.isEmpty() ? 0 : closeDelayTotal / traces.size(), closeDelayMax);
+    }
+
+    private static double[] sorted(List<Double> values) {
+        double[] array = values.stream().mapToDouble(Double::doubleValue).toArray();
+        Arrays.sort(array);
+        return array;
+    }
+
+    private static double percentile(double[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+}
@@ -0,0 +1,12 @@
+package com.chaos.proxy;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ProxyLease {
+    private String name;
+    private String listen;
+    private String baseUri;
+}
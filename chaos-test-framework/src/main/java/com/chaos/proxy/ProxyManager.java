@@ -1,94 +1,144 @@
 package com.chaos.proxy;
 
-import eu.rekawek.toxiproxy.Proxy;
+import com.chaos.results.RunResults;
 import eu.rekawek.toxiproxy.ToxiproxyClient;
-import eu.rekawek.toxiproxy.model.ToxicDirection;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.util.Map;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Component
 public class ProxyManager {
     
-    private final ToxiproxyClient toxiproxyClient;
-    private final Map<String, Proxy> proxies;
+    private final ChaosEngine engine;
+    // What this manager has applied per proxy, for observers such as the live dashboard
+    private final Map<String, Map<ChaosType, Map<String, Object>>> active = new ConcurrentHashMap<>();
+    private RunResults runResults;
 
     public ProxyManager(String host, int port) {
-        this.toxiproxyClient = new ToxiproxyClient(host, port);
-        this.proxies = new HashMap<>();
+        this(new ToxiproxyEngine(new ToxiproxyClient(host, port)));
+    }
+
+    @Autowired
+    public ProxyManager(ChaosEngine engine) {
+        this.engine = engine;
+    }
+
+    // Optional so managers built outside Spring, e.g. by distributed workers, need no result file
+    @Autowired(required = false)
+    public void setRunResults(RunResults runResults) {
+        this.runResults = runResults;
     }
 
     public void reset(String proxyName) throws IOException {
-        Proxy proxy = getProxy(proxyName);
-        if (proxy != null) {
-            proxy.toxics().getAll().forEach(toxic -> {
-                try {
-                    toxic.remove();
-                } catch (IOException e) {
-                    throw new RuntimeException("Failed to remove toxic", e);
-                }
+        engine.reset(proxyName);
+        active.remove(proxyName);
+        changed(proxyName);
+        log.info("Reset proxy: {}", proxyName);
+    }
+
+    public void removeChaos(String proxyName, ChaosType chaosType) {
+        try {
+            engine.remove(proxyName, chaosType);
+            active.computeIfPresent(proxyName, (name, toxics) -> {
+                Map<ChaosType, Map<String, Object>> updated = new EnumMap<>(toxics);
+                updated.remove(chaosType);
+                return updated.isEmpty() ? null : updated;
             });
-            log.info("Reset proxy: {}", proxyName);
+            changed(proxyName);
+            log.info("Removed {} from proxy: {}", chaosType, proxyName);
+        } catch (IOException e) {
+            log.error("Failed to remove chaos: {}", e.getMessage());
+            throw new RuntimeException("Chaos removal failed", e);
         }
     }
 
-    public void simulateChaos(String proxyName, ChaosType chaosType, Map<String, Object> params) {
+    public void replaceChaos(String proxyName, Map<ChaosType, Map<String, Object>> toxics) {
         try {
-            Proxy proxy = getProxy(proxyName);
-            switch (chaosType) {
-                case LATENCY:
-                    addLatencyToxic(proxy, params);
-                    break;
-                case BANDWIDTH:
-                    addBandwidthToxic(proxy, params);
-                    break;
-                case PACKET_LOSS:
-                    addPacketLossToxic(proxy, params);
-                    break;
-                case TIMEOUT:
-                    addTimeoutToxic(proxy, params);
-                    break;
-                default:
-                    throw new IllegalArgumentException("Unsupported chaos type: " + chaosType);
+            engine.replaceToxics(proxyName, toxics);
+            if (toxics.isEmpty()) {
+                active.remove(proxyName);
+            } else {
+                active.put(proxyName, new EnumMap<>(toxics));
             }
+            changed(proxyName);
         } catch (IOException e) {
-            log.error("Failed to simulate chaos: {}", e.getMessage());
-            throw new RuntimeException("Chaos simulation failed", e);
+            log.error("Failed to replace chaos: {}", e.getMessage());
+            throw new RuntimeException("Chaos replacement failed", e);
         }
     }
 
-    private void addLatencyToxic(Proxy proxy, Map<String, Object> params) throws IOException {
-        Long latency = (Long) params.get("latency");
-        Double jitter = (Double) params.getOrDefault("jitter", 0.0);
-        proxy.toxics().latency("latency_toxic", ToxicDirection.DOWNSTREAM, latency)
-             .setJitter(jitter.longValue());
+    // All or nothing: if any proxy of the group cannot be changed, the ones already changed are restored
+    public void replaceGroup(Map<String, Map<ChaosType, Map<String, Object>>> toxicsByProxy) {
+        Map<String, Map<ChaosType, Map<String, Object>>> previous = new HashMap<>();
+        toxicsByProxy.keySet().forEach(proxyName -> previous.put(proxyName, active.getOrDefault(proxyName, Map.of())));
+        try {
+            engine.replaceGroup(toxicsByProxy);
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to replace chaos on {}: {}", toxicsByProxy.keySet(), e.getMessage());
+            previous.forEach((proxyName, toxics) -> {
+                try {
+                    engine.replaceToxics(proxyName, toxics);
+                } catch (IOException | RuntimeException rollback) {
+                    log.warn("Failed to restore chaos on {}: {}", proxyName, rollback.getMessage());
+                }
+            });
+            throw new RuntimeException("Group chaos replacement failed", e);
+        }
+        toxicsByProxy.forEach((proxyName, toxics) -> {
+            if (toxics.isEmpty()) {
+                active.remove(proxyName);
+            } else {
+                active.put(proxyName, new EnumMap<>(toxics));
+            }
+            changed(proxyName);
+        });
+        log.debug("Replaced chaos on {} proxies: {}", toxicsByProxy.size(), toxicsByProxy.keySet());
     }
 
-    private void addBandwidthToxic(Proxy proxy, Map<String, Object> params) throws IOException {
-        Long rate = (Long) params.get("rate");
-        proxy.toxics().bandwidth("bandwidth_toxic", ToxicDirection.DOWNSTREAM, rate);
+    // Connections on the proxy that were accepted at or after sinceNanos and have closed since
+    public List<ConnectionTrace> getConnectionTraces(String proxyName, long sinceNanos) {
+        try {
+            return engine.connectionTraces(proxyName).stream()
+                    .filter(trace -> trace.getAcceptedNanos() - sinceNanos >= 0)
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            log.error("Failed to read connection traces: {}", e.getMessage());
+            throw new RuntimeException("Connection trace read failed", e);
+        }
     }
 
-    private void addPacketLossToxic(Proxy proxy, Map<String, Object> params) throws IOException {
-        Integer percentage = (Integer) params.get("percentage");
-        long bytes = 100; // Default value for data limit
-        proxy.toxics().limitData("packet_loss_toxic", ToxicDirection.DOWNSTREAM, bytes)
-             .setToxicity(percentage.floatValue() / 100);
+    public Map<String, Map<ChaosType, Map<String, Object>>> getActiveChaos() {
+        return new HashMap<>(active);
     }
 
-    private void addTimeoutToxic(Proxy proxy, Map<String, Object> params) throws IOException {
-        Long timeout = (Long) params.get("timeout");
-        proxy.toxics().timeout("timeout_toxic", ToxicDirection.DOWNSTREAM, timeout);
+    public void simulateChaos(String proxyName, ChaosType chaosType, Map<String, Object> params) {
+        try {
+            engine.apply(proxyName, chaosType, params);
+            active.compute(proxyName, (name, toxics) -> {
+                Map<ChaosType, Map<String, Object>> updated = toxics != null ? new EnumMap<>(toxics) : new EnumMap<>(ChaosType.class);
+                updated.put(chaosType, new HashMap<>(params));
+                return updated;
+            });
+            changed(proxyName);
+        } catch (IOException e) {
+            log.error("Failed to simulate chaos: {}", e.getMessage());
+            throw new RuntimeException("Chaos simulation failed", e);
+        }
     }
 
-    private Proxy getProxy(String name) throws IOException {
-        if (!proxies.containsKey(name)) {
-            proxies.put(name, toxiproxyClient.getProxy(name));
+    // Recorded in the run result file and stamped on the samples that go through the proxy
+    private void changed(String proxyName) {
+        if (runResults != null) {
+            runResults.chaosChanged(proxyName, active.getOrDefault(proxyName, Map.of()).keySet());
         }
-        return proxies.get(name);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,100 @@
+package com.chaos.proxy;
+
+import com.chaos.config.ToxiproxyProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands each scenario its own proxy (own name and listen port, shared upstream) so parallel
+ * scenarios never see each other's toxics. Released proxies are reset and reused.
+ */
+@Slf4j
+@Component
+public class ProxyPool {
+
+    private final ChaosEngine engine;
+    private final ProxyManager proxyManager;
+    private final ProxyProvisioner provisioner;
+    private final ToxiproxyProperties.ProxyConfig template;
+    private final String templateName;
+    private final String clientHost;
+    private final String scheme;
+    private final Queue<ProxyLease> idle = new ConcurrentLinkedQueue<>();
+    private final Set<String> created = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    public ProxyPool(ChaosEngine engine, ProxyManager proxyManager, ProxyProvisioner provisioner,
+                     ToxiproxyProperties properties,
+                     @Value("${toxiproxy.pool.template:store-api}") String templateName,
+                     @Value("${test.api.url}") String apiUrl) {
+        this.engine = engine;
+        this.proxyManager = proxyManager;
+        this.provisioner = provisioner;
+        this.templateName = templateName;
+        this.template = properties.getProxies().get(templateName);
+        if (template == null) {
+            throw new IllegalStateException("No proxy configured for pool template: " + templateName);
+        }
+        this.clientHost = "embedded".equals(properties.getEngine()) ? "localhost" : properties.getHost();
+        this.scheme = URI.create(apiUrl).getScheme();
+    }
+
+    public ProxyLease lease() throws IOException {
+        ProxyLease lease = idle.poll();
+        if (lease != null) {
+            return lease;
+        }
+        // Surfaces a failed or slow deferred startup at the first scenario rather than mid-run
+        provisioner.awaitProxies();
+        String name = templateName + "-" + sequence.incrementAndGet();
+        String listen = engine.createProxy(name, listenHost() + ":0", template.getUpstream());
+        created.add(name);
+        lease = new ProxyLease(name, listen, scheme + "://" + clientHost + ":" + port(listen));
+        log.info("Leased new proxy {} at {}", name, lease.getBaseUri());
+        return lease;
+    }
+
+    public void release(ProxyLease lease) {
+        try {
+            proxyManager.reset(lease.getName());
+            idle.add(lease);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to reset proxy {}, discarding it: {}", lease.getName(), e.getMessage());
+            delete(lease.getName());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        created.forEach(this::delete);
+        idle.clear();
+    }
+
+    private void delete(String name) {
+        try {
+            engine.deleteProxy(name);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to delete proxy {}: {}", name, e.getMessage());
+        }
+        created.remove(name);
+    }
+
+    private String listenHost() {
+        String listen = template.getListen();
+        return listen.substring(0, listen.lastIndexOf(':'));
+    }
+
+    private static int port(String listen) {
+        return Integer.parseInt(listen.substring(listen.lastIndexOf(':') + 1));
+    }
+}
@@ -0,0 +1,126 @@
+package com.chaos.proxy;
+
+import com.chaos.config.StartupProperties;
+import com.chaos.config.StartupReport;
+import com.chaos.config.ToxiproxyProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates every proxy in {@code toxiproxy.proxies} concurrently. Startup waits for them unless
+ * {@code test.startup.defer-proxies} is set, in which case creation starts in the background once
+ * the context is refreshed and the first caller of {@link #awaitProxies()} waits for what is left.
+ */
+@Slf4j
+@Component
+public class ProxyProvisioner implements ApplicationListener<ContextRefreshedEvent> {
+
+    private final ChaosEngine engine;
+    private final ToxiproxyProperties properties;
+    private final StartupProperties startup;
+    private final StartupReport startupReport;
+    private CompletableFuture<Map<String, String>> created;
+
+    public ProxyProvisioner(ChaosEngine engine, ToxiproxyProperties properties, StartupProperties startup,
+                            StartupReport startupReport) {
+        this.engine = engine;
+        this.properties = properties;
+        this.startup = startup;
+        this.startupReport = startupReport;
+    }
+
+    @PostConstruct
+    public void createEagerly() {
+        if (!startup.isDeferProxies()) {
+            awaitProxies();
+        }
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        start();
+    }
+
+    // Listen addresses by proxy name
+    public Map<String, String> awaitProxies() {
+        CompletableFuture<Map<String, String>> proxies = start();
+        try {
+            return proxies.get(startup.getProxyTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Proxies not created within " + startup.getProxyTimeoutMs() + " ms");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to create proxies: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while creating proxies", e);
+        }
+    }
+
+    private synchronized CompletableFuture<Map<String, String>> start() {
+        if (created != null) {
+            return created;
+        }
+        long begin = System.nanoTime();
+        Map<String, ToxiproxyProperties.ProxyConfig> configs = properties.getProxies();
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(startup.getProxyThreads(), configs.size())), daemonThreads());
+        List<String> names = new ArrayList<>(configs.keySet());
+        List<CompletableFuture<String>> listens = new ArrayList<>(names.size());
+        for (String name : names) {
+            ToxiproxyProperties.ProxyConfig config = configs.get(name);
+            listens.add(CompletableFuture.supplyAsync(() -> create(name, config), executor));
+        }
+        created = CompletableFuture.allOf(listens.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> {
+                    Map<String, String> byName = new LinkedHashMap<>();
+                    for (int i = 0; i < names.size(); i++) {
+                        byName.put(names.get(i), listens.get(i).join());
+                    }
+                    return byName;
+                })
+                .whenComplete((byName, failure) -> {
+                    executor.shutdown();
+                    long elapsed = System.nanoTime() - begin;
+                    startupReport.phase("proxy-creation", elapsed);
+                    if (failure == null) {
+                        log.info("Created {} proxies in {} ms", byName.size(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+                    }
+                });
+        return created;
+    }
+
+    private String create(String name, ToxiproxyProperties.ProxyConfig config) {
+        try {
+            return engine.createProxy(name, config.getListen(), config.getUpstream());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create proxy " + name, e);
+        }
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "proxy-provisioner-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
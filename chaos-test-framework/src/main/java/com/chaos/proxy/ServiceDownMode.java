@@ -0,0 +1,19 @@
+package com.chaos.proxy;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * How {@link ChaosType#SERVICE_DOWN} takes the service away, chosen with the {@code mode} parameter.
+ */
+public enum ServiceDownMode {
+    // The process is gone: open connections are reset and new ones are refused
+    REFUSE,
+    // The network is gone: connections stay open but nothing gets through until it heals
+    PARTITION;
+
+    public static ServiceDownMode of(Map<String, Object> params) {
+        Object mode = params.get("mode");
+        return mode == null ? REFUSE : valueOf(mode.toString().trim().toUpperCase(Locale.ROOT));
+    }
+}
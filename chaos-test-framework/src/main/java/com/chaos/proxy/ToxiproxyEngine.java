@@ -0,0 +1,303 @@
+package com.chaos.proxy;
+
+import eu.rekawek.toxiproxy.Proxy;
+import eu.rekawek.toxiproxy.ToxiproxyClient;
+import eu.rekawek.toxiproxy.model.Toxic;
+import eu.rekawek.toxiproxy.model.ToxicDirection;
+import eu.rekawek.toxiproxy.model.toxic.Bandwidth;
+import eu.rekawek.toxiproxy.model.toxic.Latency;
+import eu.rekawek.toxiproxy.model.toxic.ResetPeer;
+import eu.rekawek.toxiproxy.model.toxic.SlowClose;
+import eu.rekawek.toxiproxy.model.toxic.Timeout;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IllegalFormatException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Drives a Toxiproxy server through a per-proxy cache of toxic handles that mirrors server state.
+ * Changes are applied as diffs: unchanged toxics cost nothing, changed ones are updated in place.
+ * A refusing service-down disables the proxy instead of adding a toxic, which Toxiproxy has none of.
+ */
+@Slf4j
+public class ToxiproxyEngine implements ChaosEngine {
+
+    private final ToxiproxyClient toxiproxyClient;
+    private final Map<String, ProxyState> proxies = new ConcurrentHashMap<>();
+
+    public ToxiproxyEngine(ToxiproxyClient toxiproxyClient) {
+        this.toxiproxyClient = toxiproxyClient;
+    }
+
+    @Override
+    public String createProxy(String name, String listen, String upstream) throws IOException {
+        Proxy proxy = toxiproxyClient.createProxy(name, listen, upstream);
+        proxies.put(name, new ProxyState(proxy));
+        log.info("Created Toxiproxy proxy {} listening on {} -> {}", name, proxy.getListen(), upstream);
+        return proxy.getListen();
+    }
+
+    @Override
+    public void deleteProxy(String name) throws IOException {
+        ProxyState state = proxies.remove(name);
+        Proxy proxy = state != null ? state.proxy : toxiproxyClient.getProxyOrNull(name);
+        if (proxy != null) {
+            proxy.delete();
+        }
+    }
+
+    @Override
+    public void apply(String proxyName, ChaosType chaosType, Map<String, Object> params) throws IOException {
+        ProxyState state = getState(proxyName);
+        synchronized (state) {
+            applyCached(state, chaosType, params);
+        }
+    }
+
+    @Override
+    public void remove(String proxyName, ChaosType chaosType) throws IOException {
+        ProxyState state = getState(proxyName);
+        synchronized (state) {
+            removeCached(state, chaosType);
+        }
+    }
+
+    @Override
+    public void reset(String proxyName) throws IOException {
+        ProxyState state = getState(proxyName);
+        synchronized (state) {
+            for (ChaosType chaosType : ChaosType.values()) {
+                removeCached(state, chaosType);
+            }
+            for (Toxic toxic : state.foreign) {
+                toxic.remove();
+            }
+            state.foreign.clear();
+            if (!state.enabled) {
+                state.proxy.enable();
+                state.enabled = true;
+            }
+        }
+    }
+
+    @Override
+    public void replaceToxics(String proxyName, Map<ChaosType, Map<String, Object>> toxics) throws IOException {
+        ProxyState state = getState(proxyName);
+        synchronized (state) {
+            for (ChaosType chaosType : ChaosType.values()) {
+                if (!toxics.containsKey(chaosType)) {
+                    removeCached(state, chaosType);
+                }
+            }
+            for (Map.Entry<ChaosType, Map<String, Object>> toxic : toxics.entrySet()) {
+                applyCached(state, toxic.getKey(), toxic.getValue());
+            }
+        }
+    }
+
+    // Drops the cached view and reloads it, for when something else has changed the server
+    public void refresh(String proxyName) throws IOException {
+        ProxyState state = getState(proxyName);
+        synchronized (state) {
+            state.load();
+        }
+    }
+
+    private void applyCached(ProxyState state, ChaosType chaosType, Map<String, Object> params) throws IOException {
+        Map<String, Object> current = state.params.get(chaosType);
+        if (params.equals(current)) {
+            return;
+        }
+        if (chaosType == ChaosType.SERVICE_DOWN) {
+            applyServiceDown(state, params);
+            return;
+        }
+        Toxic existing = state.toxics.get(chaosType);
+        Toxic toxic;
+        if (existing == null) {
+            toxic = create(state.proxy, chaosType, params);
+        } else {
+            try {
+                toxic = update(existing, chaosType, current, params);
+            } catch (IOException | IllegalFormatException e) {
+                // toxiproxy-java surfaces some HTTP error statuses as a message formatting failure
+                log.warn("Cached {} toxic on {} is stale, reloading: {}", chaosType, state.proxy.getName(), e.getMessage());
+                state.load();
+                removeCached(state, chaosType);
+                toxic = create(state.proxy, chaosType, params);
+            }
+        }
+        state.toxics.put(chaosType, toxic);
+        state.params.put(chaosType, new HashMap<>(params));
+    }
+
+    private void removeCached(ProxyState state, ChaosType chaosType) throws IOException {
+        Toxic toxic = state.toxics.remove(chaosType);
+        state.params.remove(chaosType);
+        if (toxic != null) {
+            toxic.remove();
+        }
+        if (chaosType == ChaosType.SERVICE_DOWN && !state.enabled) {
+            state.proxy.enable();
+            state.enabled = true;
+        }
+    }
+
+    // Disabling closes the listener and every open connection; a partition is an upstream timeout of 0,
+    // which holds connections open and drops what the client sends until it is removed
+    private void applyServiceDown(ProxyState state, Map<String, Object> params) throws IOException {
+        ServiceDownMode mode = ServiceDownMode.of(params);
+        removeCached(state, ChaosType.SERVICE_DOWN);
+        if (mode == ServiceDownMode.REFUSE) {
+            state.proxy.disable();
+            state.enabled = false;
+        } else {
+            state.toxics.put(ChaosType.SERVICE_DOWN, state.proxy.toxics()
+                    .timeout(toxicName(ChaosType.SERVICE_DOWN), ToxicDirection.UPSTREAM, 0));
+        }
+        state.params.put(ChaosType.SERVICE_DOWN, new HashMap<>(params));
+    }
+
+    private Toxic create(Proxy proxy, ChaosType chaosType, Map<String, Object> params) throws IOException {
+        switch (chaosType) {
+            case LATENCY:
+                return addLatencyToxic(proxy, params);
+            case BANDWIDTH:
+                return addBandwidthToxic(proxy, params);
+            case PACKET_LOSS:
+                return addPacketLossToxic(proxy, params);
+            case TIMEOUT:
+                return addTimeoutToxic(proxy, params);
+            case RESET_PEER:
+                return proxy.toxics().resetPeer(toxicName(ChaosType.RESET_PEER), ToxicDirection.DOWNSTREAM,
+                        longParam(params, "timeout"));
+            case SLOW_CLOSE:
+                return proxy.toxics().slowClose(toxicName(ChaosType.SLOW_CLOSE), ToxicDirection.DOWNSTREAM,
+                        longParam(params, "delay"));
+            default:
+                throw new IllegalArgumentException("Unsupported chaos type: " + chaosType);
+        }
+    }
+
+    private Toxic update(Toxic toxic, ChaosType chaosType, Map<String, Object> current, Map<String, Object> params)
+            throws IOException {
+        Map<String, Object> previous = current != null ? current : Map.of();
+        switch (chaosType) {
+            case LATENCY:
+                Latency latency = (Latency) toxic;
+                if (changed(previous, params, "latency")) {
+                    latency.setLatency(longParam(params, "latency"));
+                }
+                if (changed(previous, params, "jitter")) {
+                    latency.setJitter(longParam(params, "jitter"));
+                }
+                return latency;
+            case BANDWIDTH:
+                return ((Bandwidth) toxic).setRate(longParam(params, "rate"));
+            case PACKET_LOSS:
+                toxic.setToxicity(longParam(params, "percentage") / 100f);
+                return toxic;
+            case TIMEOUT:
+                return ((Timeout) toxic).setTimeout(longParam(params, "timeout"));
+            case RESET_PEER:
+                return ((ResetPeer) toxic).setTimeout(longParam(params, "timeout"));
+            case SLOW_CLOSE:
+                return ((SlowClose) toxic).setDelay(longParam(params, "delay"));
+            default:
+                throw new IllegalArgumentException("Unsupported chaos type: " + chaosType);
+        }
+    }
+
+    private Toxic addLatencyToxic(Proxy proxy, Map<String, Object> params) throws IOException {
+        long latency = longParam(params, "latency");
+        long jitter = longParam(params, "jitter");
+        return proxy.toxics().latency(toxicName(ChaosType.LATENCY), ToxicDirection.DOWNSTREAM, latency)
+             .setJitter(jitter);
+    }
+
+    private Toxic addBandwidthToxic(Proxy proxy, Map<String, Object> params) throws IOException {
+        long rate = longParam(params, "rate");
+        return proxy.toxics().bandwidth(toxicName(ChaosType.BANDWIDTH), ToxicDirection.DOWNSTREAM, rate);
+    }
+
+    private Toxic addPacketLossToxic(Proxy proxy, Map<String, Object> params) throws IOException {
+        long percentage = longParam(params, "percentage");
+        long bytes = 100; // Default value for data limit
+        Toxic toxic = proxy.toxics().limitData(toxicName(ChaosType.PACKET_LOSS), ToxicDirection.DOWNSTREAM, bytes);
+        toxic.setToxicity(percentage / 100f);
+        return toxic;
+    }
+
+    private Toxic addTimeoutToxic(Proxy proxy, Map<String, Object> params) throws IOException {
+        long timeout = longParam(params, "timeout");
+        return proxy.toxics().timeout(toxicName(ChaosType.TIMEOUT), ToxicDirection.DOWNSTREAM, timeout);
+    }
+
+    private ProxyState getState(String name) throws IOException {
+        ProxyState state = proxies.get(name);
+        if (state == null) {
+            ProxyState loaded = new ProxyState(toxiproxyClient.getProxy(name));
+            loaded.load();
+            state = proxies.putIfAbsent(name, loaded);
+            if (state == null) {
+                state = loaded;
+            }
+        }
+        return state;
+    }
+
+    private static boolean changed(Map<String, Object> previous, Map<String, Object> params, String key) {
+        return !Objects.equals(previous.get(key), params.get(key));
+    }
+
+    private static long longParam(Map<String, Object> params, String key) {
+        Object value = params.get(key);
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+
+    private static String toxicName(ChaosType chaosType) {
+        return chaosType.name().toLowerCase(Locale.ROOT) + "_toxic";
+    }
+
+    private static final class ProxyState {
+        private final Proxy proxy;
+        private final Map<ChaosType, Toxic> toxics = new EnumMap<>(ChaosType.class);
+        // Parameters last sent for each cached toxic; absent when the toxic was found on the server
+        private final Map<ChaosType, Map<String, Object>> params = new EnumMap<>(ChaosType.class);
+        // Toxics created outside this engine; only a reset removes them
+        private final List<Toxic> foreign = new ArrayList<>();
+        private boolean enabled = true;
+
+        private ProxyState(Proxy proxy) {
+            this.proxy = proxy;
+        }
+
+        private void load() throws IOException {
+            toxics.clear();
+            params.clear();
+            foreign.clear();
+            enabled = proxy.isEnabled();
+            for (Toxic toxic : proxy.toxics().getAll()) {
+                ChaosType owner = null;
+                for (ChaosType chaosType : ChaosType.values()) {
+                    if (toxicName(chaosType).equals(toxic.getName())) {
+                        owner = chaosType;
+                    }
+                }
+                if (owner != null) {
+                    toxics.put(owner, toxic);
+                } else {
+                    foreign.add(toxic);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.chaos.proxy.embedded;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Per-loop pool of direct buffers. Not thread-safe: only the owning event loop acquires and
+ * releases, which keeps the data path free of locks and of heap copies.
+ */
+final class BufferPool {
+
+    private final int bufferSize;
+    private final int maxRetained;
+    private final ArrayDeque<ByteBuffer> free = new ArrayDeque<>();
+
+    BufferPool(int bufferSize, int maxRetained) {
+        this.bufferSize = bufferSize;
+        this.maxRetained = maxRetained;
+    }
+
+    ByteBuffer acquire() {
+        ByteBuffer buffer = free.poll();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    void release(ByteBuffer buffer) {
+        if (free.size() < maxRetained) {
+            buffer.clear();
+            free.push(buffer);
+        }
+    }
+
+    int bufferSize() {
+        return bufferSize;
+    }
+}
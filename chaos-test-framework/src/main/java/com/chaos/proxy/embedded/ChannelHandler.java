@@ -0,0 +1,11 @@
+package com.chaos.proxy.embedded;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+
+interface ChannelHandler {
+
+    void onReady(SelectionKey key) throws IOException;
+
+    void onError(IOException e);
+}
@@ -0,0 +1,173 @@
+package com.chaos.proxy.embedded;
+
+import com.chaos.proxy.ChaosType;
+import com.chaos.proxy.ConnectionTrace;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+final class EmbeddedProxy implements ChannelHandler {
+
+    private static final int ACCEPT_BACKLOG = 4096;
+
+    private final String name;
+    private final InetSocketAddress upstream;
+    private final EmbeddedProxyEngine engine;
+    private final ServerSocketChannel server;
+    private final Set<ProxyConnection> connections = ConcurrentHashMap.newKeySet();
+    private final TraceRing traces;
+    private volatile List<Toxic> toxics = List.of();
+    private volatile EventLoop loop;
+
+    EmbeddedProxy(String name, InetSocketAddress listen, InetSocketAddress upstream, EmbeddedProxyEngine engine,
+                  int traceCapacity) throws IOException {
+        this.name = name;
+        this.upstream = upstream;
+        this.engine = engine;
+        this.traces = new TraceRing(traceCapacity);
+        this.server = ServerSocketChannel.open();
+        this.server.configureBlocking(false);
+        this.server.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        this.server.bind(listen, ACCEPT_BACKLOG);
+    }
+
+    void start(EventLoop loop) {
+        this.loop = loop;
+        loop.execute(() -> {
+            try {
+                loop.register(server, SelectionKey.OP_ACCEPT, this);
+            } catch (ClosedChannelException e) {
+                // Closed before the loop got to it: the proxy was deleted right after being created
+                log.debug("Proxy {} closed before it started accepting", name);
+            }
+        });
+    }
+
+    String name() {
+        return name;
+    }
+
+    InetSocketAddress upstream() {
+        return upstream;
+    }
+
+    int port() {
+        return server.socket().getLocalPort();
+    }
+
+    List<Toxic> toxics() {
+        return toxics;
+    }
+
+    Toxic toxic(ChaosType type, long connectionId) {
+        for (Toxic toxic : toxics) {
+            if (toxic.type == type && toxic.appliesTo(connectionId)) {
+                return toxic;
+            }
+        }
+        return null;
+    }
+
+    synchronized void addToxic(Toxic toxic) {
+        List<Toxic> updated = new ArrayList<>(toxics.size() + 1);
+        for (Toxic existing : toxics) {
+            if (existing.type != toxic.type) {
+                updated.add(existing);
+            }
+        }
+        updated.add(toxic);
+        toxics = List.copyOf(updated);
+        notifyConnections();
+    }
+
+    synchronized void removeToxic(ChaosType type) {
+        List<Toxic> updated = new ArrayList<>(toxics);
+        if (updated.removeIf(toxic -> toxic.type == type)) {
+            toxics = List.copyOf(updated);
+            notifyConnections();
+        }
+    }
+
+    synchronized void replaceToxics(List<Toxic> replacement) {
+        toxics = List.copyOf(replacement);
+        notifyConnections();
+    }
+
+    synchronized void reset() {
+        toxics = List.of();
+        notifyConnections();
+    }
+
+    void remove(ProxyConnection connection, ConnectionTrace trace) {
+        connections.remove(connection);
+        traces.add(trace);
+    }
+
+    List<ConnectionTrace> traces() {
+        return traces.snapshot();
+    }
+
+    @Override
+    public void onReady(SelectionKey key) throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            try {
+                accept(channel);
+            } catch (IOException e) {
+                // Drop only this connection; the rest of the backlog is still accepted
+                log.warn("Failed to set up connection on proxy {}: {}", name, e.getMessage());
+                close(channel);
+            }
+        }
+    }
+
+    private void accept(SocketChannel channel) throws IOException {
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        EventLoop loop = engine.nextLoop();
+        ProxyConnection connection = new ProxyConnection(this, loop, channel);
+        connections.add(connection);
+        loop.execute(connection::open);
+    }
+
+    private static void close(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("Failed to close channel: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onError(IOException e) {
+        log.warn("Accept failed on proxy {}: {}", name, e.getMessage());
+    }
+
+    void close() throws IOException {
+        server.close();
+        connections.forEach(ProxyConnection::closeLater);
+        if (loop != null) {
+            try {
+                // Wait for the listening port to be released so it can be bound again right away
+                loop.awaitSelect();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void notifyConnections() {
+        connections.forEach(ProxyConnection::toxicsChanged);
+    }
+}
@@ -0,0 +1,159 @@
+package com.chaos.proxy.embedded;
+
+import com.chaos.proxy.ChaosEngine;
+import com.chaos.proxy.ChaosType;
+import com.chaos.proxy.ConnectionTrace;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process alternative to the Toxiproxy server. Proxies run on one non-blocking event loop per
+ * core, so toxics change with a method call instead of an admin API round-trip.
+ */
+@Slf4j
+public class EmbeddedProxyEngine implements ChaosEngine {
+
+    private static final int DEFAULT_TRACE_CAPACITY = 4096;
+
+    private final EventLoop[] loops;
+    private final int traceCapacity;
+    private final AtomicInteger nextLoop = new AtomicInteger();
+    private final Map<String, EmbeddedProxy> proxies = new ConcurrentHashMap<>();
+    private final Object groupLock = new Object();
+
+    public EmbeddedProxyEngine() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public EmbeddedProxyEngine(int threads) {
+        this(threads, DEFAULT_TRACE_CAPACITY);
+    }
+
+    // traceCapacity is the number of closed connections each proxy keeps for connectionTraces
+    public EmbeddedProxyEngine(int threads, int traceCapacity) {
+        this.traceCapacity = traceCapacity;
+        this.loops = new EventLoop[threads];
+        try {
+            for (int i = 0; i < threads; i++) {
+                loops[i] = new EventLoop("chaos-proxy-" + i);
+            }
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException("Failed to start proxy event loops", e);
+        }
+    }
+
+    @Override
+    public String createProxy(String name, String listen, String upstream) throws IOException {
+        InetSocketAddress listenAddress = parseAddress(listen);
+        EmbeddedProxy proxy = new EmbeddedProxy(name, listenAddress, parseAddress(upstream), this, traceCapacity);
+        if (proxies.putIfAbsent(name, proxy) != null) {
+            proxy.close();
+            throw new IOException("Proxy already exists: " + name);
+        }
+        proxy.start(nextLoop());
+        log.info("Created embedded proxy {} listening on port {} -> {}", name, proxy.port(), upstream);
+        return listenAddress.getHostString() + ":" + proxy.port();
+    }
+
+    @Override
+    public void deleteProxy(String name) throws IOException {
+        EmbeddedProxy proxy = proxies.remove(name);
+        if (proxy != null) {
+            proxy.close();
+        }
+    }
+
+    @Override
+    public void apply(String proxyName, ChaosType chaosType, Map<String, Object> params) throws IOException {
+        getProxy(proxyName).addToxic(Toxic.of(chaosType, params));
+    }
+
+    @Override
+    public void remove(String proxyName, ChaosType chaosType) throws IOException {
+        getProxy(proxyName).removeToxic(chaosType);
+    }
+
+    @Override
+    public void reset(String proxyName) throws IOException {
+        getProxy(proxyName).reset();
+    }
+
+    @Override
+    public void replaceToxics(String proxyName, Map<ChaosType, Map<String, Object>> toxics) throws IOException {
+        List<Toxic> replacement = new ArrayList<>(toxics.size());
+        toxics.forEach((chaosType, params) -> replacement.add(Toxic.of(chaosType, params)));
+        getProxy(proxyName).replaceToxics(replacement);
+    }
+
+    // Everything that can fail is done before the first proxy changes, then all are switched together
+    @Override
+    public void replaceGroup(Map<String, Map<ChaosType, Map<String, Object>>> toxicsByProxy) throws IOException {
+        Map<EmbeddedProxy, List<Toxic>> replacements = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<ChaosType, Map<String, Object>>> proxy : toxicsByProxy.entrySet()) {
+            List<Toxic> replacement = new ArrayList<>(proxy.getValue().size());
+            proxy.getValue().forEach((chaosType, params) -> replacement.add(Toxic.of(chaosType, params)));
+            replacements.put(getProxy(proxy.getKey()), replacement);
+        }
+        synchronized (groupLock) {
+            replacements.forEach(EmbeddedProxy::replaceToxics);
+        }
+    }
+
+    @Override
+    public List<ConnectionTrace> connectionTraces(String proxyName) throws IOException {
+        return getProxy(proxyName).traces();
+    }
+
+    public int getListenPort(String proxyName) throws IOException {
+        return getProxy(proxyName).port();
+    }
+
+    @Override
+    public void close() {
+        proxies.values().forEach(proxy -> {
+            try {
+                proxy.close();
+            } catch (IOException e) {
+                log.warn("Failed to close proxy {}: {}", proxy.name(), e.getMessage());
+            }
+        });
+        proxies.clear();
+        for (EventLoop loop : loops) {
+            if (loop != null) {
+                loop.close();
+            }
+        }
+    }
+
+    EventLoop nextLoop() {
+        return loops[Math.floorMod(nextLoop.getAndIncrement(), loops.length)];
+    }
+
+    private EmbeddedProxy getProxy(String name) throws IOException {
+        EmbeddedProxy proxy = proxies.get(name);
+        if (proxy == null) {
+            throw new IOException("Unknown proxy: " + name);
+        }
+        return proxy;
+    }
+
+    private static InetSocketAddress parseAddress(String address) {
+        int separator = address.lastIndexOf(':');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Expected host:port but got " + address);
+        }
+        String host = address.substring(0, separator);
+        int port = Integer.parseInt(address.substring(separator + 1));
+        return host.isEmpty() ? new InetSocketAddress(port) : new InetSocketAddress(host, port);
+    }
+}
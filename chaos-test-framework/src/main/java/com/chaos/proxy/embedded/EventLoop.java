@@ -0,0 +1,208 @@
+package com.chaos.proxy.embedded;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded selector loop. Channels, timers and everything attached to them are only
+ * touched from the loop thread; other threads hand work over through {@link #execute}.
+ */
+@Slf4j
+final class EventLoop implements Runnable, Closeable {
+
+    static final int BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_POOLED_BUFFERS = 512;
+
+    private final Selector selector;
+    private final Thread thread;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final PriorityQueue<Timer> timers = new PriorityQueue<>();
+    private final BufferPool bufferPool = new BufferPool(BUFFER_SIZE, MAX_POOLED_BUFFERS);
+    private final ByteBuffer ioBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private volatile boolean running = true;
+    private long timerSequence;
+
+    EventLoop(String name) throws IOException {
+        this.selector = Selector.open();
+        this.thread = new Thread(this, name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    void execute(Runnable task) {
+        tasks.add(task);
+        if (Thread.currentThread() != thread) {
+            selector.wakeup();
+        }
+    }
+
+    // A channel closed off the loop keeps its socket until the selector deregisters it on its next select
+    void awaitSelect() throws InterruptedException {
+        if (Thread.currentThread() == thread || !running) {
+            return;
+        }
+        CountDownLatch selected = new CountDownLatch(1);
+        execute(selected::countDown);
+        selected.await(1, TimeUnit.SECONDS);
+    }
+
+    SelectionKey register(SelectableChannel channel, int ops, ChannelHandler handler) throws ClosedChannelException {
+        return channel.register(selector, ops, handler);
+    }
+
+    BufferPool bufferPool() {
+        return bufferPool;
+    }
+
+    // Scratch buffer for the pass-through path; its contents never outlive a single handler call
+    ByteBuffer ioBuffer() {
+        return ioBuffer.clear();
+    }
+
+    Timer schedule(long delayNanos, Runnable task) {
+        Timer timer = new Timer(System.nanoTime() + delayNanos, timerSequence++, task);
+        timers.add(timer);
+        return timer;
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                long timeout = nextTimeoutMillis();
+                if (timeout < 0) {
+                    selector.selectNow();
+                } else {
+                    selector.select(timeout);
+                }
+                processSelectedKeys();
+                runTasks();
+                runTimers();
+            } catch (Throwable t) {
+                log.error("Unexpected error in event loop {}", thread.getName(), t);
+            }
+        }
+        closeSelector();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+    }
+
+    private long nextTimeoutMillis() {
+        if (!tasks.isEmpty()) {
+            return -1;
+        }
+        Timer next = timers.peek();
+        if (next == null) {
+            return 0;
+        }
+        long remaining = next.deadline - System.nanoTime();
+        if (remaining <= 0) {
+            return -1;
+        }
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining + 999_999));
+    }
+
+    private void processSelectedKeys() {
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            ChannelHandler handler = (ChannelHandler) key.attachment();
+            try {
+                if (key.isValid()) {
+                    handler.onReady(key);
+                }
+            } catch (CancelledKeyException e) {
+                // channel closed while handling an earlier key
+            } catch (IOException e) {
+                handler.onError(e);
+            }
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            runSafely(task);
+        }
+    }
+
+    private void runTimers() {
+        long now = System.nanoTime();
+        Timer timer;
+        while ((timer = timers.peek()) != null && timer.deadline <= now) {
+            timers.poll();
+            if (!timer.cancelled) {
+                runSafely(timer.task);
+            }
+        }
+    }
+
+    private void runSafely(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            log.error("Event loop task failed", e);
+        }
+    }
+
+    private void closeSelector() {
+        for (SelectionKey key : selector.keys()) {
+            try {
+                key.channel().close();
+            } catch (IOException e) {
+                log.debug("Failed to close channel on shutdown", e);
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            log.debug("Failed to close selector", e);
+        }
+    }
+
+    static final class Timer implements Comparable<Timer> {
+        private final long deadline;
+        private final long sequence;
+        private final Runnable task;
+        private boolean cancelled;
+
+        private Timer(long deadline, long sequence, Runnable task) {
+            this.deadline = deadline;
+            this.sequence = sequence;
+            this.task = task;
+        }
+
+        long deadline() {
+            return deadline;
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public int compareTo(Timer other) {
+            int byDeadline = Long.compare(deadline - other.deadline, 0);
+            return byDeadline != 0 ? byDeadline : Long.compare(sequence, other.sequence);
+        }
+    }
+}
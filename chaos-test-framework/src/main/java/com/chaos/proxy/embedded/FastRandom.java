@@ -0,0 +1,54 @@
+package com.chaos.proxy.embedded;
+
+/**
+ * SplitMix64 generator owned by a single connection. Not thread-safe and never allocates, so the
+ * network model can draw several values per segment on the event loop.
+ */
+final class FastRandom {
+
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    private long state;
+    private double spareGaussian;
+    private boolean hasSpare;
+
+    FastRandom(long seed) {
+        this.state = seed;
+    }
+
+    long nextLong() {
+        long z = (state += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // Uniform in [0, 1)
+    double nextDouble() {
+        return (nextLong() >>> 11) * DOUBLE_UNIT;
+    }
+
+    boolean nextBoolean(double probability) {
+        return probability > 0 && (probability >= 1 || nextDouble() < probability);
+    }
+
+    // Marsaglia polar method; the second value of each pair is kept for the next call
+    double nextGaussian() {
+        if (hasSpare) {
+            hasSpare = false;
+            return spareGaussian;
+        }
+        double u;
+        double v;
+        double s;
+        do {
+            u = 2 * nextDouble() - 1;
+            v = 2 * nextDouble() - 1;
+            s = u * u + v * v;
+        } while (s >= 1 || s == 0);
+        double scale = Math.sqrt(-2 * Math.log(s) / s);
+        spareGaussian = v * scale;
+        hasSpare = true;
+        return u * scale;
+    }
+}
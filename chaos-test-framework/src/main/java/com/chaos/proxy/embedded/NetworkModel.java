@@ -0,0 +1,230 @@
+package com.chaos.proxy.embedded;
+
+import com.chaos.utils.RandomSource;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stochastic WAN link applied per TCP segment of the response stream. The proxy carries a byte
+ * stream, so a lost segment costs a retransmission timeout instead of a gap in the data, a reordered
+ * segment holds back everything after it, and a duplicate costs bandwidth.
+ *
+ * <p>Percentages (loss, p, r, loss-good, loss-bad, reorder, duplicate) are 0-100; times are ms.
+ */
+final class NetworkModel {
+
+    enum Distribution { UNIFORM, NORMAL, PARETO, EMPIRICAL }
+
+    enum LossModel { BERNOULLI, GILBERT_ELLIOTT }
+
+    private static final int MAX_RETRANSMITS = 6;
+    private static final long MAX_DELAY_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private final Distribution distribution;
+    private final double latencyNanos;
+    private final double jitterNanos;
+    private final double shape;
+    private final double[] samplesNanos;
+    private final double correlation;
+    private final LossModel lossModel;
+    private final double loss;
+    private final double goodToBad;
+    private final double badToGood;
+    private final double lossGood;
+    private final double lossBad;
+    private final double reorder;
+    private final long reorderGapNanos;
+    private final double duplicate;
+    private final long rtoNanos;
+    private final int mss;
+    private final Long seed;
+
+    private NetworkModel(Map<String, Object> params) {
+        this.distribution = Distribution.valueOf(enumParam(params, "distribution", "uniform"));
+        this.latencyNanos = millisParam(params, "latency", 0);
+        this.jitterNanos = millisParam(params, "jitter", 0);
+        this.shape = doubleParam(params, "shape", 2.5);
+        this.samplesNanos = samples(params.get("samples"));
+        this.correlation = percentParam(params, "correlation", 0);
+        this.lossModel = LossModel.valueOf(enumParam(params, "loss-model", "bernoulli"));
+        this.loss = percentParam(params, "loss", 0);
+        this.goodToBad = percentParam(params, "p", 0);
+        this.badToGood = percentParam(params, "r", 100);
+        this.lossGood = percentParam(params, "loss-good", 0);
+        this.lossBad = percentParam(params, "loss-bad", 100);
+        this.reorder = percentParam(params, "reorder", 0);
+        this.reorderGapNanos = (long) millisParam(params, "reorder-gap", 10);
+        this.duplicate = percentParam(params, "duplicate", 0);
+        this.rtoNanos = (long) millisParam(params, "rto", 200);
+        this.mss = (int) doubleParam(params, "mss", 1460);
+        Object seedParam = params.get("seed");
+        if (seedParam instanceof Number) {
+            this.seed = ((Number) seedParam).longValue();
+        } else if (seedParam != null) {
+            this.seed = Long.valueOf(seedParam.toString().trim());
+        } else {
+            this.seed = null;
+        }
+
+        if (distribution == Distribution.PARETO && shape <= 0) {
+            throw new IllegalArgumentException("Pareto shape must be positive: " + shape);
+        }
+        if (distribution == Distribution.EMPIRICAL && samplesNanos.length == 0) {
+            throw new IllegalArgumentException("Empirical latency needs at least one sample");
+        }
+        if (mss <= 0) {
+            throw new IllegalArgumentException("mss must be positive: " + mss);
+        }
+    }
+
+    static NetworkModel of(Map<String, Object> params) {
+        return new NetworkModel(params);
+    }
+
+    // Per-connection state; an explicit model seed pins the link regardless of the run seed
+    Link link(long connectionId) {
+        long base = seed != null ? seed : RandomSource.seed();
+        return new Link(base ^ connectionId * 0x9E3779B97F4A7C15L);
+    }
+
+    final class Link {
+        private final FastRandom random;
+        private boolean bad;
+        private boolean hasPrevious;
+        private double previousNanos;
+        // Bytes put on the wire by the last transmit, retransmissions and duplicates included
+        private long wireBytes;
+
+        private Link(long seed) {
+            this.random = new FastRandom(seed);
+        }
+
+        NetworkModel model() {
+            return NetworkModel.this;
+        }
+
+        long wireBytes() {
+            return wireBytes;
+        }
+
+        // Delay until the last of length bytes can be delivered in order, relative to sending
+        long transmit(int length) {
+            long delivered = 0;
+            wireBytes = 0;
+            for (int offset = 0; offset < length; offset += mss) {
+                int segment = Math.min(mss, length - offset);
+                long arrival = latency();
+                long rto = rtoNanos;
+                for (int attempt = 0; attempt < MAX_RETRANSMITS && lost(); attempt++) {
+                    arrival += rto;
+                    rto <<= 1;
+                    wireBytes += segment;
+                }
+                wireBytes += segment;
+                if (random.nextBoolean(reorder)) {
+                    arrival += reorderGapNanos;
+                }
+                if (random.nextBoolean(duplicate)) {
+                    wireBytes += segment;
+                }
+                delivered = Math.max(delivered, arrival);
+            }
+            return Math.min(delivered, MAX_DELAY_NANOS);
+        }
+
+        private boolean lost() {
+            if (lossModel == LossModel.BERNOULLI) {
+                return random.nextBoolean(loss);
+            }
+            if (bad ? random.nextBoolean(badToGood) : random.nextBoolean(goodToBad)) {
+                bad = !bad;
+            }
+            return random.nextBoolean(bad ? lossBad : lossGood);
+        }
+
+        private long latency() {
+            double fresh;
+            switch (distribution) {
+                case NORMAL:
+                    fresh = latencyNanos + random.nextGaussian() * jitterNanos;
+                    break;
+                case PARETO:
+                    fresh = latencyNanos + jitterNanos * (Math.pow(1 - random.nextDouble(), -1 / shape) - 1);
+                    break;
+                case EMPIRICAL:
+                    fresh = empirical(random.nextDouble());
+                    break;
+                default:
+                    fresh = latencyNanos + (2 * random.nextDouble() - 1) * jitterNanos;
+                    break;
+            }
+            if (hasPrevious && correlation > 0) {
+                fresh = correlation * previousNanos + (1 - correlation) * fresh;
+            }
+            previousNanos = fresh;
+            hasPrevious = true;
+            return (long) Math.max(0, Math.min(fresh, MAX_DELAY_NANOS));
+        }
+    }
+
+    // Inverse CDF of the sorted samples, interpolating between neighbours
+    private double empirical(double u) {
+        double position = u * (samplesNanos.length - 1);
+        int index = (int) position;
+        if (index >= samplesNanos.length - 1) {
+            return samplesNanos[samplesNanos.length - 1];
+        }
+        return samplesNanos[index] + (position - index) * (samplesNanos[index + 1] - samplesNanos[index]);
+    }
+
+    private static double[] samples(Object value) {
+        if (value == null) {
+            return new double[0];
+        }
+        double[] samples;
+        if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            samples = new double[list.size()];
+            for (int i = 0; i < samples.length; i++) {
+                samples[i] = toDouble(list.get(i));
+            }
+        } else {
+            samples = Arrays.stream(value.toString().split("[,\\s]+"))
+                    .filter(sample -> !sample.isEmpty())
+                    .mapToDouble(Double::parseDouble)
+                    .toArray();
+        }
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] *= TimeUnit.MILLISECONDS.toNanos(1);
+        }
+        Arrays.sort(samples);
+        return samples;
+    }
+
+    private static String enumParam(Map<String, Object> params, String key, String defaultValue) {
+        Object value = params.get(key);
+        String name = value != null ? value.toString() : defaultValue;
+        return name.trim().replace('-', '_').toUpperCase(Locale.ROOT);
+    }
+
+    private static double millisParam(Map<String, Object> params, String key, double defaultMillis) {
+        return doubleParam(params, key, defaultMillis) * TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static double percentParam(Map<String, Object> params, String key, double defaultPercent) {
+        return doubleParam(params, key, defaultPercent) / 100;
+    }
+
+    private static double doubleParam(Map<String, Object> params, String key, double defaultValue) {
+        Object value = params.get(key);
+        return value != null ? toDouble(value) : defaultValue;
+    }
+
+    private static double toDouble(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : Double.parseDouble(value.toString().trim());
+    }
+}
@@ -0,0 +1,552 @@
+package com.chaos.proxy.embedded;
+
+import com.chaos.proxy.ChaosType;
+import com.chaos.proxy.ConnectionTrace;
+import com.chaos.proxy.ServiceDownMode;
+import com.chaos.utils.RandomSource;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One proxied TCP connection: a client socket and its upstream socket, both owned by a single
+ * event loop. Toxics act on the response (downstream) stream, as in the Toxiproxy engine.
+ * Lifecycle timestamps are plain fields written by the loop and published as one trace on close.
+ */
+@Slf4j
+final class ProxyConnection {
+
+    private static final AtomicLong IDS = new AtomicLong();
+    private static final int MAX_PENDING_BYTES = 1024 * 1024;
+    private static final int MAX_READS_PER_EVENT = 8;
+
+    private final long id = IDS.incrementAndGet();
+    private final EmbeddedProxy proxy;
+    private final EventLoop loop;
+    private final Endpoint client;
+    private final Endpoint upstream;
+    private final Pipe requests;
+    private final Pipe responses;
+    private Toxic armedTimeout;
+    private Toxic armedReset;
+    private EventLoop.Timer timeoutTimer;
+    private EventLoop.Timer resetTimer;
+    private boolean closing;
+    private boolean closed;
+    private boolean partitioned;
+    private boolean connectPending;
+    private final long acceptedNanos = System.nanoTime();
+    private long connectedNanos = -1;
+    private long firstByteNanos = -1;
+    private long lastByteNanos = -1;
+    private long closingNanos = -1;
+    private ConnectionTrace.Outcome outcome = ConnectionTrace.Outcome.CLOSED;
+
+    ProxyConnection(EmbeddedProxy proxy, EventLoop loop, SocketChannel clientChannel) throws IOException {
+        this.proxy = proxy;
+        this.loop = loop;
+        SocketChannel upstreamChannel = SocketChannel.open();
+        upstreamChannel.configureBlocking(false);
+        upstreamChannel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        this.client = new Endpoint(clientChannel);
+        this.upstream = new Endpoint(upstreamChannel);
+        this.requests = new Pipe(client, upstream, false);
+        this.responses = new Pipe(upstream, client, true);
+    }
+
+    void open() {
+        Toxic down = proxy.toxic(ChaosType.SERVICE_DOWN, id);
+        if (down != null && down.downMode == ServiceDownMode.REFUSE) {
+            reset(ConnectionTrace.Outcome.REFUSED);
+            return;
+        }
+        // Upstream is unreachable until the partition heals; meanwhile the client's bytes are dropped
+        partitioned = down != null;
+        connectPending = partitioned;
+        if (connectPending) {
+            try {
+                client.key = loop.register(client.channel, SelectionKey.OP_READ, client);
+            } catch (IOException e) {
+                abort(e);
+            }
+            return;
+        }
+        if (requests.eof) {
+            // The client gave up while the partition lasted
+            closeNow();
+            return;
+        }
+        client.interest(SelectionKey.OP_READ, false);
+        try {
+            if (upstream.channel.connect(proxy.upstream())) {
+                onConnected();
+            } else {
+                upstream.key = loop.register(upstream.channel, SelectionKey.OP_CONNECT, upstream);
+            }
+        } catch (IOException e) {
+            abort(e);
+        }
+    }
+
+    void toxicsChanged() {
+        loop.execute(this::applyToxics);
+    }
+
+    void closeLater() {
+        loop.execute(this::closeNow);
+    }
+
+    private void onConnected() throws IOException {
+        connectedNanos = System.nanoTime();
+        if (upstream.key == null) {
+            upstream.key = loop.register(upstream.channel, SelectionKey.OP_READ, upstream);
+        } else {
+            upstream.key.interestOps(SelectionKey.OP_READ);
+        }
+        client.key = loop.register(client.channel, SelectionKey.OP_READ, client);
+        applyToxics();
+    }
+
+    private void applyToxics() {
+        if (closed) {
+            return;
+        }
+        if (connectPending) {
+            open();
+            return;
+        }
+        if (client.key == null) {
+            return;
+        }
+        Toxic down = proxy.toxic(ChaosType.SERVICE_DOWN, id);
+        if (down != null && down.downMode == ServiceDownMode.REFUSE) {
+            reset(ConnectionTrace.Outcome.RESET);
+            return;
+        }
+        partitioned = down != null;
+        Toxic timeout = proxy.toxic(ChaosType.TIMEOUT, id);
+        if (timeout != armedTimeout) {
+            cancel(timeoutTimer);
+            timeoutTimer = timeout != null && timeout.nanos > 0 ? loop.schedule(timeout.nanos, this::timedOut) : null;
+            armedTimeout = timeout;
+        }
+        Toxic reset = proxy.toxic(ChaosType.RESET_PEER, id);
+        if (reset != armedReset) {
+            cancel(resetTimer);
+            resetTimer = reset != null ? loop.schedule(reset.nanos, () -> reset(ConnectionTrace.Outcome.RESET)) : null;
+            armedReset = reset;
+        }
+        responses.flushSafely();
+        requests.flushSafely();
+    }
+
+    private boolean holding() {
+        return armedTimeout != null;
+    }
+
+    private void onPipeDone() {
+        if (requests.done && responses.done) {
+            close();
+        }
+    }
+
+    private void close() {
+        if (closing) {
+            return;
+        }
+        closing = true;
+        closingNanos = System.nanoTime();
+        Toxic slowClose = proxy.toxic(ChaosType.SLOW_CLOSE, id);
+        if (slowClose != null && slowClose.nanos > 0) {
+            loop.schedule(slowClose.nanos, this::closeNow);
+        } else {
+            closeNow();
+        }
+    }
+
+    private void timedOut() {
+        outcome = ConnectionTrace.Outcome.TIMED_OUT;
+        closeNow();
+    }
+
+    private void reset(ConnectionTrace.Outcome reason) {
+        outcome = reason;
+        try {
+            client.channel.setOption(StandardSocketOptions.SO_LINGER, 0);
+        } catch (IOException e) {
+            log.debug("Failed to set SO_LINGER before reset: {}", e.getMessage());
+        }
+        closeNow();
+    }
+
+    private void abort(IOException e) {
+        log.debug("Connection {} on proxy {} aborted: {}", id, proxy.name(), e.getMessage());
+        if (!closed) {
+            outcome = ConnectionTrace.Outcome.ABORTED;
+        }
+        closeNow();
+    }
+
+    private void closeNow() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        cancel(timeoutTimer);
+        cancel(resetTimer);
+        cancel(requests.flushTimer);
+        cancel(responses.flushTimer);
+        requests.releaseBuffers();
+        responses.releaseBuffers();
+        client.close();
+        upstream.close();
+        proxy.remove(this, new ConnectionTrace(proxy.name(), id, acceptedNanos, connectedNanos, firstByteNanos,
+                lastByteNanos, closingNanos, System.nanoTime(), requests.sentBytes, responses.sentBytes, outcome));
+    }
+
+    private static void cancel(EventLoop.Timer timer) {
+        if (timer != null) {
+            timer.cancel();
+        }
+    }
+
+    private final class Endpoint implements ChannelHandler {
+        private final SocketChannel channel;
+        private SelectionKey key;
+        private Pipe inbound;
+        private Pipe outbound;
+
+        private Endpoint(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void onReady(SelectionKey key) throws IOException {
+            if (key.isConnectable()) {
+                channel.finishConnect();
+                onConnected();
+                return;
+            }
+            if (key.isWritable()) {
+                outbound.flush();
+            }
+            if (key.isValid() && key.isReadable()) {
+                inbound.read();
+            }
+        }
+
+        @Override
+        public void onError(IOException e) {
+            abort(e);
+        }
+
+        private void interest(int op, boolean enabled) {
+            if (key == null || !key.isValid()) {
+                return;
+            }
+            int ops = key.interestOps();
+            int updated = enabled ? ops | op : ops & ~op;
+            if (updated != ops) {
+                key.interestOps(updated);
+            }
+        }
+
+        private void close() {
+            if (key != null) {
+                key.cancel();
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("Failed to close channel: {}", e.getMessage());
+            }
+        }
+    }
+
+    private final class Pipe {
+        private final Endpoint source;
+        private final Endpoint sink;
+        private final boolean toxic;
+        private final ArrayDeque<Chunk> pending = new ArrayDeque<>();
+        private int pendingBytes;
+        private long lastRelease = System.nanoTime();
+        private long bandwidthCursor = lastRelease;
+        private long transferred;
+        private long sentBytes;
+        private NetworkModel.Link link;
+        private FastRandom random;
+        private EventLoop.Timer flushTimer;
+        private boolean eof;
+        private boolean done;
+
+        private Pipe(Endpoint source, Endpoint sink, boolean toxic) {
+            this.source = source;
+            this.sink = sink;
+            this.toxic = toxic;
+            source.inbound = this;
+            sink.outbound = this;
+        }
+
+        private void read() throws IOException {
+            if (partitioned) {
+                drop();
+                return;
+            }
+            List<Toxic> toxics = toxic ? proxy.toxics() : List.of();
+            if (toxics.isEmpty() && pending.isEmpty()) {
+                passThrough();
+                return;
+            }
+            if (toxic && holding()) {
+                source.interest(SelectionKey.OP_READ, false);
+                return;
+            }
+            ByteBuffer buffer = loop.bufferPool().acquire();
+            int read = source.channel.read(buffer);
+            if (read <= 0) {
+                loop.bufferPool().release(buffer);
+                if (read < 0) {
+                    onEof();
+                }
+                return;
+            }
+            buffer.flip();
+            enqueue(buffer, toxics);
+            flush();
+            if (pendingBytes >= MAX_PENDING_BYTES) {
+                source.interest(SelectionKey.OP_READ, false);
+            }
+        }
+
+        // Clean path: bytes go socket to socket through the loop's direct scratch buffer and are
+        // only copied into a pooled buffer when the sink cannot take them all at once
+        private void passThrough() throws IOException {
+            for (int i = 0; i < MAX_READS_PER_EVENT; i++) {
+                ByteBuffer buffer = loop.ioBuffer();
+                int read = source.channel.read(buffer);
+                if (read < 0) {
+                    onEof();
+                    return;
+                }
+                if (read == 0) {
+                    return;
+                }
+                buffer.flip();
+                sent(sink.channel.write(buffer));
+                if (buffer.hasRemaining()) {
+                    ByteBuffer rest = loop.bufferPool().acquire();
+                    rest.put(buffer).flip();
+                    pending.add(new Chunk(rest, System.nanoTime(), false));
+                    pendingBytes += rest.remaining();
+                    source.interest(SelectionKey.OP_READ, false);
+                    sink.interest(SelectionKey.OP_WRITE, true);
+                    return;
+                }
+                if (read < buffer.capacity()) {
+                    return;
+                }
+            }
+        }
+
+        // Nothing crosses a partition, as with Toxiproxy's timeout of 0: whatever arrives is thrown away
+        private void drop() throws IOException {
+            for (int i = 0; i < MAX_READS_PER_EVENT; i++) {
+                int read = source.channel.read(loop.ioBuffer());
+                if (read < 0) {
+                    onEof();
+                    return;
+                }
+                if (read == 0) {
+                    return;
+                }
+            }
+        }
+
+        private void onEof() throws IOException {
+            eof = true;
+            source.interest(SelectionKey.OP_READ, false);
+            flush();
+        }
+
+        private void enqueue(ByteBuffer buffer, List<Toxic> toxics) {
+            long release = System.nanoTime();
+            boolean last = false;
+            // The model runs first so bandwidth is charged for its retransmissions and duplicates
+            long modelDelay = 0;
+            long wireBytes = buffer.remaining();
+            NetworkModel.Link link = link(toxics);
+            if (link != null) {
+                modelDelay = link.transmit(buffer.remaining());
+                wireBytes = link.wireBytes();
+            }
+            for (Toxic toxic : toxics) {
+                if (!toxic.appliesTo(id)) {
+                    continue;
+                }
+                switch (toxic.type) {
+                    case LATENCY:
+                        release += toxic.nanos + jitter(toxic.jitterNanos);
+                        break;
+                    case BANDWIDTH:
+                        bandwidthCursor = later(bandwidthCursor, release) + toxic.transferNanos(wireBytes);
+                        release = bandwidthCursor;
+                        break;
+                    case PACKET_LOSS:
+                        long allowed = Math.max(0, toxic.bytes - transferred);
+                        if (allowed <= buffer.remaining()) {
+                            buffer.limit(buffer.position() + (int) allowed);
+                            last = true;
+                        }
+                        break;
+                    case NETWORK_MODEL:
+                        release += modelDelay;
+                        break;
+                    default:
+                        break;
+                }
+            }
+            release = later(release, lastRelease);
+            lastRelease = release;
+            transferred += buffer.remaining();
+            pending.add(new Chunk(buffer, release, last));
+            pendingBytes += buffer.remaining();
+        }
+
+        // Link state survives across chunks and is only rebuilt when the model itself is replaced
+        private NetworkModel.Link link(List<Toxic> toxics) {
+            for (Toxic toxic : toxics) {
+                if (toxic.type == ChaosType.NETWORK_MODEL && toxic.appliesTo(id)) {
+                    if (link == null || link.model() != toxic.model) {
+                        link = toxic.model.link(id);
+                    }
+                    return link;
+                }
+            }
+            return null;
+        }
+
+        private void flushSafely() {
+            flushTimer = null;
+            try {
+                flush();
+            } catch (IOException e) {
+                abort(e);
+            }
+        }
+
+        private void flush() throws IOException {
+            if (closed) {
+                return;
+            }
+            if (partitioned) {
+                releaseBuffers();
+                sink.interest(SelectionKey.OP_WRITE, false);
+                source.interest(SelectionKey.OP_READ, !eof);
+                return;
+            }
+            long now = System.nanoTime();
+            Chunk chunk;
+            while ((chunk = pending.peek()) != null) {
+                if (chunk.release - now > 0) {
+                    scheduleFlush(chunk.release, now);
+                    sink.interest(SelectionKey.OP_WRITE, false);
+                    return;
+                }
+                int written = sink.channel.write(chunk.buffer);
+                pendingBytes -= written;
+                sent(written);
+                if (chunk.buffer.hasRemaining()) {
+                    sink.interest(SelectionKey.OP_WRITE, true);
+                    return;
+                }
+                pending.poll();
+                loop.bufferPool().release(chunk.buffer);
+                if (chunk.last) {
+                    closeNow();
+                    return;
+                }
+            }
+            sink.interest(SelectionKey.OP_WRITE, false);
+            if (eof) {
+                finish();
+            } else if (pendingBytes < MAX_PENDING_BYTES / 2 && !(toxic && holding())) {
+                source.interest(SelectionKey.OP_READ, true);
+            }
+        }
+
+        private void scheduleFlush(long release, long now) {
+            if (flushTimer != null) {
+                if (flushTimer.deadline() - release <= 0) {
+                    return;
+                }
+                flushTimer.cancel();
+            }
+            flushTimer = loop.schedule(release - now, this::flushSafely);
+        }
+
+        private void sent(int bytes) {
+            if (bytes <= 0) {
+                return;
+            }
+            sentBytes += bytes;
+            if (toxic) {
+                lastByteNanos = System.nanoTime();
+                if (firstByteNanos < 0) {
+                    firstByteNanos = lastByteNanos;
+                }
+            }
+        }
+
+        private void finish() throws IOException {
+            if (done) {
+                return;
+            }
+            done = true;
+            if (sink.channel.isOpen()) {
+                sink.channel.shutdownOutput();
+            }
+            onPipeDone();
+        }
+
+        private void releaseBuffers() {
+            Chunk chunk;
+            while ((chunk = pending.poll()) != null) {
+                loop.bufferPool().release(chunk.buffer);
+            }
+            pendingBytes = 0;
+        }
+
+        private long jitter(long jitterNanos) {
+            if (jitterNanos <= 0) {
+                return 0;
+            }
+            if (random == null) {
+                random = new FastRandom(RandomSource.derive(id));
+            }
+            return (long) ((2 * random.nextDouble() - 1) * jitterNanos);
+        }
+    }
+
+    private static long later(long a, long b) {
+        return a - b >= 0 ? a : b;
+    }
+
+    private static final class Chunk {
+        private final ByteBuffer buffer;
+        private final long release;
+        private final boolean last;
+
+        private Chunk(ByteBuffer buffer, long release, boolean last) {
+            this.buffer = buffer;
+            this.release = release;
+            this.last = last;
+        }
+    }
+}
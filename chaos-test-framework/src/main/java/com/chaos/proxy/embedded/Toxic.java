@@ -0,0 +1,92 @@
+package com.chaos.proxy.embedded;
+
+import com.chaos.proxy.ChaosType;
+import com.chaos.proxy.ServiceDownMode;
+import com.chaos.utils.RandomSource;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Immutable toxic definition. Parameters follow the Toxiproxy engine so scenarios behave the same
+ * whichever engine is active: latency and jitter in ms, bandwidth rate in KB/s, timeouts in ms.
+ * The network model has no Toxiproxy counterpart; see {@link NetworkModel} for its parameters.
+ */
+final class Toxic {
+
+    private static final AtomicLong IDS = new AtomicLong();
+    private static final long PACKET_LOSS_BYTES = 100;
+
+    final ChaosType type;
+    final long id = IDS.incrementAndGet();
+    private final long seed = RandomSource.derive(id);
+    final long nanos;
+    final long jitterNanos;
+    final long rate;
+    final long bytes;
+    final float toxicity;
+    final NetworkModel model;
+    final ServiceDownMode downMode;
+
+    private Toxic(ChaosType type, long millis, long jitterMillis, long rate, long bytes, float toxicity) {
+        this(type, millis, jitterMillis, rate, bytes, toxicity, null, null);
+    }
+
+    private Toxic(ChaosType type, long millis, long jitterMillis, long rate, long bytes, float toxicity,
+                  NetworkModel model, ServiceDownMode downMode) {
+        this.type = type;
+        this.nanos = TimeUnit.MILLISECONDS.toNanos(millis);
+        this.jitterNanos = TimeUnit.MILLISECONDS.toNanos(jitterMillis);
+        this.rate = rate;
+        this.bytes = bytes;
+        this.toxicity = toxicity;
+        this.model = model;
+        this.downMode = downMode;
+    }
+
+    static Toxic of(ChaosType chaosType, Map<String, Object> params) {
+        switch (chaosType) {
+            case LATENCY:
+                return new Toxic(chaosType, longParam(params, "latency", 0), longParam(params, "jitter", 0), 0, 0, 1f);
+            case BANDWIDTH:
+                return new Toxic(chaosType, 0, 0, longParam(params, "rate", 0), 0, 1f);
+            case PACKET_LOSS:
+                float toxicity = longParam(params, "percentage", 0) / 100f;
+                return new Toxic(chaosType, 0, 0, 0, PACKET_LOSS_BYTES, toxicity);
+            case TIMEOUT:
+                return new Toxic(chaosType, longParam(params, "timeout", 0), 0, 0, 0, 1f);
+            case RESET_PEER:
+                return new Toxic(chaosType, longParam(params, "timeout", 0), 0, 0, 0, 1f);
+            case SLOW_CLOSE:
+                return new Toxic(chaosType, longParam(params, "delay", 0), 0, 0, 0, 1f);
+            case NETWORK_MODEL:
+                return new Toxic(chaosType, 0, 0, 0, 0, 1f, NetworkModel.of(params), null);
+            case SERVICE_DOWN:
+                return new Toxic(chaosType, 0, 0, 0, 0, 1f, null, ServiceDownMode.of(params));
+            default:
+                throw new IllegalArgumentException("Unsupported chaos type: " + chaosType);
+        }
+    }
+
+    // Toxicity is decided once per connection, as Toxiproxy does, without keeping any state
+    boolean appliesTo(long connectionId) {
+        if (toxicity >= 1f) {
+            return true;
+        }
+        long z = (connectionId * 0x9E3779B97F4A7C15L) ^ seed;
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        z ^= z >>> 33;
+        return (z >>> 40) / (float) (1L << 24) < toxicity;
+    }
+
+    long transferNanos(long length) {
+        return rate <= 0 ? 0 : length * TimeUnit.SECONDS.toNanos(1) / (rate * 1024);
+    }
+
+    private static long longParam(Map<String, Object> params, String key, long defaultValue) {
+        Object value = params.get(key);
+        return value instanceof Number ? ((Number) value).longValue() : defaultValue;
+    }
+}
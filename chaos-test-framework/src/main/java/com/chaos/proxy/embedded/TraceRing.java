@@ -0,0 +1,44 @@
+package com.chaos.proxy.embedded;
+
+import com.chaos.proxy.ConnectionTrace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-size ring of the latest connection traces. Event loops append with one atomic increment and
+ * never block; the oldest entries are overwritten once the ring is full.
+ */
+final class TraceRing {
+
+    private final AtomicReferenceArray<ConnectionTrace> slots;
+    private final AtomicLong written = new AtomicLong();
+
+    TraceRing(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Trace capacity must be positive: " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    void add(ConnectionTrace trace) {
+        slots.set((int) (written.getAndIncrement() % slots.length()), trace);
+    }
+
+    // Not a consistent cut: a slot claimed but not yet filled shows its previous trace (or nothing),
+    // and one overwritten during the copy shows its newer trace
+    List<ConnectionTrace> snapshot() {
+        long end = written.get();
+        long start = Math.max(0, end - slots.length());
+        List<ConnectionTrace> traces = new ArrayList<>((int) (end - start));
+        for (long i = start; i < end; i++) {
+            ConnectionTrace trace = slots.get((int) (i % slots.length()));
+            if (trace != null) {
+                traces.add(trace);
+            }
+        }
+        return traces;
+    }
+}
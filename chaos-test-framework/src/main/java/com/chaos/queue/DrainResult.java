@@ -0,0 +1,19 @@
+package com.chaos.queue;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+
+@Getter
+@AllArgsConstructor
+public class DrainResult {
+    private final long operations;
+    private final long durationNanos;
+    // False if the timeout expired with operations still pending
+    private final boolean drained;
+
+    public double getRate() {
+        return durationNanos == 0 ? 0 : operations * (double) TimeUnit.SECONDS.toNanos(1) / durationNanos;
+    }
+}
@@ -0,0 +1,286 @@
+package com.chaos.queue;
+
+import com.chaos.utils.RandomSource;
+import com.chaos.utils.TransportResult;
+import com.google.gson.Gson;
+import io.restassured.response.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Persistent queue for mutating calls that could not reach the upstream. Operations are written
+ * ahead to a memory-mapped log, then delivered by one worker per lane; lanes are chosen by product
+ * id so operations on the same product are applied in order. Failed deliveries are retried with
+ * backoff until the upstream accepts them.
+ */
+@Slf4j
+public class OperationQueue implements AutoCloseable {
+
+    private static final Gson GSON = new Gson();
+    private static final byte[] NO_PAYLOAD = new byte[0];
+    private static final long INITIAL_BACKOFF_MILLIS = 10;
+
+    private final WriteAheadLog wal;
+    private final Function<QueuedOperation, Response> sender;
+    private final long maxBackoffMillis;
+    private final List<LinkedBlockingQueue<Entry>> lanes;
+    private final Thread[] workers;
+    private final AtomicLong sequence = new AtomicLong();
+    private final Object drainMonitor = new Object();
+    private final Recorder ackLatency = new Recorder(3);
+    private final Histogram ackLatencyTotal = new Histogram(3);
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder acknowledged = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private long pending;
+    private volatile boolean paused;
+    private volatile boolean closed;
+
+    private OperationQueue(WriteAheadLog wal, Function<QueuedOperation, Response> sender, QueueProperties properties) {
+        this.wal = wal;
+        this.sender = sender;
+        this.maxBackoffMillis = properties.getMaxBackoffMs();
+        this.lanes = new ArrayList<>(properties.getParallelism());
+        this.workers = new Thread[properties.getParallelism()];
+        for (int i = 0; i < workers.length; i++) {
+            LinkedBlockingQueue<Entry> lane = new LinkedBlockingQueue<>();
+            lanes.add(lane);
+            // Backoff jitter per lane, split off the opening scenario's stream
+            SplittableRandom random = RandomSource.split();
+            workers[i] = new Thread(() -> work(lane, random), "write-queue-" + i);
+            workers[i].setDaemon(true);
+        }
+    }
+
+    public static OperationQueue open(Path file, QueueProperties properties,
+                                      Function<QueuedOperation, Response> sender) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        WriteAheadLog wal = new WriteAheadLog(file, properties.getCapacityMb() << 20, properties.isFsync());
+        OperationQueue queue = new OperationQueue(wal, sender, properties);
+        List<QueuedOperation> recovered = wal.recover();
+        for (QueuedOperation operation : recovered) {
+            queue.sequence.accumulateAndGet(operation.getSequence(), Math::max);
+            queue.pending++;
+            queue.dispatch(new Entry(operation, System.nanoTime()));
+        }
+        if (!recovered.isEmpty()) {
+            log.info("Recovered {} pending operations from {}", recovered.size(), file);
+        }
+        for (Thread worker : queue.workers) {
+            worker.start();
+        }
+        return queue;
+    }
+
+    public CompletableFuture<Response> enqueue(OperationType type, long productId, Object payload) {
+        QueuedOperation operation = new QueuedOperation(sequence.incrementAndGet(), type, productId, serialize(payload));
+        Entry entry = new Entry(operation, System.nanoTime());
+        synchronized (wal) {
+            try {
+                if (!wal.append(operation)) {
+                    throw new IllegalStateException("Write-ahead queue is full (" + wal.size() + " bytes)");
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not compact the write-ahead log", e);
+            }
+            pending++;
+        }
+        enqueued.increment();
+        dispatch(entry);
+        return entry.result;
+    }
+
+    // Holds deliveries so a backlog can build up, e.g. to measure how fast it drains afterwards
+    public void pause() {
+        paused = true;
+    }
+
+    public void resume() {
+        synchronized (drainMonitor) {
+            paused = false;
+            drainMonitor.notifyAll();
+        }
+    }
+
+    public DrainResult drain(Duration timeout) throws InterruptedException {
+        long before = acknowledged.sum();
+        long start = System.nanoTime();
+        resume();
+        boolean drained = awaitDrained(timeout);
+        return new DrainResult(acknowledged.sum() - before, System.nanoTime() - start, drained);
+    }
+
+    public boolean awaitDrained(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (drainMonitor) {
+            long remaining;
+            while (getPending() > 0 && (remaining = deadline - System.nanoTime()) > 0) {
+                TimeUnit.NANOSECONDS.timedWait(drainMonitor, remaining);
+            }
+        }
+        return getPending() == 0;
+    }
+
+    public long getPending() {
+        synchronized (wal) {
+            return pending;
+        }
+    }
+
+    public long getEnqueued() {
+        return enqueued.sum();
+    }
+
+    public long getAcknowledged() {
+        return acknowledged.sum();
+    }
+
+    // Operations the upstream answered with a 4xx; acknowledged since retrying cannot fix them
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    // Enqueue-to-ack latency of everything acknowledged so far, in nanoseconds
+    public synchronized Histogram getAckLatency() {
+        ackLatencyTotal.add(ackLatency.getIntervalHistogram());
+        return ackLatencyTotal.copy();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        resume();
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        // Whatever is still pending stays in the log and is replayed by the next open()
+        wal.close();
+    }
+
+    private void dispatch(Entry entry) {
+        long key = entry.operation.getProductId() != 0 ? entry.operation.getProductId() : entry.operation.getSequence();
+        lanes.get((int) Math.floorMod(key * 0x9E3779B97F4A7C15L >>> 32, (long) lanes.size())).add(entry);
+    }
+
+    private void work(LinkedBlockingQueue<Entry> lane, SplittableRandom random) {
+        try {
+            while (!closed) {
+                deliver(lane.take(), random);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void deliver(Entry entry, SplittableRandom random) throws InterruptedException {
+        long backoff = INITIAL_BACKOFF_MILLIS;
+        while (!closed) {
+            awaitResumed();
+            if (closed) {
+                // Closed while paused: leave the operation in the log for the next open()
+                return;
+            }
+            TransportResult result = TransportResult.of(() -> sender.apply(entry.operation));
+            if (result.isFailed()) {
+                log.debug("Queued {} #{} failed: {}", entry.operation.getType(), entry.operation.getSequence(),
+                        result.getFailure().getMessage());
+            } else {
+                Response response = result.getResponse();
+                int status = response.getStatusCode();
+                if (status < 500 && status != 429) {
+                    if (status >= 400 && !(status == 404 && entry.operation.getType() == OperationType.DELETE)) {
+                        rejected.increment();
+                    }
+                    acknowledge(entry, response);
+                    return;
+                }
+                log.debug("Queued {} #{} got status {}, retrying", entry.operation.getType(),
+                        entry.operation.getSequence(), status);
+            }
+            retries.increment();
+            Thread.sleep(random.nextLong(backoff / 2, backoff + 1));
+            backoff = Math.min(maxBackoffMillis, backoff * 2);
+        }
+    }
+
+    private void acknowledge(Entry entry, Response response) {
+        boolean empty;
+        synchronized (wal) {
+            wal.acknowledge(entry.operation.getSequence());
+            empty = --pending == 0;
+            if (empty) {
+                wal.truncate();
+            }
+        }
+        ackLatency.recordValue(System.nanoTime() - entry.enqueuedNanos);
+        acknowledged.increment();
+        entry.result.complete(response);
+        if (empty) {
+            synchronized (drainMonitor) {
+                drainMonitor.notifyAll();
+            }
+        }
+    }
+
+    private void awaitResumed() throws InterruptedException {
+        if (!paused) {
+            return;
+        }
+        synchronized (drainMonitor) {
+            while (paused && !closed) {
+                drainMonitor.wait();
+            }
+        }
+    }
+
+    private static byte[] serialize(Object payload) {
+        if (payload == null) {
+            return NO_PAYLOAD;
+        }
+        if (payload instanceof byte[]) {
+            return (byte[]) payload;
+        }
+        return GSON.toJson(payload).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static final class Entry {
+        private final QueuedOperation operation;
+        private final long enqueuedNanos;
+        private final CompletableFuture<Response> result = new CompletableFuture<>();
+
+        private Entry(QueuedOperation operation, long enqueuedNanos) {
+            this.operation = operation;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.chaos.queue;
+
+import io.restassured.response.Response;
+
+import java.util.concurrent.CompletableFuture;
+
+// Thrown instead of the failure when a write could not reach the upstream and was queued for later delivery
+public class OperationQueuedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient CompletableFuture<Response> result;
+
+    public OperationQueuedException(OperationType type, long productId, CompletableFuture<Response> result,
+                                    String reason) {
+        super("Upstream unreachable (" + reason + "), queued " + type + " of product " + productId);
+        this.result = result;
+    }
+
+    // Completes with the upstream's response once the queue has delivered the operation
+    public CompletableFuture<Response> getResult() {
+        return result;
+    }
+}
@@ -0,0 +1,8 @@
+package com.chaos.queue;
+
+public enum OperationType {
+    CREATE,
+    UPDATE,
+    PATCH,
+    DELETE
+}
@@ -0,0 +1,17 @@
+package com.chaos.queue;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "test.queue")
+public class QueueProperties {
+    private String dir = "target/queues";
+    private int capacityMb = 64;
+    private int parallelism = 8;
+    private long maxBackoffMs = 1000;
+    // Force every append to disk; off by default since the queue only has to survive the test JVM
+    private boolean fsync;
+}
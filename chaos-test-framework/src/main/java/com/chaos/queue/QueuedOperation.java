@@ -0,0 +1,15 @@
+package com.chaos.queue;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class QueuedOperation {
+    private final long sequence;
+    private final OperationType type;
+    // 0 for CREATE, which has no id until the upstream assigns one
+    private final long productId;
+    // JSON request body, empty for DELETE
+    private final byte[] payload;
+}
@@ -0,0 +1,192 @@
+package com.chaos.queue;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of queued operations and their acknowledgements in a memory-mapped file of
+ * fixed capacity. Record layout: length, crc32c, kind, sequence, then for operations the type,
+ * product id and payload. A zero length marks the end of the log. When an operation no longer fits,
+ * the unacknowledged records are copied to a fresh file that then replaces the log, so a steady
+ * backlog reclaims the space of everything acknowledged before it.
+ */
+class WriteAheadLog implements AutoCloseable {
+
+    private static final byte OPERATION = 1;
+    private static final byte ACK = 2;
+    private static final int HEADER = Integer.BYTES * 2;
+    private static final int ACK_BODY = 1 + Long.BYTES;
+    private static final int OPERATION_BODY = 1 + Long.BYTES + 1 + Long.BYTES;
+
+    private final Path file;
+    private final int capacity;
+    private final boolean fsync;
+    private final CRC32C crc = new CRC32C();
+    // Start of every unacknowledged operation record, by sequence, in log order
+    private final Map<Long, Integer> live = new LinkedHashMap<>();
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long liveBytes;
+
+    WriteAheadLog(Path file, int capacity, boolean fsync) throws IOException {
+        this.file = file;
+        this.capacity = capacity;
+        this.fsync = fsync;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    // Replays the log and leaves the write position after the last intact record
+    synchronized List<QueuedOperation> recover() {
+        Map<Long, QueuedOperation> pending = new LinkedHashMap<>();
+        live.clear();
+        liveBytes = 0;
+        int position = 0;
+        while (position + HEADER <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER + length > buffer.capacity()
+                    || buffer.getInt(position + Integer.BYTES) != checksum(position + HEADER, length)) {
+                break;
+            }
+            int body = position + HEADER;
+            long sequence = buffer.getLong(body + 1);
+            if (buffer.get(body) == OPERATION) {
+                OperationType type = OperationType.values()[buffer.get(body + 1 + Long.BYTES)];
+                long productId = buffer.getLong(body + 2 + Long.BYTES);
+                byte[] payload = new byte[length - OPERATION_BODY];
+                buffer.get(body + OPERATION_BODY, payload);
+                pending.put(sequence, new QueuedOperation(sequence, type, productId, payload));
+                live.put(sequence, position);
+                liveBytes += HEADER + length;
+            } else if (pending.remove(sequence) != null) {
+                liveBytes -= HEADER + buffer.getInt(live.remove(sequence));
+            }
+            position = body + length;
+        }
+        buffer.position(position);
+        terminate();
+        return new ArrayList<>(pending.values());
+    }
+
+    synchronized boolean append(QueuedOperation operation) throws IOException {
+        int length = OPERATION_BODY + operation.getPayload().length;
+        if (!fits(length)) {
+            // Only worth a copy when it frees more than the operation needs, else a full log would compact on every append
+            if (buffer.position() - liveBytes < Math.max(HEADER + length, capacity / 8)) {
+                return false;
+            }
+            compact();
+            if (!fits(length)) {
+                return false;
+            }
+        }
+        int start = buffer.position();
+        buffer.position(start + HEADER);
+        buffer.put(OPERATION).putLong(operation.getSequence()).put((byte) operation.getType().ordinal())
+              .putLong(operation.getProductId()).put(operation.getPayload());
+        commit(start, length);
+        live.put(operation.getSequence(), start);
+        liveBytes += HEADER + length;
+        return true;
+    }
+
+    // Acks always fit: space for one is reserved with every accepted operation
+    synchronized void acknowledge(long sequence) {
+        int start = buffer.position();
+        buffer.position(start + HEADER);
+        buffer.put(ACK).putLong(sequence);
+        commit(start, ACK_BODY);
+        Integer record = live.remove(sequence);
+        if (record != null) {
+            liveBytes -= HEADER + buffer.getInt(record);
+        }
+    }
+
+    // Called once nothing is pending, so the whole log can be dropped instead of compacted
+    synchronized void truncate() {
+        buffer.position(0);
+        terminate();
+        live.clear();
+        liveBytes = 0;
+    }
+
+    // Copies the unacknowledged records to a new file and moves it over the log, so a crash at any
+    // point leaves either the old log or the complete compacted one
+    synchronized void compact() throws IOException {
+        Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+        FileChannel target = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer copy = target.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        for (Map.Entry<Long, Integer> record : live.entrySet()) {
+            int start = record.getValue();
+            int recordBytes = HEADER + buffer.getInt(start);
+            record.setValue(copy.position());
+            copy.put(buffer.slice(start, recordBytes));
+        }
+        if (copy.position() + Integer.BYTES <= capacity) {
+            copy.putInt(copy.position(), 0);
+        }
+        if (fsync) {
+            copy.force();
+        }
+        int position = copy.position();
+        Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel.close();
+        channel = target;
+        buffer = copy;
+        buffer.position(position);
+    }
+
+    synchronized int size() {
+        return buffer.position();
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private boolean fits(int operationLength) {
+        long reserved = (long) (live.size() + 1) * (HEADER + ACK_BODY);
+        return buffer.position() + HEADER + operationLength + reserved + Integer.BYTES <= buffer.capacity();
+    }
+
+    // Body first, then the terminator after it, and the length last, so a torn append reads as the end of the log
+    private void commit(int start, int length) {
+        int end = start + HEADER + length;
+        buffer.putInt(start + Integer.BYTES, checksum(start + HEADER, length));
+        buffer.position(end);
+        terminate();
+        buffer.putInt(start, length);
+        if (fsync) {
+            buffer.force();
+        }
+    }
+
+    private void terminate() {
+        if (buffer.position() + Integer.BYTES <= buffer.capacity()) {
+            buffer.putInt(buffer.position(), 0);
+        }
+    }
+
+    private int checksum(int offset, int length) {
+        crc.reset();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+}
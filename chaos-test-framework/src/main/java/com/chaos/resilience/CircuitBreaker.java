@@ -0,0 +1,119 @@
+package com.chaos.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free circuit breaker. Outcomes go into a ring of time buckets; once the failure rate over
+ * the window crosses the threshold the breaker opens, then lets a single probe through after
+ * the open period to decide whether to close again.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final double failureRateThreshold;
+    private final int minimumCalls;
+    private final long bucketNanos;
+    private final long openNanos;
+    private final AtomicLongArray epochs;
+    private final AtomicLongArray successes;
+    private final AtomicLongArray failures;
+    private final AtomicInteger state = new AtomicInteger(State.CLOSED.ordinal());
+    private volatile long openUntil;
+
+    public CircuitBreaker(double failureRateThreshold, int minimumCalls, long windowMs, int buckets, long openMs) {
+        this.failureRateThreshold = failureRateThreshold;
+        this.minimumCalls = minimumCalls;
+        this.bucketNanos = Math.max(1, TimeUnit.MILLISECONDS.toNanos(windowMs) / buckets);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+        this.epochs = new AtomicLongArray(buckets);
+        this.successes = new AtomicLongArray(buckets);
+        this.failures = new AtomicLongArray(buckets);
+    }
+
+    public boolean tryAcquire() {
+        switch (getState()) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                // Exactly one caller wins the transition and becomes the probe
+                return System.nanoTime() - openUntil >= 0
+                        && state.compareAndSet(State.OPEN.ordinal(), State.HALF_OPEN.ordinal());
+            default:
+                return false;
+        }
+    }
+
+    public void onSuccess() {
+        if (state.get() == State.HALF_OPEN.ordinal()) {
+            clearWindow();
+            state.set(State.CLOSED.ordinal());
+            return;
+        }
+        successes.incrementAndGet(bucket(System.nanoTime()));
+    }
+
+    public void onFailure() {
+        long now = System.nanoTime();
+        if (state.get() == State.HALF_OPEN.ordinal()) {
+            openUntil = now + openNanos;
+            state.set(State.OPEN.ordinal());
+            return;
+        }
+        failures.incrementAndGet(bucket(now));
+        if (state.get() == State.CLOSED.ordinal() && failureRateExceeded(now)) {
+            openUntil = now + openNanos;
+            state.compareAndSet(State.CLOSED.ordinal(), State.OPEN.ordinal());
+        }
+    }
+
+    public State getState() {
+        return State.values()[state.get()];
+    }
+
+    public double getFailureRate() {
+        long[] counts = window(System.nanoTime());
+        long total = counts[0] + counts[1];
+        return total == 0 ? 0 : counts[1] / (double) total;
+    }
+
+    private boolean failureRateExceeded(long now) {
+        long[] counts = window(now);
+        long total = counts[0] + counts[1];
+        return total >= minimumCalls && counts[1] >= failureRateThreshold * total;
+    }
+
+    private long[] window(long now) {
+        long epoch = now / bucketNanos;
+        long ok = 0;
+        long failed = 0;
+        for (int i = 0; i < epochs.length(); i++) {
+            if (epoch - epochs.get(i) < epochs.length()) {
+                ok += successes.get(i);
+                failed += failures.get(i);
+            }
+        }
+        return new long[] {ok, failed};
+    }
+
+    // Returns the bucket for now, recycling it if it still holds counts from an older lap of the ring
+    private int bucket(long now) {
+        long epoch = now / bucketNanos;
+        int index = (int) Math.floorMod(epoch, (long) epochs.length());
+        long current = epochs.get(index);
+        if (current != epoch && epochs.compareAndSet(index, current, epoch)) {
+            successes.set(index, 0);
+            failures.set(index, 0);
+        }
+        return index;
+    }
+
+    private void clearWindow() {
+        for (int i = 0; i < epochs.length(); i++) {
+            successes.set(i, 0);
+            failures.set(i, 0);
+        }
+    }
+}
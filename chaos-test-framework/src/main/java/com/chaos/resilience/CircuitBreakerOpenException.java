@@ -0,0 +1,10 @@
+package com.chaos.resilience;
+
+public class CircuitBreakerOpenException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CircuitBreakerOpenException(String operation) {
+        super("Circuit breaker open, short-circuited " + operation);
+    }
+}
@@ -0,0 +1,22 @@
+package com.chaos.resilience;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ResilienceMetrics {
+    private long calls;
+    private long attempts;
+    private long retries;
+    private long retriesExhausted;
+    private long budgetExhausted;
+    private long shortCircuited;
+    private long hedges;
+    private long hedgesWon;
+
+    // Requests actually sent per logical call, i.e. the extra load retries and hedges put on the upstream
+    public double getAmplification() {
+        return calls == 0 ? 0 : (attempts + hedges) / (double) calls;
+    }
+}
@@ -0,0 +1,34 @@
+package com.chaos.resilience;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "test.api.resilience")
+public class ResilienceProperties {
+    private boolean enabled;
+
+    // Retries: full-jitter exponential backoff, idempotent operations only
+    private int maxAttempts = 3;
+    private long baseDelayMs = 50;
+    private long maxDelayMs = 2000;
+
+    // Retry budget: each call earns budgetRatio retries, on top of a reserve for cold starts
+    private double budgetRatio = 0.2;
+    private int budgetReserve = 10;
+
+    // Circuit breaker over a rolling window of windowBuckets buckets
+    private double failureRateThreshold = 0.5;
+    private int minimumCalls = 20;
+    private long windowMs = 10000;
+    private int windowBuckets = 10;
+    private long openMs = 5000;
+
+    // Hedging: a second request after the hedgePercentile latency of recent successes
+    private boolean hedgingEnabled;
+    private double hedgePercentile = 95;
+    private long hedgeMinDelayMs = 5;
+    private int hedgeMinSamples = 20;
+}
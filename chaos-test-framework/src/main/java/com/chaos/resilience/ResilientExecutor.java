@@ -0,0 +1,223 @@
+package com.chaos.resilience;
+
+import com.chaos.utils.RandomSource;
+import com.chaos.utils.TransportResult;
+import io.restassured.response.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Retries, retry budget, circuit breaker and hedging around one client's calls. Each
+ * StoreApiClient target gets its own instance, so one scenario's chaos never trips another's breaker.
+ */
+@Slf4j
+public class ResilientExecutor {
+
+    private static final AtomicInteger HEDGE_THREADS = new AtomicInteger();
+    private static final ExecutorService HEDGE_POOL = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "store-api-hedge-" + HEDGE_THREADS.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final long REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final ResilienceProperties properties;
+    private final RetryBudget budget;
+    private final CircuitBreaker breaker;
+    private final Recorder successLatency = new Recorder(3);
+    private final AtomicLong nextRefresh = new AtomicLong(System.nanoTime());
+    private volatile long hedgeDelayNanos = -1;
+    private Histogram recycled;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder retriesExhausted = new LongAdder();
+    private final LongAdder budgetExhausted = new LongAdder();
+    private final LongAdder shortCircuited = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgesWon = new LongAdder();
+
+    public ResilientExecutor(ResilienceProperties properties) {
+        this.properties = properties;
+        this.budget = new RetryBudget(properties.getBudgetRatio(), properties.getBudgetReserve());
+        this.breaker = new CircuitBreaker(properties.getFailureRateThreshold(), properties.getMinimumCalls(),
+                properties.getWindowMs(), properties.getWindowBuckets(), properties.getOpenMs());
+    }
+
+    public Response execute(String operation, boolean idempotent, Supplier<Response> call) {
+        if (!properties.isEnabled()) {
+            return call.get();
+        }
+        calls.increment();
+        budget.onCall();
+        for (int attempt = 1; ; attempt++) {
+            if (!breaker.tryAcquire()) {
+                shortCircuited.increment();
+                throw new CircuitBreakerOpenException(operation);
+            }
+            attempts.increment();
+            long start = System.nanoTime();
+            TransportResult result = TransportResult.of(() ->
+                    idempotent && properties.isHedgingEnabled() ? hedged(call) : call.get());
+            Response response = result.getResponse();
+            Exception failure = result.getFailure();
+
+            if (failure == null && !isRetryable(response)) {
+                breaker.onSuccess();
+                recordSuccess(System.nanoTime() - start);
+                return response;
+            }
+            breaker.onFailure();
+
+            if (!idempotent) {
+                return outcome(response, failure);
+            }
+            if (attempt >= properties.getMaxAttempts()) {
+                retriesExhausted.increment();
+                return outcome(response, failure);
+            }
+            if (!budget.tryRetry()) {
+                budgetExhausted.increment();
+                return outcome(response, failure);
+            }
+            retries.increment();
+            log.debug("Retrying {} after attempt {} failed: {}", operation, attempt,
+                    failure != null ? failure.getMessage() : "status " + response.getStatusCode());
+            backoff(attempt);
+        }
+    }
+
+    public ResilienceMetrics getMetrics() {
+        return new ResilienceMetrics(calls.sum(), attempts.sum(), retries.sum(), retriesExhausted.sum(),
+                budgetExhausted.sum(), shortCircuited.sum(), hedges.sum(), hedgesWon.sum());
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return breaker;
+    }
+
+    public RetryBudget getRetryBudget() {
+        return budget;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public int getMaxAttempts() {
+        return properties.getMaxAttempts();
+    }
+
+    // Sends a second copy once the primary outlives the recent tail latency; the first good answer wins
+    private Response hedged(Supplier<Response> call) {
+        long delay = hedgeDelayNanos;
+        if (delay < 0) {
+            return call.get();
+        }
+        CompletableFuture<Response> primary = CompletableFuture.supplyAsync(RandomSource.bind(call), HEDGE_POOL);
+        try {
+            return primary.get(delay, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            hedges.increment();
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for hedged request", e);
+        }
+
+        CompletableFuture<Response> hedge = CompletableFuture.supplyAsync(RandomSource.bind(call), HEDGE_POOL);
+        CompletableFuture<Response> winner = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(2);
+        AtomicBoolean settled = new AtomicBoolean();
+        primary.whenComplete((response, error) -> settle(winner, pending, settled, response, error, false));
+        hedge.whenComplete((response, error) -> settle(winner, pending, settled, response, error, true));
+        try {
+            return winner.join();
+        } catch (CompletionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    private void settle(CompletableFuture<Response> winner, AtomicInteger pending, AtomicBoolean settled,
+                        Response response, Throwable error, boolean fromHedge) {
+        boolean good = error == null && !isRetryable(response);
+        boolean last = pending.decrementAndGet() == 0;
+        if ((good || last) && settled.compareAndSet(false, true)) {
+            // Counted before completing, so the caller woken by the winner already sees it
+            if (good && fromHedge) {
+                hedgesWon.increment();
+            }
+            if (error == null) {
+                winner.complete(response);
+            } else {
+                winner.completeExceptionally(error);
+            }
+        }
+    }
+
+    private void recordSuccess(long nanos) {
+        if (!properties.isHedgingEnabled()) {
+            return;
+        }
+        successLatency.recordValue(nanos);
+        long now = System.nanoTime();
+        long refreshAt = nextRefresh.get();
+        if (now - refreshAt >= 0 && nextRefresh.compareAndSet(refreshAt, now + REFRESH_NANOS)) {
+            refreshHedgeDelay();
+        }
+    }
+
+    // Only the thread that won the refresh slot gets here, so the recycled histogram is not shared
+    private void refreshHedgeDelay() {
+        recycled = successLatency.getIntervalHistogram(recycled);
+        if (recycled.getTotalCount() >= properties.getHedgeMinSamples()) {
+            hedgeDelayNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(properties.getHedgeMinDelayMs()),
+                    recycled.getValueAtPercentile(properties.getHedgePercentile()));
+        }
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = Math.min(properties.getMaxDelayMs(), properties.getBaseDelayMs() << Math.min(attempt - 1, 20));
+        long delay = RandomSource.current().nextLong(ceiling + 1);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during retry backoff", e);
+        }
+    }
+
+    private static boolean isRetryable(Response response) {
+        int status = response.getStatusCode();
+        return status >= 500 || status == 429;
+    }
+
+    private static Response outcome(Response response, Exception failure) {
+        if (failure != null) {
+            throw rethrow(failure);
+        }
+        return response;
+    }
+
+    // Surfaces the original exception unchanged, exactly as a call without this layer would
+    @SuppressWarnings("unchecked")
+    private static <E extends Throwable> RuntimeException rethrow(Throwable failure) throws E {
+        throw (E) failure;
+    }
+}
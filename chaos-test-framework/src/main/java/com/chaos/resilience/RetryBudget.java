@@ -0,0 +1,47 @@
+package com.chaos.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps retries at a fraction of calls so a struggling upstream does not get multiplied load.
+ * Balance is kept in thousandths of a retry so fractional ratios need no locking.
+ */
+public class RetryBudget {
+
+    private static final long UNIT = 1000;
+
+    private final AtomicLong balance;
+    private final long deposit;
+    private final long capacity;
+
+    public RetryBudget(double ratio, int reserve) {
+        this.deposit = Math.round(ratio * UNIT);
+        this.capacity = Math.max(1, reserve) * UNIT;
+        this.balance = new AtomicLong(capacity);
+    }
+
+    public void onCall() {
+        long current;
+        do {
+            current = balance.get();
+            if (current >= capacity) {
+                return;
+            }
+        } while (!balance.compareAndSet(current, Math.min(capacity, current + deposit)));
+    }
+
+    public boolean tryRetry() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < UNIT) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - UNIT));
+        return true;
+    }
+
+    public double getAvailable() {
+        return balance.get() / (double) UNIT;
+    }
+}
@@ -0,0 +1,16 @@
+package com.chaos.results;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "test.results")
+public class ResultProperties {
+    private boolean enabled = true;
+    // One run file per test JVM; point this at shared storage to keep the history for trends
+    private String dir = "target/results";
+    // Samples buffered per stripe before they are appended as one columnar block
+    private int blockSamples = 4096;
+}
@@ -0,0 +1,203 @@
+package com.chaos.results;
+
+import com.chaos.metrics.LatencyRecorder;
+import com.chaos.trace.MappedWindow;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.chaos.results.RunResultWriter.OPERATION;
+import static com.chaos.results.RunResultWriter.SAMPLE_BYTES;
+
+/**
+ * Cross-run latency trends from any number of run files. Each file's sample blocks are split into
+ * chunks that worker threads scan through their own mapped windows, reading only the latency,
+ * operation, chaos and status columns. Chunk histograms are merged per run as they complete, so
+ * memory grows with runs and (operation, chaos) pairs rather than with samples.
+ */
+@Slf4j
+public class RunAggregator {
+
+    private static final int CHUNK_BLOCKS = 256;
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final int threads;
+
+    public RunAggregator(int threads) {
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: RunAggregator <results-dir> [output-dir]");
+            System.exit(2);
+        }
+        Path dir = Paths.get(args[0]);
+        RunTrends trends = new RunAggregator(0).aggregate(dir);
+        for (Path file : trends.writeCsv(args.length > 1 ? Paths.get(args[1]) : dir)) {
+            System.out.println(file);
+        }
+        System.exit(0);
+    }
+
+    // Every run file in the directory, in file name (start time) order
+    public RunTrends aggregate(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return aggregate(files.filter(file -> file.getFileName().toString().endsWith(RunResults.FILE_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    public RunTrends aggregate(List<Path> paths) throws IOException {
+        long started = System.nanoTime();
+        List<RunFile> files = new ArrayList<>();
+        for (Path path : paths) {
+            files.add(RunFile.index(path));
+        }
+        files.sort(Comparator.comparingLong(RunFile::getStartedEpochMillis));
+
+        List<Map<Integer, Stats>> byFile = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "run-aggregator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            CompletionService<Chunk> completion = new ExecutorCompletionService<>(executor);
+            int chunks = 0;
+            for (int f = 0; f < files.size(); f++) {
+                byFile.add(new HashMap<>());
+                List<RunFile.SampleBlock> blocks = files.get(f).getSampleBlocks();
+                for (int from = 0; from < blocks.size(); from += CHUNK_BLOCKS) {
+                    int fileIndex = f;
+                    List<RunFile.SampleBlock> chunk = blocks.subList(from, Math.min(blocks.size(), from + CHUNK_BLOCKS));
+                    completion.submit(() -> scan(fileIndex, files.get(fileIndex).getPath(), chunk));
+                    chunks++;
+                }
+            }
+            for (int i = 0; i < chunks; i++) {
+                Chunk chunk = completion.take().get();
+                Map<Integer, Stats> merged = byFile.get(chunk.fileIndex);
+                chunk.stats.forEach((key, stats) -> merged.merge(key, stats, Stats::add));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while aggregating run results", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to aggregate run results", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        RunTrends trends = trends(files, byFile);
+        log.info("Aggregated {} samples from {} runs in {} ms", files.stream().mapToLong(RunFile::getSamples).sum(),
+                files.size(), (System.nanoTime() - started) / 1_000_000);
+        return trends;
+    }
+
+    private static Chunk scan(int fileIndex, Path path, List<RunFile.SampleBlock> blocks) {
+        Map<Integer, Stats> stats = new HashMap<>();
+        try (MappedWindow window = new MappedWindow(path)) {
+            int lastKey = -1;
+            Stats last = null;
+            for (RunFile.SampleBlock block : blocks) {
+                int rows = block.getRows();
+                long payload = block.getPayloadPosition();
+                window.ensure(payload, rows * SAMPLE_BYTES);
+                // Column starts within the block, see RunResultWriter.SAMPLE_COLUMNS
+                long latencies = payload + rows * 8L;
+                long operations = payload + rows * 12L;
+                long masks = payload + rows * 18L;
+                long statuses = payload + rows * 20L;
+                for (int i = 0; i < rows; i++) {
+                    int key = (window.getShort(operations + i * 2L) & 0xFFFF) << 16
+                            | (window.getShort(masks + i * 2L) & 0xFFFF);
+                    if (key != lastKey) {
+                        last = stats.computeIfAbsent(key, k -> new Stats());
+                        lastKey = key;
+                    }
+                    last.latency.recordValue(Math.max(0, window.getInt(latencies + i * 4L)));
+                    int status = window.getShort(statuses + i * 2L);
+                    if (status == 0 || status >= 400) {
+                        last.errors++;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Chunk(fileIndex, stats);
+    }
+
+    private static RunTrends trends(List<RunFile> files, List<Map<Integer, Stats>> byFile) {
+        List<RunSummary> runs = new ArrayList<>();
+        Map<String, List<TrendPoint>> trends = new TreeMap<>();
+        for (int f = 0; f < files.size(); f++) {
+            RunFile file = files.get(f);
+            String run = file.getPath().getFileName().toString().replace(RunResults.FILE_SUFFIX, "");
+            Map<String, Integer> scenarios = new LinkedHashMap<>();
+            file.getOutcomes().forEach(outcome -> scenarios.merge(outcome.getStatus(), 1, Integer::sum));
+            runs.add(new RunSummary(run, file.getStartedEpochMillis(), file.getSeed(), file.getSamples(),
+                    file.getEvents().size(), scenarios, file.isTruncated()));
+
+            for (Map.Entry<Integer, Stats> entry : byFile.get(f).entrySet()) {
+                String key = file.name(OPERATION, entry.getKey() >>> 16) + " " + file.chaosLabel(entry.getKey() & 0xFFFF);
+                Histogram latency = entry.getValue().latency;
+                List<TrendPoint> points = trends.computeIfAbsent(key, k -> new ArrayList<>());
+                double p99 = millis(latency.getValueAtPercentile(99));
+                double change = points.isEmpty() || points.get(points.size() - 1).getP99Ms() == 0 ? Double.NaN
+                        : (p99 / points.get(points.size() - 1).getP99Ms() - 1) * 100;
+                points.add(new TrendPoint(run, file.getStartedEpochMillis(), latency.getTotalCount(),
+                        (double) entry.getValue().errors / latency.getTotalCount(),
+                        millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(90)), p99,
+                        millis(latency.getValueAtPercentile(99.9)), millis(latency.getMaxValue()), change));
+            }
+        }
+        return new RunTrends(runs, trends);
+    }
+
+    private static double millis(long micros) {
+        return LatencyRecorder.toMillis(micros * 1000);
+    }
+
+    private static final class Stats {
+        private final Histogram latency = new Histogram(SIGNIFICANT_DIGITS);
+        private long errors;
+
+        Stats add(Stats other) {
+            latency.add(other.latency);
+            errors += other.errors;
+            return this;
+        }
+    }
+
+    private static final class Chunk {
+        private final int fileIndex;
+        private final Map<Integer, Stats> stats;
+
+        Chunk(int fileIndex, Map<Integer, Stats> stats) {
+            this.fileIndex = fileIndex;
+            this.stats = stats;
+        }
+    }
+}
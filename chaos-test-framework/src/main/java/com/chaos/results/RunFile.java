@@ -0,0 +1,179 @@
+package com.chaos.results;
+
+import com.chaos.trace.MappedWindow;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import static com.chaos.results.RunResultWriter.BLOCK_HEADER_BYTES;
+import static com.chaos.results.RunResultWriter.CHAOS;
+import static com.chaos.results.RunResultWriter.DICTIONARY;
+import static com.chaos.results.RunResultWriter.EVENTS;
+import static com.chaos.results.RunResultWriter.HEADER_BYTES;
+import static com.chaos.results.RunResultWriter.MAGIC;
+import static com.chaos.results.RunResultWriter.PROXY;
+import static com.chaos.results.RunResultWriter.SAMPLES;
+import static com.chaos.results.RunResultWriter.SCENARIO;
+import static com.chaos.results.RunResultWriter.SCENARIOS;
+import static com.chaos.results.RunResultWriter.STATUS;
+import static com.chaos.results.RunResultWriter.VERSION;
+
+/**
+ * Index of one run file: its header, dictionaries, chaos events and scenario outcomes, which are
+ * small, and the position of every sample block, which is left on disk for {@link RunAggregator}.
+ */
+@Getter
+public class RunFile {
+
+    private final Path path;
+    private final long startedEpochMillis;
+    private final long seed;
+    private final List<SampleBlock> sampleBlocks = new ArrayList<>();
+    private final List<ChaosEvent> events = new ArrayList<>();
+    private final List<ScenarioOutcome> outcomes = new ArrayList<>();
+    private final List<Map<Integer, String>> names = new ArrayList<>();
+    private long samples;
+    // A run that crashed mid-append leaves a partial last block, which is not indexed
+    private boolean truncated;
+
+    @Data
+    @AllArgsConstructor
+    public static class SampleBlock {
+        private long payloadPosition;
+        private int rows;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class ChaosEvent {
+        private long offsetNanos;
+        private String proxyName;
+        private String chaos;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class ScenarioOutcome {
+        private String scenario;
+        private String status;
+        private long offsetNanos;
+        private long durationNanos;
+    }
+
+    private RunFile(Path path, long startedEpochMillis, long seed) {
+        this.path = path;
+        this.startedEpochMillis = startedEpochMillis;
+        this.seed = seed;
+        for (int kind = 0; kind <= CHAOS; kind++) {
+            names.add(new HashMap<>());
+        }
+    }
+
+    // Walks the block headers only; sample payloads are skipped without being touched
+    public static RunFile index(Path path) throws IOException {
+        try (MappedWindow window = new MappedWindow(path)) {
+            if (window.size() < HEADER_BYTES) {
+                throw new IOException("Not a run result file: " + path);
+            }
+            window.ensure(0, HEADER_BYTES);
+            if (window.getInt(0) != MAGIC) {
+                throw new IOException("Not a run result file: " + path);
+            }
+            if (window.getInt(4) != VERSION) {
+                throw new IOException("Unsupported run result version " + window.getInt(4) + ": " + path);
+            }
+            RunFile file = new RunFile(path, window.getLong(8), window.getLong(16));
+            long position = HEADER_BYTES;
+            while (position < window.size()) {
+                if (position + BLOCK_HEADER_BYTES > window.size()) {
+                    file.truncated = true;
+                    break;
+                }
+                window.ensure(position, BLOCK_HEADER_BYTES);
+                int type = window.getInt(position);
+                int rows = window.getInt(position + 4);
+                int bytes = window.getInt(position + 8);
+                long payload = position + BLOCK_HEADER_BYTES;
+                if (bytes < 0 || payload + bytes > window.size()) {
+                    file.truncated = true;
+                    break;
+                }
+                if (type == SAMPLES) {
+                    file.sampleBlocks.add(new SampleBlock(payload, rows));
+                    file.samples += rows;
+                } else {
+                    window.ensure(payload, bytes);
+                    file.read(window, type, rows, payload);
+                }
+                position = payload + bytes;
+            }
+            return file;
+        }
+    }
+
+    public String name(byte kind, int id) {
+        String name = names.get(kind).get(id);
+        return name != null ? name : "#" + id;
+    }
+
+    // Chaos types set in the mask, joined with '+', or NONE
+    public String chaosLabel(int mask) {
+        if (mask == 0) {
+            return "NONE";
+        }
+        StringJoiner label = new StringJoiner("+");
+        for (int bit = 0; bit < 16; bit++) {
+            if ((mask & (1 << bit)) != 0) {
+                label.add(name(CHAOS, bit));
+            }
+        }
+        return label.toString();
+    }
+
+    private void read(MappedWindow window, int type, int rows, long payload) {
+        switch (type) {
+            case DICTIONARY:
+                long entry = payload;
+                for (int i = 0; i < rows; i++) {
+                    byte kind = window.get(entry);
+                    int id = window.getInt(entry + 1);
+                    byte[] utf8 = new byte[window.getShort(entry + 5) & 0xFFFF];
+                    for (int b = 0; b < utf8.length; b++) {
+                        utf8[b] = window.get(entry + 7 + b);
+                    }
+                    if (kind >= 0 && kind < names.size()) {
+                        names.get(kind).put(id, new String(utf8, StandardCharsets.UTF_8));
+                    }
+                    entry += 7 + utf8.length;
+                }
+                break;
+            case EVENTS:
+                for (int i = 0; i < rows; i++) {
+                    events.add(new ChaosEvent(window.getLong(payload + i * 8L),
+                            name(PROXY, window.getInt(payload + rows * 8L + i * 4L)),
+                            chaosLabel(window.getShort(payload + rows * 12L + i * 2L) & 0xFFFF)));
+                }
+                break;
+            case SCENARIOS:
+                for (int i = 0; i < rows; i++) {
+                    outcomes.add(new ScenarioOutcome(name(SCENARIO, window.getInt(payload + i * 4L)),
+                            name(STATUS, window.getShort(payload + rows * 4L + i * 2L)),
+                            window.getLong(payload + rows * 6L + i * 8L),
+                            window.getLong(payload + rows * 14L + i * 8L)));
+                }
+                break;
+            default:
+                // Unknown block types from a newer writer are skipped
+                break;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.chaos.results;
+
+import com.chaos.proxy.ChaosType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Appends one run's results to a compact binary file: a 24-byte header followed by self-describing
+ * blocks of type, row count and payload length. Sample, event and outcome payloads are stored column
+ * by column, so a reader maps the file and touches only the columns it aggregates. Samples are
+ * buffered in a few lock-striped column buffers and each full buffer is appended with one gathering
+ * write. A crash tears at most the last block, which readers skip.
+ */
+public class RunResultWriter implements Closeable {
+
+    static final int MAGIC = 0x4352554E; // "CRUN"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 24;
+    static final int BLOCK_HEADER_BYTES = 12;
+
+    static final int DICTIONARY = 1;
+    static final int SAMPLES = 2;
+    static final int EVENTS = 3;
+    static final int SCENARIOS = 4;
+
+    // Dictionary kinds; ids are per file, chaos ids are the bit positions used in chaos masks
+    static final byte OPERATION = 0;
+    static final byte SCENARIO = 1;
+    static final byte PROXY = 2;
+    static final byte STATUS = 3;
+    static final byte CHAOS = 4;
+
+    // Sample columns: start offset (ns), latency (µs), operation, scenario, chaos mask, HTTP status (0 = no response)
+    static final int[] SAMPLE_COLUMNS = {8, 4, 2, 4, 2, 2};
+    static final int SAMPLE_BYTES = 22;
+    // Event columns: offset (ns), proxy, chaos mask after the change
+    static final int EVENT_BYTES = 14;
+    // Scenario columns: scenario, status, start offset (ns), duration (ns)
+    static final int SCENARIO_BYTES = 22;
+
+    static {
+        if (ChaosType.values().length > 16) {
+            throw new IllegalStateException("Chaos masks are 16 bits wide");
+        }
+    }
+
+    private final FileChannel channel;
+    private final long startedNanos = System.nanoTime();
+    private final int blockSamples;
+    private final Stripe[] stripes;
+    private final List<Map<String, Integer>> dictionaries = new ArrayList<>();
+    private final AtomicInteger[] nextIds;
+
+    public RunResultWriter(Path path, long seed, int blockSamples) throws IOException {
+        this.blockSamples = blockSamples;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        this.stripes = new Stripe[Math.max(2, Runtime.getRuntime().availableProcessors())];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.nextIds = new AtomicInteger[CHAOS + 1];
+        for (int kind = 0; kind <= CHAOS; kind++) {
+            dictionaries.add(new ConcurrentHashMap<>());
+            nextIds[kind] = new AtomicInteger();
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                .putInt(MAGIC)
+                .putInt(VERSION)
+                .putLong(System.currentTimeMillis())
+                .putLong(seed);
+        header.flip();
+        append(header);
+        for (ChaosType type : ChaosType.values()) {
+            id(CHAOS, type.name());
+        }
+    }
+
+    public int operation(String name) {
+        return id(OPERATION, name);
+    }
+
+    public int scenario(String name) {
+        return id(SCENARIO, name);
+    }
+
+    public int proxy(String name) {
+        return id(PROXY, name);
+    }
+
+    public int status(String name) {
+        return id(STATUS, name);
+    }
+
+    public void sample(long startNanos, long latencyNanos, int operation, int scenario, int chaosMask, int status)
+            throws IOException {
+        stripes[(int) (Thread.currentThread().getId() % stripes.length)]
+                .add(startNanos - startedNanos, latencyNanos, operation, scenario, chaosMask, status);
+    }
+
+    public void event(long nanos, int proxy, int chaosMask) throws IOException {
+        ByteBuffer block = block(EVENTS, 1, EVENT_BYTES)
+                .putLong(nanos - startedNanos)
+                .putInt(proxy)
+                .putShort((short) chaosMask);
+        block.flip();
+        append(block);
+    }
+
+    public void scenarioOutcome(int scenario, int status, long startNanos, long durationNanos) throws IOException {
+        ByteBuffer block = block(SCENARIOS, 1, SCENARIO_BYTES)
+                .putInt(scenario)
+                .putShort((short) status)
+                .putLong(startNanos - startedNanos)
+                .putLong(durationNanos);
+        block.flip();
+        append(block);
+    }
+
+    // Appends every partly filled sample block, e.g. at the end of a scenario
+    public void flush() throws IOException {
+        for (Stripe stripe : stripes) {
+            stripe.flush();
+        }
+    }
+
+    public static int chaosMask(Iterable<ChaosType> types) {
+        int mask = 0;
+        for (ChaosType type : types) {
+            mask |= 1 << type.ordinal();
+        }
+        return mask;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    // The first use of a name writes its dictionary entry, so it always precedes the rows that refer to it
+    private int id(byte kind, String name) {
+        Integer id = dictionaries.get(kind).get(name);
+        if (id != null) {
+            return id;
+        }
+        return dictionaries.get(kind).computeIfAbsent(name, key -> {
+            int next = nextIds[kind].getAndIncrement();
+            byte[] utf8 = key.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer block = block(DICTIONARY, 1, 7 + utf8.length)
+                    .put(kind)
+                    .putInt(next)
+                    .putShort((short) utf8.length)
+                    .put(utf8);
+            block.flip();
+            try {
+                append(block);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return next;
+        });
+    }
+
+    private static ByteBuffer block(int type, int rows, int payloadBytes) {
+        return ByteBuffer.allocate(BLOCK_HEADER_BYTES + payloadBytes)
+                .putInt(type)
+                .putInt(rows)
+                .putInt(payloadBytes);
+    }
+
+    private void append(ByteBuffer... buffers) throws IOException {
+        synchronized (channel) {
+            long remaining = 0;
+            for (ByteBuffer buffer : buffers) {
+                remaining += buffer.remaining();
+            }
+            while (remaining > 0) {
+                remaining -= channel.write(buffers);
+            }
+        }
+    }
+
+    private final class Stripe {
+        // Column c of row i lives at blockSamples * (width of columns before c) + i * width of c
+        private final ByteBuffer columns = ByteBuffer.allocate(blockSamples * SAMPLE_BYTES);
+        private int count;
+
+        synchronized void add(long offsetNanos, long latencyNanos, int operation, int scenario, int chaosMask, int status)
+                throws IOException {
+            int i = count;
+            columns.putLong(i * 8, offsetNanos);
+            columns.putInt(blockSamples * 8 + i * 4, (int) Math.min(Integer.MAX_VALUE, latencyNanos / 1000));
+            columns.putShort(blockSamples * 12 + i * 2, (short) operation);
+            columns.putInt(blockSamples * 14 + i * 4, scenario);
+            columns.putShort(blockSamples * 18 + i * 2, (short) chaosMask);
+            columns.putShort(blockSamples * 20 + i * 2, (short) Math.max(0, status));
+            if (++count == blockSamples) {
+                flush();
+            }
+        }
+
+        synchronized void flush() throws IOException {
+            if (count == 0) {
+                return;
+            }
+            ByteBuffer[] buffers = new ByteBuffer[SAMPLE_COLUMNS.length + 1];
+            buffers[0] = ByteBuffer.allocate(BLOCK_HEADER_BYTES)
+                    .putInt(SAMPLES)
+                    .putInt(count)
+                    .putInt(count * SAMPLE_BYTES);
+            buffers[0].flip();
+            int columnStart = 0;
+            for (int c = 0; c < SAMPLE_COLUMNS.length; c++) {
+                ByteBuffer column = columns.duplicate();
+                column.limit(columnStart + count * SAMPLE_COLUMNS[c]);
+                column.position(columnStart);
+                buffers[c + 1] = column;
+                columnStart += blockSamples * SAMPLE_COLUMNS[c];
+            }
+            append(buffers);
+            count = 0;
+        }
+    }
+}
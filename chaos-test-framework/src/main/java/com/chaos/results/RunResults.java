@@ -0,0 +1,119 @@
+package com.chaos.results;
+
+import com.chaos.proxy.ChaosType;
+import com.chaos.utils.RandomSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This run's result file: every API request, every chaos change on a proxy and every scenario
+ * outcome. Recording never fails a test; after a write error the rest of the run is not recorded.
+ */
+@Slf4j
+@Component
+public class RunResults {
+
+    public static final String FILE_SUFFIX = ".crr";
+    private static final String UNSCOPED = "-";
+
+    private final ResultProperties properties;
+    // Chaos mask per proxy as last changed, stamped on each sample sent through that proxy
+    private final Map<String, Integer> chaosMasks = new ConcurrentHashMap<>();
+    private volatile RunResultWriter writer;
+    private Path path;
+
+    public RunResults(ResultProperties properties) {
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Path dir = Paths.get(properties.getDir());
+        Files.createDirectories(dir);
+        String started = new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date());
+        path = dir.resolve("run-" + started + "-" + ManagementFactory.getRuntimeMXBean().getPid() + FILE_SUFFIX);
+        writer = new RunResultWriter(path, RandomSource.seed(), properties.getBlockSamples());
+        log.info("Recording run results to {}", path);
+    }
+
+    public void sample(String scenario, String proxyName, String operation, long startNanos, long latencyNanos, int status) {
+        RunResultWriter current = writer;
+        if (current == null) {
+            return;
+        }
+        int mask = proxyName != null ? chaosMasks.getOrDefault(proxyName, 0) : 0;
+        try {
+            current.sample(startNanos, latencyNanos, current.operation(operation),
+                    current.scenario(scenario != null ? scenario : UNSCOPED), mask, status);
+        } catch (IOException | UncheckedIOException e) {
+            failed(e);
+        }
+    }
+
+    public void chaosChanged(String proxyName, Collection<ChaosType> active) {
+        int mask = RunResultWriter.chaosMask(active);
+        chaosMasks.put(proxyName, mask);
+        RunResultWriter current = writer;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.event(System.nanoTime(), current.proxy(proxyName), mask);
+        } catch (IOException | UncheckedIOException e) {
+            failed(e);
+        }
+    }
+
+    public void scenario(String scenario, String status, long startNanos, long durationNanos) {
+        RunResultWriter current = writer;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.scenarioOutcome(current.scenario(scenario), current.status(status), startNanos, durationNanos);
+            current.flush();
+        } catch (IOException | UncheckedIOException e) {
+            failed(e);
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @PreDestroy
+    public void close() {
+        RunResultWriter current = writer;
+        writer = null;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.close();
+        } catch (IOException e) {
+            log.warn("Failed to close run results {}: {}", path, e.getMessage());
+        }
+    }
+
+    private void failed(Exception e) {
+        log.warn("Stopped recording run results to {}: {}", path, e.getMessage());
+        close();
+    }
+}
@@ -0,0 +1,19 @@
+package com.chaos.results;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class RunSummary {
+    private String run;
+    private long startedEpochMillis;
+    private long seed;
+    private long samples;
+    private int chaosEvents;
+    // Scenario count per Cucumber status, e.g. PASSED and FAILED
+    private Map<String, Integer> scenarios;
+    private boolean truncated;
+}
@@ -0,0 +1,53 @@
+package com.chaos.results;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class RunTrends {
+    // Oldest first
+    private List<RunSummary> runs;
+    // Keyed "operation chaos", e.g. "getProduct LATENCY", one point per run that recorded the pair
+    private Map<String, List<TrendPoint>> trends;
+
+    // trend.csv has one row per (operation, chaos, run), runs.csv one row per run
+    public List<Path> writeCsv(Path dir) throws IOException {
+        StringBuilder trend = new StringBuilder(
+                "operation,chaos,run,started_ms,samples,error_rate,p50_ms,p90_ms,p99_ms,p999_ms,max_ms,p99_change_percent\n");
+        trends.forEach((key, points) -> {
+            String[] parts = key.split(" ", 2);
+            for (TrendPoint point : points) {
+                trend.append(parts[0]).append(',').append(parts[1]).append(',').append(point.getRun()).append(',')
+                     .append(point.getStartedEpochMillis()).append(',').append(point.getSamples()).append(',')
+                     .append(String.format(Locale.ROOT, "%.4f,%.3f,%.3f,%.3f,%.3f,%.3f,%s%n", point.getErrorRate(),
+                             point.getP50Ms(), point.getP90Ms(), point.getP99Ms(), point.getP999Ms(), point.getMaxMs(),
+                             Double.isNaN(point.getP99ChangePercent()) ? ""
+                                     : String.format(Locale.ROOT, "%.1f", point.getP99ChangePercent())));
+            }
+        });
+        StringBuilder summary = new StringBuilder("run,started_ms,seed,samples,chaos_events,passed,failed,truncated\n");
+        for (RunSummary run : runs) {
+            summary.append(run.getRun()).append(',').append(run.getStartedEpochMillis()).append(',')
+                   .append(run.getSeed()).append(',').append(run.getSamples()).append(',')
+                   .append(run.getChaosEvents()).append(',')
+                   .append(run.getScenarios().getOrDefault("PASSED", 0)).append(',')
+                   .append(run.getScenarios().getOrDefault("FAILED", 0)).append(',')
+                   .append(run.isTruncated()).append('\n');
+        }
+        Files.createDirectories(dir);
+        Path trendFile = dir.resolve("trend.csv");
+        Path runsFile = dir.resolve("runs.csv");
+        Files.write(trendFile, trend.toString().getBytes(StandardCharsets.UTF_8));
+        Files.write(runsFile, summary.toString().getBytes(StandardCharsets.UTF_8));
+        return List.of(trendFile, runsFile);
+    }
+}
@@ -0,0 +1,20 @@
+package com.chaos.results;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/** One run's latency for an (operation, chaos) pair; the p99 change is against the previous run that recorded the pair. */
+@Data
+@AllArgsConstructor
+public class TrendPoint {
+    private String run;
+    private long startedEpochMillis;
+    private long samples;
+    private double errorRate;
+    private double p50Ms;
+    private double p90Ms;
+    private double p99Ms;
+    private double p999Ms;
+    private double maxMs;
+    private double p99ChangePercent;
+}
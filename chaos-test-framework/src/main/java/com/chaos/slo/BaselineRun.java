@@ -0,0 +1,14 @@
+package com.chaos.slo;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.HdrHistogram.Histogram;
+
+import java.time.Instant;
+
+@Getter
+@AllArgsConstructor
+public class BaselineRun {
+    private final Instant recordedAt;
+    private final Histogram histogram;
+}
@@ -0,0 +1,93 @@
+package com.chaos.slo;
+
+import com.chaos.metrics.Histograms;
+import com.chaos.metrics.LatencyKey;
+import com.chaos.proxy.ChaosType;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One text file per scenario holding the last few runs' latency histograms for each operation and
+ * chaos type, one compressed histogram per line, so baselines stay small and diff cleanly.
+ */
+@Slf4j
+@Component
+public class BaselineStore {
+
+    private static final String NONE = "NONE";
+
+    private final Path dir;
+    private final int retainRuns;
+
+    public BaselineStore(SloProperties properties) {
+        this.dir = Paths.get(properties.getBaselineDir());
+        this.retainRuns = properties.getRetainRuns();
+    }
+
+    public Map<LatencyKey, List<BaselineRun>> load(String scenarioKey) throws IOException {
+        Map<LatencyKey, List<BaselineRun>> runs = new LinkedHashMap<>();
+        Path file = file(scenarioKey);
+        if (!Files.exists(file)) {
+            return runs;
+        }
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\t");
+            if (fields.length != 4) {
+                throw new IOException(file + ":" + lineNumber + ": expected operation, chaos type, time and histogram");
+            }
+            LatencyKey key = new LatencyKey(fields[0], NONE.equals(fields[1]) ? null : ChaosType.valueOf(fields[1]));
+            runs.computeIfAbsent(key, k -> new ArrayList<>())
+                .add(new BaselineRun(Instant.parse(fields[2]), Histograms.decode(fields[3])));
+        }
+        return runs;
+    }
+
+    // Appends this run and keeps only the newest retainRuns runs per key
+    public void record(String scenarioKey, Map<LatencyKey, Histogram> histograms) throws IOException {
+        Map<LatencyKey, List<BaselineRun>> runs = load(scenarioKey);
+        Instant now = Instant.now();
+        histograms.forEach((key, histogram) -> {
+            if (histogram.getTotalCount() > 0) {
+                runs.computeIfAbsent(key, k -> new ArrayList<>()).add(new BaselineRun(now, histogram));
+            }
+        });
+
+        StringBuilder text = new StringBuilder("# operation\tchaos type\trecorded at\thistogram\n");
+        runs.forEach((key, keyRuns) -> {
+            for (BaselineRun run : keyRuns.subList(Math.max(0, keyRuns.size() - retainRuns), keyRuns.size())) {
+                text.append(key.getOperation()).append('\t')
+                    .append(key.getChaosType() != null ? key.getChaosType() : NONE).append('\t')
+                    .append(run.getRecordedAt()).append('\t')
+                    .append(Histograms.encode(run.getHistogram())).append('\n');
+            }
+        });
+        Files.createDirectories(dir);
+        Path file = file(scenarioKey);
+        Path temp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        Files.write(temp, text.toString().getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.debug("Recorded baseline for {} in {}", scenarioKey, file);
+    }
+
+    private Path file(String scenarioKey) {
+        return dir.resolve(scenarioKey.replaceAll("[^A-Za-z0-9._-]", "_") + ".baseline");
+    }
+}
@@ -0,0 +1,133 @@
+package com.chaos.slo;
+
+import com.chaos.metrics.LatencyKey;
+import com.chaos.metrics.LatencyRecorder;
+import org.HdrHistogram.Histogram;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Flags a percentile as regressed only when the current run's lower confidence bound sits above
+ * the baseline's upper bound plus tolerance. The baseline bound is the wider of the pooled
+ * order-statistic interval and, with three or more stored runs, a prediction interval over
+ * per-run values, so ordinary run-to-run noise never fails a scenario.
+ */
+@Component
+public class RegressionDetector {
+
+    private static final int MIN_RUNS_FOR_SPREAD = 3;
+
+    private final SloProperties properties;
+
+    public RegressionDetector(SloProperties properties) {
+        this.properties = properties;
+    }
+
+    public RegressionReport compare(String scenarioKey, Map<LatencyKey, Histogram> current,
+                                    Map<LatencyKey, List<BaselineRun>> baseline) {
+        List<SloComparison> comparisons = new ArrayList<>();
+        double z = normalQuantile(1 - (1 - properties.getConfidence()) / 2);
+        current.forEach((key, histogram) -> {
+            List<BaselineRun> runs = baseline.getOrDefault(key, List.of());
+            for (double percentile : properties.getPercentiles()) {
+                comparisons.add(compare(key, percentile, histogram, runs, z));
+            }
+        });
+        return new RegressionReport(scenarioKey, comparisons);
+    }
+
+    private SloComparison compare(LatencyKey key, double percentile, Histogram current, List<BaselineRun> runs, double z) {
+        double q = percentile / 100;
+        double currentMillis = LatencyRecorder.toMillis(current.getValueAtPercentile(percentile));
+        if (runs.isEmpty()) {
+            return comparison(key, percentile, SloComparison.Verdict.NO_BASELINE, 0, currentMillis, 0, 0, 0, current);
+        }
+        Histogram pooled = new Histogram(current.getNumberOfSignificantValueDigits());
+        runs.forEach(run -> pooled.add(run.getHistogram()));
+        double baselineMillis = LatencyRecorder.toMillis(pooled.getValueAtPercentile(percentile));
+        if (current.getTotalCount() < properties.getMinSamples() || pooled.getTotalCount() < properties.getMinSamples()) {
+            return comparison(key, percentile, SloComparison.Verdict.INSUFFICIENT_DATA, baselineMillis, currentMillis,
+                    0, 0, runs.size(), current);
+        }
+
+        double baselineUpper = quantileBound(pooled, q, z);
+        if (runs.size() >= MIN_RUNS_FOR_SPREAD) {
+            baselineUpper = Math.max(baselineUpper, predictionUpper(runs, percentile, z));
+        }
+        double currentLower = quantileBound(current, q, -z);
+        boolean regressed = currentLower > baselineUpper * (1 + properties.getTolerancePercent() / 100);
+        return comparison(key, percentile, regressed ? SloComparison.Verdict.REGRESSION : SloComparison.Verdict.PASS,
+                baselineMillis, currentMillis, baselineUpper, currentLower, runs.size(), current);
+    }
+
+    private static SloComparison comparison(LatencyKey key, double percentile, SloComparison.Verdict verdict,
+                                            double baselineMillis, double currentMillis, double baselineUpper,
+                                            double currentLower, int runs, Histogram current) {
+        double delta = baselineMillis > 0 ? (currentMillis - baselineMillis) / baselineMillis * 100 : 0;
+        return new SloComparison(key.toString(), percentile, verdict, baselineMillis, currentMillis, delta,
+                baselineUpper, currentLower, runs, current.getTotalCount());
+    }
+
+    // Distribution-free bound on a quantile: the order statistic z standard deviations of the
+    // binomial rank count away from n * q
+    private static double quantileBound(Histogram histogram, double q, double z) {
+        long n = histogram.getTotalCount();
+        double rank = n * q + z * Math.sqrt(n * q * (1 - q));
+        rank = Math.max(1, Math.min(n, rank));
+        return LatencyRecorder.toMillis(histogram.getValueAtPercentile(100 * rank / n));
+    }
+
+    // Upper bound of the interval expected to contain the next run's value for this percentile
+    private static double predictionUpper(List<BaselineRun> runs, double percentile, double z) {
+        int k = runs.size();
+        double mean = 0;
+        double[] values = new double[k];
+        for (int i = 0; i < k; i++) {
+            values[i] = LatencyRecorder.toMillis(runs.get(i).getHistogram().getValueAtPercentile(percentile));
+            mean += values[i] / k;
+        }
+        double variance = 0;
+        for (double value : values) {
+            variance += (value - mean) * (value - mean) / (k - 1);
+        }
+        return mean + studentQuantile(z, k - 1) * Math.sqrt(variance * (1 + 1.0 / k));
+    }
+
+    // Cornish-Fisher expansion of Student's t from the normal quantile; close enough from df = 2
+    private static double studentQuantile(double z, int df) {
+        double z3 = z * z * z;
+        double z5 = z3 * z * z;
+        return z + (z3 + z) / (4 * df) + (5 * z5 + 16 * z3 + 3 * z) / (96.0 * df * df);
+    }
+
+    // Acklam's rational approximation of the inverse normal CDF, relative error below 1.2e-9
+    static double normalQuantile(double p) {
+        double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+                      1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+        double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+                      6.680131188771972e+01, -1.328068155288572e+01};
+        double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+                      -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+        double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+                      3.754408661907416e+00};
+        double low = 0.02425;
+        if (p <= 0 || p >= 1) {
+            throw new IllegalArgumentException("Probability must be in (0, 1): " + p);
+        }
+        if (p < low) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        if (p > 1 - low) {
+            return -normalQuantile(1 - p);
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+                / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+    }
+}
@@ -0,0 +1,24 @@
+package com.chaos.slo;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Getter
+@AllArgsConstructor
+public class RegressionReport {
+    private final String scenarioKey;
+    private final List<SloComparison> comparisons;
+
+    public List<SloComparison> getRegressions() {
+        return comparisons.stream()
+                .filter(comparison -> comparison.getVerdict() == SloComparison.Verdict.REGRESSION)
+                .collect(Collectors.toList());
+    }
+
+    public boolean hasRegression() {
+        return !getRegressions().isEmpty();
+    }
+}
@@ -0,0 +1,24 @@
+package com.chaos.slo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SloComparison {
+
+    public enum Verdict { PASS, REGRESSION, INSUFFICIENT_DATA, NO_BASELINE }
+
+    private String key;
+    private double percentile;
+    private Verdict verdict;
+    private double baselineMillis;
+    private double currentMillis;
+    private double deltaPercent;
+    // Highest value the baseline supports at the configured confidence, before tolerance
+    private double baselineUpperMillis;
+    // Lowest value the current run supports at the configured confidence
+    private double currentLowerMillis;
+    private int baselineRuns;
+    private long currentCount;
+}
@@ -0,0 +1,23 @@
+package com.chaos.slo;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "test.slo")
+public class SloProperties {
+    // Outside target/ so baselines survive mvn clean and can be committed
+    private String baselineDir = "baselines";
+    private int retainRuns = 10;
+    private boolean updateBaseline = true;
+
+    private List<Double> percentiles = List.of(50.0, 90.0, 99.0);
+    private double confidence = 0.95;
+    // Significant shifts smaller than this are still accepted
+    private double tolerancePercent = 10;
+    private int minSamples = 30;
+}
@@ -0,0 +1,132 @@
+package com.chaos.stub;
+
+import com.chaos.model.Product;
+import com.google.gson.Gson;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory product catalogue behind the stub. Each product's JSON is rendered once per write,
+ * padded to the configured payload size, so reads only copy cached bytes.
+ */
+class ProductStore {
+
+    private static final Gson GSON = new Gson();
+
+    private final Map<Long, byte[]> products = new ConcurrentSkipListMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final int payloadSize;
+    private volatile byte[] listing;
+
+    ProductStore(int payloadSize, int seedProducts) {
+        this.payloadSize = payloadSize;
+        for (int i = 1; i <= seedProducts; i++) {
+            create(Product.builder()
+                    .name("Product " + i)
+                    .price(9.99 + i)
+                    .category(i % 2 == 0 ? "electronics" : "clothing")
+                    .description("Stub product " + i)
+                    .build());
+        }
+    }
+
+    byte[] get(long id) {
+        return products.get(id);
+    }
+
+    byte[] list() {
+        byte[] current = listing;
+        if (current == null) {
+            current = render();
+            listing = current;
+        }
+        return current;
+    }
+
+    byte[] create(Product product) {
+        product.setId(ids.incrementAndGet());
+        return put(product);
+    }
+
+    byte[] update(long id, Product product) {
+        if (!products.containsKey(id)) {
+            return null;
+        }
+        product.setId(id);
+        return put(product);
+    }
+
+    byte[] patch(long id, Product changes) {
+        byte[] existing = products.get(id);
+        if (existing == null) {
+            return null;
+        }
+        Product product = GSON.fromJson(new String(existing, StandardCharsets.UTF_8), Product.class);
+        if (changes.getName() != null) {
+            product.setName(changes.getName());
+        }
+        if (changes.getPrice() != null) {
+            product.setPrice(changes.getPrice());
+        }
+        if (changes.getCategory() != null) {
+            product.setCategory(changes.getCategory());
+        }
+        if (changes.getDescription() != null) {
+            product.setDescription(changes.getDescription());
+        }
+        return put(product);
+    }
+
+    boolean delete(long id) {
+        boolean removed = products.remove(id) != null;
+        if (removed) {
+            listing = null;
+        }
+        return removed;
+    }
+
+    private byte[] put(Product product) {
+        byte[] json = pad(product);
+        products.put(product.getId(), json);
+        listing = null;
+        return json;
+    }
+
+    // Grows the description so the rendered product is at least payloadSize bytes
+    private byte[] pad(Product product) {
+        byte[] json = GSON.toJson(product).getBytes(StandardCharsets.UTF_8);
+        int missing = payloadSize - json.length;
+        if (missing <= 0) {
+            return json;
+        }
+        String description = product.getDescription() != null ? product.getDescription() : "";
+        int filler = product.getDescription() != null ? missing : Math.max(0, missing - "\"description\":\"\",".length());
+        char[] padding = new char[filler];
+        Arrays.fill(padding, 'x');
+        product.setDescription(description + new String(padding));
+        return GSON.toJson(product).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] render() {
+        int size = 2;
+        for (byte[] product : products.values()) {
+            size += product.length + 1;
+        }
+        byte[] result = new byte[size];
+        int position = 0;
+        result[position++] = '[';
+        for (byte[] product : products.values()) {
+            if (position > 1) {
+                result[position++] = ',';
+            }
+            System.arraycopy(product, 0, result, position, product.length);
+            position += product.length;
+        }
+        result[position++] = ']';
+        return Arrays.copyOf(result, position);
+    }
+}
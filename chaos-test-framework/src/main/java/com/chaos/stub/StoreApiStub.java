@@ -0,0 +1,275 @@
+package com.chaos.stub;
+
+import com.chaos.model.Product;
+import com.chaos.utils.RandomSource;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process Store API serving /products and /api/products/{id} from memory, so the suite can
+ * run without an external upstream. Service time is scheduled rather than slept, so slow
+ * responses never hold a worker thread. Configured dependencies are called asynchronously before
+ * each response, and /dependency answers those calls, so the stub can also stand in for them.
+ */
+@Slf4j
+@Component
+@Lazy(false)
+@ConditionalOnProperty(prefix = "stub", name = "enabled", havingValue = "true")
+public class StoreApiStub implements AutoCloseable {
+
+    private static final Gson GSON = new Gson();
+    private static final byte[] NO_BODY = new byte[0];
+
+    private final StubProperties properties;
+    private final ProductStore store;
+    private final ScheduledThreadPoolExecutor executor;
+    private final HttpServer server;
+    private final HttpClient dependencyClient;
+    private final List<DependencyCall> dependencyCalls = new ArrayList<>();
+    // Requests are numbered on arrival and each draws from its own stream, not from the thread serving it
+    private final AtomicLong requests = new AtomicLong();
+
+    public StoreApiStub(StubProperties properties) {
+        this.properties = properties;
+        this.store = new ProductStore(properties.getPayloadSize(), properties.getSeedProducts());
+        AtomicInteger threadIds = new AtomicInteger();
+        this.executor = new ScheduledThreadPoolExecutor(properties.getThreads(), task -> {
+            Thread thread = new Thread(task, "store-stub-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            this.server = HttpServer.create(new InetSocketAddress(properties.getHost(), properties.getPort()), 1024);
+        } catch (IOException e) {
+            executor.shutdownNow();
+            throw new UncheckedIOException("Failed to start Store API stub", e);
+        }
+        server.createContext("/products", this::handle);
+        server.createContext("/api/products", this::handle);
+        server.createContext("/dependency", exchange -> respond(exchange, 204, NO_BODY));
+        server.setExecutor(executor);
+        this.dependencyClient = properties.getDependencies().isEmpty() ? null : HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(properties.getDependencyTimeoutMs()))
+                .executor(executor)
+                .build();
+        for (StubProperties.Dependency dependency : properties.getDependencies()) {
+            DependencyCall call = new DependencyCall(dependency.getName() != null ? dependency.getName() : dependency.getAddress(),
+                    URI.create("http://" + dependency.getAddress() + "/dependency"));
+            for (int i = 0; i < dependency.getCalls(); i++) {
+                dependencyCalls.add(call);
+            }
+        }
+        server.start();
+        log.info("Store API stub listening on {} (service time {}ms, payload {}B, error rate {})",
+                getBaseUri(), properties.getServiceTimeMs(), properties.getPayloadSize(), properties.getErrorRate());
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public String getBaseUri() {
+        return "http://" + properties.getHost() + ":" + getPort();
+    }
+
+    @Override
+    @PreDestroy
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) {
+        SplittableRandom random = RandomSource.forTask("store-stub", requests.getAndIncrement());
+        if (dependencyCalls.isEmpty()) {
+            serve(exchange, random);
+            return;
+        }
+        CompletableFuture<?> calls = CompletableFuture.completedFuture(null);
+        for (DependencyCall call : dependencyCalls) {
+            calls = calls.thenCompose(previous -> call(call));
+        }
+        calls.whenComplete((ignored, failure) -> {
+            if (failure == null) {
+                serve(exchange, random);
+            } else {
+                respondAfterServiceTime(exchange, 503, error("Dependency failed: " + unwrap(failure).getMessage()), random);
+            }
+        });
+    }
+
+    private CompletableFuture<HttpResponse<Void>> call(DependencyCall call) {
+        HttpRequest request = HttpRequest.newBuilder(call.uri)
+                .timeout(Duration.ofMillis(properties.getDependencyTimeoutMs()))
+                .build();
+        return dependencyClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, failure) -> {
+                    if (failure != null) {
+                        Throwable cause = unwrap(failure);
+                        throw new CompletionException(new IOException(call.name + ": " + cause, cause));
+                    }
+                    if (response.statusCode() >= 500) {
+                        throw new CompletionException(new IOException(call.name + " answered " + response.statusCode()));
+                    }
+                    return response;
+                });
+    }
+
+    private void serve(HttpExchange exchange, SplittableRandom random) {
+        int status;
+        byte[] body;
+        try {
+            if (properties.getErrorRate() > 0 && random.nextDouble() < properties.getErrorRate()) {
+                status = properties.getErrorStatus();
+                body = error("Injected failure");
+            } else {
+                byte[] result = route(exchange);
+                status = statusFor(exchange, result);
+                body = result != null ? result : status == 404 ? error("Product not found") : NO_BODY;
+            }
+        } catch (JsonParseException | NumberFormatException e) {
+            status = 400;
+            body = error(e.getMessage());
+        } catch (RuntimeException e) {
+            // Still answered, so the exchange is closed and the client is not left waiting
+            log.error("Stub failed to handle {} {}", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+            status = 500;
+            body = error("Internal stub error");
+        }
+
+        respondAfterServiceTime(exchange, status, body, random);
+    }
+
+    private void respondAfterServiceTime(HttpExchange exchange, int status, byte[] body, SplittableRandom random) {
+        long delay = serviceTimeNanos(random);
+        if (delay > 0) {
+            executor.schedule(() -> respond(exchange, status, body), delay, TimeUnit.NANOSECONDS);
+        } else {
+            respond(exchange, status, body);
+        }
+    }
+
+    private byte[] route(HttpExchange exchange) {
+        String method = exchange.getRequestMethod();
+        Long id = id(exchange.getRequestURI().getPath());
+        if (id == null) {
+            switch (method) {
+                case "GET":
+                    return store.list();
+                case "POST":
+                    return store.create(readProduct(exchange));
+                default:
+                    return null;
+            }
+        }
+        switch (method) {
+            case "GET":
+                return store.get(id);
+            case "PUT":
+                return store.update(id, readProduct(exchange));
+            case "PATCH":
+                return store.patch(id, readProduct(exchange));
+            case "DELETE":
+                return store.delete(id) ? NO_BODY : null;
+            default:
+                return null;
+        }
+    }
+
+    private static int statusFor(HttpExchange exchange, byte[] result) {
+        if (result == null) {
+            return 404;
+        }
+        switch (exchange.getRequestMethod()) {
+            case "POST":
+                return 201;
+            case "DELETE":
+                return 204;
+            default:
+                return 200;
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, byte[] body) {
+        try (exchange; OutputStream out = exchange.getResponseBody()) {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+            out.write(body);
+        } catch (IOException e) {
+            log.debug("Failed to write stub response: {}", e.getMessage());
+        }
+    }
+
+    private long serviceTimeNanos(SplittableRandom random) {
+        long millis = properties.getServiceTimeMs();
+        if (properties.getServiceTimeJitterMs() > 0) {
+            millis += random.nextLong(properties.getServiceTimeJitterMs() + 1);
+        }
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    private static Product readProduct(HttpExchange exchange) {
+        Product product = GSON.fromJson(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8), Product.class);
+        if (product == null) {
+            throw new JsonParseException("Empty request body");
+        }
+        return product;
+    }
+
+    private static Long id(String path) {
+        int slash = path.lastIndexOf('/');
+        String last = path.substring(slash + 1);
+        if (last.isEmpty() || last.equals("products")) {
+            return null;
+        }
+        return Long.parseLong(last);
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
+    private static byte[] error(String message) {
+        return GSON.toJson(Map.of("error", String.valueOf(message))).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static final class DependencyCall {
+        private final String name;
+        private final URI uri;
+
+        private DependencyCall(String name, URI uri) {
+            this.name = name;
+            this.uri = uri;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.chaos.stub;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "stub")
+public class StubProperties {
+    private boolean enabled;
+    private String host = "127.0.0.1";
+    private int port;
+    private int threads = Runtime.getRuntime().availableProcessors() * 2;
+    private long serviceTimeMs;
+    private long serviceTimeJitterMs;
+    private int payloadSize;
+    private double errorRate;
+    private int errorStatus = 500;
+    private int seedProducts = 20;
+    // Called in order before every Store API response, e.g. through the database and auth proxies
+    private List<Dependency> dependencies = new ArrayList<>();
+    private long dependencyTimeoutMs = 1000;
+
+    @Data
+    public static class Dependency {
+        private String name;
+        private String address;
+        // Sequential calls per request, i.e. how much latency on this dependency is amplified
+        private int calls = 1;
+    }
+}
@@ -0,0 +1,15 @@
+package com.chaos.sweep;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class RateTrial {
+    private double offeredRate;
+    private double achievedRate;
+    private long requests;
+    private double errorRate;
+    private double latencyMs;
+    private boolean passed;
+}
@@ -0,0 +1,17 @@
+package com.chaos.sweep;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class SweepPoint {
+    private double value;
+    // Highest offered rate that met the SLO, 0 if even the minimum rate did not
+    private double maxSustainableRate;
+    private double latencyMs;
+    private double errorRate;
+    private List<RateTrial> trials;
+}
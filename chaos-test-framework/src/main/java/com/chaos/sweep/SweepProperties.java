@@ -0,0 +1,20 @@
+package com.chaos.sweep;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "test.sweep")
+public class SweepProperties {
+    private double minRate = 1;
+    private double maxRate = 1000;
+    // Search stops once the passing and failing rates are within this fraction of each other
+    private double resolution = 0.05;
+    private int maxTrials = 12;
+    private long trialMs = 5000;
+    private long warmupMs = 3000;
+    // Share of requests that may fail or answer an error status at a sustainable rate
+    private double maxErrorRate = 0.01;
+}
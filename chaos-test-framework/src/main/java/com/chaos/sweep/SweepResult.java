@@ -0,0 +1,33 @@
+package com.chaos.sweep;
+
+import com.chaos.proxy.ChaosType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class SweepResult {
+    private String proxyName;
+    private ChaosType chaosType;
+    private String parameter;
+    private double percentile;
+    private double sloMs;
+    private List<SweepPoint> points;
+
+    // The value at which the sustainable rate falls the most relative to the point before it
+    public SweepPoint getCliff() {
+        SweepPoint cliff = null;
+        double steepest = 0;
+        for (int i = 1; i < points.size(); i++) {
+            double before = points.get(i - 1).getMaxSustainableRate();
+            double drop = before == 0 ? 0 : (before - points.get(i).getMaxSustainableRate()) / before;
+            if (drop > steepest) {
+                steepest = drop;
+                cliff = points.get(i);
+            }
+        }
+        return cliff;
+    }
+}
@@ -0,0 +1,108 @@
+package com.chaos.sweep;
+
+import com.chaos.load.LoadGenerator;
+import com.chaos.load.LoadResult;
+import com.chaos.proxy.ChaosType;
+import com.chaos.proxy.ProxyManager;
+import io.restassured.response.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Steps one chaos parameter across a range and, at each value, searches for the highest offered
+ * rate that still meets a latency SLO. The search starts from the previous value's result, grows
+ * geometrically until a rate fails and then bisects, so each point costs a handful of trials.
+ */
+@Slf4j
+@Component
+public class SweepRunner {
+
+    private final ProxyManager proxyManager;
+    private final LoadGenerator loadGenerator;
+    private final SweepProperties properties;
+
+    public SweepRunner(ProxyManager proxyManager, LoadGenerator loadGenerator, SweepProperties properties) {
+        this.proxyManager = proxyManager;
+        this.loadGenerator = loadGenerator;
+        this.properties = properties;
+    }
+
+    // A value of 0 runs without the chaos type, as the reference point
+    public SweepResult sweep(String proxyName, ChaosType chaosType, Map<String, Object> baseParams, List<Double> values,
+                             Supplier<Response> request, double percentile, double sloMs) {
+        List<SweepPoint> points = new ArrayList<>(values.size());
+        double hint = properties.getMinRate();
+        if (properties.getWarmupMs() > 0) {
+            // A cold client and JIT would otherwise fail the first trial and zero the reference point
+            proxyManager.removeChaos(proxyName, chaosType);
+            loadGenerator.atRate(request, properties.getMinRate(), Duration.ofMillis(properties.getWarmupMs()));
+        }
+        try {
+            for (double value : values) {
+                if (value == 0) {
+                    proxyManager.removeChaos(proxyName, chaosType);
+                } else {
+                    Map<String, Object> params = new HashMap<>(baseParams);
+                    params.put(chaosType.getParameter(), value == Math.rint(value) ? (Object) (long) value : value);
+                    proxyManager.simulateChaos(proxyName, chaosType, params);
+                }
+                SweepPoint point = search(value, hint, request, percentile, sloMs);
+                points.add(point);
+                log.info("{} {}={}: {} req/s sustainable within p{} <= {}ms ({} trials)", chaosType,
+                        chaosType.getParameter(), value, String.format("%.1f", point.getMaxSustainableRate()),
+                        percentile, sloMs, point.getTrials().size());
+                hint = Math.max(properties.getMinRate(), point.getMaxSustainableRate());
+            }
+        } finally {
+            proxyManager.removeChaos(proxyName, chaosType);
+        }
+        return new SweepResult(proxyName, chaosType, chaosType.getParameter(), percentile, sloMs, points);
+    }
+
+    private SweepPoint search(double value, double start, Supplier<Response> request, double percentile, double sloMs) {
+        List<RateTrial> trials = new ArrayList<>();
+        RateTrial best = null;
+        double passing = 0;
+        double failing = Double.POSITIVE_INFINITY;
+        double rate = Math.min(start, properties.getMaxRate());
+        while (trials.size() < properties.getMaxTrials()) {
+            RateTrial trial = trial(rate, request, percentile, sloMs);
+            trials.add(trial);
+            if (trial.isPassed()) {
+                passing = rate;
+                best = trial;
+            } else {
+                failing = rate;
+            }
+            if (passing >= properties.getMaxRate() || failing <= properties.getMinRate()
+                    || (!Double.isInfinite(failing) && failing - passing <= failing * properties.getResolution())) {
+                break;
+            }
+            rate = Double.isInfinite(failing) ? Math.min(passing * 2, properties.getMaxRate())
+                    : passing == 0 ? Math.max(properties.getMinRate(), failing / 2)
+                    : (passing + failing) / 2;
+        }
+        if (best == null) {
+            // Nothing passed; report what the gentlest rate tried looked like
+            best = trials.stream().min(Comparator.comparingDouble(RateTrial::getOfferedRate)).orElseThrow();
+        }
+        return new SweepPoint(value, passing, best.getLatencyMs(), best.getErrorRate(), trials);
+    }
+
+    private RateTrial trial(double rate, Supplier<Response> request, double percentile, double sloMs) {
+        LoadResult result = loadGenerator.atRate(request, rate, Duration.ofMillis(properties.getTrialMs()));
+        double errorRate = result.getRequests() == 0 ? 1
+                : (result.getErrors() + result.getFailures()) / (double) result.getRequests();
+        double latency = result.getPercentileMillis(percentile);
+        boolean passed = latency <= sloMs && errorRate <= properties.getMaxErrorRate();
+        return new RateTrial(rate, result.getThroughput(), result.getRequests(), errorRate, latency, passed);
+    }
+}
@@ -0,0 +1,176 @@
+package com.chaos.timeline;
+
+import com.chaos.proxy.ChaosType;
+import com.chaos.proxy.ProxyManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Plays a chaos timeline on its own timer thread. All changes falling on the same tick are
+ * folded into one group replacement across proxies, and every change is timestamped as it lands.
+ */
+@Slf4j
+@Component
+public class ChaosScheduler {
+
+    private final ProxyManager proxyManager;
+    private final long rampIntervalNanos;
+
+    public ChaosScheduler(ProxyManager proxyManager,
+                          @Value("${test.timeline.ramp-interval-ms:100}") long rampIntervalMillis) {
+        this.proxyManager = proxyManager;
+        this.rampIntervalNanos = TimeUnit.MILLISECONDS.toNanos(rampIntervalMillis);
+    }
+
+    public TimelineRun start(List<TimelineEntry> entries) {
+        TimelineRun run = new TimelineRun(entries);
+        Thread thread = new Thread(() -> play(run), "chaos-timeline");
+        thread.setDaemon(true);
+        run.started(thread);
+        thread.start();
+        return run;
+    }
+
+    private void play(TimelineRun run) {
+        Map<String, Map<ChaosType, Map<String, Object>>> applied = new HashMap<>();
+        for (TimelineEntry entry : run.getEntries()) {
+            applied.put(entry.getProxyName(), new EnumMap<>(ChaosType.class));
+        }
+        long start = System.nanoTime();
+        try {
+            for (long tick : ticks(run.getEntries())) {
+                long wait;
+                while ((wait = start + tick - System.nanoTime()) > 0 && !run.isCancelled()) {
+                    LockSupport.parkNanos(wait);
+                }
+                if (run.isCancelled()) {
+                    break;
+                }
+                apply(run, applied, desiredState(run.getEntries(), applied, tick), start, tick);
+            }
+        } catch (RuntimeException e) {
+            log.error("Chaos timeline aborted: {}", e.getMessage());
+        } finally {
+            clear(run, applied, start);
+            run.complete();
+        }
+    }
+
+    private void apply(TimelineRun run, Map<String, Map<ChaosType, Map<String, Object>>> applied,
+                       Map<String, Map<ChaosType, Map<String, Object>>> desired, long start, long tick) {
+        Map<String, Map<ChaosType, Map<String, Object>>> changed = new LinkedHashMap<>();
+        desired.forEach((proxyName, toxics) -> {
+            if (!toxics.equals(applied.get(proxyName))) {
+                changed.put(proxyName, toxics);
+            }
+        });
+        if (changed.isEmpty()) {
+            return;
+        }
+        proxyManager.replaceGroup(changed);
+        long now = System.nanoTime();
+        Instant timestamp = Instant.now();
+        changed.forEach((proxyName, toxics) -> {
+            record(run, proxyName, applied.get(proxyName), toxics, tick, now - start, now, timestamp);
+            applied.put(proxyName, toxics);
+        });
+        log.debug("Timeline tick at {}ms changed toxics on {}", TimeUnit.NANOSECONDS.toMillis(tick), changed.keySet());
+    }
+
+    private static void record(TimelineRun run, String proxyName, Map<ChaosType, Map<String, Object>> previous,
+                               Map<ChaosType, Map<String, Object>> desired, long tick, long offset, long now,
+                               Instant timestamp) {
+        for (Map.Entry<ChaosType, Map<String, Object>> toxic : desired.entrySet()) {
+            Map<String, Object> before = previous.get(toxic.getKey());
+            if (!toxic.getValue().equals(before)) {
+                TimelineEvent.Action action = before == null ? TimelineEvent.Action.APPLY : TimelineEvent.Action.UPDATE;
+                run.record(new TimelineEvent(proxyName, toxic.getKey(), action, toxic.getValue(),
+                        tick, offset, now, timestamp));
+            }
+        }
+        for (ChaosType removed : previous.keySet()) {
+            if (!desired.containsKey(removed)) {
+                run.record(new TimelineEvent(proxyName, removed, TimelineEvent.Action.REMOVE, Map.of(),
+                        tick, offset, now, timestamp));
+            }
+        }
+    }
+
+    private void clear(TimelineRun run, Map<String, Map<ChaosType, Map<String, Object>>> applied, long start) {
+        long tick = System.nanoTime() - start;
+        Map<String, Map<ChaosType, Map<String, Object>>> cleared = new LinkedHashMap<>();
+        applied.keySet().forEach(proxyName -> cleared.put(proxyName, new EnumMap<>(ChaosType.class)));
+        try {
+            apply(run, applied, cleared, start, tick);
+        } catch (RuntimeException e) {
+            // One bad proxy must not leave chaos behind on the others
+            cleared.forEach((proxyName, toxics) -> {
+                try {
+                    apply(run, applied, Map.of(proxyName, toxics), start, tick);
+                } catch (RuntimeException proxyFailure) {
+                    log.error("Failed to clear timeline toxics on {}: {}", proxyName, proxyFailure.getMessage());
+                }
+            });
+        }
+    }
+
+    private Map<String, Map<ChaosType, Map<String, Object>>> desiredState(
+            List<TimelineEntry> entries, Map<String, Map<ChaosType, Map<String, Object>>> proxies, long tick) {
+        Map<String, Map<ChaosType, Map<String, Object>>> desired = new LinkedHashMap<>();
+        proxies.keySet().forEach(proxyName -> desired.put(proxyName, new EnumMap<>(ChaosType.class)));
+        // Later-starting entries override earlier ones of the same type on the same proxy
+        entries.stream()
+                .filter(entry -> entry.startNanos() <= tick && tick < entry.endNanos())
+                .sorted((a, b) -> Long.compare(a.startNanos(), b.startNanos()))
+                .forEach(entry -> desired.get(entry.getProxyName())
+                        .put(entry.getChaosType(), rampedParams(entry, tick)));
+        return desired;
+    }
+
+    private long[] ticks(List<TimelineEntry> entries) {
+        TreeSet<Long> ticks = new TreeSet<>();
+        for (TimelineEntry entry : entries) {
+            ticks.add(entry.startNanos());
+            ticks.add(entry.endNanos());
+            if (entry.getRamp() != RampShape.STEP) {
+                for (long t = entry.startNanos() + rampIntervalNanos; t < entry.endNanos(); t += rampIntervalNanos) {
+                    ticks.add(t);
+                }
+            }
+        }
+        return ticks.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static Map<String, Object> rampedParams(TimelineEntry entry, long tick) {
+        if (entry.getRamp() == RampShape.STEP) {
+            return entry.getParams();
+        }
+        String key = entry.getChaosType().getParameter();
+        Object target = entry.getParams().get(key);
+        if (!(target instanceof Number)) {
+            return entry.getParams();
+        }
+        double progress = (tick - entry.startNanos()) / (double) (entry.endNanos() - entry.startNanos());
+        double value = ((Number) target).doubleValue() * entry.getRamp().scale(progress);
+        Map<String, Object> params = new HashMap<>(entry.getParams());
+        if (target instanceof Integer) {
+            params.put(key, (int) Math.round(value));
+        } else if (target instanceof Long) {
+            params.put(key, Math.round(value));
+        } else {
+            params.put(key, value);
+        }
+        return params;
+    }
+}
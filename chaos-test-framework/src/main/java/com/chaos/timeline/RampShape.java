@@ -0,0 +1,20 @@
+package com.chaos.timeline;
+
+public enum RampShape {
+    STEP,
+    LINEAR,
+    EXPONENTIAL;
+
+    // Fraction of the target value to apply at the given progress (0..1) through an entry
+    public double scale(double progress) {
+        double clamped = Math.min(1.0, Math.max(0.0, progress));
+        switch (this) {
+            case LINEAR:
+                return clamped;
+            case EXPONENTIAL:
+                return (Math.pow(2, 10 * clamped) - 1) / 1023;
+            default:
+                return 1.0;
+        }
+    }
+}
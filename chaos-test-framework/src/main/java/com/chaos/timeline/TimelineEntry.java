@@ -0,0 +1,32 @@
+package com.chaos.timeline;
+
+import com.chaos.proxy.ChaosType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimelineEntry {
+    private String proxyName;
+    private Duration startOffset;
+    private Duration duration;
+    private ChaosType chaosType;
+    private Map<String, Object> params;
+    @Builder.Default
+    private RampShape ramp = RampShape.STEP;
+
+    public long startNanos() {
+        return startOffset.toNanos();
+    }
+
+    public long endNanos() {
+        return startOffset.plus(duration).toNanos();
+    }
+}
@@ -0,0 +1,25 @@
+package com.chaos.timeline;
+
+import com.chaos.proxy.ChaosType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class TimelineEvent {
+
+    public enum Action { APPLY, UPDATE, REMOVE }
+
+    private String proxyName;
+    private ChaosType chaosType;
+    private Action action;
+    private Map<String, Object> params;
+    private long scheduledOffsetNanos;
+    private long actualOffsetNanos;
+    // System.nanoTime() when the change took effect, comparable with latency sample timestamps
+    private long nanoTime;
+    private Instant timestamp;
+}
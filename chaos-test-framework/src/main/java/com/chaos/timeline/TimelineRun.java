@@ -0,0 +1,63 @@
+package com.chaos.timeline;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class TimelineRun {
+
+    private final List<TimelineEntry> entries;
+    private final List<TimelineEvent> events = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch completed = new CountDownLatch(1);
+    private volatile boolean cancelled;
+    private volatile Thread timer;
+
+    TimelineRun(List<TimelineEntry> entries) {
+        this.entries = List.copyOf(entries);
+    }
+
+    public List<TimelineEntry> getEntries() {
+        return entries;
+    }
+
+    public List<TimelineEvent> getEvents() {
+        synchronized (events) {
+            return new ArrayList<>(events);
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isDone() {
+        return completed.getCount() == 0;
+    }
+
+    public void cancel() {
+        cancelled = true;
+        Thread thread = timer;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    public boolean await(Duration timeout) throws InterruptedException {
+        return completed.await(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    void started(Thread thread) {
+        this.timer = thread;
+    }
+
+    void record(TimelineEvent event) {
+        events.add(event);
+    }
+
+    void complete() {
+        completed.countDown();
+    }
+}
@@ -0,0 +1,88 @@
+package com.chaos.topology;
+
+import com.chaos.load.LoadGenerator;
+import com.chaos.load.LoadResult;
+import com.chaos.proxy.ChaosType;
+import com.chaos.proxy.ProxyManager;
+import io.restassured.response.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Measures how latency injected on a downstream proxy shows up in end-to-end responses. Each step
+ * adds a fixed latency downstream and runs an open-loop load against the entry point; the added
+ * end-to-end latency per injected ms tells how often the path waits on that dependency.
+ */
+@Slf4j
+@Component
+public class LatencyPropagation {
+
+    private final ProxyManager proxyManager;
+    private final LoadGenerator loadGenerator;
+    private final Topology topology;
+
+    public LatencyPropagation(ProxyManager proxyManager, LoadGenerator loadGenerator, Topology topology) {
+        this.proxyManager = proxyManager;
+        this.loadGenerator = loadGenerator;
+        this.topology = topology;
+    }
+
+    public PropagationReport measure(String entry, String downstream, List<Long> injectedMillis,
+                                     Supplier<Response> request, double ratePerSecond, Duration stepDuration) {
+        List<String> path = topology.path(entry, downstream);
+        if (path.isEmpty()) {
+            throw new IllegalArgumentException(entry + " does not depend on " + downstream);
+        }
+        Map<String, Object> previous = proxyManager.getActiveChaos()
+                .getOrDefault(downstream, Map.of())
+                .get(ChaosType.LATENCY);
+        List<PropagationStep> steps = new ArrayList<>();
+        LoadResult baseline = null;
+        try {
+            for (long injected : withBaseline(injectedMillis)) {
+                if (injected == 0) {
+                    proxyManager.removeChaos(downstream, ChaosType.LATENCY);
+                } else {
+                    proxyManager.simulateChaos(downstream, ChaosType.LATENCY, Map.of("latency", injected, "jitter", 0L));
+                }
+                LoadResult result = loadGenerator.atRate(request, ratePerSecond, stepDuration);
+                if (baseline == null) {
+                    baseline = result;
+                }
+                steps.add(step(injected, result, baseline));
+                log.info("{}ms on {} -> p50 {}ms at {}", injected, downstream,
+                        String.format("%.1f", result.getPercentileMillis(50)), entry);
+            }
+        } finally {
+            if (previous != null) {
+                proxyManager.simulateChaos(downstream, ChaosType.LATENCY, previous);
+            } else {
+                proxyManager.removeChaos(downstream, ChaosType.LATENCY);
+            }
+        }
+        return new PropagationReport(entry, downstream, path, steps);
+    }
+
+    private static PropagationStep step(long injected, LoadResult result, LoadResult baseline) {
+        double p50 = result.getPercentileMillis(50);
+        double p99 = result.getPercentileMillis(99);
+        double addedP50 = p50 - baseline.getPercentileMillis(50);
+        double addedP99 = p99 - baseline.getPercentileMillis(99);
+        return new PropagationStep(injected, result.getRequests(), result.getErrors(), p50, p99, addedP50, addedP99,
+                injected == 0 ? 0 : addedP50 / injected);
+    }
+
+    // The first step always runs without injected latency, as the reference for the others
+    private static List<Long> withBaseline(List<Long> injectedMillis) {
+        List<Long> steps = new ArrayList<>(injectedMillis.size() + 1);
+        steps.add(0L);
+        injectedMillis.stream().filter(injected -> injected > 0).forEach(steps::add);
+        return steps;
+    }
+}
@@ -0,0 +1,19 @@
+package com.chaos.topology;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class PropagationReport {
+    private String entry;
+    private String downstream;
+    private List<String> path;
+    private List<PropagationStep> steps;
+
+    public double getMaxAmplification() {
+        return steps.stream().mapToDouble(PropagationStep::getAmplification).max().orElse(0);
+    }
+}
@@ -0,0 +1,19 @@
+package com.chaos.topology;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class PropagationStep {
+    private long injectedMs;
+    private long requests;
+    private long errors;
+    private double p50Ms;
+    private double p99Ms;
+    // Added end-to-end latency over the step without injected latency
+    private double addedP50Ms;
+    private double addedP99Ms;
+    // Added end-to-end p50 per ms injected downstream; the number of sequential calls on the path
+    private double amplification;
+}
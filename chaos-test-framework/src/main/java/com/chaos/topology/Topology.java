@@ -0,0 +1,112 @@
+package com.chaos.topology;
+
+import com.chaos.config.ToxiproxyProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Dependency graph of the configured proxies, built from each proxy's {@code depends-on}. An
+ * unknown dependency or a cycle fails at startup rather than halfway through an experiment.
+ */
+@Component
+public class Topology {
+
+    private final Map<String, List<String>> dependencies = new LinkedHashMap<>();
+    private final List<String> order;
+
+    public Topology(ToxiproxyProperties properties) {
+        properties.getProxies().forEach((name, config) -> {
+            for (String dependency : config.getDependsOn()) {
+                if (!properties.getProxies().containsKey(dependency)) {
+                    throw new IllegalStateException("Proxy " + name + " depends on unknown proxy " + dependency);
+                }
+            }
+            dependencies.put(name, List.copyOf(config.getDependsOn()));
+        });
+        this.order = Collections.unmodifiableList(sort());
+    }
+
+    // Every proxy, dependencies before the proxies that call them
+    public List<String> getOrder() {
+        return order;
+    }
+
+    public List<String> dependencies(String proxy) {
+        return dependencies.getOrDefault(proxy, List.of());
+    }
+
+    // Everything reachable from the proxy, nearest first
+    public List<String> downstream(String proxy) {
+        Set<String> seen = new LinkedHashSet<>();
+        Deque<String> queue = new ArrayDeque<>(dependencies(proxy));
+        while (!queue.isEmpty()) {
+            String next = queue.poll();
+            if (seen.add(next)) {
+                queue.addAll(dependencies(next));
+            }
+        }
+        return new ArrayList<>(seen);
+    }
+
+    // Shortest dependency chain from one proxy to another, both included; empty if unreachable
+    public List<String> path(String from, String to) {
+        Map<String, String> parents = new HashMap<>();
+        Deque<String> queue = new ArrayDeque<>(List.of(from));
+        parents.put(from, null);
+        while (!queue.isEmpty()) {
+            String current = queue.poll();
+            if (current.equals(to)) {
+                List<String> path = new ArrayList<>();
+                for (String hop = to; hop != null; hop = parents.get(hop)) {
+                    path.add(0, hop);
+                }
+                return path;
+            }
+            for (String next : dependencies(current)) {
+                if (!parents.containsKey(next)) {
+                    parents.put(next, current);
+                    queue.add(next);
+                }
+            }
+        }
+        return List.of();
+    }
+
+    private List<String> sort() {
+        List<String> sorted = new ArrayList<>(dependencies.size());
+        Set<String> done = new LinkedHashSet<>();
+        for (String proxy : dependencies.keySet()) {
+            visit(proxy, new ArrayList<>(), done, sorted);
+        }
+        return sorted;
+    }
+
+    private void visit(String proxy, List<String> stack, Set<String> done, List<String> sorted) {
+        if (done.contains(proxy)) {
+            return;
+        }
+        int cycleStart = stack.indexOf(proxy);
+        if (cycleStart >= 0) {
+            List<String> cycle = new ArrayList<>(stack.subList(cycleStart, stack.size()));
+            cycle.add(proxy);
+            throw new IllegalStateException("Proxy dependency cycle: " + String.join(" -> ", cycle));
+        }
+        stack.add(proxy);
+        for (String dependency : dependencies(proxy)) {
+            visit(dependency, stack, done, sorted);
+        }
+        stack.remove(stack.size() - 1);
+        done.add(proxy);
+        sorted.add(proxy);
+    }
+}
@@ -0,0 +1,45 @@
+package com.chaos.trace;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+final class BinaryTraceReader implements TraceReader {
+
+    private final MappedWindow window;
+    private long position = TraceWriter.HEADER_BYTES;
+
+    BinaryTraceReader(Path path) throws IOException {
+        this.window = new MappedWindow(path);
+        try {
+            if (window.size() < TraceWriter.HEADER_BYTES) {
+                throw new IOException("Not a trace file: " + path);
+            }
+            window.ensure(0, TraceWriter.HEADER_BYTES);
+            if (window.getInt(0) != TraceWriter.MAGIC || window.getInt(4) != TraceWriter.VERSION) {
+                throw new IOException("Not a version " + TraceWriter.VERSION + " trace file: " + path);
+            }
+        } catch (IOException e) {
+            window.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean next(TracePoint point) throws IOException {
+        if (position + TraceWriter.RECORD_BYTES > window.size()) {
+            return false;
+        }
+        window.ensure(position, TraceWriter.RECORD_BYTES);
+        point.setTimestampMicros(window.getLong(position));
+        point.setLatencyMicros(window.getInt(position + 8));
+        point.setBandwidthKbs(window.getInt(position + 12));
+        point.setDropProbability(window.getFloat(position + 16));
+        position += TraceWriter.RECORD_BYTES;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window.close();
+    }
+}
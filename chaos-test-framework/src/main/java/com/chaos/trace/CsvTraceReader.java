@@ -0,0 +1,124 @@
+package com.chaos.trace;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Reads {@code timestamp_ms,latency_ms[,bandwidth_kbs[,drop_probability]]} lines straight from the
+ * mapped file. Header, blank and {@code #} lines are skipped; numbers are parsed without Strings.
+ */
+final class CsvTraceReader implements TraceReader {
+
+    private static final int MAX_LINE_BYTES = 4096;
+    private static final int FIELDS = 4;
+
+    private final Path path;
+    private final MappedWindow window;
+    private final double[] fields = new double[FIELDS];
+    private long position;
+    private long line;
+
+    CsvTraceReader(Path path) throws IOException {
+        this.path = path;
+        this.window = new MappedWindow(path);
+    }
+
+    @Override
+    public boolean next(TracePoint point) throws IOException {
+        while (position < window.size()) {
+            window.ensure(position, MAX_LINE_BYTES);
+            long end = lineEnd();
+            line++;
+            int count = parse(position, end);
+            position = end + 1;
+            if (count == 0) {
+                continue;
+            }
+            if (count < 2) {
+                throw new IOException(path + ":" + line + ": expected at least timestamp_ms,latency_ms");
+            }
+            point.setTimestampMicros(Math.round(fields[0] * 1000));
+            point.setLatencyMicros((int) Math.round(fields[1] * 1000));
+            point.setBandwidthKbs(count > 2 ? (int) Math.round(fields[2]) : 0);
+            point.setDropProbability(count > 3 ? (float) fields[3] : 0f);
+            return true;
+        }
+        return false;
+    }
+
+    private long lineEnd() throws IOException {
+        long limit = Math.min(window.size(), position + MAX_LINE_BYTES);
+        for (long i = position; i < limit; i++) {
+            if (window.get(i) == '\n') {
+                return i;
+            }
+        }
+        if (limit < window.size()) {
+            throw new IOException(path + ":" + (line + 1) + ": line longer than " + MAX_LINE_BYTES + " bytes");
+        }
+        return limit;
+    }
+
+    // Number of fields parsed, or 0 for a line that carries no record
+    private int parse(long start, long end) throws IOException {
+        long i = skipSpaces(start, end);
+        if (i == end || !startsNumber(window.get(i))) {
+            return 0;
+        }
+        int count = 0;
+        while (i < end && count < FIELDS) {
+            i = skipSpaces(i, end);
+            boolean negative = false;
+            byte b = i < end ? window.get(i) : 0;
+            if (b == '-' || b == '+') {
+                negative = b == '-';
+                i++;
+            }
+            double value = 0;
+            double scale = 0;
+            boolean digits = false;
+            for (; i < end; i++) {
+                b = window.get(i);
+                if (b >= '0' && b <= '9') {
+                    value = value * 10 + (b - '0');
+                    scale *= 10;
+                    digits = true;
+                } else if (b == '.' && scale == 0) {
+                    scale = 1;
+                } else {
+                    break;
+                }
+            }
+            if (!digits) {
+                throw new IOException(path + ":" + line + ": expected a number in field " + (count + 1));
+            }
+            fields[count++] = (negative ? -value : value) / (scale == 0 ? 1 : scale);
+            i = skipSpaces(i, end);
+            if (i < end && window.get(i) != ',') {
+                throw new IOException(path + ":" + line + ": unexpected character after field " + count);
+            }
+            i++;
+        }
+        return count;
+    }
+
+    private long skipSpaces(long i, long end) {
+        while (i < end) {
+            byte b = window.get(i);
+            if (b != ' ' && b != '\t' && b != '\r') {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean startsNumber(byte b) {
+        return (b >= '0' && b <= '9') || b == '-' || b == '+' || b == '.';
+    }
+
+    @Override
+    public void close() throws IOException {
+        window.close();
+    }
+}
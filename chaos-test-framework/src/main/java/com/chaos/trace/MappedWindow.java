@@ -0,0 +1,70 @@
+package com.chaos.trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sliding read-only mapping over a file of any size. Only one window is mapped at a time, so the
+ * page cache rather than the heap holds the trace, and a record never straddles two windows. Also
+ * used by the run result aggregator.
+ */
+public final class MappedWindow implements Closeable {
+
+    private static final long WINDOW_BYTES = 64L * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long size;
+    private MappedByteBuffer buffer;
+    private long windowStart;
+    private long windowEnd;
+
+    public MappedWindow(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+    }
+
+    public long size() {
+        return size;
+    }
+
+    // Maps a window holding [position, position + bytes), clipped to the end of the file
+    public void ensure(long position, int bytes) throws IOException {
+        long end = Math.min(size, position + bytes);
+        if (buffer != null && position >= windowStart && end <= windowEnd) {
+            return;
+        }
+        windowStart = position;
+        windowEnd = Math.min(size, position + Math.max(WINDOW_BYTES, bytes));
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowEnd - windowStart);
+    }
+
+    public byte get(long position) {
+        return buffer.get((int) (position - windowStart));
+    }
+
+    public short getShort(long position) {
+        return buffer.getShort((int) (position - windowStart));
+    }
+
+    public int getInt(long position) {
+        return buffer.getInt((int) (position - windowStart));
+    }
+
+    public long getLong(long position) {
+        return buffer.getLong((int) (position - windowStart));
+    }
+
+    public float getFloat(long position) {
+        return buffer.getFloat((int) (position - windowStart));
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer = null;
+        channel.close();
+    }
+}
@@ -0,0 +1,23 @@
+package com.chaos.trace;
+
+import lombok.Data;
+
+/**
+ * One sample of a recorded network trace. Readers fill the same instance on every call so a
+ * multi-GB trace streams without allocating per record.
+ */
+@Data
+public class TracePoint {
+    private long timestampMicros;
+    private int latencyMicros;
+    // KB/s, the unit of the bandwidth toxic; 0 means unlimited
+    private int bandwidthKbs;
+    private float dropProbability;
+
+    public void copyFrom(TracePoint other) {
+        this.timestampMicros = other.timestampMicros;
+        this.latencyMicros = other.latencyMicros;
+        this.bandwidthKbs = other.bandwidthKbs;
+        this.dropProbability = other.dropProbability;
+    }
+}
@@ -0,0 +1,18 @@
+package com.chaos.trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+public interface TraceReader extends Closeable {
+
+    // Fills point with the next record; false at the end of the trace
+    boolean next(TracePoint point) throws IOException;
+
+    // CSV by extension, otherwise the binary format written by TraceWriter
+    static TraceReader open(Path path) throws IOException {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".csv") ? new CsvTraceReader(path) : new BinaryTraceReader(path);
+    }
+}
@@ -0,0 +1,109 @@
+package com.chaos.trace;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class TraceReplay {
+
+    private final String proxyName;
+    private final Path trace;
+    private final double timeFactor;
+    private final CountDownLatch completed = new CountDownLatch(1);
+    private volatile long points;
+    private volatile long applied;
+    private volatile long coalesced;
+    private volatile long maxLagNanos;
+    private volatile Exception failure;
+    private volatile boolean cancelled;
+    private volatile Thread timer;
+
+    TraceReplay(String proxyName, Path trace, double timeFactor) {
+        this.proxyName = proxyName;
+        this.trace = trace;
+        this.timeFactor = timeFactor;
+    }
+
+    public String getProxyName() {
+        return proxyName;
+    }
+
+    public Path getTrace() {
+        return trace;
+    }
+
+    public double getTimeFactor() {
+        return timeFactor;
+    }
+
+    public long getPoints() {
+        return points;
+    }
+
+    // Points that changed the proxy's toxics
+    public long getApplied() {
+        return applied;
+    }
+
+    // Points superseded by a later one before they could be applied
+    public long getCoalesced() {
+        return coalesced;
+    }
+
+    public long getMaxLagNanos() {
+        return maxLagNanos;
+    }
+
+    public Exception getFailure() {
+        return failure;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isDone() {
+        return completed.getCount() == 0;
+    }
+
+    public void cancel() {
+        cancelled = true;
+        Thread thread = timer;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    public boolean await(Duration timeout) throws InterruptedException {
+        return completed.await(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    void started(Thread thread) {
+        this.timer = thread;
+    }
+
+    // Only the replay thread writes the counters
+    void point() {
+        points++;
+    }
+
+    void applied(long lagNanos) {
+        applied++;
+        if (lagNanos > maxLagNanos) {
+            maxLagNanos = lagNanos;
+        }
+    }
+
+    void coalesced() {
+        coalesced++;
+    }
+
+    void failed(Exception e) {
+        this.failure = e;
+    }
+
+    void complete() {
+        completed.countDown();
+    }
+}
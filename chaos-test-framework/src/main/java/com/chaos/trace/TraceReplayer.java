@@ -0,0 +1,143 @@
+package com.chaos.trace;
+
+import com.chaos.proxy.ChaosType;
+import com.chaos.proxy.ProxyManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a proxy's toxics from a recorded trace on its own timer thread, in real time or faster
+ * by a time factor. Points that fall due together are coalesced so a slow control plane only
+ * ever applies the newest state instead of falling further behind.
+ */
+@Slf4j
+@Component
+public class TraceReplayer {
+
+    private final ProxyManager proxyManager;
+    private final ChaosType dropChaosType;
+    private final Long seed;
+
+    public TraceReplayer(ProxyManager proxyManager,
+                         @Value("${test.trace.drop-chaos-type:NETWORK_MODEL}") ChaosType dropChaosType,
+                         @Value("${test.trace.seed:#{null}}") Long seed) {
+        if (dropChaosType != ChaosType.NETWORK_MODEL && dropChaosType != ChaosType.PACKET_LOSS) {
+            throw new IllegalArgumentException("Trace drops map to NETWORK_MODEL or PACKET_LOSS, not " + dropChaosType);
+        }
+        this.proxyManager = proxyManager;
+        this.dropChaosType = dropChaosType;
+        this.seed = seed;
+    }
+
+    public TraceReplay start(String proxyName, Path trace, double timeFactor) throws IOException {
+        if (timeFactor <= 0) {
+            throw new IllegalArgumentException("Time factor must be positive: " + timeFactor);
+        }
+        TraceReader reader = TraceReader.open(trace);
+        TraceReplay replay = new TraceReplay(proxyName, trace, timeFactor);
+        Thread thread = new Thread(() -> play(replay, reader), "trace-replay");
+        thread.setDaemon(true);
+        replay.started(thread);
+        thread.start();
+        log.info("Replaying trace {} on {} at {}x", trace, proxyName, timeFactor);
+        return replay;
+    }
+
+    private void play(TraceReplay replay, TraceReader reader) {
+        Map<ChaosType, Map<String, Object>> applied = new EnumMap<>(ChaosType.class);
+        TracePoint point = new TracePoint();
+        TracePoint due = new TracePoint();
+        boolean pending = false;
+        long dueAt = 0;
+        long origin = 0;
+        long start = System.nanoTime();
+        try (reader) {
+            while (!replay.isCancelled() && reader.next(point)) {
+                if (replay.getPoints() == 0) {
+                    origin = point.getTimestampMicros();
+                }
+                replay.point();
+                long at = start + (long) (TimeUnit.MICROSECONDS.toNanos(point.getTimestampMicros() - origin)
+                        / replay.getTimeFactor());
+                if (at - System.nanoTime() > 0) {
+                    if (pending) {
+                        applied = apply(replay, applied, due, dueAt);
+                        pending = false;
+                    }
+                    long wait;
+                    while ((wait = at - System.nanoTime()) > 0 && !replay.isCancelled()) {
+                        LockSupport.parkNanos(wait);
+                    }
+                } else if (pending) {
+                    replay.coalesced();
+                }
+                due.copyFrom(point);
+                dueAt = at;
+                pending = true;
+            }
+            if (pending && !replay.isCancelled()) {
+                apply(replay, applied, due, dueAt);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Trace replay of {} aborted: {}", replay.getTrace(), e.getMessage());
+            replay.failed(e);
+        } finally {
+            try {
+                proxyManager.replaceChaos(replay.getProxyName(), new EnumMap<>(ChaosType.class));
+            } catch (RuntimeException e) {
+                log.error("Failed to clear trace toxics on {}: {}", replay.getProxyName(), e.getMessage());
+            }
+            replay.complete();
+            log.info("Trace replay of {} finished: {} points, {} applied, {} coalesced, max lag {}ms",
+                     replay.getTrace(), replay.getPoints(), replay.getApplied(), replay.getCoalesced(),
+                     TimeUnit.NANOSECONDS.toMillis(replay.getMaxLagNanos()));
+        }
+    }
+
+    private Map<ChaosType, Map<String, Object>> apply(TraceReplay replay, Map<ChaosType, Map<String, Object>> previous,
+                                                      TracePoint point, long dueAt) {
+        Map<ChaosType, Map<String, Object>> desired = toxics(point);
+        if (desired.equals(previous)) {
+            return previous;
+        }
+        proxyManager.replaceChaos(replay.getProxyName(), desired);
+        replay.applied(System.nanoTime() - dueAt);
+        return desired;
+    }
+
+    private Map<ChaosType, Map<String, Object>> toxics(TracePoint point) {
+        Map<ChaosType, Map<String, Object>> toxics = new EnumMap<>(ChaosType.class);
+        long latencyMillis = Math.round(point.getLatencyMicros() / 1000.0);
+        if (latencyMillis > 0) {
+            Map<String, Object> params = new HashMap<>();
+            params.put("latency", latencyMillis);
+            params.put("jitter", 0L);
+            toxics.put(ChaosType.LATENCY, params);
+        }
+        if (point.getBandwidthKbs() > 0) {
+            toxics.put(ChaosType.BANDWIDTH, Map.of("rate", (long) point.getBandwidthKbs()));
+        }
+        if (point.getDropProbability() > 0) {
+            Map<String, Object> params = new HashMap<>();
+            if (dropChaosType == ChaosType.PACKET_LOSS) {
+                params.put("percentage", Math.round(point.getDropProbability() * 100));
+            } else {
+                params.put("loss", point.getDropProbability() * 100.0);
+                if (seed != null) {
+                    params.put("seed", seed);
+                }
+            }
+            toxics.put(dropChaosType, params);
+        }
+        return toxics;
+    }
+}
@@ -0,0 +1,53 @@
+package com.chaos.trace;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes the compact binary trace format: an 8-byte header followed by fixed 20-byte big-endian
+ * records of timestamp (µs), latency (µs), bandwidth (KB/s) and drop probability.
+ */
+public class TraceWriter implements Closeable {
+
+    static final int MAGIC = 0x43545243; // "CTRC"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 8;
+    static final int RECORD_BYTES = 20;
+
+    private final DataOutputStream out;
+
+    public TraceWriter(Path path) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+    }
+
+    public void write(TracePoint point) throws IOException {
+        out.writeLong(point.getTimestampMicros());
+        out.writeInt(point.getLatencyMicros());
+        out.writeInt(point.getBandwidthKbs());
+        out.writeFloat(point.getDropProbability());
+    }
+
+    // Converts any readable trace (typically a CSV export) to the binary format; returns the record count
+    public static long convert(Path source, Path target) throws IOException {
+        long records = 0;
+        try (TraceReader reader = TraceReader.open(source); TraceWriter writer = new TraceWriter(target)) {
+            TracePoint point = new TracePoint();
+            while (reader.next(point)) {
+                writer.write(point);
+                records++;
+            }
+        }
+        return records;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,111 @@
+package com.chaos.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+/**
+ * Run-wide seeded randomness. A scenario's thread draws from a {@link SplittableRandom} derived from
+ * the run seed and the scenario, and every task it hands to a pool gets a stream split off at
+ * submission, so the values a task draws depend on the order it was submitted in rather than on which
+ * pooled thread runs it. Nothing is shared on the hot path, and a run can be replayed by passing the
+ * logged seed back as {@code -Dtest.seed} (or {@code TEST_SEED}).
+ */
+@Slf4j
+public final class RandomSource {
+
+    public static final String SEED_PROPERTY = "test.seed";
+
+    private static final long SEED = initialSeed();
+    // Only threads that were never handed a stream fall back to one named after them
+    private static final ThreadLocal<SplittableRandom> RANDOM =
+            ThreadLocal.withInitial(() -> new SplittableRandom(derive("run", Thread.currentThread().getName())));
+
+    private RandomSource() {
+    }
+
+    public static long seed() {
+        return SEED;
+    }
+
+    // Restarts the calling thread's stream so the scenario draws the same values whatever ran before it,
+    // and on whichever runner thread it lands
+    public static void beginScenario(String scenarioId) {
+        RANDOM.set(new SplittableRandom(derive(scenarioId)));
+    }
+
+    public static SplittableRandom current() {
+        return RANDOM.get();
+    }
+
+    // Independent stream for work handed to another thread, determined by what the caller drew before
+    public static SplittableRandom split() {
+        return RANDOM.get().split();
+    }
+
+    // The task draws from a stream split off now, at submission, whichever pooled thread later runs it
+    public static Runnable bind(Runnable task) {
+        SplittableRandom random = split();
+        return () -> {
+            SplittableRandom previous = RANDOM.get();
+            RANDOM.set(random);
+            try {
+                task.run();
+            } finally {
+                RANDOM.set(previous);
+            }
+        };
+    }
+
+    public static <T> Supplier<T> bind(Supplier<T> task) {
+        SplittableRandom random = split();
+        return () -> {
+            SplittableRandom previous = RANDOM.get();
+            RANDOM.set(random);
+            try {
+                return task.get();
+            } finally {
+                RANDOM.set(previous);
+            }
+        };
+    }
+
+    // Stream for the index-th task of a consumer that is not handed work by a scenario thread, such as
+    // requests arriving at the stub
+    public static SplittableRandom forTask(String consumer, long index) {
+        return new SplittableRandom(mix(derive(consumer) ^ mix(index + 0x9E3779B97F4A7C15L)));
+    }
+
+    // Stable seed for a named consumer, such as a proxy-side toxic, that keeps its own generator
+    public static long derive(String... keys) {
+        long h = SEED;
+        for (String key : keys) {
+            for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+                h = (h ^ b) * 0x100000001B3L;
+            }
+            h = mix(h + 0x9E3779B97F4A7C15L);
+        }
+        return h;
+    }
+
+    public static long derive(long key) {
+        return mix(SEED ^ mix(key + 0x9E3779B97F4A7C15L));
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static long initialSeed() {
+        String configured = System.getProperty(SEED_PROPERTY, System.getenv("TEST_SEED"));
+        long seed = configured != null && !configured.trim().isEmpty()
+                ? Long.parseLong(configured.trim())
+                : new SplittableRandom().nextLong();
+        log.info("Random seed {} (replay with -D{}={})", seed, SEED_PROPERTY, seed);
+        return seed;
+    }
+}
@@ -1,14 +1,16 @@
 package com.chaos.utils;
 
-import java.util.Random;
+import com.chaos.model.Product;
+
+import java.util.SplittableRandom;
 
 public class TestUtils {
 
-    private static final Random RANDOM = new Random();
+    private static final String[] CATEGORIES = {"electronics", "clothing", "books", "home"};
 
     // Generates a random integer within the specified range
     public static int generateRandomInt(int min, int max) {
-        return RANDOM.nextInt((max - min) + 1) + min;
+        return RandomSource.current().nextInt(min, max + 1);
     }
 
     // Validates if the response is as expected
@@ -18,10 +20,21 @@ public class TestUtils {
 
     // Generates a random string of specified length
     public static String generateRandomString(int length) {
+        SplittableRandom random = RandomSource.current();
         StringBuilder sb = new StringBuilder(length);
         for (int i = 0; i < length; i++) {
-            sb.append((char) (RANDOM.nextInt(26) + 'a'));
+            sb.append((char) (random.nextInt(26) + 'a'));
         }
         return sb.toString();
     }
-}
\ No newline at end of file
+
+    // Generates a product payload with a random name, price and category
+    public static Product generateRandomProduct() {
+        SplittableRandom random = RandomSource.current();
+        return Product.builder()
+                .name("Product " + generateRandomString(8))
+                .price(Math.round(random.nextDouble(1, 1000) * 100) / 100.0)
+                .category(CATEGORIES[random.nextInt(CATEGORIES.length)])
+                .build();
+    }
+}
@@ -0,0 +1,33 @@
+package com.chaos.utils;
+
+import io.restassured.response.Response;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.function.Supplier;
+
+/**
+ * The response of a request, or what it threw instead. RestAssured rethrows checked transport
+ * exceptions such as {@code ConnectException} without declaring them, so catching
+ * {@link RuntimeException} misses them; callers that must outlive a failed request run it through
+ * {@link #of} rather than catching {@link Exception} themselves.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class TransportResult {
+    private final Response response;
+    private final Exception failure;
+
+    public static TransportResult of(Supplier<Response> request) {
+        try {
+            return new TransportResult(request.get(), null);
+        } catch (Exception e) {
+            return new TransportResult(null, e);
+        }
+    }
+
+    public boolean isFailed() {
+        return failure != null;
+    }
+}
@@ -0,0 +1,16 @@
+package com.chaos;
+
+import io.cucumber.junit.Cucumber;
+import io.cucumber.junit.CucumberOptions;
+import org.junit.runner.RunWith;
+
+/**
+ * Runs the scenarios that need nothing but the in-process stub and embedded proxies (see
+ * {@code application.yml}), leaving out the {@code @slow} ones. Glue, plugins and timeouts come from
+ * {@code cucumber.properties}; pick other scenarios with {@code -Dcucumber.filter.tags}, e.g.
+ * {@code "@stub and @slow"}.
+ */
+@RunWith(Cucumber.class)
+@CucumberOptions(features = "src/test/java/com/chaos/features", tags = "@stub and not @slow")
+public class RunCucumberTest {
+}
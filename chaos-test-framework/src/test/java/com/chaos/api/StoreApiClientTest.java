@@ -0,0 +1,201 @@
+package com.chaos.api;
+
+import com.chaos.live.LiveMetrics;
+import com.chaos.queue.OperationQueue;
+import com.chaos.queue.OperationQueuedException;
+import com.chaos.queue.OperationType;
+import com.chaos.queue.QueueProperties;
+import com.chaos.queue.QueuedOperation;
+import com.chaos.resilience.ResilienceProperties;
+import com.chaos.stub.StoreApiStub;
+import com.chaos.stub.StubProperties;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StoreApiClientTest {
+
+    @TempDir
+    Path dir;
+
+    private ConnectionPool connectionPool;
+    private StoreApiStub stub;
+    private StoreApiClient client;
+    private OperationQueue queue;
+
+    @BeforeEach
+    void start() {
+        connectionPool = new ConnectionPool(2000, 20, 10, 30000);
+        stub = new StoreApiStub(new StubProperties());
+        client = new StoreApiClient();
+        ReflectionTestUtils.setField(client, "apiUrl", stub.getBaseUri());
+        ReflectionTestUtils.setField(client, "connectionPool", connectionPool);
+        ReflectionTestUtils.setField(client, "resilienceProperties", new ResilienceProperties());
+        ReflectionTestUtils.setField(client, "liveMetrics", new LiveMetrics());
+        client.init();
+    }
+
+    @AfterEach
+    void stop() throws IOException {
+        if (queue != null) {
+            queue.close();
+        }
+        stub.close();
+        connectionPool.close();
+    }
+
+    @Test
+    void queuesWritesTheUpstreamCannotTake() throws Exception {
+        StoreApiClient unreachable = client.forBaseUri("http://127.0.0.1:" + closedPort());
+        queue = OperationQueue.open(dir.resolve("client.wal"), new QueueProperties(), client::send);
+        unreachable.setWriteQueue(queue);
+
+        OperationQueuedException queued = assertThrows(OperationQueuedException.class,
+                () -> unreachable.deleteProduct(3));
+
+        // Delivered through the reachable client the queue was opened with
+        assertEquals(204, queued.getResult().get(5, TimeUnit.SECONDS).getStatusCode());
+        assertEquals(404, client.getProduct(3).getStatusCode());
+        assertEquals(1, queue.getEnqueued());
+    }
+
+    @Test
+    void writesThatGetThroughAreNotQueued() throws Exception {
+        queue = OperationQueue.open(dir.resolve("reachable.wal"), new QueueProperties(), client::send);
+        client.setWriteQueue(queue);
+
+        Response response = client.patchProduct(4, Map.of("price", 9.99));
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(0, queue.getEnqueued());
+    }
+
+    @Test
+    void failuresReachTheCallerWithoutAQueue() throws IOException {
+        StoreApiClient unreachable = client.forBaseUri("http://127.0.0.1:" + closedPort());
+
+        Exception failure = assertThrows(Exception.class, () -> unreachable.deleteProduct(3));
+
+        assertFalse(failure instanceof OperationQueuedException);
+    }
+
+    @Test
+    void sendGoesStraightToTheUpstream() throws IOException {
+        StoreApiClient unreachable = client.forBaseUri("http://127.0.0.1:" + closedPort());
+        queue = OperationQueue.open(dir.resolve("send.wal"), new QueueProperties(), client::send);
+        unreachable.setWriteQueue(queue);
+        queue.pause();
+
+        assertThrows(Exception.class, () -> unreachable.send(
+                new QueuedOperation(1, OperationType.DELETE, 3, new byte[0])));
+
+        assertEquals(0, queue.getEnqueued());
+        assertEquals(0, queue.getPending());
+    }
+
+    @Test
+    void reusesPooledConnectionsAcrossRequests() {
+        StoreApiClient other = client.forBaseUri(stub.getBaseUri());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(200, client.getAllProducts().getStatusCode());
+            assertEquals(200, other.getProduct(1 + i % 5).getStatusCode());
+        }
+
+        // Sequential requests from both clients went over one kept-alive connection
+        assertEquals(0, connectionPool.getStats().getLeased());
+        assertEquals(1, connectionPool.getStats().getAvailable());
+    }
+
+    @Test
+    void evictsIdleConnections() throws InterruptedException {
+        assertEquals(200, client.getAllProducts().getStatusCode());
+        Thread.sleep(50);
+
+        connectionPool.evictIdleConnections(10);
+
+        assertEquals(0, connectionPool.getStats().getAvailable());
+    }
+
+    @Test
+    void streamsEveryProductOfALargeCatalog() {
+        StubProperties properties = new StubProperties();
+        properties.setSeedProducts(500);
+        properties.setPayloadSize(512);
+        try (StoreApiStub catalog = new StoreApiStub(properties)) {
+            AtomicLong ids = new AtomicLong();
+
+            ProductStream stream = client.forBaseUri(catalog.getBaseUri()).streamProducts(product -> ids.addAndGet(product.getId()));
+
+            assertTrue(stream.isComplete());
+            assertEquals(200, stream.getStatusCode());
+            assertEquals(500, stream.getProducts());
+            assertEquals(500L * 501 / 2, ids.get());
+            assertTrue(stream.getBytesRead() >= 500 * 512);
+            assertTrue(stream.getTimeToFirstByteNanos() <= stream.getTimeToFirstProductNanos());
+            assertTrue(stream.getTimeToFirstProductNanos() <= stream.getTotalNanos());
+        }
+    }
+
+    @Test
+    void reportsHowFarAFailedStreamGot() throws Exception {
+        try (ServerSocket server = new ServerSocket(0)) {
+            Thread truncating = new Thread(() -> {
+                try (Socket socket = server.accept()) {
+                    socket.getInputStream().read(new byte[4096]);
+                    socket.getOutputStream().write(("HTTP/1.1 200 OK\r\nContent-Type: application/json\r\n"
+                            + "Content-Length: 100000\r\n\r\n[{\"id\":1,\"name\":\"a\"},{\"id\":2,")
+                            .getBytes(StandardCharsets.UTF_8));
+                } catch (IOException e) {
+                    // The test fails on the stream's outcome
+                }
+            });
+            truncating.start();
+
+            ProductStream stream = client.forBaseUri("http://127.0.0.1:" + server.getLocalPort())
+                    .streamProducts(product -> { });
+            truncating.join();
+
+            assertFalse(stream.isComplete());
+            assertEquals(200, stream.getStatusCode());
+            assertEquals(1, stream.getProducts());
+            assertTrue(stream.getTimeToFirstProductNanos() >= 0);
+        }
+    }
+
+    @Test
+    void doesNotParseErrorResponses() {
+        StubProperties properties = new StubProperties();
+        properties.setErrorRate(1.0);
+        try (StoreApiStub failing = new StoreApiStub(properties)) {
+            ProductStream stream = client.forBaseUri(failing.getBaseUri()).streamProducts(product -> { });
+
+            assertTrue(stream.isComplete());
+            assertEquals(500, stream.getStatusCode());
+            assertEquals(0, stream.getProducts());
+            assertEquals(-1, stream.getTimeToFirstProductNanos());
+        }
+    }
+
+    private static int closedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
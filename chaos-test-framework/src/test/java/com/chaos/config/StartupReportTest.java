@@ -0,0 +1,74 @@
+package com.chaos.config;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.LazyInitializationBeanFactoryPostProcessor;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StartupReportTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void timesBeansAndPhasesAndWritesTheReport() throws IOException {
+        Path file = dir.resolve("startup-report.json");
+        try (AnnotationConfigApplicationContext context = context(file, false)) {
+            StartupReport report = context.getBean(StartupReport.class);
+            report.phase("proxy-creation", TimeUnit.MILLISECONDS.toNanos(42));
+
+            Map<?, ?> written = new Gson().fromJson(Files.readString(file, StandardCharsets.UTF_8), Map.class);
+            assertEquals(false, written.get("lazyInitialization"));
+            assertEquals(42.0, written.get("proxyCreationMs"));
+            assertTrue(written.containsKey("contextRefreshMs"));
+            Map<?, ?> slowest = (Map<?, ?>) written.get("slowestBeansMs");
+            assertEquals("slowBean", slowest.keySet().iterator().next());
+            assertTrue((Double) slowest.get("slowBean") >= 100);
+        }
+    }
+
+    @Test
+    void lazyContextsSkipUnusedBeans() throws IOException {
+        Path file = dir.resolve("lazy-report.json");
+        try (AnnotationConfigApplicationContext context = context(file, true)) {
+            Map<?, ?> written = new Gson().fromJson(Files.readString(file, StandardCharsets.UTF_8), Map.class);
+
+            assertEquals(true, written.get("lazyInitialization"));
+            assertFalse(((Map<?, ?>) written.get("slowestBeansMs")).containsKey("slowBean"));
+        }
+    }
+
+    private static AnnotationConfigApplicationContext context(Path file, boolean lazy) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", Map.of(
+                "test.startup.report-file", file.toString(),
+                "spring.main.lazy-initialization", lazy)));
+        context.registerBean(StartupReport.class);
+        context.registerBean("slowBean", SlowBean.class);
+        if (lazy) {
+            // What Spring Boot registers for spring.main.lazy-initialization, i.e. the fast profile
+            context.addBeanFactoryPostProcessor(new LazyInitializationBeanFactoryPostProcessor());
+        }
+        context.refresh();
+        return context;
+    }
+
+    static class SlowBean {
+        SlowBean() throws InterruptedException {
+            Thread.sleep(100);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.chaos.distributed;
+
+import com.chaos.metrics.Histograms;
+import com.chaos.proxy.ChaosType;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CoordinatorTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void correctsEachWorkersClockOffset() throws Exception {
+        try (Coordinator coordinator = new Coordinator("127.0.0.1", 0)) {
+            List<Thread> workers = List.of(
+                    fakeWorker(coordinator.getPort(), "ahead", TimeUnit.SECONDS.toNanos(5), false),
+                    fakeWorker(coordinator.getPort(), "behind", -TimeUnit.SECONDS.toNanos(3), false));
+            coordinator.awaitWorkers(2, Duration.ofSeconds(10));
+
+            DistributedResult result = coordinator.run(plan(), 20, Duration.ofMillis(100));
+            for (Thread worker : workers) {
+                worker.join();
+            }
+
+            assertEquals(20, result.getRequests());
+            assertEquals(2, result.getErrors());
+            assertEquals(10, result.getP99Millis(), 0.1);
+            for (WorkerSummary summary : result.getWorkers()) {
+                long offset = summary.getWorkerId().equals("ahead") ? TimeUnit.SECONDS.toNanos(5) : -TimeUnit.SECONDS.toNanos(3);
+                assertEquals(offset, summary.getClockOffsetNanos(), summary.getClockRoundTripNanos());
+                assertTrue(Math.abs(summary.getStartErrorNanos()) <= summary.getClockRoundTripNanos());
+            }
+            // Both workers activated exactly on schedule in their own clocks
+            assertTrue(result.getActivationSkewNanos() < 50 * MS, result.getActivationSkewNanos() + " ns");
+        }
+    }
+
+    @Test
+    void failsTheRunWhenAWorkerCannotPrepare() throws Exception {
+        try (Coordinator coordinator = new Coordinator("127.0.0.1", 0)) {
+            Thread worker = fakeWorker(coordinator.getPort(), "broken", 0, true);
+            coordinator.awaitWorkers(1, Duration.ofSeconds(10));
+
+            IOException failure = assertThrows(IOException.class, () -> coordinator.run(plan(), 1, Duration.ZERO));
+
+            assertTrue(failure.getMessage().contains("broken"), failure.getMessage());
+            coordinator.close();
+            worker.join();
+        }
+    }
+
+    @Test
+    void givesUpWaitingForMissingWorkers() throws IOException {
+        try (Coordinator coordinator = new Coordinator("127.0.0.1", 0)) {
+            assertThrows(SocketTimeoutException.class, () -> coordinator.awaitWorkers(1, Duration.ofMillis(100)));
+        }
+    }
+
+    private static RunPlan plan() {
+        return RunPlan.builder()
+                .upstream("127.0.0.1:9")
+                .ratePerSecond(10)
+                .durationMs(1000)
+                .phases(List.of(new ChaosPhase(ChaosType.LATENCY, Map.of("latency", 100), 500, 500)))
+                .build();
+    }
+
+    // Speaks the worker side of the protocol with a clock shifted by offsetNanos, without running any load
+    private static Thread fakeWorker(int port, String id, long offsetNanos, boolean failPrepare) {
+        Thread thread = new Thread(() -> {
+            try (Connection connection = new Connection(new Socket("127.0.0.1", port))) {
+                Message hello = new Message(Message.Type.HELLO);
+                hello.setWorkerId(id);
+                connection.send(hello);
+                while (true) {
+                    Message message = connection.receive();
+                    switch (message.getType()) {
+                        case PREPARE:
+                            Message ready = new Message(Message.Type.READY);
+                            if (failPrepare) {
+                                WorkerResult failed = new WorkerResult();
+                                failed.setError("no proxy");
+                                ready.setResult(failed);
+                            }
+                            connection.send(ready);
+                            break;
+                        case PING:
+                            Message pong = new Message(Message.Type.PONG);
+                            pong.setSequence(message.getSequence());
+                            pong.setWorkerNanos(System.nanoTime() + offsetNanos);
+                            connection.send(pong);
+                            break;
+                        case START:
+                            Message reply = new Message(Message.Type.RESULT);
+                            reply.setResult(result(id, message.getStartAtNanos()));
+                            connection.send(reply);
+                            return;
+                        default:
+                            throw new IllegalStateException("Unexpected " + message.getType());
+                    }
+                }
+            } catch (IOException e) {
+                // The coordinator closed the connection
+            }
+        }, "fake-worker-" + id);
+        thread.start();
+        return thread;
+    }
+
+    private static WorkerResult result(String id, long startAtNanos) {
+        Histogram latency = new Histogram(3);
+        latency.recordValueWithCount(10 * MS, 10);
+        WorkerResult result = new WorkerResult();
+        result.setWorkerId(id);
+        result.setLatency(Histograms.encode(latency));
+        result.setServiceTime(Histograms.encode(latency));
+        result.setRequests(10);
+        result.setErrors(1);
+        result.setStartedNanos(startAtNanos);
+        result.setActivations(List.of(new WorkerResult.Activation(500 * MS, startAtNanos + 500 * MS)));
+        return result;
+    }
+}
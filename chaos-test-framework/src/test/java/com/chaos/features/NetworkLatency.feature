@@ -64,4 +64,57 @@ Feature: Network Latency Testing
       | 10       | 1000    |
     And I monitor the API for 1 minute
     Then all requests should complete successfully
-    And response times should match the introduced latency pattern
\ No newline at end of file
+    And response times should match the introduced latency pattern
+
+  @stub @streaming
+  Scenario: Stream a large catalog under bandwidth limitation
+    When I limit the bandwidth to 128Kbps
+    And I stream all products from the Store API
+    Then the product stream should complete with at least 1 products
+    And the product stream should be limited to 128Kbps
+    And the first product should arrive within 2000 milliseconds
+
+  @stub @slow @distributed
+  Scenario: Apply the same chaos sequence from several load nodes at once
+    When I run the following chaos sequence on 3 workers at 20 requests per second each for 10 seconds:
+      | chaos_type | value | duration_ms |
+      | latency    | 200   | 3000        |
+      | bandwidth  | 256   | 3000        |
+    Then all requests should complete successfully
+    And the chaos activation skew across workers should be less than 50 milliseconds
+    And the p99 response time should be less than 5000 milliseconds
+
+  @stub @slow @network-model
+  Scenario: Meet the latency SLO over a lossy long-haul link
+    When I apply the following network model:
+      | distribution | pareto          |
+      | latency      | 40              |
+      | jitter       | 5               |
+      | shape        | 2.5             |
+      | correlation  | 25              |
+      | loss-model   | gilbert-elliott |
+      | p            | 1               |
+      | r            | 50              |
+      | reorder      | 2               |
+    And I monitor the API for 1 minute
+    Then all requests should complete successfully
+    And the p95 response time should be less than 1000 milliseconds
+
+  @stub @trace-replay
+  Scenario: Reproduce a recorded incident at ten times speed
+    When I replay the network trace "src/test/resources/traces/checkout-incident.csv" at 10x speed
+    And I send requests to the Store API at 10 per second for 6 seconds
+    Then the trace replay should finish within 30 seconds
+    And the trace replay should stay within 50 milliseconds of the recorded timing
+
+  @stub @slo
+  Scenario: Degraded-mode latency does not regress between runs
+    When I introduce a latency of 200 milliseconds
+    And I send requests to the Store API at 20 per second for 10 seconds
+    Then all requests should complete successfully
+    And the latency should not regress against the baseline
+
+  @stub @slow @sweep
+  Scenario: Map the Store API capacity curve under latency
+    When I sweep LATENCY from 0 to 400 in steps of 100 with a p99 SLO of 1000 milliseconds
+    Then the maximum sustainable rate at 0 should be at least 20 requests per second
\ No newline at end of file
@@ -75,4 +75,18 @@ Feature: Product API Operations Under Chaos Conditions
       | update    | 1  | {"price": 49.99}        |
       | delete    | 2  | -                       |
     Then all operations should complete successfully
-    And the system should maintain data consistency
\ No newline at end of file
+    And the system should maintain data consistency
+
+  @stub @slow @api @queue @recovery
+  Scenario: Drain a backlog of queued writes after connectivity returns
+    When I set the connection timeout to 1 seconds
+    And I queue 100000 product updates
+    And I restore the network connectivity
+    Then the queued backlog should drain at least 200 operations per second
+
+  @stub @slow @api @payload-corpus
+  Scenario: Write products at a high rate from pre-serialized payloads
+    When I introduce a latency of 100 milliseconds
+    And I create products at 200 per second for 10 seconds from the payload corpus
+    And I patch products at 200 per second for 10 seconds from the payload corpus
+    Then all requests should complete successfully
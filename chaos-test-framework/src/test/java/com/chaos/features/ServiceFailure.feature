@@ -87,4 +87,32 @@ Feature: Service Failure Testing
     Then all failures should be detected
     And system should recover automatically
     And no data loss should occur
-    And performance metrics should be within SLA
\ No newline at end of file
+    And performance metrics should be within SLA
+
+  @stub @propagation
+  Scenario: Measure how database latency reaches the Store API
+    Given multiple dependent services are running
+    When I measure how latency on "database" propagates to the Store API in steps of 50 milliseconds up to 200 milliseconds
+    Then the latency amplification should be at most 3.0x
+
+  @stub @group-failure
+  Scenario: Fail the cache and auth services in one batch
+    Given multiple dependent services are running
+    When I fail the following services together:
+      | service | failure_type |
+      | cache   | overflow     |
+      | auth    | connection   |
+    And I send requests to the Store API at 10 per second for 5 seconds
+    Then the system should handle failures gracefully
+
+  @stub @reset-peer
+  Scenario: Client reconnects after its connections are reset
+    When connections are reset after 200 milliseconds
+    And I send requests to the Store API at 20 per second for 5 seconds
+    Then the client should reconnect within 500 milliseconds after a reset
+
+  @stub @slow-close
+  Scenario: Slow connection closes under concurrent load
+    When connections close slowly after 500 milliseconds
+    And I send 50 concurrent requests to the Store API
+    Then all requests should complete successfully
\ No newline at end of file
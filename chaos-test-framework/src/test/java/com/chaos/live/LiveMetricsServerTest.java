@@ -0,0 +1,147 @@
+package com.chaos.live;
+
+import com.chaos.api.ConnectionPool;
+import com.chaos.load.LoadGenerator;
+import com.chaos.proxy.ChaosType;
+import com.chaos.proxy.ProxyManager;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LiveMetricsServerTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final LiveMetrics metrics = new LiveMetrics();
+    private ProxyManager proxyManager;
+    private LoadGenerator loadGenerator;
+    private ConnectionPool connectionPool;
+    private LiveMetricsServer server;
+
+    @BeforeEach
+    void setUp() {
+        proxyManager = mock(ProxyManager.class);
+        loadGenerator = mock(LoadGenerator.class);
+        when(proxyManager.getActiveChaos()).thenReturn(Map.of("store-api", Map.of(ChaosType.LATENCY, Map.of("latency", 200))));
+        connectionPool = new ConnectionPool(2000, 20, 10, 30000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+        connectionPool.close();
+    }
+
+    @Test
+    void rollsEachWindowsCountsAndLatency() {
+        server = start(60_000);
+        for (int i = 1; i <= 100; i++) {
+            metrics.record(i * MS, i % 10 == 0);
+        }
+
+        MetricsWindow window = server.window();
+
+        assertEquals(100, window.getRequests());
+        assertEquals(10, window.getErrors());
+        assertEquals(0.1, window.getErrorRate(), 1e-9);
+        assertEquals(100 / 60.0, window.getThroughput(), 1e-9);
+        assertEquals(50, window.getP50(), 0.1);
+        assertEquals(99, window.getP99(), 0.1);
+        assertEquals(200, window.getActiveChaos().get("store-api").get(ChaosType.LATENCY).get("latency"));
+
+        MetricsWindow next = server.window();
+        assertEquals(0, next.getRequests());
+        assertEquals(0, next.getErrorRate());
+    }
+
+    @Test
+    void streamsWindowsToSubscribers() throws IOException {
+        server = start(50);
+        metrics.record(5 * MS, false);
+
+        HttpURLConnection connection = open("/events");
+        assertEquals("text/event-stream", connection.getContentType());
+        try (BufferedReader events = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+            assertEquals("retry: 2000", events.readLine());
+            long requests = 0;
+            // The recorded request lands in the first window or two, replayed or live
+            for (int i = 0; i < 3; i++) {
+                requests += next(events).getRequests();
+            }
+            assertEquals(1, requests);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    @Test
+    void abortsOnlyOnPost() throws IOException {
+        server = start(60_000);
+
+        HttpURLConnection get = open("/abort");
+        assertEquals(405, get.getResponseCode());
+        assertNull(metrics.getAbortReason());
+        verify(loadGenerator, never()).abortRuns();
+
+        HttpURLConnection post = open("/abort");
+        post.setRequestMethod("POST");
+        assertEquals(202, post.getResponseCode());
+        assertNotNull(metrics.getAbortReason());
+        verify(loadGenerator).abortRuns();
+        assertEquals(metrics.getAbortReason(), server.window().getAbortReason());
+    }
+
+    @Test
+    void servesTheDashboard() throws IOException {
+        server = start(60_000);
+
+        HttpURLConnection connection = open("/");
+
+        assertEquals(200, connection.getResponseCode());
+        assertTrue(connection.getContentType().startsWith("text/html"));
+    }
+
+    private LiveMetricsServer start(long windowMs) {
+        LiveMetricsProperties properties = new LiveMetricsProperties();
+        properties.setPort(0);
+        properties.setWindowMs(windowMs);
+        return new LiveMetricsServer(metrics, proxyManager, connectionPool, loadGenerator, properties);
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + server.getPort() + path).openConnection();
+        connection.setReadTimeout(5000);
+        return connection;
+    }
+
+    private static MetricsWindow next(BufferedReader events) throws IOException {
+        String line;
+        while ((line = events.readLine()) != null) {
+            if (line.startsWith("data: ")) {
+                return new Gson().fromJson(line.substring("data: ".length()), MetricsWindow.class);
+            }
+        }
+        throw new IOException("Event stream ended");
+    }
+}
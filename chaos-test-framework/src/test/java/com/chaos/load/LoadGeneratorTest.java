@@ -0,0 +1,106 @@
+package com.chaos.load;
+
+import io.restassured.response.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LoadGeneratorTest {
+
+    private LoadGenerator generator;
+
+    @AfterEach
+    void tearDown() {
+        generator.shutdown();
+    }
+
+    @Test
+    void countsErrorsAndFailuresSeparately() {
+        generator = new LoadGenerator(4);
+        Response ok = response(200);
+        Response unavailable = response(503);
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<Response> request = () -> {
+            int call = calls.incrementAndGet();
+            if (call % 5 == 0) {
+                throw new UncheckedIOException(new ConnectException("Connection refused"));
+            }
+            return call % 5 == 1 ? unavailable : ok;
+        };
+
+        LoadResult result = generator.burst(request, 50);
+
+        assertEquals(50, result.getRequests());
+        assertEquals(10, result.getErrors());
+        assertEquals(10, result.getFailures());
+        assertEquals(50, result.getLatency().getTotalCount());
+    }
+
+    @Test
+    void countsQueueingBehindSlowRequestsInLatency() {
+        // One worker and requests slower than the schedule: later requests wait for earlier ones
+        generator = new LoadGenerator(1);
+
+        LoadResult result = generator.run(slowRequest(50), 10, TimeUnit.MILLISECONDS.toNanos(10));
+
+        assertTrue(result.getServiceTime().getMaxValue() < TimeUnit.MILLISECONDS.toNanos(150));
+        // The last request was due at 90 ms and started after nine others of 50 ms each
+        assertTrue(result.getMaxMillis() >= 400, "max " + result.getMaxMillis());
+    }
+
+    @Test
+    void releasesRequestsOnScheduleWithoutWaitingForResponses() {
+        generator = new LoadGenerator(32);
+
+        LoadResult result = generator.atRate(slowRequest(100), 100, Duration.ofMillis(500));
+
+        assertEquals(50, result.getRequests());
+        // Closed-loop, 50 requests of 100 ms each would take 5 s
+        assertTrue(result.getDurationNanos() < TimeUnit.SECONDS.toNanos(2));
+        assertTrue(result.getPercentileMillis(50) >= 100);
+    }
+
+    @Test
+    void abortStopsReleasingFurtherRequests() throws Exception {
+        generator = new LoadGenerator(4);
+        Response ok = response(200);
+        CompletableFuture<LoadResult> run = CompletableFuture.supplyAsync(
+                () -> generator.atRate(() -> ok, 100, Duration.ofSeconds(30)));
+
+        Thread.sleep(300);
+        generator.abortRuns();
+        LoadResult result = run.get(5, TimeUnit.SECONDS);
+
+        assertTrue(result.getRequests() > 0 && result.getRequests() < 3000, "issued " + result.getRequests());
+    }
+
+    private static Supplier<Response> slowRequest(long millis) {
+        Response ok = response(200);
+        return () -> {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return ok;
+        };
+    }
+
+    private static Response response(int status) {
+        Response response = mock(Response.class);
+        when(response.getStatusCode()).thenReturn(status);
+        return response;
+    }
+}
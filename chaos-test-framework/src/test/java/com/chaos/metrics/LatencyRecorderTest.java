@@ -0,0 +1,99 @@
+package com.chaos.metrics;
+
+import com.chaos.proxy.ChaosType;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyRecorderTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void mergesEveryThreadsRecordings() throws InterruptedException {
+        LatencyRecorder recorder = new LatencyRecorder();
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread writer = new Thread(() -> {
+                for (int i = 1; i <= 1000; i++) {
+                    recorder.record("getProduct", "store-api-1", ChaosType.LATENCY, i * MS);
+                }
+            });
+            writers.add(writer);
+            writer.start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        Histogram histogram = recorder.histogram();
+
+        assertEquals(4000, histogram.getTotalCount());
+        assertEquals(500, LatencyRecorder.toMillis(histogram.getValueAtPercentile(50)), 1);
+        assertEquals(1000, LatencyRecorder.toMillis(histogram.getMaxValue()), 1);
+    }
+
+    @Test
+    void countsEachRecordingOnceAcrossReads() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        for (int i = 0; i < 10; i++) {
+            recorder.record("getProduct", null, null, MS);
+        }
+        assertEquals(10, recorder.histogram().getTotalCount());
+
+        for (int i = 0; i < 5; i++) {
+            recorder.record("getProduct", null, null, MS);
+        }
+
+        assertEquals(15, recorder.histogram().getTotalCount());
+    }
+
+    @Test
+    void summarizesEachTagCombination() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        recorder.record("getProduct", "store-api-1", null, 10 * MS);
+        recorder.record("getProduct", "store-api-1", ChaosType.LATENCY, 200 * MS);
+        recorder.record("getProduct", "store-api-2", ChaosType.LATENCY, 400 * MS);
+        recorder.record("createProduct", null, null, -MS);
+
+        List<LatencySummary> summaries = recorder.summarize();
+        Map<LatencyKey, Histogram> byKey = recorder.histogramsByKey();
+
+        assertEquals(4, summaries.size());
+        assertTrue(summaries.stream().anyMatch(summary -> "none".equals(summary.getProxyName())
+                && summary.getMax() == 0));
+        // Proxies are merged by key; operation and chaos type are not
+        assertEquals(3, byKey.size());
+        assertEquals(2, byKey.get(new LatencyKey("getProduct", ChaosType.LATENCY)).getTotalCount());
+    }
+
+    @Test
+    void exportsPrometheusSummaries() throws IOException {
+        LatencyRecorder recorder = new LatencyRecorder();
+        recorder.record("getProduct", "store-api-1", ChaosType.LATENCY, 250 * MS);
+
+        Path file = new MetricsExporter(dir.toString())
+                .writePrometheus("features/NetworkLatency.feature:13", "Say \"slow\"", recorder.summarize());
+
+        String text = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        assertEquals("features_NetworkLatency.feature_13.prom", file.getFileName().toString());
+        String labels = "scenario=\"Say \\\"slow\\\"\",operation=\"getProduct\",proxy=\"store-api-1\",chaos_type=\"LATENCY\"";
+        assertTrue(text.contains("chaos_request_latency_seconds{" + labels + ",quantile=\"0.99\"} 0.250"), text);
+        assertTrue(text.contains("chaos_request_latency_seconds_count{" + labels + "} 1\n"), text);
+    }
+}
@@ -0,0 +1,95 @@
+package com.chaos.payload;
+
+import com.chaos.model.Product;
+import com.chaos.utils.RandomSource;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PayloadFactoryTest {
+
+    private static final Gson GSON = new Gson();
+
+    @Test
+    void buildsTheSameCorpusForTheSameSeed() {
+        PayloadCorpus first = new PayloadFactory(new PayloadProperties()).build(50);
+        PayloadCorpus second = new PayloadFactory(new PayloadProperties()).build(50);
+
+        assertEquals(first.getTotalBytes(), second.getTotalBytes());
+        RandomSource.beginScenario("Feature/Scenario");
+        byte[] product = first.nextProduct();
+        RandomSource.beginScenario("Feature/Scenario");
+        assertArrayEquals(product, second.nextProduct());
+    }
+
+    @Test
+    void serializesValidProductsAndPatches() {
+        PayloadProperties properties = new PayloadProperties();
+        PayloadCorpus corpus = new PayloadFactory(properties).build(200);
+
+        for (int i = 0; i < 200; i++) {
+            Product product = GSON.fromJson(new String(corpus.nextProduct(), StandardCharsets.UTF_8), Product.class);
+            assertNull(product.getId());
+            assertTrue(product.getName().length() <= properties.getName().getMax());
+            assertTrue(product.getPrice() >= properties.getMinPrice() && product.getPrice() <= properties.getMaxPrice());
+
+            Map<?, ?> patch = GSON.fromJson(new String(corpus.nextPatch(), StandardCharsets.UTF_8), Map.class);
+            assertEquals(2, patch.size());
+        }
+    }
+
+    @Test
+    void sharesOneCorpusAndHandsOutTheSameArrays() {
+        PayloadProperties properties = new PayloadProperties();
+        properties.setProducts(3);
+        PayloadFactory factory = new PayloadFactory(properties);
+        PayloadCorpus corpus = factory.corpus();
+
+        assertSame(corpus, factory.corpus());
+        assertEquals(3, corpus.size());
+        byte[] first = corpus.nextProduct();
+        boolean reused = false;
+        for (int i = 0; i < 20 && !reused; i++) {
+            reused = corpus.nextProduct() == first;
+        }
+        assertTrue(reused);
+        assertThrows(IllegalArgumentException.class, () -> factory.build(0));
+    }
+
+    @Test
+    void lengthsFollowTheirShape() {
+        SplittableRandom random = new SplittableRandom(3);
+        LengthDistribution fixed = new LengthDistribution(LengthDistribution.Shape.FIXED, 0, 16, 64);
+        LengthDistribution uniform = new LengthDistribution(LengthDistribution.Shape.UNIFORM, 8, 24, 40);
+        LengthDistribution logNormal = new LengthDistribution(LengthDistribution.Shape.LOG_NORMAL, 0, 200, 4000);
+
+        int[] uniforms = new int[10_000];
+        int[] logNormals = new int[10_000];
+        for (int i = 0; i < uniforms.length; i++) {
+            assertEquals(16, fixed.sample(random));
+            uniforms[i] = uniform.sample(random);
+            logNormals[i] = logNormal.sample(random);
+        }
+
+        assertEquals(8, Arrays.stream(uniforms).min().orElseThrow());
+        assertEquals(40, Arrays.stream(uniforms).max().orElseThrow());
+        assertEquals(24, Arrays.stream(uniforms).average().orElseThrow(), 0.5);
+        Arrays.sort(logNormals);
+        // The median of a log-normal is its scale, here the configured mean
+        assertEquals(200, logNormals[logNormals.length / 2], 15);
+        assertTrue(logNormals[logNormals.length - 1] <= 4000);
+        long tail = Arrays.stream(logNormals).filter(length -> length > 2.7 * 200).count();
+        assertEquals(1.0 / 6, tail / (double) logNormals.length, 0.02);
+    }
+}
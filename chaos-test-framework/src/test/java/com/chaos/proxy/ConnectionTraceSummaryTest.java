@@ -0,0 +1,71 @@
+package com.chaos.proxy;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConnectionTraceSummaryTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void measuresTheGapBeforeEachReconnect() {
+        List<ConnectionTrace> traces = List.of(
+                trace(1, 0, 10, 50, ConnectionTrace.Outcome.RESET),
+                trace(2, 80, 90, 100, ConnectionTrace.Outcome.REFUSED),
+                trace(3, 300, 310, 400, ConnectionTrace.Outcome.CLOSED));
+
+        ConnectionTraceSummary summary = ConnectionTraceSummary.of(traces);
+
+        assertEquals(3, summary.getConnections());
+        assertEquals(2, summary.getReconnects());
+        // 50 -> 80 and 100 -> 300
+        assertEquals(30, summary.getP50ReconnectMillis(), 1e-9);
+        assertEquals(200, summary.getMaxReconnectMillis(), 1e-9);
+        assertEquals(1, summary.getOutcomes().get(ConnectionTrace.Outcome.CLOSED));
+        assertEquals(10, summary.getP50TimeToFirstByteMillis(), 1e-9);
+    }
+
+    @Test
+    void ignoresAResetWithNoLaterConnection() {
+        ConnectionTraceSummary summary = ConnectionTraceSummary.of(List.of(
+                trace(1, 0, 10, 50, ConnectionTrace.Outcome.CLOSED),
+                trace(2, 60, -1, 70, ConnectionTrace.Outcome.RESET)));
+
+        assertEquals(0, summary.getReconnects());
+        assertEquals(0, summary.getMaxReconnectMillis());
+        // The reset connection never sent a byte, so only the first counts
+        assertEquals(10, summary.getP99TimeToFirstByteMillis(), 1e-9);
+    }
+
+    @Test
+    void averagesSlowCloseDelays() {
+        ConnectionTrace slow = new ConnectionTrace("store-api", 1, 0, 0, 5 * MS, 10 * MS, 10 * MS, 310 * MS, 1, 1,
+                ConnectionTrace.Outcome.CLOSED);
+        ConnectionTrace fast = new ConnectionTrace("store-api", 2, 0, 0, 5 * MS, 10 * MS, 10 * MS, 10 * MS, 1, 1,
+                ConnectionTrace.Outcome.CLOSED);
+
+        ConnectionTraceSummary summary = ConnectionTraceSummary.of(List.of(slow, fast));
+
+        assertEquals(150, summary.getMeanCloseDelayMillis(), 1e-9);
+        assertEquals(300, summary.getMaxCloseDelayMillis(), 1e-9);
+    }
+
+    @Test
+    void summarizesNothing() {
+        ConnectionTraceSummary summary = ConnectionTraceSummary.of(List.of());
+
+        assertEquals(0, summary.getConnections());
+        assertEquals(0, summary.getMeanCloseDelayMillis());
+    }
+
+    private static ConnectionTrace trace(long id, long acceptedMs, long firstByteMs, long closedMs,
+                                         ConnectionTrace.Outcome outcome) {
+        return new ConnectionTrace("store-api", id, acceptedMs * MS, acceptedMs * MS,
+                firstByteMs < 0 ? -1 : firstByteMs * MS, firstByteMs < 0 ? -1 : firstByteMs * MS, -1, closedMs * MS,
+                0, 0, outcome);
+    }
+}
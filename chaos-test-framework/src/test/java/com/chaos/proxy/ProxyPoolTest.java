@@ -0,0 +1,102 @@
+package com.chaos.proxy;
+
+import com.chaos.config.ToxiproxyProperties;
+import com.chaos.proxy.embedded.EmbeddedProxyEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+class ProxyPoolTest {
+
+    private EmbeddedProxyEngine engine;
+    private ToxiproxyProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        engine = new EmbeddedProxyEngine(1);
+        ToxiproxyProperties.ProxyConfig template = new ToxiproxyProperties.ProxyConfig();
+        template.setListen("127.0.0.1:0");
+        template.setUpstream("127.0.0.1:9");
+        properties = new ToxiproxyProperties();
+        properties.setEngine("embedded");
+        properties.setProxies(Map.of("store-api", template));
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.close();
+    }
+
+    @Test
+    void leasesAProxyOfItsOwnToEachScenario() throws IOException {
+        ProxyPool pool = pool(new ProxyManager(engine));
+
+        ProxyLease first = pool.lease();
+        ProxyLease second = pool.lease();
+
+        assertNotEquals(first.getName(), second.getName());
+        assertNotEquals(first.getBaseUri(), second.getBaseUri());
+        assertEquals("http://localhost:" + engine.getListenPort(first.getName()), first.getBaseUri());
+    }
+
+    @Test
+    void resetsAndReusesReleasedProxies() throws IOException {
+        ProxyManager proxyManager = new ProxyManager(engine);
+        ProxyPool pool = pool(proxyManager);
+        ProxyLease lease = pool.lease();
+        proxyManager.replaceChaos(lease.getName(), Map.of(ChaosType.LATENCY, Map.of("latency", 200L)));
+
+        pool.release(lease);
+        ProxyLease reused = pool.lease();
+
+        assertEquals(lease, reused);
+        assertTrue(proxyManager.getActiveChaos().isEmpty());
+    }
+
+    @Test
+    void discardsProxiesThatFailToReset() throws IOException {
+        ProxyManager proxyManager = mock(ProxyManager.class);
+        ProxyPool pool = pool(proxyManager);
+        ProxyLease lease = pool.lease();
+        doThrow(new IOException("Connection refused")).when(proxyManager).reset(lease.getName());
+
+        pool.release(lease);
+
+        assertNotEquals(lease.getName(), pool.lease().getName());
+        assertThrows(IOException.class, () -> engine.getListenPort(lease.getName()));
+    }
+
+    @Test
+    void closingDeletesEveryProxyItCreated() throws IOException {
+        ProxyPool pool = pool(new ProxyManager(engine));
+        ProxyLease leased = pool.lease();
+        ProxyLease released = pool.lease();
+        pool.release(released);
+
+        pool.close();
+
+        assertThrows(IOException.class, () -> engine.getListenPort(leased.getName()));
+        assertThrows(IOException.class, () -> engine.getListenPort(released.getName()));
+    }
+
+    @Test
+    void requiresTheTemplateProxy() {
+        assertThrows(IllegalStateException.class, () -> new ProxyPool(engine, new ProxyManager(engine),
+                mock(ProxyProvisioner.class), properties, "missing", "http://127.0.0.1:8080"));
+    }
+
+    private ProxyPool pool(ProxyManager proxyManager) {
+        return new ProxyPool(engine, proxyManager, mock(ProxyProvisioner.class), properties, "store-api",
+                "http://127.0.0.1:8080");
+    }
+}
@@ -0,0 +1,105 @@
+package com.chaos.proxy;
+
+import com.chaos.config.StartupProperties;
+import com.chaos.config.StartupReport;
+import com.chaos.config.ToxiproxyProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ProxyProvisionerTest {
+
+    private static final List<String> NAMES = List.of("store-api", "auth", "cache", "database");
+
+    private ChaosEngine engine;
+    private StartupReport startupReport;
+    private ToxiproxyProperties properties;
+    private StartupProperties startup;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        engine = mock(ChaosEngine.class);
+        startupReport = mock(StartupReport.class);
+        doAnswer(invocation -> {
+            Thread.sleep(200);
+            return "127.0.0.1:" + (20000 + NAMES.indexOf(invocation.<String>getArgument(0)));
+        }).when(engine).createProxy(anyString(), anyString(), anyString());
+
+        properties = new ToxiproxyProperties();
+        Map<String, ToxiproxyProperties.ProxyConfig> proxies = new LinkedHashMap<>();
+        for (String name : NAMES) {
+            ToxiproxyProperties.ProxyConfig config = new ToxiproxyProperties.ProxyConfig();
+            config.setListen("127.0.0.1:0");
+            config.setUpstream("127.0.0.1:9");
+            proxies.put(name, config);
+        }
+        properties.setProxies(proxies);
+        startup = new StartupProperties();
+    }
+
+    @Test
+    void createsEveryProxyConcurrently() {
+        ProxyProvisioner provisioner = new ProxyProvisioner(engine, properties, startup, startupReport);
+
+        long start = System.nanoTime();
+        provisioner.createEagerly();
+        Map<String, String> listens = provisioner.awaitProxies();
+
+        // Four 200 ms creations on four threads
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 600);
+        assertEquals(NAMES, List.copyOf(listens.keySet()));
+        assertEquals("127.0.0.1:20002", listens.get("cache"));
+        verify(startupReport).phase(eq("proxy-creation"), anyLong());
+    }
+
+    @Test
+    void defersCreationUntilTheContextIsUp() throws IOException {
+        startup.setDeferProxies(true);
+        ProxyProvisioner provisioner = new ProxyProvisioner(engine, properties, startup, startupReport);
+
+        provisioner.createEagerly();
+        verify(engine, never()).createProxy(anyString(), anyString(), anyString());
+
+        provisioner.onApplicationEvent(null);
+        provisioner.awaitProxies();
+        provisioner.awaitProxies();
+
+        verify(engine, times(NAMES.size())).createProxy(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void surfacesCreationFailures() throws IOException {
+        doThrow(new IOException("port in use")).when(engine).createProxy(eq("cache"), anyString(), anyString());
+        ProxyProvisioner provisioner = new ProxyProvisioner(engine, properties, startup, startupReport);
+
+        IllegalStateException failure = assertThrows(IllegalStateException.class, provisioner::awaitProxies);
+
+        assertTrue(failure.getMessage().contains("cache"), failure.getMessage());
+    }
+
+    @Test
+    void givesUpAfterTheTimeout() {
+        startup.setProxyTimeoutMs(50);
+        ProxyProvisioner provisioner = new ProxyProvisioner(engine, properties, startup, startupReport);
+
+        assertThrows(IllegalStateException.class, provisioner::awaitProxies);
+    }
+}
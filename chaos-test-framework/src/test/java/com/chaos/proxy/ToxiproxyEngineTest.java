@@ -0,0 +1,135 @@
+package com.chaos.proxy;
+
+import eu.rekawek.toxiproxy.Proxy;
+import eu.rekawek.toxiproxy.ToxiproxyClient;
+import eu.rekawek.toxiproxy.model.Toxic;
+import eu.rekawek.toxiproxy.model.ToxicDirection;
+import eu.rekawek.toxiproxy.model.ToxicList;
+import eu.rekawek.toxiproxy.model.toxic.Bandwidth;
+import eu.rekawek.toxiproxy.model.toxic.Latency;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ToxiproxyEngineTest {
+
+    private static final String PROXY = "store-api";
+
+    private ToxiproxyClient client;
+    private Proxy proxy;
+    private ToxicList toxics;
+    private Latency latency;
+    private Bandwidth bandwidth;
+    private ToxiproxyEngine engine;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        client = mock(ToxiproxyClient.class);
+        proxy = mock(Proxy.class);
+        toxics = mock(ToxicList.class);
+        latency = mock(Latency.class);
+        bandwidth = mock(Bandwidth.class);
+        when(client.createProxy(anyString(), anyString(), anyString())).thenReturn(proxy);
+        when(client.getProxy(PROXY)).thenReturn(proxy);
+        when(proxy.getName()).thenReturn(PROXY);
+        when(proxy.isEnabled()).thenReturn(true);
+        when(proxy.toxics()).thenReturn(toxics);
+        when(toxics.latency(anyString(), eq(ToxicDirection.DOWNSTREAM), anyLong())).thenReturn(latency);
+        when(toxics.bandwidth(anyString(), eq(ToxicDirection.DOWNSTREAM), anyLong())).thenReturn(bandwidth);
+        when(latency.setJitter(anyLong())).thenReturn(latency);
+        when(latency.setLatency(anyLong())).thenReturn(latency);
+        when(bandwidth.setRate(anyLong())).thenReturn(bandwidth);
+        engine = new ToxiproxyEngine(client);
+    }
+
+    @Test
+    void unchangedToxicsCostNoCalls() throws IOException {
+        engine.createProxy(PROXY, "127.0.0.1:0", "127.0.0.1:8080");
+
+        engine.apply(PROXY, ChaosType.LATENCY, Map.of("latency", 200L, "jitter", 0L));
+        engine.apply(PROXY, ChaosType.LATENCY, Map.of("latency", 200L, "jitter", 0L));
+
+        verify(toxics, times(1)).latency("latency_toxic", ToxicDirection.DOWNSTREAM, 200L);
+        verify(latency, never()).setLatency(anyLong());
+    }
+
+    @Test
+    void changedToxicsAreUpdatedInPlace() throws IOException {
+        engine.createProxy(PROXY, "127.0.0.1:0", "127.0.0.1:8080");
+        engine.apply(PROXY, ChaosType.LATENCY, Map.of("latency", 200L, "jitter", 10L));
+
+        engine.apply(PROXY, ChaosType.LATENCY, Map.of("latency", 300L, "jitter", 10L));
+
+        verify(latency).setLatency(300L);
+        // Only the jitter sent on creation
+        verify(latency, times(1)).setJitter(10L);
+        verify(latency, never()).remove();
+        verify(toxics, times(1)).latency(anyString(), eq(ToxicDirection.DOWNSTREAM), anyLong());
+    }
+
+    @Test
+    void replacingToxicsSendsOnlyTheDiff() throws IOException {
+        engine.createProxy(PROXY, "127.0.0.1:0", "127.0.0.1:8080");
+        engine.apply(PROXY, ChaosType.LATENCY, Map.of("latency", 200L));
+        engine.apply(PROXY, ChaosType.BANDWIDTH, Map.of("rate", 64L));
+
+        engine.replaceToxics(PROXY, Map.of(ChaosType.LATENCY, Map.of("latency", 200L)));
+
+        verify(bandwidth).remove();
+        verify(latency, never()).remove();
+        verify(latency, never()).setLatency(anyLong());
+    }
+
+    @Test
+    void refusingServiceDownDisablesTheProxy() throws IOException {
+        engine.createProxy(PROXY, "127.0.0.1:0", "127.0.0.1:8080");
+
+        engine.apply(PROXY, ChaosType.SERVICE_DOWN, Map.of("mode", "refuse"));
+        engine.remove(PROXY, ChaosType.SERVICE_DOWN);
+
+        verify(proxy).disable();
+        verify(proxy).enable();
+        verify(toxics, never()).timeout(anyString(), eq(ToxicDirection.UPSTREAM), anyLong());
+    }
+
+    @Test
+    void loadsToxicsCreatedElsewhereAndOnlyResetRemovesThem() throws IOException {
+        Toxic foreign = mock(Toxic.class);
+        when(foreign.getName()).thenReturn("operator_latency");
+        Latency cached = mock(Latency.class);
+        when(cached.getName()).thenReturn("latency_toxic");
+        doReturn(List.of(foreign, cached)).when(toxics).getAll();
+
+        engine.replaceToxics(PROXY, Map.of());
+        verify(cached).remove();
+        verify(foreign, never()).remove();
+
+        engine.reset(PROXY);
+        verify(foreign).remove();
+    }
+
+    @Test
+    void recreatesAToxicThatWentStale() throws IOException {
+        engine.createProxy(PROXY, "127.0.0.1:0", "127.0.0.1:8080");
+        engine.apply(PROXY, ChaosType.LATENCY, Map.of("latency", 200L));
+        when(latency.setLatency(300L)).thenThrow(new IOException("404 toxic not found"));
+        doReturn(List.of()).when(toxics).getAll();
+
+        engine.apply(PROXY, ChaosType.LATENCY, Map.of("latency", 300L));
+
+        verify(toxics).latency("latency_toxic", ToxicDirection.DOWNSTREAM, 300L);
+    }
+}
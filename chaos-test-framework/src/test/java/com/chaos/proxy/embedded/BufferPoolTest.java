@@ -0,0 +1,51 @@
+package com.chaos.proxy.embedded;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BufferPoolTest {
+
+    @Test
+    void reusesReleasedBuffers() {
+        BufferPool pool = new BufferPool(1024, 4);
+        ByteBuffer buffer = pool.acquire();
+        buffer.put(new byte[100]).flip();
+
+        pool.release(buffer);
+        ByteBuffer reused = pool.acquire();
+
+        assertSame(buffer, reused);
+        assertEquals(0, reused.position());
+        assertEquals(1024, reused.limit());
+    }
+
+    @Test
+    void allocatesDirectBuffersOfTheConfiguredSize() {
+        BufferPool pool = new BufferPool(2048, 4);
+
+        ByteBuffer buffer = pool.acquire();
+
+        assertTrue(buffer.isDirect());
+        assertEquals(2048, buffer.capacity());
+        assertEquals(2048, pool.bufferSize());
+    }
+
+    @Test
+    void retainsAtMostTheConfiguredNumberOfBuffers() {
+        BufferPool pool = new BufferPool(64, 1);
+        ByteBuffer first = pool.acquire();
+        ByteBuffer second = pool.acquire();
+
+        pool.release(first);
+        pool.release(second);
+
+        assertSame(first, pool.acquire());
+        assertNotSame(second, pool.acquire());
+    }
+}
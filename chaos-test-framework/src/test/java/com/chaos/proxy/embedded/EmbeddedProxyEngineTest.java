@@ -0,0 +1,310 @@
+package com.chaos.proxy.embedded;
+
+import com.chaos.proxy.ChaosType;
+import com.chaos.proxy.ConnectionTrace;
+import com.chaos.proxy.ConnectionTraceSummary;
+import com.chaos.proxy.ServiceDownMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmbeddedProxyEngineTest {
+
+    private static final String PROXY = "echo-proxy";
+
+    private EchoServer upstream;
+    private EmbeddedProxyEngine engine;
+    private int port;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        upstream = new EchoServer();
+        engine = new EmbeddedProxyEngine(2);
+        String listen = engine.createProxy(PROXY, "127.0.0.1:0", "127.0.0.1:" + upstream.port());
+        port = Integer.parseInt(listen.substring(listen.lastIndexOf(':') + 1));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        engine.close();
+        upstream.close();
+    }
+
+    @Test
+    void relaysBothWays() throws IOException {
+        byte[] request = new byte[256 * 1024];
+        new SplittableRandom(1).nextBytes(request);
+
+        try (Socket socket = connect()) {
+            assertArrayEquals(request, exchange(socket, request));
+        }
+    }
+
+    @Test
+    void buffersWhatASlowReaderCannotTakeYet() throws Exception {
+        byte[] request = new byte[8 * 1024 * 1024];
+        new SplittableRandom(2).nextBytes(request);
+
+        try (Socket socket = connect()) {
+            // Send everything before reading, so the echo backs up into the proxy's pooled buffers
+            Thread writer = new Thread(() -> {
+                try {
+                    socket.getOutputStream().write(request);
+                } catch (IOException e) {
+                    // Surfaces below as a short read
+                }
+            });
+            writer.start();
+            Thread.sleep(200);
+            byte[] response = socket.getInputStream().readNBytes(request.length);
+            writer.join();
+
+            assertArrayEquals(request, response);
+        }
+    }
+
+    @Test
+    void latencyDelaysResponsesUntilReset() throws IOException {
+        engine.apply(PROXY, ChaosType.LATENCY, Map.of("latency", 200L));
+        try (Socket socket = connect()) {
+            long start = System.nanoTime();
+            exchange(socket, new byte[] {1});
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 200);
+
+            engine.reset(PROXY);
+            start = System.nanoTime();
+            exchange(socket, new byte[] {2});
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 150);
+        }
+    }
+
+    @Test
+    void bandwidthLimitsTheResponseRate() throws IOException {
+        engine.apply(PROXY, ChaosType.BANDWIDTH, Map.of("rate", 64L));
+        byte[] request = new byte[32 * 1024];
+
+        try (Socket socket = connect()) {
+            long start = System.nanoTime();
+            exchange(socket, request);
+            // 32 KB at 64 KB/s
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 400);
+        }
+    }
+
+    @Test
+    void refusesConnectionsWhileTheServiceIsDown() throws IOException {
+        engine.apply(PROXY, ChaosType.SERVICE_DOWN, Map.of("mode", ServiceDownMode.REFUSE.name()));
+
+        try (Socket socket = connect()) {
+            assertClosed(socket);
+        }
+
+        engine.remove(PROXY, ChaosType.SERVICE_DOWN);
+        try (Socket socket = connect()) {
+            assertArrayEquals(new byte[] {7}, exchange(socket, new byte[] {7}));
+        }
+    }
+
+    @Test
+    void timeoutClosesTheConnection() throws IOException {
+        engine.apply(PROXY, ChaosType.TIMEOUT, Map.of("timeout", 100L));
+
+        try (Socket socket = connect()) {
+            long start = System.nanoTime();
+            assertClosed(socket);
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 90);
+        }
+    }
+
+    @Test
+    void tracesEachConnection() throws Exception {
+        try (Socket socket = connect()) {
+            exchange(socket, new byte[1000]);
+        }
+
+        ConnectionTrace trace = awaitTraces(1).get(0);
+
+        assertEquals(PROXY, trace.getProxyName());
+        assertEquals(ConnectionTrace.Outcome.CLOSED, trace.getOutcome());
+        assertEquals(1000, trace.getBytesUp());
+        assertEquals(1000, trace.getBytesDown());
+        assertTrue(trace.getConnectedNanos() >= trace.getAcceptedNanos());
+        assertTrue(trace.getFirstByteNanos() <= trace.getLastByteNanos());
+        assertTrue(trace.getTimeToFirstByteMillis() >= 0);
+    }
+
+    @Test
+    void resetPeerResetsTheConnectionAfterTheTimeout() throws Exception {
+        engine.apply(PROXY, ChaosType.RESET_PEER, Map.of("timeout", 100L));
+
+        try (Socket socket = connect()) {
+            exchange(socket, new byte[] {1});
+            assertThrows(SocketException.class, () -> socket.getInputStream().read());
+        }
+
+        ConnectionTrace trace = awaitTraces(1).get(0);
+        assertEquals(ConnectionTrace.Outcome.RESET, trace.getOutcome());
+        assertTrue(trace.getLifetimeMillis() >= 90);
+    }
+
+    @Test
+    void slowCloseHoldsTheConnectionOpen() throws Exception {
+        engine.apply(PROXY, ChaosType.SLOW_CLOSE, Map.of("delay", 300L));
+
+        try (Socket socket = connect()) {
+            exchange(socket, new byte[] {1});
+            socket.shutdownOutput();
+            socket.getInputStream().read();
+        }
+
+        ConnectionTrace trace = awaitTraces(1).get(0);
+        assertEquals(ConnectionTrace.Outcome.CLOSED, trace.getOutcome());
+        assertTrue(trace.getCloseDelayMillis() >= 290, trace.getCloseDelayMillis() + " ms");
+    }
+
+    @Test
+    void refusedConnectionsAreTracedWithTheirReconnects() throws Exception {
+        engine.apply(PROXY, ChaosType.SERVICE_DOWN, Map.of("mode", ServiceDownMode.REFUSE.name()));
+
+        for (int i = 0; i < 3; i++) {
+            try (Socket socket = connect()) {
+                assertClosed(socket);
+            }
+        }
+
+        ConnectionTraceSummary summary = ConnectionTraceSummary.of(awaitTraces(3));
+        assertEquals(3, summary.getConnections());
+        assertEquals(3, summary.getOutcomes().get(ConnectionTrace.Outcome.REFUSED));
+        assertEquals(2, summary.getReconnects());
+    }
+
+    @Test
+    void rejectsDuplicateAndUnknownProxies() {
+        assertThrows(IOException.class, () -> engine.createProxy(PROXY, "127.0.0.1:0", "127.0.0.1:9"));
+        assertThrows(IOException.class, () -> engine.apply("missing", ChaosType.LATENCY, Map.of("latency", 1L)));
+        assertThrows(IllegalArgumentException.class, () -> engine.createProxy("bad", "no-port", "127.0.0.1:9"));
+    }
+
+    @Test
+    void deletingAProxyFreesItsPort() throws IOException {
+        engine.deleteProxy(PROXY);
+
+        try (ServerSocket rebound = new ServerSocket()) {
+            rebound.bind(new InetSocketAddress("127.0.0.1", port));
+        }
+    }
+
+    @Test
+    void packetLossHitsItsShareOfConnections() {
+        Toxic toxic = Toxic.of(ChaosType.PACKET_LOSS, Map.of("percentage", 30L));
+
+        long hit = 0;
+        for (long connection = 1; connection <= 10_000; connection++) {
+            if (toxic.appliesTo(connection)) {
+                hit++;
+            }
+        }
+
+        assertEquals(3000, hit, 200);
+        assertEquals(toxic.appliesTo(42), toxic.appliesTo(42));
+    }
+
+    // Traces are published when the proxy side finishes closing, shortly after the client does
+    private List<ConnectionTrace> awaitTraces(int count) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        List<ConnectionTrace> traces = engine.connectionTraces(PROXY);
+        while (traces.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            traces = engine.connectionTraces(PROXY);
+        }
+        assertEquals(count, traces.size());
+        return traces;
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket("127.0.0.1", port);
+        socket.setSoTimeout(5000);
+        return socket;
+    }
+
+    private static byte[] exchange(Socket socket, byte[] request) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        out.write(request);
+        out.flush();
+        byte[] response = socket.getInputStream().readNBytes(request.length);
+        assertEquals(request.length, response.length, "Connection closed mid-response");
+        return response;
+    }
+
+    // Refused and timed-out connections end with an EOF or a reset, depending on the platform's timing
+    private static void assertClosed(Socket socket) throws IOException {
+        try {
+            socket.getOutputStream().write(1);
+            assertEquals(-1, socket.getInputStream().read());
+        } catch (SocketException e) {
+            // Connection reset
+        }
+    }
+
+    private static final class EchoServer implements AutoCloseable {
+        private final ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+
+        EchoServer() throws IOException {
+            Thread acceptor = new Thread(this::accept, "echo-upstream");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int port() {
+            return server.getLocalPort();
+        }
+
+        private void accept() {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    Thread echo = new Thread(() -> echo(socket), "echo-connection");
+                    echo.setDaemon(true);
+                    echo.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private static void echo(Socket socket) {
+            try (socket; InputStream in = socket.getInputStream(); OutputStream out = socket.getOutputStream()) {
+                byte[] buffer = new byte[8192];
+                int n;
+                while ((n = in.read(buffer)) >= 0) {
+                    out.write(buffer, 0, n);
+                }
+            } catch (IOException e) {
+                // Client went away
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            server.close();
+        }
+    }
+}
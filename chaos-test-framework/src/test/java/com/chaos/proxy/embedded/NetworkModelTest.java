@@ -0,0 +1,71 @@
+package com.chaos.proxy.embedded;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NetworkModelTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void buildsWithoutSeed() {
+        NetworkModel model = NetworkModel.of(Map.of("loss", 1.0));
+
+        assertTrue(model.link(1).transmit(1460) >= 0);
+    }
+
+    @Test
+    void explicitSeedPinsTheLink() {
+        Map<String, Object> params = Map.of("distribution", "normal", "latency", 40, "jitter", 10, "seed", "7");
+
+        long first = NetworkModel.of(params).link(3).transmit(64 * 1024);
+        long second = NetworkModel.of(params).link(3).transmit(64 * 1024);
+        long otherConnection = NetworkModel.of(params).link(4).transmit(64 * 1024);
+
+        assertEquals(first, second);
+        assertNotEquals(first, otherConnection);
+    }
+
+    @Test
+    void lostSegmentCostsRetransmissionTimeouts() {
+        NetworkModel.Link link = NetworkModel.of(Map.of("loss", 100, "latency", 10, "rto", 200, "seed", 1)).link(1);
+
+        // Six attempts are lost, each doubling the timeout: 200 + 400 + ... + 6400 ms
+        assertEquals(10 * MS + 12_600 * MS, link.transmit(100));
+        assertEquals(7 * 100, link.wireBytes());
+    }
+
+    @Test
+    void largerWritesAreSplitIntoSegments() {
+        NetworkModel.Link link = NetworkModel.of(Map.of("duplicate", 100, "mss", 1000, "seed", 1)).link(1);
+
+        link.transmit(2500);
+
+        assertEquals(2 * 2500, link.wireBytes());
+    }
+
+    @Test
+    void empiricalDelaysStayWithinTheSamples() {
+        NetworkModel.Link link = NetworkModel.of(Map.of("distribution", "empirical", "samples", "5, 20, 80", "seed", 2))
+                .link(1);
+
+        for (int i = 0; i < 1000; i++) {
+            long delay = link.transmit(1);
+            assertTrue(delay >= 5 * MS && delay <= 80 * MS, "delay " + delay);
+        }
+    }
+
+    @Test
+    void rejectsInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> NetworkModel.of(Map.of("distribution", "empirical")));
+        assertThrows(IllegalArgumentException.class, () -> NetworkModel.of(Map.of("distribution", "pareto", "shape", 0)));
+        assertThrows(IllegalArgumentException.class, () -> NetworkModel.of(Map.of("mss", 0)));
+    }
+}
@@ -0,0 +1,48 @@
+package com.chaos.proxy.embedded;
+
+import com.chaos.proxy.ConnectionTrace;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TraceRingTest {
+
+    @Test
+    void keepsTheLatestTracesOldestFirst() {
+        TraceRing ring = new TraceRing(3);
+        assertTrue(ring.snapshot().isEmpty());
+
+        for (long id = 1; id <= 5; id++) {
+            ring.add(trace(id));
+        }
+
+        assertEquals(List.of(3L, 4L, 5L), ids(ring.snapshot()));
+    }
+
+    @Test
+    void returnsAPartiallyFilledRingInOrder() {
+        TraceRing ring = new TraceRing(4);
+        ring.add(trace(1));
+        ring.add(trace(2));
+
+        assertEquals(List.of(1L, 2L), ids(ring.snapshot()));
+    }
+
+    @Test
+    void rejectsAnEmptyRing() {
+        assertThrows(IllegalArgumentException.class, () -> new TraceRing(0));
+    }
+
+    private static ConnectionTrace trace(long id) {
+        return new ConnectionTrace("store-api", id, id, id, -1, -1, -1, id + 1, 0, 0, ConnectionTrace.Outcome.CLOSED);
+    }
+
+    private static List<Long> ids(List<ConnectionTrace> traces) {
+        return traces.stream().map(ConnectionTrace::getConnectionId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,125 @@
+package com.chaos.queue;
+
+import io.restassured.response.Response;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OperationQueueTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void retriesUntilTheUpstreamAccepts() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        Function<QueuedOperation, Response> sender = operation -> {
+            if (attempts.incrementAndGet() <= 3) {
+                throw new UncheckedIOException(new ConnectException("Connection refused"));
+            }
+            return response(attempts.get() == 4 ? 503 : 204);
+        };
+        try (OperationQueue queue = OperationQueue.open(dir.resolve("retry.wal"), properties(1), sender)) {
+            Response response = queue.enqueue(OperationType.DELETE, 3, null).get(5, TimeUnit.SECONDS);
+
+            assertEquals(204, response.getStatusCode());
+            assertEquals(4, queue.getRetries());
+            assertEquals(1, queue.getAcknowledged());
+            assertEquals(0, queue.getPending());
+        }
+    }
+
+    @Test
+    void deliversEachProductsOperationsInOrder() throws Exception {
+        Map<Long, List<Long>> delivered = new ConcurrentHashMap<>();
+        Function<QueuedOperation, Response> sender = operation -> {
+            delivered.computeIfAbsent(operation.getProductId(), id -> new ArrayList<>()).add(operation.getSequence());
+            return response(200);
+        };
+        try (OperationQueue queue = OperationQueue.open(dir.resolve("order.wal"), properties(4), sender)) {
+            queue.pause();
+            for (int i = 0; i < 200; i++) {
+                queue.enqueue(OperationType.UPDATE, 1 + i % 10, Map.of("price", i));
+            }
+            assertEquals(200, queue.getPending());
+
+            DrainResult result = queue.drain(Duration.ofSeconds(10));
+
+            assertTrue(result.isDrained());
+            assertEquals(200, result.getOperations());
+        }
+        assertEquals(10, delivered.size());
+        delivered.values().forEach(sequences -> {
+            List<Long> sorted = new ArrayList<>(sequences);
+            sorted.sort(null);
+            assertEquals(sorted, sequences);
+        });
+    }
+
+    @Test
+    void replaysPendingOperationsAfterReopening() throws Exception {
+        Path file = dir.resolve("reopen.wal");
+        try (OperationQueue queue = OperationQueue.open(file, properties(2), operation -> response(200))) {
+            queue.pause();
+            queue.enqueue(OperationType.CREATE, 0, Map.of("name", "a"));
+            queue.enqueue(OperationType.PATCH, 5, Map.of("price", 1));
+        }
+
+        List<OperationType> delivered = new ArrayList<>();
+        try (OperationQueue queue = OperationQueue.open(file, properties(1), operation -> {
+            synchronized (delivered) {
+                delivered.add(operation.getType());
+            }
+            return response(200);
+        })) {
+            assertTrue(queue.awaitDrained(Duration.ofSeconds(5)));
+            // Sequences continue after the recovered ones
+            queue.enqueue(OperationType.DELETE, 5, null).get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(List.of(OperationType.CREATE, OperationType.PATCH, OperationType.DELETE), delivered);
+    }
+
+    @Test
+    void acknowledgesRejectedOperations() throws Exception {
+        try (OperationQueue queue = OperationQueue.open(dir.resolve("rejected.wal"), properties(1),
+                operation -> response(operation.getType() == OperationType.DELETE ? 404 : 400))) {
+            queue.enqueue(OperationType.DELETE, 1, null).get(5, TimeUnit.SECONDS);
+            queue.enqueue(OperationType.UPDATE, 1, Map.of()).get(5, TimeUnit.SECONDS);
+
+            // A delete of something already gone is not a rejection
+            assertEquals(1, queue.getRejected());
+            assertEquals(0, queue.getRetries());
+        }
+    }
+
+    private static QueueProperties properties(int parallelism) {
+        QueueProperties properties = new QueueProperties();
+        properties.setCapacityMb(1);
+        properties.setParallelism(parallelism);
+        properties.setMaxBackoffMs(20);
+        return properties;
+    }
+
+    private static Response response(int status) {
+        Response response = mock(Response.class);
+        when(response.getStatusCode()).thenReturn(status);
+        return response;
+    }
+}
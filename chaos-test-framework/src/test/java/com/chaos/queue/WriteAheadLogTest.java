@@ -0,0 +1,137 @@
+package com.chaos.queue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteAheadLogTest {
+
+    private static final int CAPACITY = 64 << 10;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recoversWhatWasNotAcknowledged() throws IOException {
+        Path file = dir.resolve("queue.wal");
+        try (WriteAheadLog wal = new WriteAheadLog(file, CAPACITY, false)) {
+            wal.recover();
+            assertTrue(wal.append(operation(1, OperationType.CREATE, 0, "{\"name\":\"a\"}")));
+            assertTrue(wal.append(operation(2, OperationType.UPDATE, 7, "{\"name\":\"b\"}")));
+            assertTrue(wal.append(operation(3, OperationType.DELETE, 9, "")));
+            wal.acknowledge(2);
+        }
+
+        try (WriteAheadLog wal = new WriteAheadLog(file, CAPACITY, false)) {
+            List<QueuedOperation> recovered = wal.recover();
+
+            assertEquals(2, recovered.size());
+            assertEquals(1, recovered.get(0).getSequence());
+            assertEquals(OperationType.CREATE, recovered.get(0).getType());
+            assertArrayEquals(bytes("{\"name\":\"a\"}"), recovered.get(0).getPayload());
+            assertEquals(3, recovered.get(1).getSequence());
+            assertEquals(9, recovered.get(1).getProductId());
+        }
+    }
+
+    @Test
+    void stopsAtATornRecord() throws IOException {
+        Path file = dir.resolve("torn.wal");
+        int secondRecord;
+        try (WriteAheadLog wal = new WriteAheadLog(file, CAPACITY, false)) {
+            wal.recover();
+            wal.append(operation(1, OperationType.UPDATE, 1, "{\"price\":1}"));
+            secondRecord = wal.size();
+            wal.append(operation(2, OperationType.UPDATE, 2, "{\"price\":2}"));
+            wal.append(operation(3, OperationType.UPDATE, 3, "{\"price\":3}"));
+        }
+        // A crash mid-append leaves a body that no longer matches its checksum
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0x7F}), secondRecord + 30);
+        }
+
+        try (WriteAheadLog wal = new WriteAheadLog(file, CAPACITY, false)) {
+            List<QueuedOperation> recovered = wal.recover();
+
+            assertEquals(1, recovered.size());
+            assertEquals(1, recovered.get(0).getSequence());
+            // Appending after recovery overwrites the torn tail
+            assertEquals(secondRecord, wal.size());
+            assertTrue(wal.append(operation(4, OperationType.PATCH, 4, "{}")));
+        }
+        try (WriteAheadLog wal = new WriteAheadLog(file, CAPACITY, false)) {
+            assertEquals(List.of(1L, 4L), wal.recover().stream().map(QueuedOperation::getSequence).toList());
+        }
+    }
+
+    @Test
+    void compactsUnderASteadyBacklog() throws IOException {
+        Path file = dir.resolve("steady.wal");
+        String payload = "x".repeat(200);
+        long appended = 0;
+        try (WriteAheadLog wal = new WriteAheadLog(file, CAPACITY, false)) {
+            wal.recover();
+            // Many times the capacity goes through the log while 20 operations are always pending
+            for (long sequence = 1; sequence <= 5000; sequence++) {
+                assertTrue(wal.append(operation(sequence, OperationType.UPDATE, sequence % 20, payload)),
+                        "Log full after " + appended + " operations");
+                appended++;
+                if (sequence > 20) {
+                    wal.acknowledge(sequence - 20);
+                }
+            }
+        }
+
+        try (WriteAheadLog wal = new WriteAheadLog(file, CAPACITY, false)) {
+            List<QueuedOperation> recovered = wal.recover();
+
+            assertEquals(20, recovered.size());
+            assertEquals(4981, recovered.get(0).getSequence());
+            assertEquals(5000, recovered.get(19).getSequence());
+        }
+        assertFalse(Files.exists(dir.resolve("steady.wal.compact")));
+    }
+
+    @Test
+    void refusesOperationsWhenEverythingIsPending() throws IOException {
+        Path file = dir.resolve("full.wal");
+        String payload = "x".repeat(1000);
+        int accepted = 0;
+        try (WriteAheadLog wal = new WriteAheadLog(file, CAPACITY, false)) {
+            wal.recover();
+            while (wal.append(operation(accepted + 1, OperationType.UPDATE, 1, payload))) {
+                accepted++;
+            }
+            assertTrue(accepted > 0);
+            // The space reserved with each operation still takes its acknowledgement
+            for (int sequence = 1; sequence <= accepted; sequence++) {
+                wal.acknowledge(sequence);
+            }
+        }
+
+        try (WriteAheadLog wal = new WriteAheadLog(file, CAPACITY, false)) {
+            assertTrue(wal.recover().isEmpty());
+        }
+    }
+
+    private static QueuedOperation operation(long sequence, OperationType type, long productId, String payload) {
+        return new QueuedOperation(sequence, type, productId, bytes(payload));
+    }
+
+    private static byte[] bytes(String payload) {
+        return payload.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,96 @@
+package com.chaos.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    @Test
+    void opensOnceTheFailureRateCrossesTheThreshold() {
+        CircuitBreaker breaker = new CircuitBreaker(0.5, 4, 10_000, 10, 60_000);
+
+        breaker.onSuccess();
+        breaker.onSuccess();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(0.5, breaker.getFailureRate(), 1e-9);
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void staysClosedBelowTheMinimumCalls() {
+        CircuitBreaker breaker = new CircuitBreaker(0.5, 4, 10_000, 10, 60_000);
+
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void letsExactlyOneProbeThroughAfterTheOpenPeriod() throws InterruptedException {
+        CircuitBreaker breaker = tripped(50);
+        Thread.sleep(60);
+
+        assertTrue(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void closesWithAClearWindowWhenTheProbeSucceeds() throws InterruptedException {
+        CircuitBreaker breaker = tripped(50);
+        Thread.sleep(60);
+        breaker.tryAcquire();
+
+        breaker.onSuccess();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getFailureRate());
+        // The old failures no longer count, so one more failure does not reopen it
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void reopensForAnotherPeriodWhenTheProbeFails() throws InterruptedException {
+        CircuitBreaker breaker = tripped(50);
+        Thread.sleep(60);
+        breaker.tryAcquire();
+
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void forgetsOutcomesThatLeftTheWindow() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker(0.5, 4, 100, 4, 60_000);
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onFailure();
+        Thread.sleep(150);
+
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    private static CircuitBreaker tripped(long openMs) {
+        CircuitBreaker breaker = new CircuitBreaker(0.5, 2, 10_000, 10, openMs);
+        breaker.onFailure();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        return breaker;
+    }
+}
@@ -0,0 +1,177 @@
+package com.chaos.resilience;
+
+import io.restassured.response.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ResilientExecutorTest {
+
+    private ResilienceProperties properties;
+    private Response ok;
+    private Response unavailable;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ResilienceProperties();
+        properties.setEnabled(true);
+        properties.setBaseDelayMs(1);
+        properties.setMaxDelayMs(1);
+        ok = response(200);
+        unavailable = response(503);
+    }
+
+    @Test
+    void retriesIdempotentCallsUntilTheyRecover() {
+        AtomicInteger calls = new AtomicInteger();
+        ResilientExecutor executor = new ResilientExecutor(properties);
+
+        Response response = executor.execute("getProduct", true,
+                () -> calls.incrementAndGet() < 3 ? unavailable : ok);
+
+        assertSame(ok, response);
+        assertEquals(3, calls.get());
+        assertEquals(2, executor.getMetrics().getRetries());
+    }
+
+    @Test
+    void returnsTheLastFailureOnceAttemptsRunOut() {
+        ResilientExecutor executor = new ResilientExecutor(properties);
+
+        assertSame(unavailable, executor.execute("getProduct", true, () -> unavailable));
+        assertEquals(3, executor.getMetrics().getAttempts());
+        assertEquals(1, executor.getMetrics().getRetriesExhausted());
+    }
+
+    @Test
+    void neverRetriesNonIdempotentCalls() {
+        AtomicInteger calls = new AtomicInteger();
+        ResilientExecutor executor = new ResilientExecutor(properties);
+
+        assertSame(unavailable, executor.execute("createProduct", false, () -> {
+            calls.incrementAndGet();
+            return unavailable;
+        }));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void rethrowsTransportFailuresUnchanged() {
+        properties.setMaxAttempts(1);
+        IllegalStateException failure = new IllegalStateException("connection reset");
+        ResilientExecutor executor = new ResilientExecutor(properties);
+
+        assertSame(failure, assertThrows(IllegalStateException.class,
+                () -> executor.execute("getProduct", true, () -> {
+                    throw failure;
+                })));
+    }
+
+    @Test
+    void shortCircuitsWhileTheBreakerIsOpen() {
+        properties.setMaxAttempts(1);
+        properties.setMinimumCalls(2);
+        ResilientExecutor executor = new ResilientExecutor(properties);
+        executor.execute("getProduct", true, () -> unavailable);
+        executor.execute("getProduct", true, () -> unavailable);
+
+        assertThrows(CircuitBreakerOpenException.class, () -> executor.execute("getProduct", true, () -> ok));
+        assertEquals(1, executor.getMetrics().getShortCircuited());
+    }
+
+    @Test
+    void stopsRetryingOnceTheBudgetIsSpent() {
+        properties.setMaxAttempts(10);
+        properties.setBudgetRatio(0);
+        properties.setBudgetReserve(2);
+        properties.setMinimumCalls(1000);
+        ResilientExecutor executor = new ResilientExecutor(properties);
+
+        executor.execute("getProduct", true, () -> unavailable);
+
+        assertEquals(3, executor.getMetrics().getAttempts());
+        assertEquals(1, executor.getMetrics().getBudgetExhausted());
+        assertFalse(executor.getRetryBudget().tryRetry());
+    }
+
+    @Test
+    void retryBudgetEarnsItsRatioPerCallUpToTheReserve() {
+        RetryBudget budget = new RetryBudget(0.5, 1);
+        assertTrue(budget.tryRetry());
+        assertFalse(budget.tryRetry());
+
+        budget.onCall();
+        assertFalse(budget.tryRetry());
+        budget.onCall();
+        assertTrue(budget.tryRetry());
+
+        for (int i = 0; i < 10; i++) {
+            budget.onCall();
+        }
+        assertEquals(1, budget.getAvailable(), 1e-9);
+    }
+
+    @Test
+    void hedgesCallsThatOutliveTheRecentTail() {
+        properties.setHedgingEnabled(true);
+        properties.setHedgeMinSamples(1);
+        properties.setHedgeMinDelayMs(20);
+        ResilientExecutor executor = new ResilientExecutor(properties);
+        // The first success sets the hedge delay to its floor
+        executor.execute("getProduct", true, () -> ok);
+
+        // The primary holds until the hedged call has answered, so the hedge always wins and no
+        // sleeping task is left on the shared hedge pool
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch answered = new CountDownLatch(1);
+        Response response;
+        try {
+            response = executor.execute("getProduct", true, () -> {
+                if (calls.incrementAndGet() == 1) {
+                    await(answered);
+                }
+                return ok;
+            });
+        } finally {
+            answered.countDown();
+        }
+
+        assertSame(ok, response);
+        assertEquals(1, executor.getMetrics().getHedges());
+        assertEquals(1, executor.getMetrics().getHedgesWon());
+    }
+
+    @Test
+    void passesCallsStraightThroughWhenDisabled() {
+        properties.setEnabled(false);
+        ResilientExecutor executor = new ResilientExecutor(properties);
+
+        assertSame(unavailable, executor.execute("getProduct", true, () -> unavailable));
+        assertEquals(0, executor.getMetrics().getCalls());
+    }
+
+    private static Response response(int status) {
+        Response response = mock(Response.class);
+        when(response.getStatusCode()).thenReturn(status);
+        return response;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.chaos.results;
+
+import com.chaos.proxy.ChaosType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RunResultWriterTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void indexesWhatWasWritten() throws IOException {
+        Path path = dir.resolve("run-1" + RunResults.FILE_SUFFIX);
+        try (RunResultWriter writer = new RunResultWriter(path, 42, 16)) {
+            int scenario = writer.scenario("Feature/Scenario");
+            int mask = RunResultWriter.chaosMask(List.of(ChaosType.LATENCY, ChaosType.TIMEOUT));
+            writer.event(System.nanoTime(), writer.proxy("store-api"), mask);
+            for (int i = 0; i < 40; i++) {
+                writer.sample(System.nanoTime(), MS, writer.operation("getProduct"), scenario, mask, 200);
+            }
+            writer.scenarioOutcome(scenario, writer.status("PASSED"), System.nanoTime(), 5 * MS);
+        }
+
+        RunFile file = RunFile.index(path);
+
+        assertEquals(42, file.getSeed());
+        assertEquals(40, file.getSamples());
+        assertFalse(file.isTruncated());
+        assertEquals(1, file.getEvents().size());
+        assertEquals("store-api", file.getEvents().get(0).getProxyName());
+        assertEquals("LATENCY+TIMEOUT", file.getEvents().get(0).getChaos());
+        RunFile.ScenarioOutcome outcome = file.getOutcomes().get(0);
+        assertEquals("Feature/Scenario", outcome.getScenario());
+        assertEquals("PASSED", outcome.getStatus());
+        assertEquals(5 * MS, outcome.getDurationNanos());
+    }
+
+    @Test
+    void skipsATornLastBlock() throws IOException {
+        Path path = dir.resolve("run-torn" + RunResults.FILE_SUFFIX);
+        try (RunResultWriter writer = new RunResultWriter(path, 1, 10)) {
+            for (int i = 0; i < 25; i++) {
+                writer.sample(System.nanoTime(), MS, writer.operation("getProduct"), writer.scenario("s"), 0, 200);
+            }
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        RunFile file = RunFile.index(path);
+
+        assertTrue(file.isTruncated());
+        assertEquals(20, file.getSamples());
+    }
+
+    @Test
+    void rejectsOtherFiles() throws IOException {
+        Path path = Files.write(dir.resolve("other" + RunResults.FILE_SUFFIX), new byte[64]);
+
+        assertThrows(IOException.class, () -> RunFile.index(path));
+    }
+
+    @Test
+    void aggregatesPercentilesAcrossRuns() throws IOException {
+        for (int run = 1; run <= 2; run++) {
+            try (RunResultWriter writer = new RunResultWriter(dir.resolve("run-" + run + RunResults.FILE_SUFFIX), run, 64)) {
+                int operation = writer.operation("getProduct");
+                int scenario = writer.scenario("s");
+                int latency = RunResultWriter.chaosMask(List.of(ChaosType.LATENCY));
+                for (int i = 1; i <= 1000; i++) {
+                    writer.sample(System.nanoTime(), i * MS / 10, operation, scenario, 0, i % 100 == 0 ? 503 : 200);
+                    writer.sample(System.nanoTime(), run * i * MS, operation, scenario, latency, 200);
+                }
+            }
+        }
+
+        RunTrends trends = new RunAggregator(2).aggregate(dir);
+
+        assertEquals(2, trends.getRuns().size());
+        Map<String, List<TrendPoint>> points = trends.getTrends();
+        TrendPoint clean = points.get("getProduct NONE").get(0);
+        assertEquals(1000, clean.getSamples());
+        assertEquals(0.01, clean.getErrorRate(), 1e-9);
+        assertEquals(50, clean.getP50Ms(), 0.1);
+        List<TrendPoint> degraded = points.get("getProduct LATENCY");
+        assertEquals(990, degraded.get(0).getP99Ms(), 1);
+        assertEquals(1980, degraded.get(1).getP99Ms(), 2);
+        assertEquals(100, degraded.get(1).getP99ChangePercent(), 0.5);
+        assertTrue(Double.isNaN(degraded.get(0).getP99ChangePercent()));
+    }
+
+    @Test
+    void disabledRecordingWritesNothing() throws IOException {
+        ResultProperties properties = new ResultProperties();
+        properties.setEnabled(false);
+        properties.setDir(dir.resolve("disabled").toString());
+        RunResults results = new RunResults(properties);
+
+        results.open();
+        results.sample("s", "store-api", "getProduct", System.nanoTime(), MS, 200);
+        results.close();
+
+        assertFalse(Files.exists(dir.resolve("disabled")));
+    }
+}
@@ -0,0 +1,83 @@
+package com.chaos.slo;
+
+import com.chaos.metrics.LatencyKey;
+import com.chaos.proxy.ChaosType;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BaselineStoreTest {
+
+    private static final LatencyKey CLEAN = new LatencyKey("getProduct", null);
+    private static final LatencyKey DEGRADED = new LatencyKey("getProduct", ChaosType.LATENCY);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void loadsWhatWasRecorded() throws IOException {
+        BaselineStore store = store(10);
+
+        store.record("Network Latency/Degraded mode", Map.of(CLEAN, histogram(1_000_000, 50), DEGRADED, histogram(200_000_000, 50)));
+        Map<LatencyKey, List<BaselineRun>> runs = store.load("Network Latency/Degraded mode");
+
+        assertEquals(1, runs.get(CLEAN).size());
+        assertEquals(50, runs.get(CLEAN).get(0).getHistogram().getTotalCount());
+        assertEquals(200_000_000, runs.get(DEGRADED).get(0).getHistogram().getMaxValue(), 200_000);
+    }
+
+    @Test
+    void keepsOnlyTheNewestRuns() throws IOException {
+        BaselineStore store = store(3);
+
+        for (int run = 1; run <= 5; run++) {
+            store.record("s", Map.of(CLEAN, histogram(run * 1_000_000L, 10)));
+        }
+        List<BaselineRun> runs = store.load("s").get(CLEAN);
+
+        assertEquals(3, runs.size());
+        assertEquals(3_000_000, runs.get(0).getHistogram().getMaxValue(), 3_000);
+        assertEquals(5_000_000, runs.get(2).getHistogram().getMaxValue(), 5_000);
+    }
+
+    @Test
+    void skipsEmptyHistogramsAndMissingFiles() throws IOException {
+        BaselineStore store = store(10);
+
+        assertTrue(store.load("never-recorded").isEmpty());
+        store.record("s", Map.of(CLEAN, new Histogram(3)));
+        assertFalse(store.load("s").containsKey(CLEAN));
+    }
+
+    @Test
+    void rejectsMalformedLines() throws IOException {
+        Files.write(dir.resolve("s.baseline"), "getProduct\tNONE\n".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IOException.class, () -> store(10).load("s"));
+    }
+
+    private BaselineStore store(int retainRuns) {
+        SloProperties properties = new SloProperties();
+        properties.setBaselineDir(dir.toString());
+        properties.setRetainRuns(retainRuns);
+        return new BaselineStore(properties);
+    }
+
+    private static Histogram histogram(long nanos, int count) {
+        Histogram histogram = new Histogram(3);
+        histogram.recordValueWithCount(nanos, count);
+        return histogram;
+    }
+}
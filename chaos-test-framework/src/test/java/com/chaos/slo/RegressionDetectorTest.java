@@ -0,0 +1,86 @@
+package com.chaos.slo;
+
+import com.chaos.metrics.LatencyKey;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RegressionDetectorTest {
+
+    private static final LatencyKey KEY = new LatencyKey("getProduct", null);
+
+    private final RegressionDetector detector = new RegressionDetector(new SloProperties());
+    private final SplittableRandom random = new SplittableRandom(7);
+
+    @Test
+    void acceptsRunToRunNoise() {
+        List<BaselineRun> baseline = runs(5, 100, 1000);
+
+        for (int run = 0; run < 20; run++) {
+            RegressionReport report = detector.compare("s", Map.of(KEY, histogram(100, 1000)), Map.of(KEY, baseline));
+            assertFalse(report.hasRegression(), () -> report.getComparisons().toString());
+        }
+    }
+
+    @Test
+    void flagsAShiftBeyondTheTolerance() {
+        RegressionReport report = detector.compare("s", Map.of(KEY, histogram(150, 1000)), Map.of(KEY, runs(5, 100, 1000)));
+
+        assertTrue(report.hasRegression());
+        assertEquals(3, report.getRegressions().size());
+        assertEquals(50, report.getRegressions().get(0).getDeltaPercent(), 5);
+    }
+
+    @Test
+    void acceptsAShiftWithinTheTolerance() {
+        RegressionReport report = detector.compare("s", Map.of(KEY, histogram(105, 1000)), Map.of(KEY, runs(5, 100, 1000)));
+
+        assertFalse(report.hasRegression(), () -> report.getComparisons().toString());
+    }
+
+    @Test
+    void doesNotJudgeWithoutEnoughData() {
+        RegressionReport empty = detector.compare("s", Map.of(KEY, histogram(500, 1000)), Map.of());
+        RegressionReport sparse = detector.compare("s", Map.of(KEY, histogram(500, 10)), Map.of(KEY, runs(3, 100, 1000)));
+
+        assertEquals(SloComparison.Verdict.NO_BASELINE, empty.getComparisons().get(0).getVerdict());
+        assertEquals(SloComparison.Verdict.INSUFFICIENT_DATA, sparse.getComparisons().get(0).getVerdict());
+        assertFalse(empty.hasRegression());
+        assertFalse(sparse.hasRegression());
+    }
+
+    @Test
+    void normalQuantileMatchesKnownValues() {
+        assertEquals(0, RegressionDetector.normalQuantile(0.5), 1e-9);
+        assertEquals(1.959964, RegressionDetector.normalQuantile(0.975), 1e-6);
+        assertEquals(-2.326348, RegressionDetector.normalQuantile(0.01), 1e-6);
+    }
+
+    private List<BaselineRun> runs(int count, double meanMillis, int samples) {
+        List<BaselineRun> runs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            runs.add(new BaselineRun(Instant.now(), histogram(meanMillis, samples)));
+        }
+        return runs;
+    }
+
+    // Uniform within 20% either side of the mean
+    private Histogram histogram(double meanMillis, int samples) {
+        Histogram histogram = new Histogram(3);
+        for (int i = 0; i < samples; i++) {
+            double millis = meanMillis * (0.8 + 0.4 * random.nextDouble());
+            histogram.recordValue((long) (millis * TimeUnit.MILLISECONDS.toNanos(1)));
+        }
+        return histogram;
+    }
+}
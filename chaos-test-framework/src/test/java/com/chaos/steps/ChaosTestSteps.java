@@ -1,9 +1,55 @@
 package com.chaos.steps;
 
+import com.chaos.api.ProductStream;
 import com.chaos.api.StoreApiClient;
+import com.chaos.distributed.ChaosPhase;
+import com.chaos.distributed.DistributedResult;
+import com.chaos.distributed.DistributedRunner;
+import com.chaos.distributed.RunPlan;
+import com.chaos.live.LiveMetrics;
+import com.chaos.load.LoadGenerator;
+import com.chaos.load.LoadResult;
+import com.chaos.metrics.LatencyRecorder;
+import com.chaos.metrics.LatencySummary;
+import com.chaos.metrics.MetricsExporter;
 import com.chaos.model.Product;
+import com.chaos.payload.PayloadCorpus;
+import com.chaos.payload.PayloadFactory;
+import com.chaos.proxy.ProxyLease;
 import com.chaos.proxy.ProxyManager;
+import com.chaos.proxy.ProxyPool;
+import com.chaos.proxy.ProxyProvisioner;
+import com.chaos.queue.DrainResult;
+import com.chaos.queue.OperationQueue;
+import com.chaos.queue.OperationQueuedException;
+import com.chaos.queue.OperationType;
+import com.chaos.queue.QueueProperties;
+import com.chaos.resilience.ResilienceMetrics;
+import com.chaos.results.RunResults;
+import com.chaos.slo.BaselineStore;
+import com.chaos.slo.RegressionDetector;
+import com.chaos.slo.RegressionReport;
+import com.chaos.slo.SloComparison;
+import com.chaos.slo.SloProperties;
+import com.chaos.sweep.SweepPoint;
+import com.chaos.sweep.SweepResult;
+import com.chaos.sweep.SweepRunner;
+import com.chaos.timeline.ChaosScheduler;
+import com.chaos.timeline.TimelineEvent;
+import com.chaos.timeline.TimelineEntry;
+import com.chaos.timeline.TimelineRun;
+import com.chaos.topology.LatencyPropagation;
+import com.chaos.topology.PropagationReport;
+import com.chaos.topology.Topology;
+import com.chaos.trace.TraceReplay;
+import com.chaos.trace.TraceReplayer;
+import com.chaos.utils.RandomSource;
+import com.chaos.utils.TestUtils;
 import io.cucumber.datatable.DataTable;
+import io.cucumber.java.After;
+import io.cucumber.java.Before;
+import io.cucumber.java.BeforeStep;
+import io.cucumber.java.Scenario;
 import io.cucumber.java.en.Given;
 import io.cucumber.java.en.Then;
 import io.cucumber.java.en.When;
@@ -11,14 +57,31 @@ import io.restassured.response.Response;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import static org.junit.Assert.*;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import com.chaos.proxy.ChaosType;
+import com.chaos.proxy.ConnectionTrace;
+import com.chaos.proxy.ConnectionTraceSummary;
+import com.chaos.proxy.ServiceDownMode;
 
 @Slf4j
 public class ChaosTestSteps {
@@ -27,18 +90,125 @@ public class ChaosTestSteps {
     private ProxyManager proxyManager;
 
     @Autowired
-    private StoreApiClient apiClient;
+    private StoreApiClient storeApiClient;
+
+    @Autowired
+    private ProxyPool proxyPool;
+
+    @Autowired
+    private LoadGenerator loadGenerator;
+
+    @Autowired
+    private MetricsExporter metricsExporter;
+
+    @Autowired
+    private ChaosScheduler chaosScheduler;
+
+    @Autowired
+    private QueueProperties queueProperties;
+
+    @Autowired
+    private DistributedRunner distributedRunner;
+
+    @Autowired
+    private TraceReplayer traceReplayer;
+
+    @Autowired
+    private BaselineStore baselineStore;
+
+    @Autowired
+    private RegressionDetector regressionDetector;
+
+    @Autowired
+    private SloProperties sloProperties;
+
+    @Autowired
+    private LiveMetrics liveMetrics;
+
+    @Autowired
+    private ProxyProvisioner proxyProvisioner;
+
+    @Autowired
+    private Topology topology;
 
+    @Autowired
+    private LatencyPropagation latencyPropagation;
+
+    @Autowired
+    private SweepRunner sweepRunner;
+
+    @Autowired
+    private PayloadFactory payloadFactory;
+
+    @Autowired
+    private RunResults runResults;
+
+    private final LatencyRecorder latencyRecorder = new LatencyRecorder();
+    private ProxyLease proxyLease;
+    private String proxyName;
+    private StoreApiClient apiClient;
     private Response apiResponse;
+    private LoadResult loadResult;
+    private ProductStream productStream;
+    private TimelineRun timelineRun;
+    private String scenarioId;
+    private String baselineKey;
+    private RegressionReport sloReport;
+    private OperationQueue writeQueue;
+    private Path writeQueueFile;
+    private CompletableFuture<Response> queuedResult;
+    private DistributedResult distributedResult;
+    private TraceReplay traceReplay;
+    private PropagationReport propagationReport;
+    private SweepResult sweepResult;
+    private long scenarioStartNanos;
+    private boolean traceConnections;
+    private final List<String> failedServices = new ArrayList<>();
     private Product testProduct;
-    private long startTime;
+    private ChaosType activeChaosType;
+    private long lastResponseNanos;
     private static final String PROXY_NAME = "store-api";
     private static final long DEFAULT_TIMEOUT = 5000;
+    private static final int MONITOR_RATE_PER_SECOND = 10;
+    private static final Duration DRAIN_TIMEOUT = Duration.ofMinutes(10);
+    private static final Duration FAILURE_INTERVAL = Duration.ofSeconds(2);
+    private static final Duration TIMELINE_STOP_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration PROPAGATION_STEP = Duration.ofSeconds(3);
+
+    @Before
+    public void leaseProxy(Scenario scenario) throws IOException {
+        scenarioId = scenario.getId().replaceAll("[^A-Za-z0-9._-]", "_");
+        scenarioStartNanos = System.nanoTime();
+        // Stable across runs, unlike the id which moves with the scenario's line number
+        String uri = scenario.getUri().toString();
+        String feature = uri.substring(uri.lastIndexOf('/') + 1).replace(".feature", "");
+        baselineKey = feature + "/" + scenario.getName();
+        // Keyed by the stable name so a replayed run draws the same values even if lines move
+        RandomSource.beginScenario(baselineKey);
+        scenario.log("Random seed " + RandomSource.seed() + " (replay with -D" + RandomSource.SEED_PROPERTY + "=" + RandomSource.seed() + ")");
+        proxyLease = proxyPool.lease();
+        proxyName = proxyLease.getName();
+        apiClient = storeApiClient.forScenario(proxyLease.getBaseUri(), baselineKey, proxyName);
+        log.info("Scenario uses proxy {} at {}", proxyName, proxyLease.getBaseUri());
+    }
+
+    // An abort from the live dashboard fails whatever is left of the run
+    @BeforeStep
+    public void failIfRunAborted() {
+        String reason = liveMetrics.getAbortReason();
+        if (reason != null) {
+            fail(reason);
+        }
+    }
 
+    // The feature backgrounds: every scenario starts from its leased proxy with no chaos on it
     @Given("the Toxiproxy is set up")
+    @Given("the Toxiproxy is set up for the Store API")
+    @Given("the Store API service is configured with Toxiproxy")
     public void the_toxiproxy_is_set_up() {
         try {
-            proxyManager.reset(PROXY_NAME);
+            proxyManager.reset(proxyName);
+            activeChaosType = null;
             log.info("Toxiproxy setup completed successfully");
         } catch (Exception e) {
             log.error("Failed to set up Toxiproxy", e);
@@ -46,11 +216,18 @@ public class ChaosTestSteps {
         }
     }
 
+    @Given("the API endpoints are configured")
+    public void verifyApiEndpoints() {
+        Response response = apiClient.getAllProducts();
+        assertEquals("Store API is not reachable through " + proxyName, 200, response.getStatusCode());
+    }
+
     @When("I send a request to the demo API")
     public void i_send_a_request_to_the_demo_api() {
         try {
-            startTime = System.currentTimeMillis();
+            long start = System.nanoTime();
             apiResponse = apiClient.getAllProducts();
+            recordResponseTime("getAllProducts", start);
             log.info("API request sent successfully");
         } catch (Exception e) {
             log.error("Failed to send API request", e);
@@ -72,7 +249,8 @@ public class ChaosTestSteps {
             Map<String, Object> params = new HashMap<>();
             params.put("latency", 2000L);
             params.put("jitter", 0.1f);
-            proxyManager.simulateChaos(PROXY_NAME, ChaosType.LATENCY, params);
+            proxyManager.simulateChaos(proxyName, ChaosType.LATENCY, params);
+            activeChaosType = ChaosType.LATENCY;
             log.info("Network latency introduced successfully");
         } catch (Exception e) {
             log.error("Failed to introduce network latency", e);
@@ -82,7 +260,7 @@ public class ChaosTestSteps {
 
     @Then("the response time should be within acceptable limits")
     public void the_response_time_should_be_within_acceptable_limits() {
-        long responseTime = System.currentTimeMillis() - startTime;
+        double responseTime = LatencyRecorder.toMillis(lastResponseNanos);
         assertTrue("Response time exceeded acceptable limit", responseTime < DEFAULT_TIMEOUT);
         log.info("Response time was {} ms", responseTime);
     }
@@ -91,8 +269,10 @@ public class ChaosTestSteps {
     public void the_service_is_down() {
         try {
             Map<String, Object> params = new HashMap<>();
-            params.put("down", true);
-            proxyManager.simulateChaos(PROXY_NAME, ChaosType.FAILURE, params);
+            params.put("mode", ServiceDownMode.REFUSE.name());
+            proxyManager.simulateChaos(proxyName, ChaosType.SERVICE_DOWN, params);
+            activeChaosType = ChaosType.SERVICE_DOWN;
+            traceConnections = true;
             log.info("Service down simulation activated");
         } catch (Exception e) {
             log.error("Failed to simulate service down", e);
@@ -117,9 +297,9 @@ public class ChaosTestSteps {
                 .category(productData.get("category"))
                 .build();
 
-        startTime = System.currentTimeMillis();
+        long start = System.nanoTime();
         apiResponse = apiClient.createProduct(testProduct);
-        log.info("Product creation response time: {} ms", System.currentTimeMillis() - startTime);
+        recordResponseTime("createProduct", start);
     }
 
     @When("I update the product with new details:")
@@ -130,24 +310,34 @@ public class ChaosTestSteps {
                 .price(Double.parseDouble(updateData.get("price")))
                 .build();
 
-        startTime = System.currentTimeMillis();
+        long start = System.nanoTime();
         apiResponse = apiClient.updateProduct(testProduct.getId().intValue(), updateProduct);
-        log.info("Product update response time: {} ms", System.currentTimeMillis() - startTime);
+        recordResponseTime("updateProduct", start);
     }
 
     @When("I patch the product with details:")
     public void patchProduct(DataTable dataTable) {
         Map<String, String> patchData = dataTable.asMaps().get(0);
-        startTime = System.currentTimeMillis();
+        long start = System.nanoTime();
         apiResponse = apiClient.patchProduct(testProduct.getId().intValue(), patchData);
-        log.info("Product patch response time: {} ms", System.currentTimeMillis() - startTime);
+        recordResponseTime("patchProduct", start);
     }
 
     @When("I delete the product")
     public void deleteProduct() {
-        startTime = System.currentTimeMillis();
-        apiResponse = apiClient.deleteProduct(testProduct.getId().intValue());
-        log.info("Product deletion response time: {} ms", System.currentTimeMillis() - startTime);
+        long start = System.nanoTime();
+        try {
+            apiResponse = apiClient.deleteProduct(testProduct.getId().intValue());
+        } catch (OperationQueuedException e) {
+            apiResponse = null;
+            queuedResult = e.getResult();
+            log.info(e.getMessage());
+        } catch (Exception e) {
+            // Unreachable upstream: leave it to the queue steps to decide what happens next
+            apiResponse = null;
+            log.warn("Delete of product {} failed: {}", testProduct.getId(), e.getMessage());
+        }
+        recordResponseTime("deleteProduct", start);
     }
 
     @Then("the product should be created")
@@ -160,7 +350,7 @@ public class ChaosTestSteps {
     @Then("the product should be updated")
     public void verifyProductUpdated() {
         assertEquals(200, apiResponse.getStatusCode());
-        assertEquals(testProduct.getId(), apiResponse.jsonPath().getLong("id"));
+        assertEquals(testProduct.getId(), Long.valueOf(apiResponse.jsonPath().getLong("id")));
     }
 
     @Then("the product price should be updated")
@@ -188,12 +378,30 @@ public class ChaosTestSteps {
                 .build();
     }
 
+    @When("I request the product details")
+    public void requestProductDetails() {
+        long start = System.nanoTime();
+        apiResponse = apiClient.getProduct(testProduct.getId().intValue());
+        recordResponseTime("getProduct", start);
+    }
+
+    @Then("the system should retry the request")
+    public void verifyRetried() {
+        assertTrue("Resilience layer is disabled, set test.api.resilience.enabled=true",
+                   apiClient.getResilience().isEnabled());
+        ResilienceMetrics metrics = apiClient.getResilience().getMetrics();
+        assertEquals("Failed attempts were given up because the retry budget ran out", 0, metrics.getBudgetExhausted());
+        log.info("{} calls took {} attempts ({} retries, {} hedges)", metrics.getCalls(), metrics.getAttempts(),
+                 metrics.getRetries(), metrics.getHedges());
+    }
+
     @When("I introduce a latency of {int} milliseconds")
     public void introduceLatency(int latencyMs) {
         Map<String, Object> params = new HashMap<>();
         params.put("latency", (long) latencyMs);
         params.put("jitter", latencyMs * 0.1); // 10% jitter
-        proxyManager.simulateChaos("store-api", ChaosType.LATENCY, params);
+        proxyManager.simulateChaos(proxyName, ChaosType.LATENCY, params);
+        activeChaosType = ChaosType.LATENCY;
         log.info("Introduced latency of {}ms with {}ms jitter", latencyMs, latencyMs * 0.1);
     }
 
@@ -201,38 +409,89 @@ public class ChaosTestSteps {
     public void simulatePacketLoss(int percentage) {
         Map<String, Object> params = new HashMap<>();
         params.put("percentage", percentage);
-        proxyManager.simulateChaos("store-api", ChaosType.PACKET_LOSS, params);
+        proxyManager.simulateChaos(proxyName, ChaosType.PACKET_LOSS, params);
+        activeChaosType = ChaosType.PACKET_LOSS;
         log.info("Simulated {}% packet loss", percentage);
     }
 
+    @When("I apply the following network model:")
+    public void applyNetworkModel(DataTable dataTable) {
+        Map<String, Object> params = new HashMap<>(dataTable.asMap(String.class, String.class));
+        proxyManager.simulateChaos(proxyName, ChaosType.NETWORK_MODEL, params);
+        activeChaosType = ChaosType.NETWORK_MODEL;
+        log.info("Applied network model {}", params);
+    }
+
+    // Kbps is kilobits; both engines take the rate in KB/s
     @When("I limit the bandwidth to {int}Kbps")
     public void limitBandwidth(int kbps) {
-        Map<String, Object> params = new HashMap<>();
-        params.put("rate", kbps * 1024L); // Convert to bytes/s
-        proxyManager.simulateChaos("store-api", ChaosType.BANDWIDTH, params);
+        proxyManager.simulateChaos(proxyName, ChaosType.BANDWIDTH, chaosParams(ChaosType.BANDWIDTH, Math.max(1, kbps / 8)));
+        activeChaosType = ChaosType.BANDWIDTH;
         log.info("Limited bandwidth to {}Kbps", kbps);
     }
 
+    @When("I simulate a network partition")
+    public void simulateNetworkPartition() throws IOException {
+        Map<String, Object> params = new HashMap<>();
+        params.put("mode", ServiceDownMode.PARTITION.name());
+        // Writes that cannot get through the partition are queued by the client
+        apiClient.setWriteQueue(writeQueue());
+        proxyManager.simulateChaos(proxyName, ChaosType.SERVICE_DOWN, params);
+        activeChaosType = ChaosType.SERVICE_DOWN;
+        traceConnections = true;
+        log.info("Partitioned the network on {}", proxyName);
+    }
+
+    @When("connections are reset after {int} milliseconds")
+    public void resetConnections(int timeoutMs) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("timeout", (long) timeoutMs);
+        proxyManager.simulateChaos(proxyName, ChaosType.RESET_PEER, params);
+        activeChaosType = ChaosType.RESET_PEER;
+        traceConnections = true;
+        log.info("Resetting connections {}ms after they open", timeoutMs);
+    }
+
+    @When("connections close slowly after {int} milliseconds")
+    public void closeConnectionsSlowly(int delayMs) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("delay", (long) delayMs);
+        proxyManager.simulateChaos(proxyName, ChaosType.SLOW_CLOSE, params);
+        activeChaosType = ChaosType.SLOW_CLOSE;
+        traceConnections = true;
+        log.info("Delaying connection closes by {}ms", delayMs);
+    }
+
+    @Then("the client should reconnect within {int} milliseconds after a reset")
+    public void verifyReconnectAfterReset(int maxMs) {
+        ConnectionTraceSummary summary = ConnectionTraceSummary.of(proxyManager.getConnectionTraces(proxyName, scenarioStartNanos));
+        log.info("Connection traces: {}", summary);
+        assertTrue("No connection was reset or refused", summary.getReconnects() > 0);
+        assertTrue(String.format("Slowest reconnect took %.1fms, expected at most %dms", summary.getMaxReconnectMillis(), maxMs),
+                   summary.getMaxReconnectMillis() <= maxMs);
+    }
+
     @When("I set the connection timeout to {int} seconds")
     public void setConnectionTimeout(int seconds) {
         Map<String, Object> params = new HashMap<>();
         params.put("timeout", seconds * 1000L);
-        proxyManager.simulateChaos("store-api", ChaosType.TIMEOUT, params);
+        proxyManager.simulateChaos(proxyName, ChaosType.TIMEOUT, params);
+        activeChaosType = ChaosType.TIMEOUT;
         log.info("Set connection timeout to {}s", seconds);
     }
 
     @Then("the response time should be greater than {int} milliseconds")
     public void verifyMinimumResponseTime(int expectedMs) {
-        long actualMs = System.currentTimeMillis() - startTime;
-        assertTrue(String.format("Response time %dms should be greater than %dms", actualMs, expectedMs), 
+        double actualMs = LatencyRecorder.toMillis(lastResponseNanos);
+        assertTrue(String.format("Response time %.1fms should be greater than %dms", actualMs, expectedMs), 
                   actualMs > expectedMs);
         log.info("Response time {}ms exceeds minimum {}ms", actualMs, expectedMs);
     }
 
     @Then("the response time should be less than {int} milliseconds")
     public void verifyMaximumResponseTime(int expectedMs) {
-        long actualMs = System.currentTimeMillis() - startTime;
-        assertTrue(String.format("Response time %dms should be less than %dms", actualMs, expectedMs), 
+        double actualMs = LatencyRecorder.toMillis(lastResponseNanos);
+        assertTrue(String.format("Response time %.1fms should be less than %dms", actualMs, expectedMs), 
                   actualMs < expectedMs);
         log.info("Response time {}ms is within maximum {}ms", actualMs, expectedMs);
     }
@@ -251,4 +510,588 @@ public class ChaosTestSteps {
         log.info("Timeout handled with status {} and message: {}", 
                  apiResponse.getStatusCode(), apiResponse.jsonPath().getString("error"));
     }
-}
\ No newline at end of file
+
+    @When("I send {int} concurrent requests to the Store API")
+    public void sendConcurrentRequests(int count) {
+        loadResult = loadGenerator.burst(apiClient::getAllProducts, count);
+        latencyRecorder.record("getAllProducts", PROXY_NAME, activeChaosType, loadResult.getLatency());
+    }
+
+    @When("I send requests to the Store API at {int} per second for {int} seconds")
+    public void sendRequestsAtRate(int ratePerSecond, int seconds) {
+        loadResult = loadGenerator.atRate(apiClient::getAllProducts, ratePerSecond, Duration.ofSeconds(seconds));
+        latencyRecorder.record("getAllProducts", PROXY_NAME, activeChaosType, loadResult.getLatency());
+    }
+
+    @When("I {word} products at {int} per second for {int} seconds from the payload corpus")
+    public void sendCorpusPayloads(String operation, int ratePerSecond, int seconds) {
+        PayloadCorpus corpus = payloadFactory.corpus();
+        Supplier<Response> request;
+        switch (operation) {
+            case "create":
+                request = () -> apiClient.createProduct(corpus.nextProduct());
+                break;
+            case "update":
+                request = () -> apiClient.updateProduct(seededProductId(), corpus.nextProduct());
+                break;
+            case "patch":
+                request = () -> apiClient.patchProduct(seededProductId(), corpus.nextPatch());
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported payload operation: " + operation);
+        }
+        loadResult = loadGenerator.atRate(request, ratePerSecond, Duration.ofSeconds(seconds));
+        latencyRecorder.record(operation + "Product", PROXY_NAME, activeChaosType, loadResult.getLatency());
+    }
+
+    @When("I monitor the API for {int} minute(s)")
+    public void monitorApi(int minutes) {
+        loadResult = loadGenerator.atRate(apiClient::getAllProducts, MONITOR_RATE_PER_SECOND, Duration.ofMinutes(minutes));
+        latencyRecorder.record("getAllProducts", PROXY_NAME, activeChaosType, loadResult.getLatency());
+    }
+
+    @Then("all requests should complete successfully")
+    public void verifyAllRequestsSuccessful() {
+        assertNotNull("No load was generated", loadResult);
+        assertEquals("Requests returned error responses", 0, loadResult.getErrors());
+        assertEquals("Requests failed without a response", 0, loadResult.getFailures());
+        log.info("All {} requests completed, p99 latency {}ms", loadResult.getRequests(),
+                 loadResult.getPercentileMillis(99));
+    }
+
+    @Then("average response time should be greater than {int} milliseconds")
+    public void verifyAverageResponseTime(int expectedMs) {
+        assertTrue(String.format("Average response time %.1fms should be greater than %dms",
+                   loadResult.getMeanMillis(), expectedMs), loadResult.getMeanMillis() > expectedMs);
+    }
+
+    @Then("no request should timeout")
+    public void verifyNoRequestTimedOut() {
+        assertEquals("Requests timed out or failed", 0, loadResult.getFailures());
+    }
+
+    @When("I stream all products from the Store API")
+    public void streamAllProducts() {
+        productStream = apiClient.streamProducts(product -> { });
+        lastResponseNanos = productStream.getTotalNanos();
+        if (productStream.getTimeToFirstByteNanos() >= 0) {
+            latencyRecorder.record("streamProducts.firstByte", PROXY_NAME, activeChaosType,
+                                   productStream.getTimeToFirstByteNanos());
+        }
+        if (productStream.getTimeToFirstProductNanos() >= 0) {
+            latencyRecorder.record("streamProducts.firstProduct", PROXY_NAME, activeChaosType,
+                                   productStream.getTimeToFirstProductNanos());
+        }
+        latencyRecorder.record("streamProducts", PROXY_NAME, activeChaosType, productStream.getTotalNanos());
+        log.info("Streamed {} products ({} bytes) in {} ms, complete: {}", productStream.getProducts(),
+                 productStream.getBytesRead(), LatencyRecorder.toMillis(productStream.getTotalNanos()),
+                 productStream.isComplete());
+    }
+
+    @Then("the product stream should complete with at least {int} products")
+    public void verifyProductStreamComplete(int minimumProducts) {
+        assertNotNull("No product stream was read", productStream);
+        assertTrue("Product stream failed after " + productStream.getProducts() + " products: "
+                   + productStream.getFailure(), productStream.isComplete());
+        assertTrue(String.format("Expected at least %d products but streamed %d", minimumProducts,
+                   productStream.getProducts()), productStream.getProducts() >= minimumProducts);
+    }
+
+    @Then("the product stream should be limited to {int}Kbps")
+    public void verifyProductStreamLimited(int kbps) {
+        double seconds = productStream.getTotalNanos() / 1e9;
+        double actualKbps = productStream.getBytesRead() * 8 / 1000.0 / seconds;
+        // Small allowance for the first chunk, which can be sent before the limit applies
+        assertTrue(String.format("Streamed %d bytes at %.1fKbps, expected at most %dKbps",
+                   productStream.getBytesRead(), actualKbps, kbps), actualKbps <= kbps * 1.25);
+    }
+
+    @Then("the first product should arrive within {int} milliseconds")
+    public void verifyTimeToFirstProduct(int expectedMs) {
+        assertTrue("No product was received", productStream.getTimeToFirstProductNanos() >= 0);
+        double actualMs = LatencyRecorder.toMillis(productStream.getTimeToFirstProductNanos());
+        assertTrue(String.format("First product took %.1fms, expected less than %dms", actualMs, expectedMs),
+                   actualMs < expectedMs);
+    }
+
+    @Then("the system should queue the delete operation")
+    public void queueDeleteOperation() {
+        assertNull("Delete reached the upstream, nothing to queue", apiResponse);
+        assertNotNull("Delete was not queued", queuedResult);
+        assertTrue("Delete was not queued", writeQueue.getPending() > 0);
+    }
+
+    @Then("retry until successful")
+    public void retryQueuedOperationsUntilSuccessful() throws Exception {
+        log.info("Restoring connectivity on {} so {} queued operations can drain", proxyName, writeQueue.getPending());
+        restoreNetworkConnectivity();
+        apiResponse = queuedResult.get(DRAIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @When("I queue {int} product updates")
+    public void queueProductUpdates(int count) throws IOException {
+        OperationQueue queue = writeQueue();
+        queue.pause();
+        for (int i = 0; i < count; i++) {
+            long id = 1 + i % 20;
+            queue.enqueue(OperationType.UPDATE, id, TestUtils.generateRandomProduct());
+        }
+        log.info("Queued {} product updates, {} pending", count, queue.getPending());
+    }
+
+    @When("I restore the network connectivity")
+    public void restoreNetworkConnectivity() throws IOException {
+        proxyManager.reset(proxyName);
+        activeChaosType = null;
+    }
+
+    @Then("the queued backlog should drain at least {int} operations per second")
+    public void verifyDrainRate(int minimumRate) throws InterruptedException {
+        DrainResult result = writeQueue.drain(DRAIN_TIMEOUT);
+        latencyRecorder.record("queuedWrite", PROXY_NAME, activeChaosType, writeQueue.getAckLatency());
+        log.info("Drained {} operations in {} ms ({} ops/s, {} retries, {} rejected)", result.getOperations(),
+                 LatencyRecorder.toMillis(result.getDurationNanos()), result.getRate(), writeQueue.getRetries(),
+                 writeQueue.getRejected());
+        assertTrue("Backlog did not drain, " + writeQueue.getPending() + " operations pending", result.isDrained());
+        assertTrue(String.format("Drain rate %.0f ops/s is below %d ops/s", result.getRate(), minimumRate),
+                   result.getRate() >= minimumRate);
+    }
+
+    @When("I introduce a latency pattern:")
+    public void introduceLatencyPattern(DataTable dataTable) {
+        List<TimelineEntry> entries = new ArrayList<>();
+        Duration offset = Duration.ZERO;
+        for (Map<String, String> row : dataTable.asMaps()) {
+            Duration duration = Duration.ofSeconds(Long.parseLong(row.get("duration")));
+            entries.add(TimelineEntry.builder()
+                    .proxyName(proxyName)
+                    .startOffset(offset)
+                    .duration(duration)
+                    .chaosType(ChaosType.LATENCY)
+                    .params(chaosParams(ChaosType.LATENCY, Long.parseLong(row.get("latency"))))
+                    .build());
+            offset = offset.plus(duration);
+        }
+        timelineRun = chaosScheduler.start(entries);
+        activeChaosType = ChaosType.LATENCY;
+        log.info("Started latency pattern with {} phases over {}s", entries.size(), offset.getSeconds());
+    }
+
+    @When("I execute the following chaos sequence:")
+    public void executeChaosSequence(DataTable dataTable) {
+        List<TimelineEntry> entries = new ArrayList<>();
+        Duration offset = Duration.ZERO;
+        for (Map<String, String> row : dataTable.asMaps()) {
+            ChaosType chaosType = ChaosType.valueOf(row.get("chaos_type").toUpperCase(Locale.ROOT));
+            Duration duration = Duration.ofMillis(Long.parseLong(row.get("duration_ms")));
+            entries.add(TimelineEntry.builder()
+                    .proxyName(proxyName)
+                    .startOffset(offset)
+                    .duration(duration)
+                    .chaosType(chaosType)
+                    .params(chaosParams(chaosType, Long.parseLong(row.get("value"))))
+                    .build());
+            offset = offset.plus(duration);
+        }
+        timelineRun = chaosScheduler.start(entries);
+        log.info("Started chaos sequence with {} phases over {}ms", entries.size(), offset.toMillis());
+    }
+
+    @When("I replay the network trace {string} at {double}x speed")
+    public void replayNetworkTrace(String trace, double timeFactor) throws IOException {
+        traceReplay = traceReplayer.start(proxyName, Paths.get(trace), timeFactor);
+    }
+
+    @Then("the trace replay should finish within {int} seconds")
+    public void verifyTraceReplayFinished(int seconds) throws InterruptedException {
+        assertTrue("Trace replay did not finish within " + seconds + "s", traceReplay.await(Duration.ofSeconds(seconds)));
+        assertNull("Trace replay failed", traceReplay.getFailure());
+        assertTrue("Trace had no points", traceReplay.getPoints() > 0);
+    }
+
+    @Then("the trace replay should stay within {int} milliseconds of the recorded timing")
+    public void verifyTraceReplayLag(int expectedMs) {
+        double actualMs = LatencyRecorder.toMillis(traceReplay.getMaxLagNanos());
+        assertTrue(String.format("Trace replay lagged %.1fms behind, more than %dms", actualMs, expectedMs),
+                   actualMs <= expectedMs);
+    }
+
+    @When("I run the following chaos sequence on {int} workers at {int} requests per second each for {int} seconds:")
+    public void runDistributedChaosSequence(int workers, int ratePerSecond, int seconds, DataTable dataTable)
+            throws IOException, InterruptedException {
+        List<ChaosPhase> phases = new ArrayList<>();
+        long offset = 0;
+        for (Map<String, String> row : dataTable.asMaps()) {
+            ChaosType chaosType = ChaosType.valueOf(row.get("chaos_type").toUpperCase(Locale.ROOT));
+            long duration = Long.parseLong(row.get("duration_ms"));
+            phases.add(new ChaosPhase(chaosType, chaosParams(chaosType, Long.parseLong(row.get("value"))), offset, duration));
+            offset += duration;
+        }
+        RunPlan plan = RunPlan.builder()
+                .ratePerSecond(ratePerSecond)
+                .durationMs(TimeUnit.SECONDS.toMillis(seconds))
+                .phases(phases)
+                .build();
+        distributedResult = distributedRunner.run(plan, workers);
+        loadResult = new LoadResult(distributedResult.getLatency(), distributedResult.getServiceTime(),
+                                    distributedResult.getRequests(), distributedResult.getErrors(),
+                                    distributedResult.getFailures(), TimeUnit.MILLISECONDS.toNanos(plan.getDurationMs()));
+        latencyRecorder.record("distributed.getAllProducts", PROXY_NAME, null, distributedResult.getLatency());
+        log.info("Distributed run on {} workers: {} requests, p99 {}ms, activation skew {}ms", workers,
+                 distributedResult.getRequests(), distributedResult.getP99Millis(),
+                 LatencyRecorder.toMillis(distributedResult.getActivationSkewNanos()));
+    }
+
+    @Then("the chaos activation skew across workers should be less than {int} milliseconds")
+    public void verifyActivationSkew(int expectedMs) {
+        double actualMs = LatencyRecorder.toMillis(distributedResult.getActivationSkewNanos());
+        assertTrue(String.format("Activation skew %.1fms should be less than %dms", actualMs, expectedMs),
+                   actualMs < expectedMs);
+    }
+
+    @Given("multiple dependent services are running")
+    public void verifyDependentServices() {
+        proxyProvisioner.awaitProxies();
+        List<String> downstream = topology.downstream(PROXY_NAME);
+        assertFalse("No depends-on configured for " + PROXY_NAME, downstream.isEmpty());
+        log.info("{} depends on {}", PROXY_NAME, downstream);
+    }
+
+    // One healthy interval first, then each failure joins the ones before it until the end of the run
+    @When("I trigger failures in the following order:")
+    public void triggerFailuresInOrder(DataTable dataTable) {
+        List<Map<String, String>> rows = dataTable.asMaps();
+        Duration total = FAILURE_INTERVAL.multipliedBy(rows.size() + 1);
+        List<TimelineEntry> entries = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            String service = dependentService(rows.get(i).get("service"));
+            ChaosType chaosType = failureChaosType(rows.get(i).get("failure_type"));
+            Duration offset = FAILURE_INTERVAL.multipliedBy(i + 1);
+            entries.add(TimelineEntry.builder()
+                    .proxyName(service)
+                    .startOffset(offset)
+                    .duration(total.minus(offset))
+                    .chaosType(chaosType)
+                    .params(failureParams(chaosType))
+                    .build());
+        }
+        timelineRun = chaosScheduler.start(entries);
+        loadResult = loadGenerator.atRate(apiClient::getAllProducts, MONITOR_RATE_PER_SECOND, total);
+        latencyRecorder.record("getAllProducts", PROXY_NAME, null, loadResult.getLatency());
+    }
+
+    @When("I fail the following services together:")
+    public void failServicesTogether(DataTable dataTable) {
+        Map<String, Map<ChaosType, Map<String, Object>>> group = new LinkedHashMap<>();
+        for (Map<String, String> row : dataTable.asMaps()) {
+            String service = dependentService(row.get("service"));
+            ChaosType chaosType = failureChaosType(row.get("failure_type"));
+            group.computeIfAbsent(service, name -> new EnumMap<>(ChaosType.class)).put(chaosType, failureParams(chaosType));
+        }
+        proxyManager.replaceGroup(group);
+        failedServices.addAll(group.keySet());
+    }
+
+    @Then("the system should handle failures gracefully")
+    public void verifyFailuresHandledGracefully() {
+        long shortCircuited = apiClient.getResilience().getMetrics().getShortCircuited();
+        assertTrue(String.format("%d requests failed without a response", loadResult.getFailures() - shortCircuited),
+                   loadResult.getFailures() <= shortCircuited);
+    }
+
+    @Then("implement circuit breakers where appropriate")
+    public void verifyCircuitBreakerOpened() {
+        assertTrue("Resilience layer is disabled, set test.api.resilience.enabled=true",
+                   apiClient.getResilience().isEnabled());
+        if (loadResult.getErrors() + loadResult.getFailures() > 0) {
+            assertTrue("Circuit breaker never opened during the dependency failures",
+                       apiClient.getResilience().getMetrics().getShortCircuited() > 0);
+        }
+    }
+
+    @Then("maintain core functionality")
+    public void verifyCoreFunctionality() {
+        long succeeded = loadResult.getRequests() - loadResult.getErrors() - loadResult.getFailures();
+        assertTrue("No request succeeded", succeeded > 0);
+    }
+
+    @Then("log all failure events for analysis")
+    public void logFailureEvents() {
+        List<TimelineEvent> events = timelineRun.getEvents();
+        long applied = events.stream().filter(event -> event.getAction() == TimelineEvent.Action.APPLY).count();
+        assertEquals("Not every failure was applied", timelineRun.getEntries().size(), applied);
+        events.forEach(event -> log.info("{}ms: {} {} on {}", LatencyRecorder.toMillis(event.getActualOffsetNanos()),
+                event.getAction(), event.getChaosType(), event.getProxyName()));
+    }
+
+    @When("I measure how latency on {string} propagates to the Store API in steps of {int} milliseconds up to {int} milliseconds")
+    public void measureLatencyPropagation(String service, int stepMs, int maxMs) {
+        List<Long> injected = new ArrayList<>();
+        for (long latency = stepMs; latency <= maxMs; latency += stepMs) {
+            injected.add(latency);
+        }
+        propagationReport = latencyPropagation.measure(PROXY_NAME, dependentService(service), injected,
+                apiClient::getAllProducts, MONITOR_RATE_PER_SECOND, PROPAGATION_STEP);
+    }
+
+    @Then("the latency amplification should be at most {double}x")
+    public void verifyLatencyAmplification(double maximum) {
+        assertTrue(String.format("Latency on %s was amplified %.2fx at %s, more than %.2fx",
+                                 propagationReport.getDownstream(), propagationReport.getMaxAmplification(),
+                                 propagationReport.getEntry(), maximum),
+                   propagationReport.getMaxAmplification() <= maximum);
+    }
+
+    @When("I sweep {word} from {int} to {int} in steps of {int} with a p{double} SLO of {int} milliseconds")
+    public void sweepChaosParameter(String type, int from, int to, int step, double percentile, int sloMs) {
+        ChaosType chaosType = ChaosType.valueOf(type.toUpperCase(Locale.ROOT));
+        int direction = to >= from ? 1 : -1;
+        List<Double> values = new ArrayList<>();
+        for (long value = from; direction * (to - value) >= 0; value += (long) direction * step) {
+            values.add((double) value);
+        }
+        sweepResult = sweepRunner.sweep(proxyName, chaosType, Map.of(), values, apiClient::getAllProducts,
+                                        percentile, sloMs);
+        SweepPoint cliff = sweepResult.getCliff();
+        if (cliff != null) {
+            log.info("Capacity cliff at {}={}: {} req/s", chaosType.getParameter(), cliff.getValue(),
+                     cliff.getMaxSustainableRate());
+        }
+    }
+
+    @Then("the maximum sustainable rate at {int} should be at least {int} requests per second")
+    public void verifySustainableRate(int value, int minimumRate) {
+        SweepPoint point = sweepResult.getPoints().stream()
+                .filter(candidate -> candidate.getValue() == value)
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("The sweep did not cover " + value));
+        assertTrue(String.format("Only %.1f req/s met the SLO at %d, expected at least %d",
+                                 point.getMaxSustainableRate(), value, minimumRate),
+                   point.getMaxSustainableRate() >= minimumRate);
+    }
+
+    @Then("the p{double} response time should be less than {int} milliseconds")
+    public void verifyPercentileResponseTime(double percentile, int expectedMs) {
+        double actualMs = LatencyRecorder.toMillis(latencyRecorder.histogram().getValueAtPercentile(percentile));
+        assertTrue(String.format("p%s response time %.1fms should be less than %dms", percentile, actualMs, expectedMs),
+                  actualMs < expectedMs);
+        log.info("p{} response time {}ms is within maximum {}ms", percentile, actualMs, expectedMs);
+    }
+
+    @Then("the latency should not regress against the baseline")
+    public void verifyNoLatencyRegression() throws IOException {
+        sloReport = regressionDetector.compare(baselineKey, latencyRecorder.histogramsByKey(), baselineStore.load(baselineKey));
+        for (SloComparison comparison : sloReport.getComparisons()) {
+            log.info("{} p{}: {} baseline {}ms current {}ms ({}%)", comparison.getKey(), comparison.getPercentile(),
+                     comparison.getVerdict(), comparison.getBaselineMillis(), comparison.getCurrentMillis(),
+                     Math.round(comparison.getDeltaPercent()));
+        }
+        assertFalse("Latency regressed against the baseline: " + sloReport.getRegressions(), sloReport.hasRegression());
+    }
+
+    @After
+    public void stopChaosTimeline(Scenario scenario) throws InterruptedException {
+        if (timelineRun == null) {
+            return;
+        }
+        timelineRun.cancel();
+        // A toxic applied after the proxy goes back to the pool would leak into the next scenario
+        if (!timelineRun.await(TIMELINE_STOP_TIMEOUT)) {
+            log.warn("Chaos timeline still running {} after it was cancelled", TIMELINE_STOP_TIMEOUT);
+        }
+        scenario.attach(metricsExporter.toJson(timelineRun.getEvents()).getBytes(StandardCharsets.UTF_8),
+                        "application/json", "chaos-timeline");
+    }
+
+    @After
+    public void exportConnectionTraces(Scenario scenario) {
+        if (!traceConnections) {
+            return;
+        }
+        List<ConnectionTrace> traces = proxyManager.getConnectionTraces(proxyName, scenarioStartNanos);
+        if (traces.isEmpty()) {
+            return;
+        }
+        metricsExporter.writeConnectionTraces(scenarioId, traces);
+        scenario.attach(metricsExporter.toJson(ConnectionTraceSummary.of(traces)).getBytes(StandardCharsets.UTF_8),
+                        "application/json", "connection-traces");
+    }
+
+    @After
+    public void exportSweep(Scenario scenario) {
+        if (sweepResult == null) {
+            return;
+        }
+        metricsExporter.writeSweep(scenarioId, sweepResult);
+        scenario.attach(metricsExporter.toJson(sweepResult).getBytes(StandardCharsets.UTF_8),
+                        "application/json", "degradation-curve");
+    }
+
+    @After
+    public void exportLatencyPropagation(Scenario scenario) {
+        if (propagationReport == null) {
+            return;
+        }
+        scenario.attach(metricsExporter.toJson(propagationReport).getBytes(StandardCharsets.UTF_8),
+                        "application/json", "latency-propagation");
+    }
+
+    // Dependency proxies are shared rather than leased, so they are restored for the next scenario
+    @After
+    public void restoreFailedServices() {
+        if (failedServices.isEmpty()) {
+            return;
+        }
+        Map<String, Map<ChaosType, Map<String, Object>>> healthy = new LinkedHashMap<>();
+        failedServices.forEach(service -> healthy.put(service, new EnumMap<>(ChaosType.class)));
+        proxyManager.replaceGroup(healthy);
+    }
+
+    @After
+    public void exportResilienceMetrics(Scenario scenario) {
+        if (apiClient == null || apiClient.getResilience().getMetrics().getCalls() == 0) {
+            return;
+        }
+        scenario.attach(metricsExporter.toJson(apiClient.getResilience().getMetrics()).getBytes(StandardCharsets.UTF_8),
+                        "application/json", "resilience-counters");
+    }
+
+    @After
+    public void closeWriteQueue() throws IOException {
+        if (writeQueue == null) {
+            return;
+        }
+        long pending = writeQueue.getPending();
+        writeQueue.close();
+        if (pending == 0) {
+            Files.deleteIfExists(writeQueueFile);
+        } else {
+            log.warn("{} queued operations left undelivered in {}", pending, writeQueueFile);
+        }
+    }
+
+    @After
+    public void stopTraceReplay(Scenario scenario) {
+        if (traceReplay == null) {
+            return;
+        }
+        traceReplay.cancel();
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("trace", traceReplay.getTrace().toString());
+        summary.put("timeFactor", traceReplay.getTimeFactor());
+        summary.put("points", traceReplay.getPoints());
+        summary.put("applied", traceReplay.getApplied());
+        summary.put("coalesced", traceReplay.getCoalesced());
+        summary.put("maxLagMs", LatencyRecorder.toMillis(traceReplay.getMaxLagNanos()));
+        scenario.attach(metricsExporter.toJson(summary).getBytes(StandardCharsets.UTF_8),
+                        "application/json", "trace-replay");
+    }
+
+    @After
+    public void recordBaseline(Scenario scenario) throws IOException {
+        if (sloReport == null) {
+            return;
+        }
+        scenario.attach(metricsExporter.toJson(sloReport).getBytes(StandardCharsets.UTF_8),
+                        "application/json", "slo-regression");
+        // Only clean runs become part of the baseline, so a regression cannot raise the bar for itself
+        if (sloProperties.isUpdateBaseline() && !scenario.isFailed()) {
+            baselineStore.record(baselineKey, latencyRecorder.histogramsByKey());
+        }
+    }
+
+    @After
+    public void exportDistributedRun(Scenario scenario) {
+        if (distributedResult == null) {
+            return;
+        }
+        scenario.attach(metricsExporter.toJson(distributedResult).getBytes(StandardCharsets.UTF_8),
+                        "application/json", "distributed-run");
+    }
+
+    @After
+    public void exportLatencyMetrics(Scenario scenario) {
+        List<LatencySummary> summaries = latencyRecorder.summarize();
+        if (summaries.isEmpty()) {
+            return;
+        }
+        scenario.attach(metricsExporter.toJson(summaries).getBytes(StandardCharsets.UTF_8),
+                        "application/json", "latency-percentiles");
+        metricsExporter.writePrometheus(scenario.getId(), scenario.getName(), summaries);
+    }
+
+    // After the cleanup hooks, so a failure in any of them is part of the recorded outcome
+    @After(order = 1)
+    public void recordScenarioOutcome(Scenario scenario) {
+        runResults.scenario(baselineKey, scenario.getStatus().name(), scenarioStartNanos, System.nanoTime() - scenarioStartNanos);
+    }
+
+    private OperationQueue writeQueue() throws IOException {
+        if (writeQueue == null) {
+            writeQueueFile = Paths.get(queueProperties.getDir(), scenarioId + ".wal");
+            writeQueue = OperationQueue.open(writeQueueFile, queueProperties, apiClient::send);
+        }
+        return writeQueue;
+    }
+
+    // The stub seeds products 1-20 at startup
+    private static int seededProductId() {
+        return TestUtils.generateRandomInt(1, 20);
+    }
+
+    private String dependentService(String service) {
+        assertTrue(PROXY_NAME + " does not depend on " + service, topology.downstream(PROXY_NAME).contains(service));
+        return service;
+    }
+
+    private static ChaosType failureChaosType(String failureType) {
+        switch (failureType.toLowerCase(Locale.ROOT)) {
+            case "connection":
+                return ChaosType.RESET_PEER;
+            case "overflow":
+                return ChaosType.BANDWIDTH;
+            case "timeout":
+                return ChaosType.TIMEOUT;
+            default:
+                return ChaosType.valueOf(failureType.toUpperCase(Locale.ROOT));
+        }
+    }
+
+    // Hard failures: connections reset or hang at once, and a saturated link drains at 1 KB/s
+    private static Map<String, Object> failureParams(ChaosType chaosType) {
+        return chaosType == ChaosType.BANDWIDTH ? Map.of("rate", 1L) : chaosParams(chaosType, 0);
+    }
+
+    // Same units the single-toxic steps use, so table-driven chaos behaves like the individual steps: the value
+    // goes to the chaos type's main parameter in that parameter's unit (ms, %, or KB/s for bandwidth)
+    private static Map<String, Object> chaosParams(ChaosType chaosType, long value) {
+        Map<String, Object> params = new HashMap<>();
+        switch (chaosType) {
+            case LATENCY:
+                params.put("jitter", value * 0.1);
+                break;
+            case SERVICE_DOWN:
+                // No severity to set: the service is refused whatever the value
+                params.put(chaosType.getParameter(), ServiceDownMode.REFUSE.name());
+                return params;
+            default:
+                break;
+        }
+        params.put(chaosType.getParameter(), value);
+        return params;
+    }
+
+    // Runs after every other @After hook so timelines are stopped before the proxy is reused
+    @After(order = 0)
+    public void releaseProxy() {
+        if (proxyLease != null) {
+            proxyPool.release(proxyLease);
+        }
+    }
+
+    private void recordResponseTime(String operation, long startNanos) {
+        lastResponseNanos = System.nanoTime() - startNanos;
+        latencyRecorder.record(operation, PROXY_NAME, activeChaosType, lastResponseNanos);
+        log.info("{} response time: {} ms", operation, LatencyRecorder.toMillis(lastResponseNanos));
+    }
+}
@@ -0,0 +1,14 @@
+package com.chaos.steps;
+
+import com.chaos.config.ChaosTestContext;
+import io.cucumber.spring.CucumberContextConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * One Spring context for the whole suite. Step definitions are created per scenario, but the
+ * context, its proxies and connection pools are started once and reused by every scenario.
+ */
+@CucumberContextConfiguration
+@SpringBootTest(classes = ChaosTestContext.class, webEnvironment = SpringBootTest.WebEnvironment.NONE)
+public class CucumberSpringConfiguration {
+}
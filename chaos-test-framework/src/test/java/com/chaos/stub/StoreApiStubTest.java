@@ -0,0 +1,145 @@
+package com.chaos.stub;
+
+import com.chaos.model.Product;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StoreApiStubTest {
+
+    private static final Gson GSON = new Gson();
+
+    private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final List<StoreApiStub> stubs = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        stubs.forEach(StoreApiStub::close);
+    }
+
+    @Test
+    void servesProductsFromMemory() throws Exception {
+        StoreApiStub stub = start(new StubProperties());
+        Product product = Product.builder().name("Lamp").price(19.99).category("home").build();
+
+        HttpResponse<String> created = send(stub, "POST", "/products", GSON.toJson(product));
+        long id = GSON.fromJson(created.body(), Product.class).getId();
+        HttpResponse<String> patched = send(stub, "PATCH", "/api/products/" + id, "{\"price\":9.99}");
+
+        assertEquals(201, created.statusCode());
+        assertEquals(200, patched.statusCode());
+        Product read = GSON.fromJson(send(stub, "GET", "/products/" + id, null).body(), Product.class);
+        assertEquals("Lamp", read.getName());
+        assertEquals(9.99, read.getPrice());
+        assertEquals(204, send(stub, "DELETE", "/products/" + id, null).statusCode());
+        assertEquals(404, send(stub, "GET", "/products/" + id, null).statusCode());
+    }
+
+    @Test
+    void rejectsMalformedRequests() throws Exception {
+        StoreApiStub stub = start(new StubProperties());
+
+        assertEquals(400, send(stub, "POST", "/products", "{not json").statusCode());
+        assertEquals(400, send(stub, "GET", "/products/abc", null).statusCode());
+    }
+
+    @Test
+    void padsProductsToThePayloadSize() throws Exception {
+        StubProperties properties = new StubProperties();
+        properties.setPayloadSize(4096);
+        StoreApiStub stub = start(properties);
+
+        HttpResponse<String> response = send(stub, "GET", "/products/1", null);
+
+        assertTrue(response.body().length() >= 4096);
+        assertEquals(1L, GSON.fromJson(response.body(), Product.class).getId());
+    }
+
+    @Test
+    void serviceTimeDoesNotHoldWorkerThreads() throws Exception {
+        StubProperties properties = new StubProperties();
+        properties.setThreads(2);
+        properties.setServiceTimeMs(200);
+        StoreApiStub stub = start(properties);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(stub.getBaseUri() + "/products/1")).build();
+
+        long start = System.nanoTime();
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            responses.add(http.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+        }
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertEquals(200, response.get(5, TimeUnit.SECONDS).statusCode());
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Sleeping on two threads would take ten rounds of 200 ms
+        assertTrue(elapsedMillis >= 200 && elapsedMillis < 1000, elapsedMillis + " ms");
+    }
+
+    @Test
+    void injectsTheConfiguredErrors() throws Exception {
+        StubProperties properties = new StubProperties();
+        properties.setErrorRate(1.0);
+        properties.setErrorStatus(502);
+        StoreApiStub stub = start(properties);
+
+        assertEquals(502, send(stub, "GET", "/products/1", null).statusCode());
+    }
+
+    @Test
+    void answersOnlyOnceItsDependenciesHave() throws Exception {
+        StoreApiStub dependency = start(new StubProperties());
+        StubProperties healthy = new StubProperties();
+        healthy.setDependencies(List.of(dependency("cache", "127.0.0.1:" + dependency.getPort())));
+        StubProperties broken = new StubProperties();
+        broken.setDependencyTimeoutMs(500);
+        broken.setDependencies(List.of(dependency("database", "127.0.0.1:" + closedPort())));
+
+        assertEquals(200, send(start(healthy), "GET", "/products/1", null).statusCode());
+        HttpResponse<String> failed = send(start(broken), "GET", "/products/1", null);
+        assertEquals(503, failed.statusCode());
+        assertTrue(failed.body().contains("database"), failed.body());
+    }
+
+    private StoreApiStub start(StubProperties properties) {
+        StoreApiStub stub = new StoreApiStub(properties);
+        stubs.add(stub);
+        return stub;
+    }
+
+    private HttpResponse<String> send(StoreApiStub stub, String method, String path, String body)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(stub.getBaseUri() + path))
+                .method(method, body != null ? HttpRequest.BodyPublishers.ofString(body) : HttpRequest.BodyPublishers.noBody())
+                .build();
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static StubProperties.Dependency dependency(String name, String address) {
+        StubProperties.Dependency dependency = new StubProperties.Dependency();
+        dependency.setName(name);
+        dependency.setAddress(address);
+        return dependency;
+    }
+
+    private static int closedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.chaos.sweep;
+
+import com.chaos.load.LoadGenerator;
+import com.chaos.load.LoadResult;
+import com.chaos.proxy.ChaosType;
+import com.chaos.proxy.ProxyManager;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongToDoubleFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SweepRunnerTest {
+
+    private ProxyManager proxyManager;
+    private LoadGenerator loadGenerator;
+    private SweepProperties properties;
+    private final AtomicLong latency = new AtomicLong();
+    // Capacity of the simulated service at the injected latency; above it responses queue up
+    private LongToDoubleFunction capacity = injected -> 100 / (1 + injected / 100.0);
+    private double errorRate;
+
+    @BeforeEach
+    void setUp() {
+        proxyManager = mock(ProxyManager.class);
+        loadGenerator = mock(LoadGenerator.class);
+        doAnswer(invocation -> {
+            latency.set((Long) invocation.<Map<String, Object>>getArgument(2).get("latency"));
+            return null;
+        }).when(proxyManager).simulateChaos(eq("store-api"), eq(ChaosType.LATENCY), anyMap());
+        doAnswer(invocation -> {
+            latency.set(0);
+            return null;
+        }).when(proxyManager).removeChaos("store-api", ChaosType.LATENCY);
+        when(loadGenerator.atRate(any(), anyDouble(), any())).thenAnswer(invocation -> {
+            double rate = invocation.getArgument(1);
+            return result(rate, rate <= capacity.applyAsDouble(latency.get()) ? 10 + latency.get() : 5000);
+        });
+
+        properties = new SweepProperties();
+        properties.setWarmupMs(0);
+        properties.setMaxTrials(20);
+    }
+
+    @Test
+    void findsTheHighestRateWithinTheSloAtEachValue() {
+        SweepResult result = sweep(List.of(0.0, 100.0, 300.0));
+
+        assertEquals(3, result.getPoints().size());
+        assertSustainable(100, result.getPoints().get(0));
+        assertSustainable(50, result.getPoints().get(1));
+        assertSustainable(25, result.getPoints().get(2));
+        assertEquals(110, result.getPoints().get(1).getLatencyMs(), 1);
+        verify(proxyManager).simulateChaos("store-api", ChaosType.LATENCY, Map.of("latency", 100L, "jitter", 0L));
+    }
+
+    @Test
+    void startsEachSearchFromThePreviousResult() {
+        SweepResult result = sweep(List.of(0.0, 10.0));
+
+        // Close to the previous capacity, so the second point needs only a few trials
+        assertTrue(result.getPoints().get(1).getTrials().size() < result.getPoints().get(0).getTrials().size());
+        assertEquals(100, result.getPoints().get(1).getTrials().get(0).getOfferedRate(), 5);
+    }
+
+    @Test
+    void reportsTheCliff() {
+        capacity = injected -> injected >= 200 ? 5 : 100;
+
+        SweepResult result = sweep(List.of(0.0, 100.0, 200.0, 300.0));
+
+        assertEquals(200, result.getCliff().getValue());
+    }
+
+    @Test
+    void reportsZeroWhenEvenTheMinimumRateFails() {
+        capacity = injected -> injected > 0 ? 0 : 100;
+
+        SweepPoint point = sweep(List.of(500.0)).getPoints().get(0);
+
+        assertEquals(0, point.getMaxSustainableRate());
+        assertEquals(1, point.getTrials().stream().mapToDouble(RateTrial::getOfferedRate).min().orElseThrow());
+    }
+
+    @Test
+    void failsRatesWithTooManyErrors() {
+        errorRate = 0.05;
+
+        SweepPoint point = sweep(List.of(0.0)).getPoints().get(0);
+
+        assertEquals(0, point.getMaxSustainableRate());
+        assertTrue(point.getErrorRate() >= 0.05);
+    }
+
+    @Test
+    void warmsUpWithoutChaosAndClearsItAfterwards() {
+        properties.setWarmupMs(100);
+
+        sweep(List.of(100.0));
+
+        InOrder order = inOrder(proxyManager, loadGenerator);
+        order.verify(proxyManager).removeChaos("store-api", ChaosType.LATENCY);
+        order.verify(loadGenerator).atRate(any(), eq(1.0), eq(Duration.ofMillis(100)));
+        order.verify(proxyManager).simulateChaos(eq("store-api"), eq(ChaosType.LATENCY), anyMap());
+        order.verify(proxyManager).removeChaos("store-api", ChaosType.LATENCY);
+        assertEquals(0, latency.get());
+    }
+
+    private SweepResult sweep(List<Double> values) {
+        return new SweepRunner(proxyManager, loadGenerator, properties)
+                .sweep("store-api", ChaosType.LATENCY, Map.of("jitter", 0L), values, () -> null, 99, 1000);
+    }
+
+    private void assertSustainable(double capacity, SweepPoint point) {
+        double rate = point.getMaxSustainableRate();
+        assertTrue(rate <= capacity && rate >= capacity * (1 - properties.getResolution()),
+                rate + " req/s found for a capacity of " + capacity);
+        assertTrue(point.getTrials().size() <= properties.getMaxTrials());
+    }
+
+    private LoadResult result(double rate, long millis) {
+        long requests = Math.round(rate * 5);
+        Histogram histogram = new Histogram(3);
+        histogram.recordValueWithCount(TimeUnit.MILLISECONDS.toNanos(millis), Math.max(1, requests));
+        return new LoadResult(histogram, histogram, requests, (long) Math.ceil(requests * errorRate), 0,
+                TimeUnit.SECONDS.toNanos(5));
+    }
+}
@@ -0,0 +1,121 @@
+package com.chaos.timeline;
+
+import com.chaos.proxy.ChaosType;
+import com.chaos.proxy.ProxyManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class ChaosSchedulerTest {
+
+    private final List<Map<String, Map<ChaosType, Map<String, Object>>>> groups =
+            Collections.synchronizedList(new ArrayList<>());
+    private ProxyManager proxyManager;
+    private ChaosScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        proxyManager = mock(ProxyManager.class);
+        doAnswer(invocation -> {
+            Map<String, Map<ChaosType, Map<String, Object>>> group = invocation.getArgument(0);
+            Map<String, Map<ChaosType, Map<String, Object>>> copy = new LinkedHashMap<>();
+            group.forEach((proxyName, toxics) -> copy.put(proxyName, toxics.isEmpty()
+                    ? new EnumMap<>(ChaosType.class) : new EnumMap<>(toxics)));
+            groups.add(copy);
+            return null;
+        }).when(proxyManager).replaceGroup(any());
+        scheduler = new ChaosScheduler(proxyManager, 20);
+    }
+
+    @Test
+    void appliesAndRemovesEachEntryInOrder() throws InterruptedException {
+        TimelineRun run = scheduler.start(List.of(
+                entry("store-api", 0, 100, ChaosType.LATENCY, 200L, RampShape.STEP),
+                entry("store-api", 50, 100, ChaosType.BANDWIDTH, 64L, RampShape.STEP)));
+
+        assertTrue(run.await(Duration.ofSeconds(5)));
+
+        List<String> events = run.getEvents().stream()
+                .map(event -> event.getAction() + " " + event.getChaosType())
+                .collect(Collectors.toList());
+        assertEquals(List.of("APPLY LATENCY", "APPLY BANDWIDTH", "REMOVE LATENCY", "REMOVE BANDWIDTH"), events);
+        for (TimelineEvent event : run.getEvents()) {
+            assertTrue(event.getActualOffsetNanos() >= event.getScheduledOffsetNanos());
+        }
+        assertTrue(groups.get(groups.size() - 1).get("store-api").isEmpty());
+    }
+
+    @Test
+    void foldsChangesOnTheSameTickIntoOneGroup() throws InterruptedException {
+        TimelineRun run = scheduler.start(List.of(
+                entry("cache", 0, 50, ChaosType.LATENCY, 100L, RampShape.STEP),
+                entry("auth", 0, 50, ChaosType.TIMEOUT, 500L, RampShape.STEP)));
+
+        assertTrue(run.await(Duration.ofSeconds(5)));
+
+        // One batch to apply both, one to clear both
+        assertEquals(2, groups.size());
+        assertEquals(2, groups.get(0).size());
+        assertEquals(2, groups.get(1).size());
+    }
+
+    @Test
+    void rampsTowardsTheTargetValue() throws InterruptedException {
+        TimelineRun run = scheduler.start(List.of(
+                entry("store-api", 0, 200, ChaosType.LATENCY, 1000L, RampShape.LINEAR)));
+
+        assertTrue(run.await(Duration.ofSeconds(5)));
+
+        List<Long> latencies = run.getEvents().stream()
+                .filter(event -> event.getAction() != TimelineEvent.Action.REMOVE)
+                .map(event -> (Long) event.getParams().get("latency"))
+                .collect(Collectors.toList());
+        assertEquals(0L, latencies.get(0));
+        assertTrue(latencies.size() >= 5, latencies.toString());
+        for (int i = 1; i < latencies.size(); i++) {
+            assertTrue(latencies.get(i) > latencies.get(i - 1), latencies.toString());
+        }
+        assertTrue(latencies.get(latencies.size() - 1) < 1000);
+    }
+
+    @Test
+    void cancellingClearsWhatWasApplied() throws InterruptedException {
+        TimelineRun run = scheduler.start(List.of(
+                entry("store-api", 0, 60_000, ChaosType.LATENCY, 200L, RampShape.STEP)));
+        Thread.sleep(100);
+
+        run.cancel();
+
+        assertTrue(run.await(Duration.ofSeconds(5)));
+        assertTrue(run.isCancelled());
+        TimelineEvent last = run.getEvents().get(run.getEvents().size() - 1);
+        assertEquals(TimelineEvent.Action.REMOVE, last.getAction());
+        assertTrue(groups.get(groups.size() - 1).get("store-api").isEmpty());
+    }
+
+    private static TimelineEntry entry(String proxyName, long startMillis, long durationMillis, ChaosType chaosType,
+                                       long value, RampShape ramp) {
+        return TimelineEntry.builder()
+                .proxyName(proxyName)
+                .startOffset(Duration.ofMillis(startMillis))
+                .duration(Duration.ofMillis(durationMillis))
+                .chaosType(chaosType)
+                .params(Map.of(chaosType.getParameter(), value))
+                .ramp(ramp)
+                .build();
+    }
+}
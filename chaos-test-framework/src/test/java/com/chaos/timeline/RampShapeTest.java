@@ -0,0 +1,40 @@
+package com.chaos.timeline;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RampShapeTest {
+
+    @Test
+    void stepAppliesTheFullValueThroughout() {
+        assertEquals(1.0, RampShape.STEP.scale(0));
+        assertEquals(1.0, RampShape.STEP.scale(0.5));
+        assertEquals(1.0, RampShape.STEP.scale(1));
+    }
+
+    @Test
+    void rampsRunFromNothingToTheTarget() {
+        for (RampShape shape : new RampShape[] {RampShape.LINEAR, RampShape.EXPONENTIAL}) {
+            assertEquals(0.0, shape.scale(0), 1e-12);
+            assertEquals(1.0, shape.scale(1), 1e-12);
+            double previous = 0;
+            for (int i = 1; i <= 100; i++) {
+                double scale = shape.scale(i / 100.0);
+                assertTrue(scale > previous, shape + " at " + i + "%");
+                previous = scale;
+            }
+        }
+        assertEquals(0.5, RampShape.LINEAR.scale(0.5), 1e-12);
+        // Exponential holds back until late in the entry
+        assertTrue(RampShape.EXPONENTIAL.scale(0.5) < 0.05);
+    }
+
+    @Test
+    void clampsProgressOutsideTheEntry() {
+        assertEquals(0.0, RampShape.LINEAR.scale(-0.5));
+        assertEquals(1.0, RampShape.LINEAR.scale(1.5));
+        assertEquals(1.0, RampShape.EXPONENTIAL.scale(2));
+    }
+}
@@ -0,0 +1,103 @@
+package com.chaos.topology;
+
+import com.chaos.config.ToxiproxyProperties;
+import com.chaos.load.LoadGenerator;
+import com.chaos.load.LoadResult;
+import com.chaos.proxy.ChaosType;
+import com.chaos.proxy.ProxyManager;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LatencyPropagationTest {
+
+    private ProxyManager proxyManager;
+    private LoadGenerator loadGenerator;
+    private LatencyPropagation propagation;
+    private final AtomicLong injected = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        proxyManager = mock(ProxyManager.class);
+        loadGenerator = mock(LoadGenerator.class);
+        when(proxyManager.getActiveChaos()).thenReturn(Map.of());
+        doAnswer(invocation -> {
+            injected.set((Long) invocation.<Map<String, Object>>getArgument(2).get("latency"));
+            return null;
+        }).when(proxyManager).simulateChaos(eq("database"), eq(ChaosType.LATENCY), anyMap());
+        doAnswer(invocation -> {
+            injected.set(0);
+            return null;
+        }).when(proxyManager).removeChaos("database", ChaosType.LATENCY);
+        // The entry point calls the database twice in sequence on top of 10 ms of its own work
+        when(loadGenerator.atRate(any(), anyDouble(), any())).thenAnswer(invocation -> result(10 + 2 * injected.get()));
+
+        Map<String, ToxiproxyProperties.ProxyConfig> proxies = new LinkedHashMap<>();
+        proxies.put("store-api", config(List.of("database")));
+        proxies.put("database", config(List.of()));
+        ToxiproxyProperties properties = new ToxiproxyProperties();
+        properties.setProxies(proxies);
+        propagation = new LatencyPropagation(proxyManager, loadGenerator, new Topology(properties));
+    }
+
+    @Test
+    void measuresAddedLatencyPerInjectedMillisecond() {
+        PropagationReport report = propagation.measure("store-api", "database", List.of(50L, 100L),
+                () -> null, 10, Duration.ofSeconds(1));
+
+        assertEquals(List.of("store-api", "database"), report.getPath());
+        assertEquals(3, report.getSteps().size());
+        assertEquals(0, report.getSteps().get(0).getInjectedMs());
+        assertEquals(200, report.getSteps().get(2).getAddedP50Ms(), 0.5);
+        assertEquals(2, report.getMaxAmplification(), 0.01);
+        // Cleared afterwards, since no latency was active before
+        assertEquals(0, injected.get());
+    }
+
+    @Test
+    void restoresTheLatencyThatWasActiveBefore() {
+        Map<String, Object> previous = Map.of("latency", 30L, "jitter", 0L);
+        when(proxyManager.getActiveChaos()).thenReturn(Map.of("database", Map.of(ChaosType.LATENCY, previous)));
+
+        propagation.measure("store-api", "database", List.of(100L), () -> null, 10, Duration.ofSeconds(1));
+
+        verify(proxyManager).simulateChaos("database", ChaosType.LATENCY, previous);
+        assertEquals(30, injected.get());
+    }
+
+    @Test
+    void rejectsProxiesOffThePath() {
+        assertThrows(IllegalArgumentException.class, () -> propagation.measure("database", "store-api", List.of(100L),
+                () -> null, 10, Duration.ofSeconds(1)));
+    }
+
+    private static ToxiproxyProperties.ProxyConfig config(List<String> dependsOn) {
+        ToxiproxyProperties.ProxyConfig config = new ToxiproxyProperties.ProxyConfig();
+        config.setDependsOn(dependsOn);
+        return config;
+    }
+
+    private static LoadResult result(long millis) {
+        Histogram latency = new Histogram(3);
+        latency.recordValueWithCount(TimeUnit.MILLISECONDS.toNanos(millis), 100);
+        return new LoadResult(latency, latency, 100, 0, 0, TimeUnit.SECONDS.toNanos(1));
+    }
+}
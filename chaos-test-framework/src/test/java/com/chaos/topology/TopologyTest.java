@@ -0,0 +1,72 @@
+package com.chaos.topology;
+
+import com.chaos.config.ToxiproxyProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TopologyTest {
+
+    @Test
+    void ordersDependenciesBeforeTheirCallers() {
+        Topology topology = topology("store-api -> auth, cache", "auth -> database", "cache -> database", "database");
+
+        List<String> order = topology.getOrder();
+
+        assertEquals(4, order.size());
+        assertEquals("database", order.get(0));
+        assertEquals("store-api", order.get(3));
+    }
+
+    @Test
+    void findsDownstreamProxiesAndShortestPaths() {
+        Topology topology = topology("store-api -> auth, database", "auth -> database", "database", "metrics");
+
+        assertEquals(List.of("auth", "database"), topology.downstream("store-api"));
+        assertEquals(List.of("store-api", "database"), topology.path("store-api", "database"));
+        assertEquals(List.of("auth", "database"), topology.path("auth", "database"));
+        assertEquals(List.of(), topology.path("database", "store-api"));
+        assertEquals(List.of(), topology.downstream("metrics"));
+    }
+
+    @Test
+    void rejectsCycles() {
+        IllegalStateException failure = assertThrows(IllegalStateException.class,
+                () -> topology("store-api -> auth", "auth -> cache", "cache -> auth"));
+
+        assertEquals("Proxy dependency cycle: auth -> cache -> auth", failure.getMessage());
+    }
+
+    @Test
+    void rejectsSelfDependencies() {
+        assertThrows(IllegalStateException.class, () -> topology("store-api -> store-api"));
+    }
+
+    @Test
+    void rejectsUnknownDependencies() {
+        IllegalStateException failure = assertThrows(IllegalStateException.class,
+                () -> topology("store-api -> search"));
+
+        assertTrue(failure.getMessage().contains("search"), failure.getMessage());
+    }
+
+    // One "proxy -> dependency, dependency" line per proxy, kept in order so the reported cycle is deterministic
+    private static Topology topology(String... lines) {
+        Map<String, ToxiproxyProperties.ProxyConfig> proxies = new LinkedHashMap<>();
+        for (String line : lines) {
+            String[] parts = line.split("\\s*->\\s*");
+            ToxiproxyProperties.ProxyConfig config = new ToxiproxyProperties.ProxyConfig();
+            config.setDependsOn(parts.length > 1 ? List.of(parts[1].split("\\s*,\\s*")) : List.of());
+            proxies.put(parts[0], config);
+        }
+        ToxiproxyProperties properties = new ToxiproxyProperties();
+        properties.setProxies(proxies);
+        return new Topology(properties);
+    }
+}
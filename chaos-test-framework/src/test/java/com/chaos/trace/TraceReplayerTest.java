@@ -0,0 +1,114 @@
+package com.chaos.trace;
+
+import com.chaos.proxy.ChaosEngine;
+import com.chaos.proxy.ChaosType;
+import com.chaos.proxy.ProxyManager;
+import com.chaos.proxy.embedded.EmbeddedProxyEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TraceReplayerTest {
+
+    private static final String PROXY = "trace-proxy";
+
+    private EmbeddedProxyEngine embedded;
+    private final List<Map<ChaosType, Map<String, Object>>> applied = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        embedded = new EmbeddedProxyEngine(1);
+        embedded.createProxy(PROXY, "127.0.0.1:0", "127.0.0.1:9");
+    }
+
+    @AfterEach
+    void tearDown() {
+        embedded.close();
+    }
+
+    @Test
+    void replaysTheShippedIncidentIncludingItsDrops() throws Exception {
+        TraceReplay replay = replayer(ChaosType.NETWORK_MODEL)
+                .start(PROXY, Paths.get("src/test/resources/traces/checkout-incident.csv"), 60);
+
+        assertTrue(replay.await(Duration.ofSeconds(30)));
+        assertNull(replay.getFailure());
+        assertTrue(applied.stream().anyMatch(toxics -> toxics.containsKey(ChaosType.NETWORK_MODEL)));
+        // Cleared once the trace ends
+        assertTrue(applied.get(applied.size() - 1).isEmpty());
+    }
+
+    @Test
+    void mapsADropRowToTheConfiguredChaosType(@TempDir Path dir) throws Exception {
+        Path trace = Files.writeString(dir.resolve("drop.csv"),
+                "timestamp_ms,latency_ms,bandwidth_kbs,drop_probability\n0,20,256,0.05\n");
+
+        TraceReplay replay = replayer(ChaosType.PACKET_LOSS).start(PROXY, trace, 1);
+
+        assertTrue(replay.await(Duration.ofSeconds(10)));
+        assertNull(replay.getFailure());
+        Map<ChaosType, Map<String, Object>> toxics = applied.get(0);
+        assertEquals(20L, toxics.get(ChaosType.LATENCY).get("latency"));
+        assertEquals(256L, toxics.get(ChaosType.BANDWIDTH).get("rate"));
+        assertEquals(5L, ((Number) toxics.get(ChaosType.PACKET_LOSS).get("percentage")).longValue());
+    }
+
+    @Test
+    void rejectsDropChaosTypesThatCannotDrop() {
+        assertThrows(IllegalArgumentException.class, () -> replayer(ChaosType.LATENCY));
+    }
+
+    private TraceReplayer replayer(ChaosType dropChaosType) {
+        return new TraceReplayer(new ProxyManager(new RecordingEngine()), dropChaosType, null);
+    }
+
+    // Records every toxic set the replay switches to, then lets the embedded engine build it
+    private final class RecordingEngine implements ChaosEngine {
+
+        @Override
+        public String createProxy(String name, String listen, String upstream) throws IOException {
+            return embedded.createProxy(name, listen, upstream);
+        }
+
+        @Override
+        public void deleteProxy(String name) throws IOException {
+            embedded.deleteProxy(name);
+        }
+
+        @Override
+        public void apply(String proxyName, ChaosType chaosType, Map<String, Object> params) throws IOException {
+            embedded.apply(proxyName, chaosType, params);
+        }
+
+        @Override
+        public void remove(String proxyName, ChaosType chaosType) throws IOException {
+            embedded.remove(proxyName, chaosType);
+        }
+
+        @Override
+        public void reset(String proxyName) throws IOException {
+            embedded.reset(proxyName);
+        }
+
+        @Override
+        public void replaceToxics(String proxyName, Map<ChaosType, Map<String, Object>> toxics) throws IOException {
+            embedded.replaceToxics(proxyName, toxics);
+            applied.add(toxics);
+        }
+    }
+}
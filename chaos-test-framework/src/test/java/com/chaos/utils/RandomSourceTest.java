@@ -0,0 +1,84 @@
+package com.chaos.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class RandomSourceTest {
+
+    @Test
+    void scenarioStreamDoesNotDependOnTheRunnerThread() throws Exception {
+        AtomicLong first = new AtomicLong();
+        AtomicLong second = new AtomicLong();
+        Thread one = new Thread(() -> {
+            RandomSource.beginScenario("Feature/Scenario");
+            first.set(RandomSource.current().nextLong());
+        }, "cucumber-runner-1");
+        Thread two = new Thread(() -> {
+            RandomSource.beginScenario("Feature/Scenario");
+            second.set(RandomSource.current().nextLong());
+        }, "cucumber-runner-7");
+        one.start();
+        two.start();
+        one.join();
+        two.join();
+
+        assertEquals(first.get(), second.get());
+    }
+
+    @Test
+    void pooledTasksDrawByTheirSubmissionOrder() throws Exception {
+        // Different pool sizes hand the same tasks to different threads in a different order
+        assertEquals(drawsOfSubmittedTasks(1), drawsOfSubmittedTasks(8));
+    }
+
+    @Test
+    void boundTasksLeaveTheRunningThreadsStreamAlone() {
+        RandomSource.beginScenario("restore");
+        RandomSource.split();
+        long expected = RandomSource.current().nextLong();
+
+        RandomSource.beginScenario("restore");
+        Supplier<Long> task = RandomSource.bind(() -> RandomSource.current().nextLong());
+        long drawnByTask = task.get();
+
+        assertEquals(expected, RandomSource.current().nextLong());
+        assertNotEquals(expected, drawnByTask);
+    }
+
+    @Test
+    void taskStreamsFollowTheirIndex() {
+        assertEquals(RandomSource.forTask("store-stub", 41).nextLong(), RandomSource.forTask("store-stub", 41).nextLong());
+        assertNotEquals(RandomSource.forTask("store-stub", 41).nextLong(), RandomSource.forTask("store-stub", 42).nextLong());
+        assertNotEquals(RandomSource.forTask("store-stub", 41).nextLong(), RandomSource.forTask("other", 41).nextLong());
+    }
+
+    private static List<Long> drawsOfSubmittedTasks(int threads) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            RandomSource.beginScenario("Load/Burst");
+            List<Future<Long>> draws = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                Supplier<Long> task = RandomSource.bind(() -> RandomSource.current().nextLong());
+                draws.add(pool.submit(task::get));
+            }
+            List<Long> values = new ArrayList<>();
+            for (Future<Long> draw : draws) {
+                values.add(draw.get(5, TimeUnit.SECONDS));
+            }
+            return values;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.chaos.utils;
+
+import io.restassured.response.Response;
+import org.junit.jupiter.api.Test;
+
+import java.net.ConnectException;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class TransportResultTest {
+
+    @Test
+    void carriesTheResponse() {
+        Response response = mock(Response.class);
+
+        TransportResult result = TransportResult.of(() -> response);
+
+        assertFalse(result.isFailed());
+        assertSame(response, result.getResponse());
+        assertNull(result.getFailure());
+    }
+
+    @Test
+    void catchesUndeclaredCheckedExceptions() {
+        ConnectException refused = new ConnectException("Connection refused");
+
+        TransportResult result = TransportResult.of(() -> sneakyThrow(refused));
+
+        assertTrue(result.isFailed());
+        assertSame(refused, result.getFailure());
+        assertNull(result.getResponse());
+    }
+
+    // What RestAssured does with the checked exceptions of the underlying HTTP client
+    @SuppressWarnings("unchecked")
+    private static <E extends Throwable> Response sneakyThrow(Throwable failure) throws E {
+        throw (E) failure;
+    }
+}